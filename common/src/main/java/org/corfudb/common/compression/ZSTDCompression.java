@@ -60,7 +60,8 @@ public class ZSTDCompression implements Codec {
         ByteBuffer wrappedBuf = ByteBuffer.wrap(restored);
 
         long restoredBytes = Zstd.decompressByteArray(restored, 0, restored.length,
-                compressed.array(), Integer.BYTES, compressed.remaining());
+                compressed.array(), compressed.arrayOffset() + compressed.position(),
+                compressed.remaining());
 
         if (Zstd.isError(restoredBytes)) {
             throw new IllegalStateException("Decompression failed with error code " + restoredBytes);
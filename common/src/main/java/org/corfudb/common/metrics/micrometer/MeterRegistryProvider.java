@@ -71,6 +71,14 @@ public class MeterRegistryProvider {
             init(supplier);
         }
 
+        /**
+         * Configure the given registry, such as an in-memory registry whose metrics are read back.
+         * @param registry A configured meter registry.
+         */
+        public static synchronized void init(MeterRegistry registry) {
+            init(() -> Optional.of(registry));
+        }
+
         private static void init(Supplier<Optional<MeterRegistry>> meterRegistrySupplier) {
             if (meterRegistry.isPresent()) {
                 throw new IllegalStateException("Registry has already been initialized.");
@@ -15,6 +15,7 @@ import org.corfudb.infrastructure.BatchWriterOperation.Type;
 import org.corfudb.infrastructure.log.StreamLog;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
 import org.corfudb.protocols.wireprotocol.PriorityLevel;
 import org.corfudb.protocols.wireprotocol.RangeWriteMsg;
 import org.corfudb.protocols.wireprotocol.StreamsAddressResponse;
@@ -160,6 +161,9 @@ public class BatchProcessor implements AutoCloseable {
                                 RangeWriteMsg writeRange = (RangeWriteMsg) currOp.getMsg().getPayload();
                                 streamLog.append(writeRange.getEntries());
                                 break;
+                            case SEGMENT_WRITE:
+                                streamLog.writeSegmentChunk((LogSegmentChunk) currOp.getMsg().getPayload());
+                                break;
                             case RESET:
                                 streamLog.reset();
                                 break;
@@ -57,6 +57,11 @@ public class CorfuServer {
                     + "[-k <seqcache>] [-T <threads>] [-B <size>] [-i <channel-implementation>] "
                     + "[-H <seconds>] [-I <cluster-id>] [-x <ciphers>] [-z <tls-protocols>]] "
                     + "[--metrics] [--metrics-port <metrics_port>]"
+                    + "[--netty-allocator=<allocator>] [--so-sndbuf=<bytes>] [--so-rcvbuf=<bytes>] "
+                    + "[--write-buffer-low-watermark=<bytes>] [--write-buffer-high-watermark=<bytes>] "
+                    + "[--write-backpressure] [--disable-tcp-nodelay] [--epoll-level-triggered] "
+                    + "[--tcp-quickack] [--busy-poll=<micros>]"
+                    + "[--state-transfer-bandwidth-limit=<bytes>]"
                     + "[--snapshot-batch=<batch-size>] [--lock-lease=<lease-duration>]"
                     + "[-P <prefix>] [-R <retention>] <port>\n"
                     + "\n"
@@ -176,6 +181,35 @@ public class CorfuServer {
                     + "              Snapshot (Full) Sync batch size (number of entries)\n       "
                     + " --lock-lease=<lease-duration>                                            "
                     + "              Lock lease duration in seconds\n                            "
+                    + " --netty-allocator=<allocator>                                            "
+                    + "              The buffer allocator of the server channels (pooled_direct,\n"
+                    + "              pooled_heap, unpooled_direct, unpooled_heap)\n"
+                    + "              [default: pooled_direct].\n                                 "
+                    + " --so-sndbuf=<bytes>                                                      "
+                    + "              Socket send buffer size, or 0 for the OS default.\n         "
+                    + " --so-rcvbuf=<bytes>                                                      "
+                    + "              Socket receive buffer size, or 0 for the OS default.\n      "
+                    + " --write-buffer-low-watermark=<bytes>                                     "
+                    + "              Outbound buffer size below which a channel is writable\n    "
+                    + "              again [default: 32768].\n                                   "
+                    + " --write-buffer-high-watermark=<bytes>                                    "
+                    + "              Outbound buffer size above which a channel is no longer\n   "
+                    + "              writable [default: 65536].\n                                "
+                    + " --write-backpressure                                                     "
+                    + "              Stop reading requests from a client while the responses\n   "
+                    + "              to it are above the high watermark.\n                       "
+                    + " --disable-tcp-nodelay                                                    "
+                    + "              Enable Nagle's algorithm on the server channels.\n          "
+                    + " --epoll-level-triggered                                                  "
+                    + "              Use level-triggered (rather than edge-triggered) epoll.\n   "
+                    + " --tcp-quickack                                                           "
+                    + "              Send TCP ACKs immediately on epoll channels.\n              "
+                    + " --busy-poll=<micros>                                                     "
+                    + "              Busy poll epoll sockets for the given time, or 0 to\n       "
+                    + "              disable busy polling [default: 0].\n                        "
+                    + " --state-transfer-bandwidth-limit=<bytes>                                 "
+                    + "              Max number of bytes per second copied by a state transfer\n "
+                    + "              run by this node, or 0 for no limit [default: 0].\n         "
                     + " -h, --help                                                               "
                     + "              Show this screen\n"
                     + " --version                                                                "
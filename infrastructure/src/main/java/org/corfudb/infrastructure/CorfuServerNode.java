@@ -15,6 +15,8 @@ import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslHandler;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.comm.WritabilityBackpressureHandler;
+import org.corfudb.protocols.wireprotocol.NettyCorfuMessageBatcher;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageDecoder;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageEncoder;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
@@ -41,6 +43,9 @@ import java.util.regex.Pattern;
 @Slf4j
 public class CorfuServerNode implements AutoCloseable {
 
+    // Maximum number of responses sent in one frame to a client which batches its requests.
+    private static final int MAX_RESPONSE_BATCH_SIZE = 64;
+
     @Getter
     private final ServerContext serverContext;
 
@@ -232,6 +237,8 @@ public class CorfuServerNode implements AutoCloseable {
                 .childOption(ChannelOption.SO_REUSEADDR, true)
                 .childOption(ChannelOption.TCP_NODELAY, true)
                 .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        serverContext.getChannelTuningOptions()
+                .applyToChildren(bootstrap, serverContext.getChannelImplementation());
     }
 
 
@@ -323,9 +330,15 @@ public class CorfuServerNode implements AutoCloseable {
                     ch.pipeline().addLast("sasl/plain-text", new
                             PlainTextSaslNettyServer());
                 }
+                // Stop reading requests while the responses to the client are piling up.
+                if (context.getChannelTuningOptions().isWriteBackpressure()) {
+                    ch.pipeline().addLast(WritabilityBackpressureHandler.INSTANCE);
+                }
                 // Transform the framed message into a Corfu message.
                 ch.pipeline().addLast(new NettyCorfuMessageDecoder());
                 ch.pipeline().addLast(new NettyCorfuMessageEncoder());
+                // Batch the responses to clients which send batches of requests.
+                ch.pipeline().addLast(new NettyCorfuMessageBatcher(MAX_RESPONSE_BATCH_SIZE));
                 ch.pipeline().addLast(new ServerHandshakeHandler(context.getNodeId(),
                         Version.getVersionString() + "("
                                 + GitRepositoryState.getRepositoryState().commitIdAbbrev + ")",
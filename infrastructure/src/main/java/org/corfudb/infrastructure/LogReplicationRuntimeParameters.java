@@ -4,12 +4,14 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import lombok.Data;
 import org.corfudb.comm.ChannelImplementation;
+import org.corfudb.comm.ChannelTuningOptions;
 import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
 import org.corfudb.infrastructure.logreplication.transport.IChannelContext;
 
 import org.corfudb.infrastructure.logreplication.infrastructure.ClusterDescriptor;
 import org.corfudb.runtime.RuntimeParameters;
 import org.corfudb.runtime.RuntimeParametersBuilder;
+import org.corfudb.runtime.view.OffHeapLogDataCache;
 import org.corfudb.util.MetricsUtils;
 
 import java.lang.Thread.UncaughtExceptionHandler;
@@ -44,6 +46,9 @@ public class LogReplicationRuntimeParameters extends RuntimeParameters {
     // Log Replication Channel Context
     private IChannelContext channelContext;
 
+    // Off-heap cache of log entries shared by the log replication runtimes of this node (null if disabled)
+    private OffHeapLogDataCache sharedReadCache;
+
     public static LogReplicationRuntimeParametersBuilder builder() {
         return new LogReplicationRuntimeParametersBuilder();
     }
@@ -57,6 +62,7 @@ public class LogReplicationRuntimeParameters extends RuntimeParameters {
         private long topologyConfigId;
         private LogReplicationConfig replicationConfig;
         private IChannelContext channelContext;
+        private OffHeapLogDataCache sharedReadCache;
         private int prometheusMetricsPort = MetricsUtils.NO_METRICS_PORT;
 
         private LogReplicationRuntimeParametersBuilder() {
@@ -97,6 +103,11 @@ public class LogReplicationRuntimeParameters extends RuntimeParameters {
             return this;
         }
 
+        public LogReplicationRuntimeParameters.LogReplicationRuntimeParametersBuilder sharedReadCache(OffHeapLogDataCache sharedReadCache) {
+            this.sharedReadCache = sharedReadCache;
+            return this;
+        }
+
         public LogReplicationRuntimeParameters.LogReplicationRuntimeParametersBuilder tlsEnabled(boolean tlsEnabled) {
             super.tlsEnabled(tlsEnabled);
             return this;
@@ -197,6 +208,31 @@ public class LogReplicationRuntimeParameters extends RuntimeParameters {
             return this;
         }
 
+        public LogReplicationRuntimeParameters.LogReplicationRuntimeParametersBuilder connectionsPerEndpoint(int connectionsPerEndpoint) {
+            super.connectionsPerEndpoint(connectionsPerEndpoint);
+            return this;
+        }
+
+        public LogReplicationRuntimeParameters.LogReplicationRuntimeParametersBuilder flushConsolidationLimit(int flushConsolidationLimit) {
+            super.flushConsolidationLimit(flushConsolidationLimit);
+            return this;
+        }
+
+        public LogReplicationRuntimeParameters.LogReplicationRuntimeParametersBuilder zeroCopyReads(boolean zeroCopyReads) {
+            super.zeroCopyReads(zeroCopyReads);
+            return this;
+        }
+
+        public LogReplicationRuntimeParameters.LogReplicationRuntimeParametersBuilder channelTuning(ChannelTuningOptions channelTuning) {
+            super.channelTuning(channelTuning);
+            return this;
+        }
+
+        public LogReplicationRuntimeParameters.LogReplicationRuntimeParametersBuilder maxRequestBatchSize(int maxRequestBatchSize) {
+            super.maxRequestBatchSize(maxRequestBatchSize);
+            return this;
+        }
+
         public LogReplicationRuntimeParameters.LogReplicationRuntimeParametersBuilder customNettyChannelOptions(Map<ChannelOption, Object> customNettyChannelOptions) {
             super.customNettyChannelOptions(customNettyChannelOptions);
             return this;
@@ -244,6 +280,11 @@ public class LogReplicationRuntimeParameters extends RuntimeParameters {
             runtimeParameters.setNettyEventLoopThreadFormat(nettyEventLoopThreadFormat);
             runtimeParameters.setNettyEventLoopThreads(nettyEventLoopThreads);
             runtimeParameters.setShutdownNettyEventLoop(shutdownNettyEventLoop);
+            runtimeParameters.setConnectionsPerEndpoint(connectionsPerEndpoint);
+            runtimeParameters.setFlushConsolidationLimit(flushConsolidationLimit);
+            runtimeParameters.setZeroCopyReads(zeroCopyReads);
+            runtimeParameters.setChannelTuning(channelTuning);
+            runtimeParameters.setMaxRequestBatchSize(maxRequestBatchSize);
             runtimeParameters.setCustomNettyChannelOptions(customNettyChannelOptions);
             runtimeParameters.setUncaughtExceptionHandler(uncaughtExceptionHandler);
             runtimeParameters.setPrometheusMetricsPort(prometheusMetricsPort);
@@ -256,6 +297,7 @@ public class LogReplicationRuntimeParameters extends RuntimeParameters {
             runtimeParameters.setPluginFilePath(pluginFilePath);
             runtimeParameters.setChannelContext(channelContext);
             runtimeParameters.setReplicationConfig(replicationConfig);
+            runtimeParameters.setSharedReadCache(sharedReadCache);
             return runtimeParameters;
         }
     }
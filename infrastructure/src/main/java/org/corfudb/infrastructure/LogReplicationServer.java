@@ -3,6 +3,7 @@ package org.corfudb.infrastructure;
 import io.netty.channel.ChannelHandlerContext;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.common.compression.Codec;
 import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
 import org.corfudb.infrastructure.logreplication.replication.receive.LogReplicationSinkManager;
 import org.corfudb.infrastructure.logreplication.replication.receive.LogReplicationMetadataManager;
@@ -18,6 +19,7 @@ import org.corfudb.runtime.proto.service.CorfuMessage.RequestMsg;
 
 import javax.annotation.Nonnull;
 import java.lang.invoke.MethodHandles;
+import java.util.EnumSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -99,15 +101,16 @@ public class LogReplicationServer extends AbstractServer {
         log.trace("Log Replication Entry received by Server.");
 
         if (isLeader(msg, r)) {
-            // Forward the received message to the Sink Manager for apply
-            LogReplicationEntry ack = sinkManager.receive(msg.getPayload());
-
-            if (ack != null) {
-                long ts = ack.getMetadata().getMessageMetadataType().equals(MessageType.LOG_ENTRY_REPLICATED) ?
-                        ack.getMetadata().getTimestamp() : ack.getMetadata().getSnapshotTimestamp();
-                log.info("Sending ACK {} on {} to Client ", ack.getMetadata(), ts);
-                r.sendResponse(msg, CorfuMsgType.LOG_REPLICATION_ENTRY.payloadMsg(ack));
-            }
+            // Forward the received message to the Sink Manager for apply, the ACK of an incremental
+            // snapshot sync start marker is sent once computed, without blocking the next messages
+            sinkManager.receiveAsync(msg.getPayload()).thenAccept(ack -> {
+                if (ack != null) {
+                    long ts = ack.getMetadata().getMessageMetadataType().equals(MessageType.LOG_ENTRY_REPLICATED) ?
+                            ack.getMetadata().getTimestamp() : ack.getMetadata().getSnapshotTimestamp();
+                    log.info("Sending ACK {} on {} to Client ", ack.getMetadata(), ts);
+                    r.sendResponse(msg, CorfuMsgType.LOG_REPLICATION_ENTRY.payloadMsg(ack));
+                }
+            });
         } else {
             log.warn("Dropping log replication entry as this node is not the leader.");
         }
@@ -129,6 +132,8 @@ public class LogReplicationServer extends AbstractServer {
                     metadataMgr.getLastTransferredSnapshotTimestamp(),
                     metadataMgr.getLastAppliedSnapshotTimestamp(),
                     metadataMgr.getLastProcessedLogEntryTimestamp());
+            // Any codec can be decompressed, the source picks the one to compress with
+            response.setSupportedCodecs(EnumSet.allOf(Codec.Type.class));
             log.info("Send Metadata response :: {}", response);
             r.sendResponse(msg, CorfuMsgType.LOG_REPLICATION_METADATA_RESPONSE.payloadMsg(response));
 
@@ -19,6 +19,8 @@ import org.corfudb.protocols.wireprotocol.InspectAddressesRequest;
 import org.corfudb.protocols.wireprotocol.InspectAddressesResponse;
 import org.corfudb.protocols.wireprotocol.KnownAddressRequest;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
+import org.corfudb.protocols.wireprotocol.LogSegmentReadRequest;
 import org.corfudb.protocols.wireprotocol.PriorityLevel;
 import org.corfudb.protocols.wireprotocol.RangeWriteMsg;
 import org.corfudb.protocols.wireprotocol.ReadRequest;
@@ -32,6 +34,7 @@ import org.corfudb.runtime.exceptions.DataCorruptionException;
 import org.corfudb.runtime.exceptions.DataOutrankedException;
 import org.corfudb.runtime.exceptions.LogUnitException;
 import org.corfudb.runtime.exceptions.OverwriteException;
+import org.corfudb.runtime.exceptions.SegmentUnavailableException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.ValueAdoptedException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
@@ -55,6 +58,7 @@ import static org.corfudb.infrastructure.BatchWriterOperation.Type.PREFIX_TRIM;
 import static org.corfudb.infrastructure.BatchWriterOperation.Type.RANGE_WRITE;
 import static org.corfudb.infrastructure.BatchWriterOperation.Type.RESET;
 import static org.corfudb.infrastructure.BatchWriterOperation.Type.SEAL;
+import static org.corfudb.infrastructure.BatchWriterOperation.Type.SEGMENT_WRITE;
 import static org.corfudb.infrastructure.BatchWriterOperation.Type.TAILS_QUERY;
 import static org.corfudb.infrastructure.BatchWriterOperation.Type.WRITE;
 
@@ -238,6 +242,9 @@ public class LogUnitServer extends AbstractServer {
             r.sendResponse(ctx, msg, CorfuMsgType.ERROR_VALUE_ADOPTED.payloadMsg(vae.getReadResponse()));
         } else if (ex.getCause() instanceof TrimmedException) {
             r.sendResponse(ctx, msg, CorfuMsgType.ERROR_TRIMMED.msg());
+        } else if (ex.getCause() instanceof SegmentUnavailableException) {
+            SegmentUnavailableException sue = (SegmentUnavailableException) ex.getCause();
+            r.sendResponse(ctx, msg, CorfuMsgType.ERROR_SEGMENT_UNAVAILABLE.payloadMsg(sue.getSegment()));
         } else {
             r.sendResponse(ctx, msg, CorfuMsgType.ERROR_SERVER_EXCEPTION.payloadMsg(new ExceptionMsg(ex)));
             throw new LogUnitException(ex);
@@ -385,6 +392,49 @@ public class LogUnitServer extends AbstractServer {
         }
     }
 
+    /**
+     * Service a request for a chunk of the raw bytes of a committed segment file.
+     */
+    @ServerHandler(type = CorfuMsgType.LOG_SEGMENT_READ_REQUEST)
+    private void readSegmentChunk(CorfuPayloadMsg<LogSegmentReadRequest> msg,
+                                  ChannelHandlerContext ctx, IServerRouter r) {
+        LogSegmentReadRequest request = msg.getPayload();
+        log.debug("readSegmentChunk: segment {}, offset {}", request.getSegment(), request.getOffset());
+
+        try {
+            LogSegmentChunk chunk = streamLog.readSegmentChunk(request.getSegment(),
+                    request.getOffset(), request.getLength());
+            r.sendResponse(ctx, msg, CorfuMsgType.LOG_SEGMENT_READ_RESPONSE.payloadMsg(chunk));
+        } catch (SegmentUnavailableException sue) {
+            r.sendResponse(ctx, msg, CorfuMsgType.ERROR_SEGMENT_UNAVAILABLE.payloadMsg(sue.getSegment()));
+        } catch (TrimmedException te) {
+            r.sendResponse(ctx, msg, CorfuMsgType.ERROR_TRIMMED.msg());
+        } catch (DataCorruptionException dc) {
+            r.sendResponse(ctx, msg, CorfuMsgType.ERROR_DATA_CORRUPTION
+                    .payloadMsg(Address.NON_ADDRESS));
+        } catch (Exception e) {
+            handleException(e, ctx, msg, r);
+        }
+    }
+
+    /**
+     * Service a write of a chunk of a segment file transferred from another log unit.
+     */
+    @ServerHandler(type = CorfuMsgType.LOG_SEGMENT_WRITE)
+    private void writeSegmentChunk(CorfuPayloadMsg<LogSegmentChunk> msg,
+                                   ChannelHandlerContext ctx, IServerRouter r) {
+        log.debug("writeSegmentChunk: segment {}, offset {}",
+                msg.getPayload().getSegment(), msg.getPayload().getOffset());
+
+        batchWriter
+                .addTask(SEGMENT_WRITE, msg)
+                .thenRun(() -> r.sendResponse(ctx, msg, CorfuMsgType.WRITE_OK.msg()))
+                .exceptionally(ex -> {
+                    handleException(ex, ctx, msg, r);
+                    return null;
+                });
+    }
+
     @ServerHandler(type = CorfuMsgType.COMPACT_REQUEST)
     private void handleCompactRequest(CorfuMsg msg, ChannelHandlerContext ctx, IServerRouter r) {
         log.debug("handleCompactRequest: received a compact request {}", msg);
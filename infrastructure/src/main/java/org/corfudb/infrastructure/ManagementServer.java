@@ -468,4 +468,27 @@ public class ManagementServer extends AbstractServer {
         r.sendResponse(ctx, msg,
                 CorfuMsgType.LAYOUT_RESPONSE.payloadMsg(serverContext.getManagementLayout()));
     }
+
+    /**
+     * Handles a request to change the bandwidth limit of the state transfers run by this node.
+     * The transfers in progress are paced to the new limit from their next batch.
+     *
+     * @param msg corfu message containing the new limit in bytes per second, 0 if unlimited
+     * @param ctx netty ChannelHandlerContext
+     * @param r   server router
+     */
+    @ServerHandler(type = CorfuMsgType.MANAGEMENT_STATE_TRANSFER_BANDWIDTH_LIMIT)
+    public void handleStateTransferBandwidthLimit(CorfuPayloadMsg<Long> msg,
+                                                  ChannelHandlerContext ctx, IServerRouter r) {
+        long limit = msg.getPayload();
+        if (limit < 0) {
+            log.warn("handleStateTransferBandwidthLimit: invalid bandwidth limit {}", limit);
+            r.sendResponse(ctx, msg, new CorfuMsg(CorfuMsgType.NACK));
+            return;
+        }
+
+        log.info("handleStateTransferBandwidthLimit: set the state transfer bandwidth limit to {}", limit);
+        serverContext.setStateTransferBandwidthLimit(limit);
+        r.sendResponse(ctx, msg, new CorfuMsg(CorfuMsgType.ACK));
+    }
 }
@@ -9,6 +9,8 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.comm.ChannelImplementation;
+import org.corfudb.comm.ChannelTuningOptions;
+import org.corfudb.common.compression.Codec;
 import org.corfudb.infrastructure.datastore.DataStore;
 import org.corfudb.infrastructure.datastore.KvDataStore.KvRecord;
 import org.corfudb.infrastructure.paxos.PaxosDataStore;
@@ -21,6 +23,7 @@ import org.corfudb.runtime.view.ConservativeFailureHandlerPolicy;
 import org.corfudb.runtime.view.IReconfigurationHandlerPolicy;
 import org.corfudb.runtime.view.Layout;
 import org.corfudb.runtime.view.Layout.LayoutSegment;
+import org.corfudb.runtime.view.OffHeapLogDataCache;
 import org.corfudb.util.MetricsUtils;
 import org.corfudb.util.NodeLocator;
 import org.corfudb.util.UuidUtils;
@@ -47,6 +50,9 @@ import java.util.regex.Pattern;
 
 import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.MAX_DATA_MSG_SIZE_SUPPORTED;
 import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.DEFAULT_MAX_NUM_MSG_PER_BATCH;
+import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.DEFAULT_SNAPSHOT_SYNC_PARALLELISM;
+import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.DEFAULT_LOG_ENTRY_SYNC_PARALLELISM;
+import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.DEFAULT_TIMEOUT_MS;
 import static org.corfudb.util.MetricsUtils.isMetricsReportingSetUp;
 
 /**
@@ -156,6 +162,25 @@ public class ServerContext implements AutoCloseable {
     @Getter
     private static final MetricRegistry metrics = new MetricRegistry();
 
+    /**
+     * Max number of bytes per second copied by a state transfer, or 0 if unlimited.
+     * It is initialized from the server options and can be changed at runtime
+     * through a MANAGEMENT_STATE_TRANSFER_BANDWIDTH_LIMIT request to the management server.
+     */
+    @Setter
+    private volatile Long stateTransferBandwidthLimit;
+
+    /**
+     * Tuning of the server channels, parsed from the server options on first use.
+     */
+    private volatile ChannelTuningOptions channelTuningOptions;
+
+    /**
+     * Off-heap cache of log entries shared by the log replication runtimes of this node,
+     * created on first use.
+     */
+    private OffHeapLogDataCache logReplicationReadCache;
+
     @Getter
     private final Set<String> dsFilePrefixesForCleanup =
             Sets.newHashSet(PaxosDataStore.PREFIX_PHASE_1, PaxosDataStore.PREFIX_PHASE_2, PREFIX_LAYOUTS);
@@ -263,6 +288,80 @@ public class ServerContext implements AutoCloseable {
         return val == null ? MAX_DATA_MSG_SIZE_SUPPORTED : Integer.parseInt(val);
     }
 
+    /**
+     * Get the codec to compress log replication data with.
+     * @return
+     */
+    public Codec.Type getLogReplicationCompressionCodec() {
+        String val = getServerConfig(String.class, "--compression-codec");
+        return val == null ? Codec.Type.NONE : Codec.Type.valueOf(val.toUpperCase());
+    }
+
+    /**
+     * Get the max number of streams read concurrently by a snapshot sync.
+     * @return
+     */
+    public int getLogReplicationSnapshotSyncParallelism() {
+        String val = getServerConfig(String.class, "--snapshot-sync-parallelism");
+        return val == null ? DEFAULT_SNAPSHOT_SYNC_PARALLELISM : Integer.parseInt(val);
+    }
+
+    /**
+     * Get the max number of chunks of the transaction stream read concurrently by a log entry sync
+     * catching up with the log tail.
+     * @return
+     */
+    public int getLogReplicationLogEntrySyncParallelism() {
+        String val = getServerConfig(String.class, "--log-entry-sync-parallelism");
+        return val == null ? DEFAULT_LOG_ENTRY_SYNC_PARALLELISM : Integer.parseInt(val);
+    }
+
+    /**
+     * Whether a snapshot sync only transfers the streams whose content differs on the standby.
+     * @return
+     */
+    public boolean isLogReplicationIncrementalSnapshotSync() {
+        return isServerConfigFlagSet("--incremental-snapshot-sync");
+    }
+
+    /**
+     * Get the time budget to compute the stream digests of an incremental snapshot sync, and to wait
+     * for the standby to compare them, before transferring the streams without a digest.
+     * @return
+     */
+    public long getLogReplicationIncrementalSnapshotSyncTimeoutMs() {
+        String val = getServerConfig(String.class, "--incremental-snapshot-sync-timeout");
+        return val == null ? DEFAULT_TIMEOUT_MS : Long.parseLong(val);
+    }
+
+    /**
+     * Get the off-heap cache of log entries shared by the log replication runtimes of this node,
+     * i.e. by the snapshot and log entry readers and writers and the stream subscribers.
+     * @return the shared cache, or null if it is disabled
+     */
+    public synchronized OffHeapLogDataCache getLogReplicationReadCache() {
+        if (logReplicationReadCache == null) {
+            String val = getServerConfig(String.class, "--read-cache-size");
+            long size = val == null ? 0L : Long.parseLong(val);
+            if (size > 0) {
+                logReplicationReadCache = new OffHeapLogDataCache(size);
+            }
+        }
+        return logReplicationReadCache;
+    }
+
+    /**
+     * Get the max number of bytes per second copied by a state transfer run by this node.
+     * @return the bandwidth limit, or 0 if unlimited
+     */
+    public long getStateTransferBandwidthLimit() {
+        if (stateTransferBandwidthLimit == null) {
+            String val = getServerConfig(String.class, "--state-transfer-bandwidth-limit");
+            stateTransferBandwidthLimit = val == null ? 0L : Long.parseLong(val);
+        }
+        return stateTransferBandwidthLimit;
+    }
+
     /**
      * Cleanup the DataStore files with names that are prefixes of the specified
      * fileName when so that the number of these files don't exceed the user-defined
@@ -316,6 +415,53 @@ public class ServerContext implements AutoCloseable {
         return ChannelImplementation.valueOf(type.toUpperCase());
     }
 
+    /**
+     * Get the {@link ChannelTuningOptions} of the server channels. Options which are not
+     * configured keep their default value.
+     *
+     * @return The tuning of the server channels.
+     */
+    public ChannelTuningOptions getChannelTuningOptions() {
+        if (channelTuningOptions == null) {
+            channelTuningOptions = parseChannelTuningOptions();
+        }
+        return channelTuningOptions;
+    }
+
+    private ChannelTuningOptions parseChannelTuningOptions() {
+        ChannelTuningOptions.ChannelTuningOptionsBuilder builder = ChannelTuningOptions.builder();
+
+        Optional.ofNullable(getServerConfig(String.class, "--netty-allocator"))
+                .map(allocator -> ChannelTuningOptions.Allocator.valueOf(allocator.toUpperCase()))
+                .ifPresent(builder::allocator);
+        Optional.ofNullable(getServerConfig(String.class, "--so-sndbuf"))
+                .map(Integer::parseInt)
+                .ifPresent(builder::sendBufferSize);
+        Optional.ofNullable(getServerConfig(String.class, "--so-rcvbuf"))
+                .map(Integer::parseInt)
+                .ifPresent(builder::receiveBufferSize);
+        Optional.ofNullable(getServerConfig(String.class, "--write-buffer-low-watermark"))
+                .map(Integer::parseInt)
+                .ifPresent(builder::writeBufferLowWaterMark);
+        Optional.ofNullable(getServerConfig(String.class, "--write-buffer-high-watermark"))
+                .map(Integer::parseInt)
+                .ifPresent(builder::writeBufferHighWaterMark);
+        Optional.ofNullable(getServerConfig(String.class, "--busy-poll"))
+                .map(Integer::parseInt)
+                .ifPresent(builder::busyPollMicros);
+
+        return builder
+                .writeBackpressure(isServerConfigFlagSet("--write-backpressure"))
+                .tcpNoDelay(!isServerConfigFlagSet("--disable-tcp-nodelay"))
+                .epollEdgeTriggered(!isServerConfigFlagSet("--epoll-level-triggered"))
+                .tcpQuickAck(isServerConfigFlagSet("--tcp-quickack"))
+                .build();
+    }
+
+    private boolean isServerConfigFlagSet(String optionName) {
+        return Optional.ofNullable(getServerConfig(Boolean.class, optionName)).orElse(false);
+    }
+
     /**
      * Get an instance of {@link CorfuRuntimeParameters} representing the default Corfu Runtime's
      * parameters.
@@ -336,6 +482,7 @@ public class ServerContext implements AutoCloseable {
                 .usernameFile((String) serverConfig.get("--sasl-plain-text-username-file"))
                 .passwordFile((String) serverConfig.get("--sasl-plain-text-password-file"))
                 .bulkReadSize(Integer.parseInt((String) serverConfig.get("--batch-size")))
+                .channelTuning(getChannelTuningOptions())
                 .build();
     }
 
@@ -738,6 +885,12 @@ public class ServerContext implements AutoCloseable {
      */
     @Override
     public void close() {
+        synchronized (this) {
+            if (logReplicationReadCache != null) {
+                logReplicationReadCache.invalidateAll();
+            }
+        }
+
         CorfuRuntimeParameters params = getManagementRuntimeParameters();
         // Shutdown the active event loops unless they were provided to us
         if (!getChannelImplementation().equals(ChannelImplementation.LOCAL)) {
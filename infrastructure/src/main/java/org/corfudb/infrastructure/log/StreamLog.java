@@ -6,10 +6,13 @@ import java.util.Set;
 import java.util.UUID;
 
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
 import org.corfudb.protocols.wireprotocol.StreamsAddressResponse;
 import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.runtime.exceptions.OverwriteCause;
+import org.corfudb.runtime.exceptions.SegmentUnavailableException;
 import org.corfudb.runtime.exceptions.TrimmedException;
+import org.corfudb.runtime.view.Address;
 
 /**
  * An interface definition that specifies an api to interact with a StreamLog.
@@ -168,4 +171,31 @@ public interface StreamLog {
     default long quotaLimitInBytes() {
         return Long.MAX_VALUE;
     }
+
+    /**
+     * Read a chunk of the raw bytes of a segment, which must hold all its addresses
+     * (i.e. the segment is fully committed and can no longer change).
+     *
+     * @param segment segment to read
+     * @param offset  offset in the segment to read from
+     * @param length  max number of bytes to read
+     * @return a chunk of the segment
+     * @throws SegmentUnavailableException if the segment is not complete, or if the
+     *                                     stream log does not store segment files
+     */
+    default LogSegmentChunk readSegmentChunk(long segment, long offset, int length) {
+        throw new SegmentUnavailableException(Address.NON_ADDRESS);
+    }
+
+    /**
+     * Write a chunk of the raw bytes of a segment read from another stream log.
+     * Once the last chunk is written, the segment is validated and installed,
+     * provided that none of its addresses are present in this stream log.
+     *
+     * @param chunk a chunk of the segment
+     * @throws SegmentUnavailableException if the stream log does not store segment files
+     */
+    default void writeSegmentChunk(LogSegmentChunk chunk) {
+        throw new SegmentUnavailableException(Address.NON_ADDRESS);
+    }
 }
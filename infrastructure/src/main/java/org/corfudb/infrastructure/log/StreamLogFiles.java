@@ -7,6 +7,8 @@ import com.google.common.hash.Hashing;
 import com.google.protobuf.AbstractMessage;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
@@ -24,14 +26,17 @@ import org.corfudb.protocols.logprotocol.CheckpointEntry;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.IMetadata;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
 import org.corfudb.protocols.wireprotocol.StreamsAddressResponse;
 import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.runtime.exceptions.DataCorruptionException;
 import org.corfudb.runtime.exceptions.LogUnitException;
 import org.corfudb.runtime.exceptions.OverwriteCause;
 import org.corfudb.runtime.exceptions.OverwriteException;
+import org.corfudb.runtime.exceptions.SegmentUnavailableException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
+import org.corfudb.runtime.view.Address;
 
 import javax.annotation.Nullable;
 import java.io.File;
@@ -48,6 +53,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
@@ -90,6 +96,7 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
 
     public static final int VERSION = 2;
     public static final int RECORDS_PER_LOG_FILE = 10000;
+    private static final String SEGMENT_TRANSFER_SUFFIX = ".transfer";
     private final Path logDir;
     private final boolean verify;
 
@@ -149,6 +156,9 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         logSizeQuota = new ResourceQuota("LogSizeQuota", logSizeLimit);
         logSizeQuota.consume(initialLogSize);
 
+        // Segment transfers interrupted by a restart are not resumed
+        deleteFilesMatchingFilter(file -> file.getName().endsWith(SEGMENT_TRANSFER_SUFFIX));
+
         verifyLogs();
         // Starting address initialization should happen before
         // initializing the tail segment (i.e. initializeMaxGlobalAddress)
@@ -1259,6 +1269,197 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The bytes are copied from the segment file as is, so that they can be installed
+     * by another log unit without decoding and encoding every log entry.
+     */
+    @Override
+    public LogSegmentChunk readSegmentChunk(long segment, long offset, int length) {
+        Lock lock = resetLock.readLock();
+        lock.lock();
+
+        try {
+            if (segment < getStartingSegment()) {
+                throw new TrimmedException();
+            }
+
+            SegmentHandle sh = getSegmentHandleForAddress(segment * RECORDS_PER_LOG_FILE);
+            try (MultiReadWriteLock.AutoCloseableLock ignored = segmentLocks.acquireReadLock(segment)) {
+                if (sh.getKnownAddresses().size() != RECORDS_PER_LOG_FILE || !sh.getPendingTrims().isEmpty()) {
+                    log.debug("readSegmentChunk: segment {} is not complete", segment);
+                    throw new SegmentUnavailableException(segment);
+                }
+
+                FileChannel channel = sh.getReadChannel();
+                long segmentSize = channel.size();
+                int chunkLength = (int) Math.max(0, Math.min(length, segmentSize - offset));
+                ByteBuf data = Unpooled.buffer(chunkLength);
+                while (data.writableBytes() > 0) {
+                    if (data.writeBytes(channel, offset + data.writerIndex(), data.writableBytes()) < 0) {
+                        throw new LogUnitException("Unexpected end of segment file " + sh.getFileName());
+                    }
+                }
+
+                return new LogSegmentChunk(segment, offset, segmentSize,
+                        Checksum.getChecksum(data.array(), 0, chunkLength), data);
+            } catch (IOException e) {
+                throw new LogUnitException(e);
+            } finally {
+                sh.release();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The chunks are written to a temporary file, which replaces the segment file once
+     * all its log entries are verified.
+     */
+    @Override
+    public void writeSegmentChunk(LogSegmentChunk chunk) {
+        Path transferFile = logDir.resolve(chunk.getSegment() + ".log" + SEGMENT_TRANSFER_SUFFIX);
+        try {
+            writeTransferChunk(transferFile, chunk);
+            if (chunk.isLast()) {
+                installSegment(chunk.getSegment(), transferFile);
+            }
+        } catch (RuntimeException e) {
+            // The transfer is aborted, the segment is transferred again from its first chunk
+            if (!transferFile.toFile().delete()) {
+                log.warn("writeSegmentChunk: couldn't delete {}", transferFile);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Write a chunk of a segment file transferred from another log unit to the temporary file
+     * of the transfer. The first chunk of a segment restarts the transfer.
+     *
+     * @param transferFile the temporary file of the transfer
+     * @param chunk        a chunk of the segment
+     */
+    private void writeTransferChunk(Path transferFile, LogSegmentChunk chunk) {
+        byte[] data = ByteBufUtil.getBytes(chunk.getData());
+        if (Checksum.getChecksum(data) != chunk.getChecksum()) {
+            throw new DataCorruptionException("Checksum mismatch in chunk of segment " + chunk.getSegment()
+                    + " at offset " + chunk.getOffset());
+        }
+
+        EnumSet<StandardOpenOption> options = EnumSet.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try (FileChannel channel = FileChannel.open(transferFile, options)) {
+            if (chunk.getOffset() == 0) {
+                channel.truncate(0);
+            } else if (channel.size() != chunk.getOffset()) {
+                throw new LogUnitException("Out of order chunk of segment " + chunk.getSegment()
+                        + " at offset " + chunk.getOffset() + ", expected " + channel.size());
+            }
+
+            ByteBuffer buf = ByteBuffer.wrap(data);
+            long position = chunk.getOffset();
+            while (buf.hasRemaining()) {
+                position += channel.write(buf, position);
+            }
+
+            if (chunk.isLast()) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new LogUnitException(e);
+        }
+    }
+
+    /**
+     * Verify a segment file transferred from another log unit and make it the segment
+     * file of this log unit.
+     *
+     * @param segment      the segment of the file
+     * @param transferFile the transferred segment file
+     */
+    private void installSegment(long segment, Path transferFile) {
+        long firstAddress = segment * RECORDS_PER_LOG_FILE;
+        Set<Long> addresses = new HashSet<>();
+
+        try (FileChannel channel = FileChannel.open(transferFile, StandardOpenOption.READ)) {
+            LogHeader header = parseHeader(channel, transferFile.toString());
+            if (header == null || header.getVersion() != VERSION) {
+                throw new DataCorruptionException("Invalid header in transferred segment " + segment);
+            }
+
+            while (channel.size() - channel.position() > 0) {
+                Metadata metadata = parseMetadata(channel, transferFile.toString());
+                ByteBuffer payload = metadata == null ? null : getPayloadForMetadata(channel, metadata);
+                if (payload == null) {
+                    throw new DataCorruptionException("Partial entry in transferred segment " + segment);
+                }
+                if (metadata.getPayloadChecksum() != Checksum.getChecksum(payload.array())) {
+                    throw new DataCorruptionException("Checksum mismatch in transferred segment " + segment);
+                }
+                addresses.add(LogEntry.parseFrom(payload.array()).getGlobalAddress());
+            }
+        } catch (IOException e) {
+            throw new LogUnitException(e);
+        }
+
+        if (addresses.size() != RECORDS_PER_LOG_FILE || addresses.stream()
+                .anyMatch(address -> address / RECORDS_PER_LOG_FILE != segment)) {
+            throw new DataCorruptionException("Transferred segment " + segment + " is not complete");
+        }
+
+        Lock lock = resetLock.writeLock();
+        lock.lock();
+
+        try (MultiReadWriteLock.AutoCloseableLock ignored = segmentLocks.acquireWriteLock(segment)) {
+            if (segment < getStartingSegment()) {
+                throw new OverwriteException(OverwriteCause.TRIM);
+            }
+
+            // Only a segment without any entry can be replaced, its file
+            // might still exist since it is created on the first access.
+            SegmentHandle sh = getSegmentHandleForAddress(firstAddress);
+            File segmentFile = new File(sh.getFileName());
+            sh.release();
+            if (!sh.getKnownAddresses().isEmpty()) {
+                log.error("installSegment: segment {} already has {} entries",
+                        segment, sh.getKnownAddresses().size());
+                throw new OverwriteException(OverwriteCause.SAME_DATA);
+            }
+
+            closeSegment(sh);
+            long previousSize = segmentFile.length();
+            Files.move(transferFile, segmentFile.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory(logDir.toString());
+            logSizeQuota.release(previousSize);
+            logSizeQuota.consume(segmentFile.length());
+
+            sh = getSegmentHandleForAddress(firstAddress);
+            sh.release();
+            long tail = Address.NON_ADDRESS;
+            for (Long address : sh.getKnownAddresses().keySet()) {
+                if (isTrimmed(address)) {
+                    continue;
+                }
+                logMetadata.update(readRecord(sh, address), true);
+                tail = Math.max(tail, address);
+            }
+
+            if (tail > logMetadata.getGlobalTail()) {
+                syncTailSegment(tail);
+            }
+            log.info("installSegment: installed segment {}, {} bytes", segment, segmentFile.length());
+        } catch (IOException e) {
+            throw new LogUnitException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public void close() {
         for (SegmentHandle fh : writeChannels.values()) {
@@ -1396,6 +1597,18 @@ public class StreamLogFiles implements StreamLog, StreamLogWithRankedAddressSpac
             return hasher.hash().asInt();
         }
 
+        /**
+         * Returns checksum used for log of a range of bytes.
+         *
+         * @param bytes  data over which to compute the checksum
+         * @param offset offset of the range in bytes
+         * @param length length of the range
+         * @return checksum of the range of bytes
+         */
+        public static int getChecksum(byte[] bytes, int offset, int length) {
+            return Hashing.crc32c().hashBytes(bytes, offset, length).asInt();
+        }
+
         public static int getChecksum(int num) {
             Hasher hasher = Hashing.crc32c().newHasher();
             return hasher.putInt(num).hash().asInt();
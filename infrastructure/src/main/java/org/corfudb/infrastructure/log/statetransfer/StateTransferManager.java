@@ -15,6 +15,7 @@ import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentRange
 import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentStatus;
 import org.corfudb.infrastructure.log.statetransfer.transferprocessor.BasicTransferProcessor;
 import org.corfudb.infrastructure.log.statetransfer.transferprocessor.ParallelTransferProcessor;
+import org.corfudb.infrastructure.log.statetransfer.transferprocessor.SegmentTransferProcessor;
 import org.corfudb.infrastructure.log.statetransfer.transferprocessor.TransferProcessorResult;
 import org.corfudb.runtime.clients.LogUnitClient;
 import org.corfudb.util.CFUtils;
@@ -71,6 +72,15 @@ public class StateTransferManager {
     @NonNull
     private final BasicTransferProcessor basicTransferProcessor;
 
+    /**
+     * A processor that copies the whole segment files of the committed workload,
+     * before the remaining addresses are transferred by the parallel transfer processor.
+     */
+    @Getter
+    @NonNull
+    @Builder.Default
+    private final Optional<SegmentTransferProcessor> segmentTransferProcessor = Optional.empty();
+
     /**
      * Given a range, return the addresses that are currently not present in the stream log.
      *
@@ -255,6 +265,11 @@ public class StateTransferManager {
             return toSegments(beforeTransferRanges);
         }
 
+        // Copy the whole committed segments first, the batch workload
+        // is then made of the addresses that are still unknown.
+        segmentTransferProcessor.ifPresent(processor ->
+                processor.runSegmentTransfer(singleNotTransferredRanges));
+
         // Split into the protocol and committed workloads.
         List<Stream<TransferBatchRequest>> consistentBatchStreamList =
                 createBatchWorkload(singleNotTransferredRanges, CONSISTENT_READ);
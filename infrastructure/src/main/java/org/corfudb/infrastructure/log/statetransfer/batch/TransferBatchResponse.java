@@ -49,4 +49,11 @@ public class TransferBatchResponse {
     @Exclude
     private final Optional<StateTransferBatchProcessorException> causeOfFailure = Optional.empty();
 
+    /**
+     * An estimate of the number of bytes written by the transfer.
+     */
+    @Default
+    @Exclude
+    private final long transferredBytes = 0L;
+
 }
@@ -120,6 +120,8 @@ public interface StateTransferBatchProcessor {
                         allAddressesToTransfer,
                         readBatch.getDestinationNode().map(ImmutableList::of)))
                 .status(SUCCEEDED)
+                .transferredBytes(remainingDataToWrite.stream()
+                        .mapToLong(LogData::getSizeEstimate).sum())
                 .build();
     }
 
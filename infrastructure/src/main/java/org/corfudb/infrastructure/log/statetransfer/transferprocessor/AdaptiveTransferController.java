@@ -0,0 +1,229 @@
+package org.corfudb.infrastructure.log.statetransfer.transferprocessor;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Controls the rate of a parallel state transfer.
+ *
+ * The number of in-flight batches per source node grows by one every time as many batches
+ * as are in flight complete in time, and is halved when the batch latency rises well above the
+ * lowest latency observed, which is a sign of the source log units (or the current one) falling
+ * behind under their foreground load. On top of that, the transferred bytes are paced to the
+ * bandwidth limit, which is read before every batch so that it can be changed while a transfer
+ * is in progress. The chunks of the segment files copied by a {@link SegmentTransferProcessor}
+ * are paced by the same controller.
+ */
+@Slf4j
+public class AdaptiveTransferController {
+
+    /**
+     * The initial number of in-flight batches per source node.
+     */
+    public static final int DEFAULT_IN_FLIGHT_PER_NODE = 5;
+
+    /**
+     * The default max number of in-flight batches per source node.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_NODE = 4 * DEFAULT_IN_FLIGHT_PER_NODE;
+
+    private static final int MIN_IN_FLIGHT_PER_NODE = 1;
+
+    /*
+     * Weight of a new sample in the smoothed batch latency.
+     */
+    private static final double ALPHA = 0.2;
+
+    /*
+     * Weight of a new smoothed latency in the baseline latency when it is above it,
+     * so that the baseline slowly follows a lasting change of the batch latency.
+     */
+    private static final double BASELINE_DRIFT = 0.01;
+
+    /*
+     * The number of in-flight batches is decreased when the smoothed latency is above
+     * this multiple of the baseline latency.
+     */
+    private static final double LATENCY_TOLERANCE = 2.0;
+
+    private final int maxInFlightPerNode;
+
+    /*
+     * Max number of bytes transferred per second, or 0 if unlimited.
+     */
+    private final LongSupplier bandwidthLimit;
+
+    /**
+     * Waits for a number of nanoseconds.
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    private final Ticker ticker;
+
+    private final Sleeper sleeper;
+
+    /*
+     * Time at which the bytes transferred so far fit in the bandwidth limit,
+     * only meaningful while the transfer is paced.
+     */
+    private long nextFreeNanos;
+
+    private boolean paced = false;
+
+    private final AtomicLong unpaidBytes = new AtomicLong();
+
+    private double inFlightPerNode = DEFAULT_IN_FLIGHT_PER_NODE;
+
+    private int inFlight = 0;
+
+    private double smoothedLatencyMs = -1;
+
+    private double baselineLatencyMs = -1;
+
+    private int completedSinceDecrease = 0;
+
+    /**
+     * Constructor
+     *
+     * @param maxInFlightPerNode max number of in-flight batches per source node
+     * @param bandwidthLimit     supplier of the max number of bytes transferred per second,
+     *                           0 if unlimited
+     */
+    public AdaptiveTransferController(int maxInFlightPerNode, LongSupplier bandwidthLimit) {
+        this(maxInFlightPerNode, bandwidthLimit, Ticker.systemTicker(), TimeUnit.NANOSECONDS::sleep);
+    }
+
+    @VisibleForTesting
+    AdaptiveTransferController(int maxInFlightPerNode, LongSupplier bandwidthLimit,
+                               Ticker ticker, Sleeper sleeper) {
+        this.maxInFlightPerNode = Math.max(MIN_IN_FLIGHT_PER_NODE, maxInFlightPerNode);
+        this.inFlightPerNode = Math.min(inFlightPerNode, this.maxInFlightPerNode);
+        this.bandwidthLimit = bandwidthLimit;
+        this.ticker = ticker;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Create a controller without bandwidth limit.
+     */
+    public AdaptiveTransferController() {
+        this(DEFAULT_MAX_IN_FLIGHT_PER_NODE, () -> 0L);
+    }
+
+    /**
+     * Get the current number of in-flight batches allowed per source node.
+     */
+    public synchronized int getInFlightPerNode() {
+        return (int) inFlightPerNode;
+    }
+
+    /**
+     * Wait until another batch can be sent, pacing the transfer to the bandwidth limit.
+     *
+     * @param numNodes number of source nodes the batches are distributed over
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(int numNodes) throws InterruptedException {
+        throttle();
+        synchronized (this) {
+            while (inFlight >= getInFlightPerNode() * numNodes) {
+                wait();
+            }
+            inFlight++;
+        }
+    }
+
+    /**
+     * Record the completion of a batch.
+     *
+     * @param latencyMs time taken by the batch transfer
+     * @param bytes     number of bytes transferred
+     */
+    public synchronized void release(long latencyMs, long bytes) {
+        inFlight--;
+        unpaidBytes.addAndGet(bytes);
+        completedSinceDecrease++;
+
+        if (smoothedLatencyMs < 0) {
+            smoothedLatencyMs = latencyMs;
+            baselineLatencyMs = latencyMs;
+        } else {
+            smoothedLatencyMs = (1 - ALPHA) * smoothedLatencyMs + ALPHA * latencyMs;
+            if (smoothedLatencyMs < baselineLatencyMs) {
+                baselineLatencyMs = smoothedLatencyMs;
+            } else {
+                baselineLatencyMs += BASELINE_DRIFT * (smoothedLatencyMs - baselineLatencyMs);
+            }
+        }
+
+        if (smoothedLatencyMs > LATENCY_TOLERANCE * baselineLatencyMs) {
+            // Decrease at most once per round of in-flight batches.
+            if (completedSinceDecrease >= inFlight) {
+                inFlightPerNode = Math.max(MIN_IN_FLIGHT_PER_NODE, inFlightPerNode / 2);
+                completedSinceDecrease = 0;
+                log.debug("release: batch latency {} ms above baseline {} ms, decrease in-flight batches to {}",
+                        smoothedLatencyMs, baselineLatencyMs, getInFlightPerNode());
+            }
+        } else {
+            inFlightPerNode = Math.min(maxInFlightPerNode, inFlightPerNode + 1 / inFlightPerNode);
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * Record the failure of a batch.
+     */
+    public synchronized void releaseOnFailure() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Record the transfer of bytes outside of the batches, e.g. a chunk of a segment file,
+     * so that they are paced to the bandwidth limit along with the batches.
+     *
+     * @param bytes number of bytes transferred
+     */
+    void onTransferred(long bytes) {
+        unpaidBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Wait until the bytes transferred so far fit in the bandwidth limit.
+     * The bytes of the last batches are paid for by the next batch: it waits for the previous bytes
+     * to fit in the limit, and then pushes back the next batch by the time the new bytes take at the
+     * current limit. This is only called by the thread dispatching the batches, or copying the
+     * segment files before them.
+     */
+    void throttle() throws InterruptedException {
+        long limit = bandwidthLimit.getAsLong();
+        long bytes = unpaidBytes.getAndSet(0);
+        if (limit <= 0) {
+            paced = false;
+            return;
+        }
+
+        long now = ticker.read();
+        if (!paced) {
+            // The bytes transferred without a limit are not paid for
+            nextFreeNanos = now;
+            paced = true;
+            return;
+        }
+
+        if (nextFreeNanos - now > 0) {
+            sleeper.sleep(nextFreeNanos - now);
+            now = nextFreeNanos;
+        }
+        nextFreeNanos = now + (long) ((double) bytes * TimeUnit.SECONDS.toNanos(1) / limit);
+    }
+}
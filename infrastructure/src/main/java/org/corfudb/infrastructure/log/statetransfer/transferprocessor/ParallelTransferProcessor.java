@@ -7,10 +7,11 @@ import org.corfudb.infrastructure.log.statetransfer.exceptions.StateTransferBatc
 import org.corfudb.infrastructure.log.statetransfer.exceptions.TransferSegmentException;
 import org.corfudb.util.CFUtils;
 
-import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.corfudb.infrastructure.log.statetransfer.batch.TransferBatchResponse.TransferStatus.FAILED;
@@ -20,7 +21,8 @@ import static org.corfudb.infrastructure.log.statetransfer.transferprocessor.Tra
 
 /**
  * A transfer processor that performs state transfer by distributing and parallelizing
- * the workload among the source log unit servers of each segment.
+ * the workload among the source log unit servers of each segment. The number of in-flight
+ * batches and the bandwidth used are regulated by an {@link AdaptiveTransferController}.
  */
 @Slf4j
 public class ParallelTransferProcessor {
@@ -30,12 +32,18 @@ public class ParallelTransferProcessor {
     private final StateTransferBatchProcessor stateTransferBatchProcessor;
 
     /**
-     * A number of in-flight requests per one node.
+     * A controller of the number of in-flight requests per one node and of the bandwidth.
      */
-    private static final int NUM_REQUESTS_PER_NODE = 5;
+    private final AdaptiveTransferController controller;
 
-    public ParallelTransferProcessor(StateTransferBatchProcessor stateTransferBatchProcessor) {
+    public ParallelTransferProcessor(StateTransferBatchProcessor stateTransferBatchProcessor,
+                                     AdaptiveTransferController controller) {
         this.stateTransferBatchProcessor = stateTransferBatchProcessor;
+        this.controller = controller;
+    }
+
+    public ParallelTransferProcessor(StateTransferBatchProcessor stateTransferBatchProcessor) {
+        this(stateTransferBatchProcessor, new AdaptiveTransferController());
     }
 
     private CompletableFuture<Void> handleNonTransferException(CompletableFuture<Void> futures,
@@ -47,14 +55,25 @@ public class ParallelTransferProcessor {
 
     private CompletableFuture<Void> handleBatchRequest(TransferBatchRequest request,
                                                        CompletableFuture<Void> allFutures,
-                                                       Semaphore semaphore)
+                                                       int parFactor,
+                                                       TransferProgress progress)
             throws InterruptedException {
-        semaphore.acquire();
+        controller.acquire(parFactor);
+        long start = System.nanoTime();
         CompletableFuture<Void> batchTransferResult =
                 stateTransferBatchProcessor
                         .transfer(request)
+                        .whenComplete((response, ex) -> {
+                            if (ex == null && response.getStatus() == SUCCEEDED) {
+                                controller.release(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                                        response.getTransferredBytes());
+                                progress.onBatchTransferred(request.getAddresses().size(),
+                                        response.getTransferredBytes());
+                            } else {
+                                controller.releaseOnFailure();
+                            }
+                        })
                         .thenApply(response -> {
-                            semaphore.release();
                             if (response.getStatus() == SUCCEEDED) {
                                 return null;
                             } else if (response.getStatus() == FAILED &&
@@ -79,26 +98,31 @@ public class ParallelTransferProcessor {
      */
     public CompletableFuture<TransferProcessorResult> runStateTransfer
     (Stream<TransferBatchRequest> batchStream, int parFactor) {
-        // Get a transfer batch request stream iterator
-        Iterator<TransferBatchRequest> iterator = batchStream.iterator();
+        // The batches of a range are already in memory as lists of addresses,
+        // collect them to know the size of the workload.
+        List<TransferBatchRequest> batches = batchStream.collect(Collectors.toList());
 
         // No need to spawn tasks if there is no work to do.
-        if (!iterator.hasNext()) {
+        if (batches.isEmpty()) {
             return CompletableFuture.completedFuture(TransferProcessorResult.builder()
                     .transferState(TRANSFER_SUCCEEDED).build());
         }
 
+        TransferProgress progress = new TransferProgress(getRange(batches),
+                batches.stream().mapToLong(batch -> batch.getAddresses().size()).sum());
+
         CompletableFuture<Void> allFutures = CompletableFuture.completedFuture(null);
         if (parFactor <= 0) {
             allFutures = handleNonTransferException(allFutures,
                     new IllegalArgumentException("Number of nodes should be > 0"));
         } else {
-            // The number of available permits is NUM_REQUESTS_PER_NODE * parFactor.
-            Semaphore semaphore = new Semaphore(parFactor * NUM_REQUESTS_PER_NODE, true);
-            while (iterator.hasNext() && !allFutures.isCompletedExceptionally()) {
+            // The number of in-flight requests is adjusted by the controller for parFactor nodes.
+            for (TransferBatchRequest request : batches) {
+                if (allFutures.isCompletedExceptionally()) {
+                    break;
+                }
                 try {
-                    TransferBatchRequest request = iterator.next();
-                    allFutures = handleBatchRequest(request, allFutures, semaphore);
+                    allFutures = handleBatchRequest(request, allFutures, parFactor, progress);
                 } catch (InterruptedException ie) {
                     Thread.currentThread().interrupt();
                     allFutures = handleNonTransferException(allFutures, ie);
@@ -107,6 +131,9 @@ public class ParallelTransferProcessor {
         }
 
         return allFutures.handle((res, ex) -> {
+            progress.close();
+            log.info("runStateTransfer: transferred {}, {} in-flight batches per node",
+                    progress, controller.getInFlightPerNode());
             if (ex == null) {
                 return TransferProcessorResult.builder().transferState(TRANSFER_SUCCEEDED).build();
             }
@@ -118,4 +145,19 @@ public class ParallelTransferProcessor {
                     .build();
         });
     }
+
+    /**
+     * Get a description of the range of addresses of a workload, to tag its progress metrics.
+     *
+     * @param batches The batches of the workload.
+     * @return The first and the last address of the workload.
+     */
+    private static String getRange(List<TransferBatchRequest> batches) {
+        List<Long> first = batches.get(0).getAddresses();
+        List<Long> last = batches.get(batches.size() - 1).getAddresses();
+        if (first.isEmpty() || last.isEmpty()) {
+            return "empty";
+        }
+        return first.get(0) + "-" + last.get(last.size() - 1);
+    }
 }
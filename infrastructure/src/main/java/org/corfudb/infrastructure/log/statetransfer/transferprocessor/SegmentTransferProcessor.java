@@ -0,0 +1,209 @@
+package org.corfudb.infrastructure.log.statetransfer.transferprocessor;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBufUtil;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.infrastructure.log.StreamLogFiles;
+import org.corfudb.infrastructure.log.StreamLogFiles.Checksum;
+import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentRangeSingle;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
+import org.corfudb.runtime.clients.LogUnitClient;
+import org.corfudb.runtime.exceptions.DataCorruptionException;
+import org.corfudb.runtime.exceptions.SegmentUnavailableException;
+import org.corfudb.runtime.view.RuntimeLayout;
+import org.corfudb.util.CFUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static lombok.Builder.Default;
+import static org.corfudb.infrastructure.log.statetransfer.segment.StateTransferType.CONSISTENT_READ;
+
+/**
+ * A transfer processor that copies the whole segment files of the committed ranges from the
+ * source log unit servers, instead of reading and writing their log entries one batch at a time.
+ * Only the segments that are fully contained in a committed range and that have none of their
+ * addresses present in the current log unit server are copied. A segment that fails to be copied
+ * is left to the batch transfer processors. The chunks copied are paced to the bandwidth limit of
+ * the {@link AdaptiveTransferController} shared with the batch transfer, and reported through a
+ * {@link TransferProgress}.
+ */
+@Slf4j
+@Builder
+@Getter
+public class SegmentTransferProcessor {
+
+    private static final long RECORDS_PER_SEGMENT = StreamLogFiles.RECORDS_PER_LOG_FILE;
+
+    /**
+     * Max number of bytes of a segment file transferred at a time.
+     */
+    @Default
+    private final int chunkSize = 8 * 1024 * 1024;
+
+    /**
+     * Current node.
+     */
+    @NonNull
+    private final String currentNode;
+
+    /**
+     * Current corfu runtime layout.
+     */
+    @NonNull
+    private final RuntimeLayout runtimeLayout;
+
+    /**
+     * A controller pacing the chunks copied to the bandwidth limit.
+     */
+    @Default
+    @NonNull
+    private final AdaptiveTransferController controller = new AdaptiveTransferController();
+
+    /**
+     * Copy the segment files of the committed ranges to the current log unit server.
+     * If the current log unit server does not store segment files (e.g. its log is in memory),
+     * no segment is copied and all the ranges are left to the batch transfer processors.
+     *
+     * @param ranges Ranges to transfer.
+     * @return The number of segments copied.
+     */
+    public int runSegmentTransfer(List<TransferSegmentRangeSingle> ranges) {
+        int transferred = 0;
+        try {
+            for (TransferSegmentRangeSingle range : ranges) {
+                if (range.getTypeOfTransfer() != CONSISTENT_READ || !range.getAvailableServers().isPresent()) {
+                    continue;
+                }
+
+                long firstSegment = (range.getStartAddress() + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT;
+                long lastSegment = (range.getEndAddress() + 1) / RECORDS_PER_SEGMENT - 1;
+                List<Long> segments = new ArrayList<>();
+                for (long segment = firstSegment; segment <= lastSegment; segment++) {
+                    if (isUnknownSegment(segment)) {
+                        segments.add(segment);
+                    }
+                }
+                if (segments.isEmpty()) {
+                    continue;
+                }
+
+                try (TransferProgress progress = new TransferProgress(
+                        "segments-" + segments.get(0) + "-" + segments.get(segments.size() - 1),
+                        segments.size() * RECORDS_PER_SEGMENT)) {
+                    for (long segment : segments) {
+                        if (transferSegment(segment, range.getAvailableServers().get(), progress)) {
+                            transferred++;
+                        }
+                    }
+                    log.info("runSegmentTransfer: transferred {}", progress);
+                }
+            }
+        } catch (SegmentUnavailableException e) {
+            log.info("runSegmentTransfer: segment transfer is not supported by {}, " +
+                    "falling back to the batch transfer", currentNode);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("runSegmentTransfer: interrupted, falling back to the batch transfer");
+        }
+
+        log.info("runSegmentTransfer: transferred {} segments", transferred);
+        return transferred;
+    }
+
+    /**
+     * Check that none of the addresses of a segment are present in the current log unit server.
+     *
+     * @param segment Segment to check.
+     * @return True if the segment can be copied, false otherwise.
+     */
+    private boolean isUnknownSegment(long segment) {
+        LogUnitClient currentNodeClient = runtimeLayout.getLogUnitClient(currentNode);
+        long start = segment * RECORDS_PER_SEGMENT;
+        long end = start + RECORDS_PER_SEGMENT - 1;
+        return CFUtils.getUninterruptibly(currentNodeClient.requestKnownAddresses(start, end))
+                .getKnownAddresses().isEmpty();
+    }
+
+    /**
+     * Copy a segment file from one of the source nodes, one chunk at a time paced to the bandwidth limit.
+     *
+     * @param segment     Segment to transfer.
+     * @param sourceNodes Nodes to read the segment from.
+     * @param progress    Progress of the transfer of the range.
+     * @return True if the segment was copied, false otherwise.
+     * @throws SegmentUnavailableException If the current log unit server does not store segment files.
+     * @throws InterruptedException        If interrupted while pacing the transfer.
+     */
+    private boolean transferSegment(long segment, ImmutableList<String> sourceNodes,
+                                    TransferProgress progress) throws InterruptedException {
+        LogUnitClient currentNodeClient = runtimeLayout.getLogUnitClient(currentNode);
+        List<String> nodes = new ArrayList<>(sourceNodes);
+        Collections.shuffle(nodes);
+        for (String node : nodes) {
+            LogUnitClient sourceNodeClient = runtimeLayout.getLogUnitClient(node);
+            long offset = 0;
+            LogSegmentChunk chunk;
+            do {
+                controller.throttle();
+                try {
+                    chunk = CFUtils.getUninterruptibly(sourceNodeClient.readSegmentChunk(segment, offset, chunkSize));
+                    if (Checksum.getChecksum(ByteBufUtil.getBytes(chunk.getData())) != chunk.getChecksum()) {
+                        throw new DataCorruptionException("Checksum mismatch in chunk of segment " + segment
+                                + " from " + node + " at offset " + offset);
+                    }
+                } catch (SegmentUnavailableException e) {
+                    log.debug("transferSegment: segment {} is not available on {}", segment, node);
+                    break;
+                } catch (RuntimeException e) {
+                    log.warn("transferSegment: failed to read segment {} from {}", segment, node, e);
+                    break;
+                }
+
+                boolean last = chunk.isLast();
+                int length = chunk.getData().readableBytes();
+                // The chunk crossed the wire, whether it can be written or not
+                controller.onTransferred(length);
+                if (!writeChunk(currentNodeClient, chunk)) {
+                    return false;
+                }
+                offset += length;
+                progress.onBatchTransferred(0, length);
+                if (last) {
+                    progress.onBatchTransferred((int) RECORDS_PER_SEGMENT, 0);
+                    log.debug("transferSegment: transferred segment {} from {}, {} bytes", segment, node, offset);
+                    return true;
+                }
+            } while (true);
+        }
+
+        return false;
+    }
+
+    /**
+     * Write a chunk of a segment file to the current log unit server.
+     *
+     * @param currentNodeClient Client of the current log unit server.
+     * @param chunk             Chunk to write.
+     * @return True if the chunk was written, false if the segment can not be installed.
+     * @throws SegmentUnavailableException If the current log unit server does not store segment files.
+     */
+    private boolean writeChunk(LogUnitClient currentNodeClient, LogSegmentChunk chunk) {
+        try {
+            CFUtils.getUninterruptibly(currentNodeClient.writeSegmentChunk(chunk));
+            return true;
+        } catch (RuntimeException e) {
+            if (e instanceof SegmentUnavailableException
+                    && !((SegmentUnavailableException) e).isTransferSupported()) {
+                throw e;
+            }
+            log.warn("transferSegment: failed to write segment {} at offset {}",
+                    chunk.getSegment(), chunk.getOffset(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.corfudb.infrastructure.log.statetransfer.transferprocessor;
+
+import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import lombok.Getter;
+import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the progress of the transfer of a segment range, and reports the number of
+ * addresses transferred, the bytes transferred and the estimated time left as metrics
+ * tagged with the range.
+ */
+public class TransferProgress implements AutoCloseable {
+
+    @Getter
+    private final String range;
+
+    @Getter
+    private final long totalAddresses;
+
+    private final AtomicLong transferredAddresses = new AtomicLong();
+
+    private final AtomicLong transferredBytes = new AtomicLong();
+
+    private final long startNanos = System.nanoTime();
+
+    private final List<Meter> meters;
+
+    /**
+     * Constructor
+     *
+     * @param range          the range transferred, used to tag the metrics
+     * @param totalAddresses number of addresses to transfer
+     */
+    public TransferProgress(String range, long totalAddresses) {
+        this.range = range;
+        this.totalAddresses = totalAddresses;
+        this.meters = MeterRegistryProvider.getInstance().map(registry -> {
+            List<Tag> tags = ImmutableList.of(Tag.of("range", range));
+            return ImmutableList.<Meter>of(
+                    Gauge.builder("state_transfer.transferred.addresses", transferredAddresses, AtomicLong::get)
+                            .tags(tags).register(registry),
+                    Gauge.builder("state_transfer.remaining.addresses", this, TransferProgress::getRemainingAddresses)
+                            .tags(tags).register(registry),
+                    Gauge.builder("state_transfer.transferred.bytes", transferredBytes, AtomicLong::get)
+                            .tags(tags).register(registry),
+                    Gauge.builder("state_transfer.eta.seconds", this, TransferProgress::getEtaSeconds)
+                            .tags(tags).register(registry));
+        }).orElse(ImmutableList.of());
+    }
+
+    /**
+     * Record the transfer of a batch.
+     *
+     * @param numAddresses number of addresses transferred
+     * @param bytes        number of bytes transferred
+     */
+    public void onBatchTransferred(int numAddresses, long bytes) {
+        transferredAddresses.addAndGet(numAddresses);
+        transferredBytes.addAndGet(bytes);
+    }
+
+    public long getTransferredAddresses() {
+        return transferredAddresses.get();
+    }
+
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    public long getRemainingAddresses() {
+        return Math.max(0, totalAddresses - transferredAddresses.get());
+    }
+
+    /**
+     * Estimate the time left to transfer the remaining addresses from the rate so far.
+     *
+     * @return the estimated number of seconds left, or -1 if nothing is transferred yet
+     */
+    public double getEtaSeconds() {
+        long transferred = transferredAddresses.get();
+        if (transferred == 0) {
+            return -1;
+        }
+        double elapsedSeconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        return getRemainingAddresses() * elapsedSeconds / transferred;
+    }
+
+    @Override
+    public void close() {
+        MeterRegistryProvider.getInstance().ifPresent(registry -> meters.forEach(registry::remove));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("range %s: %d/%d addresses, %d bytes", range,
+                getTransferredAddresses(), totalAddresses, getTransferredBytes());
+    }
+}
@@ -3,6 +3,7 @@ package org.corfudb.infrastructure.logreplication;
 import lombok.Data;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.common.compression.Codec;
 
 import java.util.Set;
 
@@ -24,6 +25,13 @@ public class LogReplicationConfig {
     // Log Replication default max data message size is 64MB.
     public static final int MAX_DATA_MSG_SIZE_SUPPORTED = (64 << 20);
 
+    // Log Replication default number of streams read concurrently by a snapshot sync.
+    public static final int DEFAULT_SNAPSHOT_SYNC_PARALLELISM = 1;
+
+    // Log Replication default number of chunks of the transaction stream read concurrently by a log entry sync
+    // catching up with the log tail.
+    public static final int DEFAULT_LOG_ENTRY_SYNC_PARALLELISM = 1;
+
     /**
      * percentage of log data per log replication message
      */
@@ -50,6 +58,36 @@ public class LogReplicationConfig {
      */
     private int maxDataSizePerMsg;
 
+    /**
+     * The max number of streams read concurrently by a snapshot sync.
+     */
+    private int snapshotSyncParallelism;
+
+    /**
+     * The max number of chunks of the transaction stream read concurrently by a log entry sync
+     * catching up with the log tail. Log entry sync does not catch up with parallel reads if 1.
+     */
+    private int logEntrySyncParallelism = DEFAULT_LOG_ENTRY_SYNC_PARALLELISM;
+
+    /**
+     * The codec to compress replicated data with, if the standby site supports it.
+     */
+    private Codec.Type compressionCodec = Codec.Type.NONE;
+
+    /**
+     * Whether a snapshot sync only transfers the streams whose content differs on the standby site.
+     */
+    private boolean incrementalSnapshotSync = false;
+
+    /**
+     * Time budget in milliseconds of the stream digests of an incremental snapshot sync. The active site
+     * stops digesting streams after this time, and waits for the standby site to compare the digests for at
+     * least this time (and at least twice as long as the active site took to digest the streams), before
+     * transferring all streams. Streams which are not digested in time are transferred; see
+     * {@link org.corfudb.infrastructure.logreplication.utils.StreamDigests} for the other limits.
+     */
+    private long incrementalSnapshotSyncTimeoutMs = DEFAULT_TIMEOUT_MS;
+
     /**
      * Constructor
      *
@@ -66,6 +104,19 @@ public class LogReplicationConfig {
      * @param maxNumMsgPerBatch snapshot sync batch size (number of entries per batch)
      */
     public LogReplicationConfig(Set<String> streamsToReplicate, int maxNumMsgPerBatch, int maxMsgSize) {
+        this(streamsToReplicate, maxNumMsgPerBatch, maxMsgSize, DEFAULT_SNAPSHOT_SYNC_PARALLELISM);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param streamsToReplicate Unique identifiers for all streams to be replicated across sites.
+     * @param maxNumMsgPerBatch snapshot sync batch size (number of entries per batch)
+     * @param snapshotSyncParallelism max number of streams read concurrently by a snapshot sync
+     */
+    public LogReplicationConfig(Set<String> streamsToReplicate, int maxNumMsgPerBatch, int maxMsgSize,
+                                int snapshotSyncParallelism) {
+        this.snapshotSyncParallelism = snapshotSyncParallelism;
         this.streamsToReplicate = streamsToReplicate;
         this.maxNumMsgPerBatch = maxNumMsgPerBatch;
         this.maxMsgSize = maxMsgSize;
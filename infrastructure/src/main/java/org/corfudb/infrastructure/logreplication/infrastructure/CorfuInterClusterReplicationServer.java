@@ -48,6 +48,12 @@ public class CorfuInterClusterReplicationServer implements Runnable {
                     + "\tlog_replication_server (-l <path>|-m) [-nsN] [-a <address>|-q <interface-name>] "
                     + "[--max-num-snapshot-msg-per-batch=<batch-size>] "
                     + "[--max-data-message-size=<msg-size>] "
+                    + "[--snapshot-sync-parallelism=<streams>] "
+                    + "[--log-entry-sync-parallelism=<chunks>] "
+                    + "[--compression-codec=<codec>] "
+                    + "[--incremental-snapshot-sync] "
+                    + "[--incremental-snapshot-sync-timeout=<ms>] "
+                    + "[--read-cache-size=<bytes>] "
                     + "[--lock-lease=<lease-duration>]"
                     + "[-c <ratio>] [-d <level>] [-p <seconds>] "
                     + "[--plugin=<plugin-config-file-path>]"
@@ -178,6 +184,33 @@ public class CorfuInterClusterReplicationServer implements Runnable {
                     + " --max-data-message-size=<msg-size>                                       "
                     + "              The max size of replication data message in bytes.\n   "
                     + "                                                                          "
+                    + " --snapshot-sync-parallelism=<streams>                                    "
+                    + "              The max number of streams read concurrently by a\n          "
+                    + "              snapshot (full) sync.\n                                     "
+                    + "                                                                          "
+                    + " --log-entry-sync-parallelism=<chunks>                                    "
+                    + "              The max number of chunks of the transaction stream read\n   "
+                    + "              concurrently by a log entry (delta) sync catching up.\n     "
+                    + "                                                                          "
+                    + " --compression-codec=<codec>                                              "
+                    + "              The codec to compress replicated data with, if the\n        "
+                    + "              standby supports it: NONE, LZ4 or ZSTD.\n                   "
+                    + "                                                                          "
+                    + " --incremental-snapshot-sync                                              "
+                    + "              Only transfer the streams whose content differs on the\n   "
+                    + "              standby during a snapshot (full) sync.\n                    "
+                    + "                                                                          "
+                    + " --incremental-snapshot-sync-timeout=<ms>                                 "
+                    + "              Time budget to digest the streams of an incremental\n       "
+                    + "              snapshot sync, and to wait for the standby to compare\n     "
+                    + "              them. Streams not compared in time are transferred\n        "
+                    + "              [default: 5000].\n                                          "
+                    + "                                                                          "
+                    + " --read-cache-size=<bytes>                                                "
+                    + "              Size of the off-heap cache of log entries shared by the\n   "
+                    + "              replication readers and writers of this node, 0 to\n        "
+                    + "              disable it [default: 0].\n                                  "
+                    + "                                                                          "
                     + " --lock-lease=<lease-duration>                                            "
                     + "              Lock lease duration in seconds\n                            "
                     + " -h, --help                                                               "
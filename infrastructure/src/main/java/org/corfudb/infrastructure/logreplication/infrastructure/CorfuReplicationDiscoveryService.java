@@ -361,6 +361,7 @@ public class CorfuReplicationDiscoveryService implements Runnable, CorfuReplicat
                     .ksPasswordFile((String) serverContext.getServerConfig().get("--keystore-password-file"))
                     .tlsEnabled((Boolean) serverContext.getServerConfig().get("--enable-tls"))
                     .systemDownHandler(() -> System.exit(SYSTEM_EXIT_ERROR_CODE))
+                    .sharedReadCache(serverContext.getLogReplicationReadCache())
                     .build())
                     .parseConfigurationString(localCorfuEndpoint).connect();
         }
@@ -421,7 +422,13 @@ public class CorfuReplicationDiscoveryService implements Runnable, CorfuReplicat
                 input(new DiscoveryServiceEvent(DiscoveryServiceEvent.DiscoveryServiceEventType.UPGRADE));
             }
 
-            return new LogReplicationConfig(streamsToReplicate, serverContext.getLogReplicationMaxNumMsgPerBatch(), serverContext.getLogReplicationMaxDataMessageSize());
+            LogReplicationConfig config = new LogReplicationConfig(streamsToReplicate, serverContext.getLogReplicationMaxNumMsgPerBatch(),
+                    serverContext.getLogReplicationMaxDataMessageSize(), serverContext.getLogReplicationSnapshotSyncParallelism());
+            config.setCompressionCodec(serverContext.getLogReplicationCompressionCodec());
+            config.setLogEntrySyncParallelism(serverContext.getLogReplicationLogEntrySyncParallelism());
+            config.setIncrementalSnapshotSync(serverContext.isLogReplicationIncrementalSnapshotSync());
+            config.setIncrementalSnapshotSyncTimeoutMs(serverContext.getLogReplicationIncrementalSnapshotSyncTimeoutMs());
+            return config;
         } catch (Throwable t) {
             log.error("Exception when fetching the Replication Config", t);
             throw t;
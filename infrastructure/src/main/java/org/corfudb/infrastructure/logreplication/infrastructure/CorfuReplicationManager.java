@@ -131,6 +131,7 @@ public class CorfuReplicationManager {
                             .ksPasswordFile(corfuRuntime.getParameters().getKsPasswordFile())
                             .trustStore(corfuRuntime.getParameters().getTrustStore())
                             .tsPasswordFile(corfuRuntime.getParameters().getTsPasswordFile())
+                            .sharedReadCache(corfuRuntime.getParameters().getSharedReadCache())
                             .build();
                     CorfuLogReplicationRuntime replicationRuntime = new CorfuLogReplicationRuntime(parameters, metadataManager);
                     replicationRuntime.start();
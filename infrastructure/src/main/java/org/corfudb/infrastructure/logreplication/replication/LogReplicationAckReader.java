@@ -1,6 +1,9 @@
 package org.corfudb.infrastructure.logreplication.replication;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
@@ -8,17 +11,23 @@ import org.corfudb.infrastructure.logreplication.proto.LogReplicationMetadata;
 import org.corfudb.infrastructure.logreplication.replication.receive.LogReplicationMetadataManager;
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.LogEntryReader;
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.StreamsLogEntryReader.StreamIteratorMetadata;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics;
 import org.corfudb.protocols.wireprotocol.StreamAddressRange;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.stream.StreamAddressSpace;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -29,6 +38,7 @@ public class LogReplicationAckReader {
     private final LogReplicationMetadataManager metadataManager;
     private final LogReplicationConfig config;
     private final CorfuRuntime runtime;
+    @Getter
     private final String remoteClusterId;
 
     // Log tail when the current snapshot sync started.  We do not need to synchronize access to it because it will not
@@ -68,6 +78,22 @@ public class LogReplicationAckReader {
 
     private final Lock lock = new ReentrantLock();
 
+    /*
+     * Number of entries remaining to be sent, as of the last computation.
+     */
+    private final AtomicLong remainingEntries = new AtomicLong();
+
+    /*
+     * The time (in milliseconds) each tx stream tail was first observed, for the tails not acked yet.
+     * The oldest one gives the replication lag in wall time.
+     */
+    private final NavigableMap<Long, Long> unackedTailTimes = new ConcurrentSkipListMap<>();
+
+    /*
+     * The lag gauges, removed on shutdown.
+     */
+    private final List<Meter.Id> meters = new ArrayList<>();
+
     public LogReplicationAckReader(LogReplicationMetadataManager metadataManager, LogReplicationConfig config,
                                     CorfuRuntime runtime, String remoteClusterId) {
         this.metadataManager = metadataManager;
@@ -77,6 +103,33 @@ public class LogReplicationAckReader {
         this.ongoing = new AtomicBoolean(true);
         lastAckedTsPoller = Executors.newSingleThreadScheduledExecutor(
                 new ThreadFactoryBuilder().setNameFormat("ack-timestamp-reader").build());
+        configureLagMetrics();
+    }
+
+    /**
+     * Report the replication lag to the remote cluster, in number of entries remaining to be sent
+     * and in wall time, i.e., the time since the oldest tx stream tail not yet acked was observed.
+     * The former is refreshed by the periodic task, the latter is up to date with the ACKs.
+     */
+    private void configureLagMetrics() {
+        ImmutableList<Tag> tags = ImmutableList.of(Tag.of(LogReplicationMetrics.CLUSTER_TAG, remoteClusterId));
+        LogReplicationMetrics.registerGauge("logreplication.lag.entries", tags, remainingEntries, AtomicLong::get)
+                .ifPresent(meters::add);
+        LogReplicationMetrics.registerGauge("logreplication.lag.seconds", tags, this,
+                LogReplicationAckReader::getLagSeconds).ifPresent(meters::add);
+    }
+
+    /**
+     * Get the time elapsed since the oldest tx stream tail which is not acked yet was observed.
+     *
+     * @return the replication lag in seconds, 0 if replication is up to date
+     */
+    public double getLagSeconds() {
+        Map.Entry<Long, Long> oldest = unackedTailTimes.firstEntry();
+        if (oldest == null) {
+            return 0;
+        }
+        return Math.max(0, System.currentTimeMillis() - oldest.getValue()) / 1000.0;
     }
 
     public void setAckedTsAndSyncType(long ackedTs, LogReplicationMetadata.ReplicationStatusVal.SyncType syncType) {
@@ -84,6 +137,10 @@ public class LogReplicationAckReader {
         try {
             lastAckedTimestamp = ackedTs;
             lastSyncType = syncType;
+            // During snapshot sync, the acked timestamp is a message sequence number and not a log address
+            if (syncType == LogReplicationMetadata.ReplicationStatusVal.SyncType.LOG_ENTRY) {
+                unackedTailTimes.headMap(ackedTs, true).clear();
+            }
         } finally {
             lock.unlock();
         }
@@ -123,11 +180,24 @@ public class LogReplicationAckReader {
      * been done.
      */
     private long calculateRemainingEntriesToSend(long ackedTimestamp) {
+        long remaining = calculateRemainingEntries(ackedTimestamp);
+        remainingEntries.set(remaining);
+        if (remaining == NO_REPLICATION_REMAINING_ENTRIES) {
+            // Up to date, even if the last tail observed is not acked (it has no entries to replicate)
+            unackedTailTimes.clear();
+        }
+        return remaining;
+    }
+
+    private long calculateRemainingEntries(long ackedTimestamp) {
         // Get all streams tails, which will be used in the computation of remaining entries
         Map<UUID, Long> tailMap = runtime.getAddressSpaceView().getAllTails().getStreamTails();
 
         long txStreamTail = getTxStreamTail(tailMap);
         long maxReplicatedStreamTail = getMaxReplicatedStreamsTail(tailMap);
+        if (Address.isAddress(txStreamTail)) {
+            unackedTailTimes.putIfAbsent(txStreamTail, System.currentTimeMillis());
+        }
         StreamIteratorMetadata currentTxStreamProcessedTs = logEntryReader.getCurrentProcessedEntryMetadata();
 
         log.trace("calculateRemainingEntriesToSend:: maxTailReplicateStreams={}, txStreamTail={}, lastTxStreamProcessedTs={}, " +
@@ -319,6 +389,7 @@ public class LogReplicationAckReader {
     }
 
     public void shutdown() {
+        LogReplicationMetrics.removeMeters(meters);
         // Stop accepting any new updates
         lastAckedTsPoller.shutdown();
         try {
@@ -94,6 +94,7 @@ public class LogReplicationSourceManager {
                 .keyStore(params.getKeyStore())
                 .ksPasswordFile(params.getKsPasswordFile())
                 .systemDownHandler(params.getSystemDownHandler())
+                .sharedReadCache(params.getSharedReadCache())
                 .tlsEnabled(params.isTlsEnabled()).build());
         runtime.parseConfigurationString(params.getLocalCorfuEndpoint()).connect();
 
@@ -201,6 +202,7 @@ public class LogReplicationSourceManager {
         }
 
         log.info("Shutdown Log Replication.");
+        logReplicationFSM.shutdown();
         ackReader.shutdown();
         this.runtime.shutdown();
     }
@@ -219,7 +219,7 @@ public class LogReplicationFSM {
     public LogReplicationFSM(CorfuRuntime runtime, LogReplicationConfig config, ClusterDescriptor remoteCluster, DataSender dataSender,
                              ReadProcessor readProcessor, ExecutorService workers, LogReplicationAckReader ackReader) {
         // Use stream-based readers for snapshot and log entry sync reads
-        this(runtime, new StreamsSnapshotReader(runtime, config), dataSender,
+        this(runtime, new StreamsSnapshotReader(runtime, config, remoteCluster.getClusterId()), dataSender,
                 new StreamsLogEntryReader(runtime, config), readProcessor, config, remoteCluster, workers, ackReader);
     }
 
@@ -247,7 +247,8 @@ public class LogReplicationFSM {
 
         // Create transmitters to be used by the the sync states (Snapshot and LogEntry) to read and send data
         // through the callbacks provided by the application
-        snapshotSender = new SnapshotSender(runtime, snapshotReader, dataSender, readProcessor, config.getMaxNumMsgPerBatch(), this);
+        snapshotSender = new SnapshotSender(runtime, snapshotReader, dataSender, readProcessor, config.getMaxNumMsgPerBatch(),
+                config.isIncrementalSnapshotSync(), config.getIncrementalSnapshotSyncTimeoutMs(), this);
         logEntrySender = new LogEntrySender(logEntryReader, dataSender, readProcessor, this);
 
         // Initialize Log Replication 5 FSM states - single instance per state
@@ -386,4 +387,15 @@ public class LogReplicationFSM {
         eventQueue.clear();
         setTopologyConfigId(topologyConfigId);
     }
+
+    /**
+     * Release the resources of the readers and senders, once the snapshot and log entry syncs are stopped.
+     * Log replication can not be resumed afterwards.
+     */
+    public void shutdown() {
+        snapshotReader.close();
+        logEntryReader.close();
+        snapshotSender.shutdown();
+        logEntrySender.shutdown();
+    }
 }
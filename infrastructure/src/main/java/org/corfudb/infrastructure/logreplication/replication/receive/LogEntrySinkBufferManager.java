@@ -4,6 +4,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntryMetadata;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
 import static org.corfudb.protocols.wireprotocol.logreplication.MessageType.LOG_ENTRY_MESSAGE;
 import static org.corfudb.protocols.wireprotocol.logreplication.MessageType.LOG_ENTRY_REPLICATED;
 
@@ -13,6 +18,11 @@ import static org.corfudb.protocols.wireprotocol.logreplication.MessageType.LOG_
 @Slf4j
 public class LogEntrySinkBufferManager extends SinkBufferManager {
 
+    /*
+     * The max number of in order messages applied together, 1 to apply messages one by one.
+     */
+    private final int applyBatchSize;
+
     /**
      *
      * @param ackCycleTime
@@ -22,7 +32,22 @@ public class LogEntrySinkBufferManager extends SinkBufferManager {
      * @param sinkManager
      */
     public LogEntrySinkBufferManager(int ackCycleTime, int ackCycleCnt, int size, long lastProcessedSeq, LogReplicationSinkManager sinkManager) {
+        this(ackCycleTime, ackCycleCnt, size, lastProcessedSeq, 1, sinkManager);
+    }
+
+    /**
+     *
+     * @param ackCycleTime
+     * @param ackCycleCnt
+     * @param size
+     * @param lastProcessedSeq last processed log entry's timestamp
+     * @param applyBatchSize max number of in order messages applied together
+     * @param sinkManager
+     */
+    public LogEntrySinkBufferManager(int ackCycleTime, int ackCycleCnt, int size, long lastProcessedSeq,
+                                     int applyBatchSize, LogReplicationSinkManager sinkManager) {
         super(LOG_ENTRY_MESSAGE, ackCycleTime, ackCycleCnt, size, lastProcessedSeq, sinkManager);
+        this.applyBatchSize = applyBatchSize;
     }
 
     /**
@@ -75,22 +100,63 @@ public class LogEntrySinkBufferManager extends SinkBufferManager {
         return true;
     }
 
+    /**
+     * If batching is enabled, drain the buffered messages that follow the expected message in order,
+     * and apply them along with it in as few transactions as possible.
+     * @param dataMessage
+     */
+    @Override
+    protected void processInOrderMsg(LogReplicationEntry dataMessage) {
+        if (applyBatchSize <= 1) {
+            super.processInOrderMsg(dataMessage);
+            return;
+        }
+
+        while (dataMessage != null) {
+            List<LogReplicationEntry> batch = new ArrayList<>();
+            long batchSeq = lastProcessedSeq;
+            while (dataMessage != null && batch.size() < applyBatchSize) {
+                batch.add(dataMessage);
+                batchSeq = getCurrentSeq(dataMessage);
+                dataMessage = pollNextMsg(batchSeq);
+            }
+
+            sinkManager.processMessages(batch);
+            ackCnt += batch.size();
+            lastProcessedSeq = batchSeq;
+        }
+    }
+
+    /**
+     * Remove from the buffer the message that follows the given timestamp, if any.
+     * Only the messages whose previous timestamp is not after the given timestamp are looked up,
+     * in order, and those already processed are dropped from the buffer along the way.
+     * @param lastSeq timestamp of the last message processed
+     * @return the next message in order, or null if it is not in the buffer.
+     */
+    private LogReplicationEntry pollNextMsg(long lastSeq) {
+        NavigableMap<Long, LogReplicationEntry> candidates = buffer.headMap(lastSeq, true);
+        Map.Entry<Long, LogReplicationEntry> candidate;
+        while ((candidate = candidates.pollFirstEntry()) != null) {
+            if (getCurrentSeq(candidate.getValue()) > lastSeq) {
+                return candidate.getValue();
+            }
+        }
+
+        return null;
+    }
+
     public void processBuffer() {
         /**
          *  For each message in the buffer, if its timestamp is smaller than last processed log entry's timestamp,
          *  skip processing and remove it from buffer.
          *  If its preTs and currentTs is overlapping with the last processed log entry's timestamp, process it.
          */
-        for (LogReplicationEntry entry : buffer.values()) {
-            LogReplicationEntryMetadata metadata = entry.getMetadata();
-            if (metadata.getTimestamp() <= lastProcessedSeq) {
-                buffer.remove(metadata.getPreviousTimestamp());
-            } else if (metadata.getPreviousTimestamp() <= lastProcessedSeq && metadata.getTimestamp() > lastProcessedSeq) {
-                sinkManager.processMessage(entry);
-                ackCnt++;
-                buffer.remove(lastProcessedSeq);
-                lastProcessedSeq = getCurrentSeq(entry);
-            }
+        LogReplicationEntry entry;
+        while ((entry = pollNextMsg(lastProcessedSeq)) != null) {
+            sinkManager.processMessage(entry);
+            ackCnt++;
+            lastProcessedSeq = getCurrentSeq(entry);
         }
     }
 }
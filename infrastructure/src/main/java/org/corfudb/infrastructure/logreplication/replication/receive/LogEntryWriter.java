@@ -3,6 +3,7 @@ package org.corfudb.infrastructure.logreplication.replication.receive;
 import lombok.extern.slf4j.Slf4j;
 
 import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
+import org.corfudb.infrastructure.logreplication.replication.send.logreader.ReaderUtility;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntryMetadata;
 import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
@@ -16,6 +17,8 @@ import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.stream.IStreamView;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
@@ -34,9 +37,11 @@ public class LogEntryWriter {
     private long srcGlobalSnapshot; //the source snapshot that the transaction logs are based
     private long lastMsgTs; //the timestamp of the last message processed.
     private LogReplicationMetadataManager logReplicationMetadataManager;
+    private final int maxDataSizePerTx; //the max size of data coalesced in a transaction.
 
     public LogEntryWriter(CorfuRuntime rt, LogReplicationConfig config, LogReplicationMetadataManager logReplicationMetadataManager) {
         this.rt = rt;
+        this.maxDataSizePerTx = config.getMaxDataSizePerMsg();
         this.logReplicationMetadataManager = logReplicationMetadataManager;
 
         Set<String> streams = config.getStreamsToReplicate();
@@ -71,68 +76,82 @@ public class LogEntryWriter {
     }
 
     /**
-     * Convert message data to an MultiObjectSMREntry and write to log.
-     * @param txMessage
+     * Convert the data of a list of contiguous messages to MultiObjectSMREntries and write them
+     * to the log in a single transaction. The replication metadata is read and validated once for
+     * the whole list: the first message has to follow the last processed log entry, and each other
+     * message the message before it. Messages are applied up to the first one that fails validation.
+     * @param txMessages
      */
-    private void processMsg(LogReplicationEntry txMessage) {
-        List<OpaqueEntry> opaqueEntryList = txMessage.getOpaqueEntryList();
-
+    private void processMsgs(List<LogReplicationEntry> txMessages) {
         CorfuStoreMetadata.Timestamp timestamp = logReplicationMetadataManager.getTimestamp();
         long persistedTopologyConfigId = logReplicationMetadataManager.query(timestamp, LogReplicationMetadataManager.LogReplicationMetadataType.TOPOLOGY_CONFIG_ID);
         long persistedSnapshotStart = logReplicationMetadataManager.query(timestamp, LogReplicationMetadataManager.LogReplicationMetadataType.LAST_SNAPSHOT_STARTED);
         long persistedSnapshotDone = logReplicationMetadataManager.query(timestamp, LogReplicationMetadataManager.LogReplicationMetadataType.LAST_SNAPSHOT_APPLIED);
         long persistedLogTs = logReplicationMetadataManager.query(timestamp, LogReplicationMetadataManager.LogReplicationMetadataType.LAST_LOG_ENTRY_PROCESSED);
 
-        long topologyConfigId = txMessage.getMetadata().getTopologyConfigId();
-        long baseSnapshotTs = txMessage.getMetadata().getSnapshotTimestamp();
-        long entryTs = txMessage.getMetadata().getTimestamp();
-        long prevTs = txMessage.getMetadata().getPreviousTimestamp();
-
         lastMsgTs = Math.max(persistedLogTs, lastMsgTs);
 
-        if (topologyConfigId != persistedTopologyConfigId || baseSnapshotTs != persistedSnapshotStart ||
-                baseSnapshotTs != persistedSnapshotDone || prevTs != persistedLogTs) {
-            log.warn("Message metadata mismatch. Skip applying message {}, persistedTopologyConfigId={}, persistedSnapshotStart={}, " +
-                            "persistedSnapshotDone={}, persistedLogTs={}", txMessage.getMetadata(), persistedTopologyConfigId,
-                    persistedSnapshotStart, persistedSnapshotDone, persistedLogTs);
-            return;
-        }
-
-        // Skip Opaque entries with timestamp that are not larger than persistedTs
-        OpaqueEntry[] newOpaqueEntryList = opaqueEntryList.stream().filter(x->x.getVersion() > persistedLogTs).toArray(OpaqueEntry[]::new);
-
-        // Check that all opaque entries contain the correct streams
-        for (OpaqueEntry opaqueEntry : newOpaqueEntryList) {
-            if (!streamMap.keySet().containsAll(opaqueEntry.getEntries().keySet())) {
-                log.error("txMessage contains noisy streams {}, expecting {}", opaqueEntry.getEntries().keySet(), streamMap);
-                throw new ReplicationWriterException("Wrong streams set");
+        TxBuilder txBuilder = logReplicationMetadataManager.getTxBuilder();
+        // The timestamp of the last log entry applied, as it would be persisted after each message.
+        long appliedLogTs = persistedLogTs;
+
+        for (LogReplicationEntry txMessage : txMessages) {
+            long topologyConfigId = txMessage.getMetadata().getTopologyConfigId();
+            long baseSnapshotTs = txMessage.getMetadata().getSnapshotTimestamp();
+            long entryTs = txMessage.getMetadata().getTimestamp();
+            long prevTs = txMessage.getMetadata().getPreviousTimestamp();
+
+            if (topologyConfigId != persistedTopologyConfigId || baseSnapshotTs != persistedSnapshotStart ||
+                    baseSnapshotTs != persistedSnapshotDone || prevTs != appliedLogTs) {
+                log.warn("Message metadata mismatch. Skip applying message {}, persistedTopologyConfigId={}, persistedSnapshotStart={}, " +
+                                "persistedSnapshotDone={}, persistedLogTs={}", txMessage.getMetadata(), persistedTopologyConfigId,
+                        persistedSnapshotStart, persistedSnapshotDone, appliedLogTs);
+                break;
             }
-        }
 
-        TxBuilder txBuilder = logReplicationMetadataManager.getTxBuilder();
+            // Skip Opaque entries with timestamp that are not larger than persistedTs
+            final long lastAppliedTs = appliedLogTs;
+            OpaqueEntry[] newOpaqueEntryList = txMessage.getOpaqueEntryList().stream()
+                    .filter(x -> x.getVersion() > lastAppliedTs).toArray(OpaqueEntry[]::new);
 
-        logReplicationMetadataManager.appendUpdate(txBuilder, LogReplicationMetadataManager.LogReplicationMetadataType.TOPOLOGY_CONFIG_ID, topologyConfigId);
-        logReplicationMetadataManager.appendUpdate(txBuilder, LogReplicationMetadataManager.LogReplicationMetadataType.LAST_LOG_ENTRY_PROCESSED, entryTs);
+            // Check that all opaque entries contain the correct streams
+            for (OpaqueEntry opaqueEntry : newOpaqueEntryList) {
+                if (!streamMap.keySet().containsAll(opaqueEntry.getEntries().keySet())) {
+                    log.error("txMessage contains noisy streams {}, expecting {}", opaqueEntry.getEntries().keySet(), streamMap);
+                    throw new ReplicationWriterException("Wrong streams set");
+                }
+            }
 
-        for (OpaqueEntry opaqueEntry : newOpaqueEntryList) {
-            for (UUID uuid : opaqueEntry.getEntries().keySet()) {
-                for (SMREntry smrEntry : opaqueEntry.getEntries().get(uuid)) {
-                    txBuilder.logUpdate(uuid, smrEntry);
+            for (OpaqueEntry opaqueEntry : newOpaqueEntryList) {
+                for (UUID uuid : opaqueEntry.getEntries().keySet()) {
+                    for (SMREntry smrEntry : opaqueEntry.getEntries().get(uuid)) {
+                        txBuilder.logUpdate(uuid, smrEntry);
+                    }
                 }
             }
+
+            appliedLogTs = entryTs;
+        }
+
+        if (appliedLogTs == persistedLogTs) {
+            return;
         }
 
+        logReplicationMetadataManager.appendUpdate(txBuilder, LogReplicationMetadataManager.LogReplicationMetadataType.TOPOLOGY_CONFIG_ID, persistedTopologyConfigId);
+        logReplicationMetadataManager.appendUpdate(txBuilder, LogReplicationMetadataManager.LogReplicationMetadataType.LAST_LOG_ENTRY_PROCESSED, appliedLogTs);
+
         txBuilder.commit(timestamp);
-        lastMsgTs = Math.max(entryTs, lastMsgTs);
+        lastMsgTs = Math.max(appliedLogTs, lastMsgTs);
     }
 
     /**
-     * Apply message generate by log entry reader and will apply at the destination corfu cluster.
+     * Verify if a message is the next message to apply, i.e., it follows the last processed
+     * message of the current delta sync.
      * @param msg
-     * @return last processed message timestamp
+     * @return true if the message is the next message to apply.
      * @throws ReplicationWriterException
      */
-    public long apply(LogReplicationEntry msg) throws ReplicationWriterException {
+    private boolean isNextMsg(LogReplicationEntry msg) throws ReplicationWriterException {
 
         log.debug("Apply log entry {}", msg.getMetadata().getTimestamp());
 
@@ -142,7 +161,7 @@ public class LogEntryWriter {
         if (msg.getMetadata().getSnapshotTimestamp() < srcGlobalSnapshot) {
             log.warn("Ignore Log Entry. Received message with snapshot {} is smaller than current snapshot {}",
                     msg.getMetadata().getSnapshotTimestamp(), srcGlobalSnapshot);
-            return Address.NON_ADDRESS;
+            return false;
         }
 
         // A new Delta sync is triggered, setup the new srcGlobalSnapshot and msgQ
@@ -155,21 +174,98 @@ public class LogEntryWriter {
         if (msg.getMetadata().getTimestamp() <= lastMsgTs) {
             log.warn("Ignore Log Entry. Received message with snapshot {} is smaller than lastMsgTs {}.",
                     msg.getMetadata().getSnapshotTimestamp(), lastMsgTs);
-            return Address.NON_ADDRESS;
+            return false;
         }
 
         //If the entry is the expecting entry, process it and process
         //the messages in the queue.
         if (msg.getMetadata().getPreviousTimestamp() == lastMsgTs) {
-            processMsg(msg);
-            return lastMsgTs;
+            return true;
         }
 
         log.warn("Log entry {} was not processed, prevTs={}, lastMsgTs={}, srcGlobalSnapshot={}", msg.getMetadata().getTimestamp(),
                 msg.getMetadata().getPreviousTimestamp(), lastMsgTs, srcGlobalSnapshot);
+        return false;
+    }
+
+    /**
+     * Apply message generate by log entry reader and will apply at the destination corfu cluster.
+     * @param msg
+     * @return last processed message timestamp
+     * @throws ReplicationWriterException
+     */
+    public long apply(LogReplicationEntry msg) throws ReplicationWriterException {
+        if (isNextMsg(msg)) {
+            processMsgs(Collections.singletonList(msg));
+            return lastMsgTs;
+        }
+
         return Address.NON_ADDRESS;
     }
 
+    /**
+     * Apply a list of in order messages generated by log entry reader at the destination corfu cluster.
+     * Contiguous messages are coalesced into transactions of up to maxDataSizePerMsg bytes of data,
+     * so that the replication metadata is read, validated and updated once per transaction instead
+     * of once per message.
+     * @param msgs
+     * @return last processed message timestamp
+     * @throws ReplicationWriterException
+     */
+    public long apply(List<LogReplicationEntry> msgs) throws ReplicationWriterException {
+        List<LogReplicationEntry> batch = new ArrayList<>();
+        long batchPrevTs = lastMsgTs;
+        int batchSize = 0;
+
+        for (LogReplicationEntry msg : msgs) {
+            // A message of another delta sync can not be validated along with the current batch
+            if (!batch.isEmpty() && msg.getMetadata().getSnapshotTimestamp() != srcGlobalSnapshot) {
+                lastMsgTs = batchPrevTs;
+                processMsgs(batch);
+                batch.clear();
+                batchSize = 0;
+            }
+
+            if (!isNextMsg(msg)) {
+                continue;
+            }
+
+            int msgSize = 0;
+            for (OpaqueEntry opaqueEntry : msg.getOpaqueEntryList()) {
+                msgSize += ReaderUtility.calculateOpaqueEntrySize(opaqueEntry);
+            }
+
+            if (!batch.isEmpty() && batchSize + msgSize > maxDataSizePerTx) {
+                lastMsgTs = batchPrevTs;
+                processMsgs(batch);
+                batch.clear();
+                batchSize = 0;
+
+                // The batch was not fully applied, so this message does not follow the last processed one.
+                if (msg.getMetadata().getPreviousTimestamp() != lastMsgTs) {
+                    log.warn("Log entry {} was not processed, prevTs={}, lastMsgTs={}", msg.getMetadata().getTimestamp(),
+                            msg.getMetadata().getPreviousTimestamp(), lastMsgTs);
+                    continue;
+                }
+            }
+
+            if (batch.isEmpty()) {
+                batchPrevTs = lastMsgTs;
+            }
+            batch.add(msg);
+            batchSize += msgSize;
+            // The next message has to follow this one, which is applied along with the batch.
+            lastMsgTs = msg.getMetadata().getTimestamp();
+        }
+
+        if (!batch.isEmpty()) {
+            lastMsgTs = batchPrevTs;
+            processMsgs(batch);
+        }
+
+        return lastMsgTs;
+    }
+
     /**
      * Set the base snapshot that last full sync based on and ackTimestamp
      * that is the last log entry it has played.
@@ -26,10 +26,13 @@ import org.corfudb.runtime.collections.TxBuilder;
 import org.corfudb.runtime.view.Address;
 
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.corfudb.runtime.view.TableRegistry.CORFU_SYSTEM_NAMESPACE;
 
@@ -45,6 +48,9 @@ public class LogReplicationMetadataManager {
     private static final String REPLICATION_STATUS_TABLE = "LogReplicationStatus";
     private static final String REPLICATION_EVENT_TABLE_NAME = "LogReplicationEventTable";
 
+    // Value of UNCHANGED_STREAMS when the snapshot sync transfers all streams
+    private static final String NO_UNCHANGED_STREAMS = "";
+
     private final CorfuStore corfuStore;
 
     private final String metadataTableName;
@@ -55,6 +61,7 @@ public class LogReplicationMetadataManager {
     private final CorfuStore corfuStoreTxLogging;
 
     private final CorfuRuntime runtime;
+    @Getter
     private final String localClusterId;
 
     public LogReplicationMetadataManager(CorfuRuntime rt, long topologyConfigId, String localClusterId) {
@@ -201,6 +208,9 @@ public class LogReplicationMetadataManager {
             long val = Address.NON_ADDRESS;
             if (type == LogReplicationMetadataType.TOPOLOGY_CONFIG_ID) {
                 val = topologyConfigId;
+            } else if (type == LogReplicationMetadataType.UNCHANGED_STREAMS) {
+                appendUpdate(txBuilder, type, NO_UNCHANGED_STREAMS);
+                continue;
             }
             appendUpdate(txBuilder, type, val);
          }
@@ -230,6 +240,8 @@ public class LogReplicationMetadataManager {
                 // For siteConfig ID, it should not be changed. Update it to fence off other metadata updates.
                 val = query(timestamp, LogReplicationMetadataType.TOPOLOGY_CONFIG_ID);
                 appendUpdate(txBuilder, key, val);
+            } else if (key == LogReplicationMetadataType.UNCHANGED_STREAMS) {
+                appendUpdate(txBuilder, key, NO_UNCHANGED_STREAMS);
             } else {
                 // Reset all other keys to -1.
                 appendUpdate(txBuilder, key, val);
@@ -283,6 +295,7 @@ public class LogReplicationMetadataManager {
         appendUpdate(txBuilder, LogReplicationMetadataType.LAST_SNAPSHOT_APPLIED, Address.NON_ADDRESS);
         appendUpdate(txBuilder, LogReplicationMetadataType.LAST_SNAPSHOT_TRANSFERRED_SEQUENCE_NUMBER, Address.NON_ADDRESS);
         appendUpdate(txBuilder, LogReplicationMetadataType.LAST_LOG_ENTRY_PROCESSED, Address.NON_ADDRESS);
+        appendUpdate(txBuilder, LogReplicationMetadataType.UNCHANGED_STREAMS, NO_UNCHANGED_STREAMS);
 
         txBuilder.commit(timestamp);
 
@@ -294,6 +307,58 @@ public class LogReplicationMetadataManager {
     }
 
 
+    /**
+     * Set the streams which an incremental snapshot sync does not transfer, as their content on this cluster
+     * already matches the content on the active cluster at the base snapshot. These streams are not
+     * cleared nor applied by the snapshot sync.
+     *
+     * If the current topologyConfigId or the base snapshot are not the persisted ones, ignore the operation.
+     *
+     * @param topologyConfigId current topologyConfigId
+     * @param ts base snapshot timestamp of the snapshot sync
+     * @param streamIds ids of the unchanged streams
+     * @return true, if succeeds
+     *         false, otherwise
+     */
+    public boolean setUnchangedStreams(long topologyConfigId, long ts, Set<UUID> streamIds) {
+        CorfuStoreMetadata.Timestamp timestamp = corfuStore.getTimestamp();
+        long persistedTopologyConfigId = query(timestamp, LogReplicationMetadataType.TOPOLOGY_CONFIG_ID);
+        long persistedSnapshotStart = query(timestamp, LogReplicationMetadataType.LAST_SNAPSHOT_STARTED);
+
+        if (topologyConfigId != persistedTopologyConfigId || ts != persistedSnapshotStart) {
+            log.warn("Metadata mismatch, persisted[topologyConfigId={}, snapshotStart={}], intended[topologyConfigId={}, " +
+                    "snapshotStart={}]. Unchanged streams will not be persisted", persistedTopologyConfigId,
+                    persistedSnapshotStart, topologyConfigId, ts);
+            return false;
+        }
+
+        TxBuilder txBuilder = corfuStore.tx(NAMESPACE);
+
+        // Update the topologyConfigId to fence all other transactions that update the metadata at the same time
+        appendUpdate(txBuilder, LogReplicationMetadataType.TOPOLOGY_CONFIG_ID, topologyConfigId);
+        appendUpdate(txBuilder, LogReplicationMetadataType.UNCHANGED_STREAMS,
+                streamIds.stream().map(UUID::toString).collect(Collectors.joining(",")));
+
+        txBuilder.commit(timestamp);
+
+        log.debug("Commit unchanged streams {} for snapshot={}, topologyConfigId={}", streamIds, ts, topologyConfigId);
+        return true;
+    }
+
+    /**
+     * Get the streams which the current snapshot sync does not transfer, nor clear or apply.
+     *
+     * @return ids of the unchanged streams, empty if the snapshot sync transfers all streams
+     */
+    public Set<UUID> getUnchangedStreams() {
+        String val = queryString(null, LogReplicationMetadataType.UNCHANGED_STREAMS);
+        if (val == null || val.equals(NO_UNCHANGED_STREAMS)) {
+            return Collections.emptySet();
+        }
+
+        return Arrays.stream(val.split(",")).map(UUID::fromString).collect(Collectors.toSet());
+    }
+
     /**
      * This call should be done in a transaction after a snapshot transfer is complete and before the apply starts.
      *
@@ -621,6 +686,9 @@ public class LogReplicationMetadataManager {
                 case LAST_LOG_ENTRY_PROCESSED:
                    builder.append(getLastProcessedLogEntryTimestamp());
                    break;
+                case UNCHANGED_STREAMS:
+                   builder.append(getUnchangedStreams());
+                   break;
                 default:
                     // error
             }
@@ -726,7 +794,8 @@ public class LogReplicationMetadataManager {
         REMAINING_REPLICATION_PERCENT("replicationStatus"),
         DATA_CONSISTENT_ON_STANDBY("dataConsistentOnStandby"),
         SNAPSHOT_SYNC_TYPE("snapshotSyncType"),
-        SNAPSHOT_SYNC_COMPLETE_TIME("snapshotSyncCompleteTime");
+        SNAPSHOT_SYNC_COMPLETE_TIME("snapshotSyncCompleteTime"),
+        UNCHANGED_STREAMS("unchangedStreams");
 
         @Getter
         String val;
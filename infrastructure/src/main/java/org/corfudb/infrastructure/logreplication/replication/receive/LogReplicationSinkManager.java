@@ -1,15 +1,22 @@
 package org.corfudb.infrastructure.logreplication.replication.receive;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
 import org.corfudb.common.util.ObservableValue;
 import org.corfudb.infrastructure.ServerContext;
 import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
 import org.corfudb.infrastructure.logreplication.infrastructure.plugins.ISnapshotSyncPlugin;
 import org.corfudb.infrastructure.logreplication.infrastructure.plugins.LogReplicationPluginConfig;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics.Stage;
+import org.corfudb.infrastructure.logreplication.utils.StreamDigests;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntryMetadata;
 import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
@@ -23,8 +30,14 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -43,6 +56,8 @@ public class LogReplicationSinkManager implements DataReceiver {
     private static final String config_file = "/config/corfu/corfu_replication_config.properties";
 
     private final int DEFAULT_ACK_CNT = 1;
+
+    private static final int DEFAULT_APPLY_BATCH_SIZE = 1;
     /*
      * Duration in milliseconds after which an ACK is sent back to the sender
      * if the message count is not reached before
@@ -56,6 +71,12 @@ public class LogReplicationSinkManager implements DataReceiver {
 
     private int bufferSize;
 
+    /*
+     * Max number of contiguous log entry messages applied together, in as few transactions as possible.
+     * Messages are applied one by one if it is 1.
+     */
+    private int applyBatchSize = DEFAULT_APPLY_BATCH_SIZE;
+
     private CorfuRuntime runtime;
 
     private LogEntrySinkBufferManager logEntrySinkBufferManager;
@@ -97,9 +118,17 @@ public class LogReplicationSinkManager implements DataReceiver {
 
     private ExecutorService applyExecutor;
 
+    // Compares the stream digests of incremental snapshot syncs, off the thread receiving the messages
+    private ExecutorService digestExecutor;
+
     @Getter
     private AtomicBoolean ongoingApply = new AtomicBoolean(false);
 
+    /*
+     * The buffer gauges of this sink manager, removed once it is shut down.
+     */
+    private final List<Meter.Id> meters = new ArrayList<>();
+
     /**
      * Constructor Sink Manager
      *
@@ -118,6 +147,7 @@ public class LogReplicationSinkManager implements DataReceiver {
                 .keyStore((String) context.getServerConfig().get("--keystore"))
                 .ksPasswordFile((String) context.getServerConfig().get("--keystore-password-file"))
                 .tlsEnabled((Boolean) context.getServerConfig().get("--enable-tls"))
+                .sharedReadCache(context.getLogReplicationReadCache())
                 .build())
                 .parseConfigurationString(localCorfuEndpoint).connect();
         this.pluginConfigFilePath = context.getPluginConfigFilePath();
@@ -161,9 +191,37 @@ public class LogReplicationSinkManager implements DataReceiver {
                         .setNameFormat("snapshotSyncApplyExecutor")
                         .build());
 
+        this.digestExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("snapshotSyncDigestExecutor")
+                        .build());
+
         // Set the data consistent status.
         setDataConsistent(dataConsistent.get());
         initWriterAndBufferMgr();
+        configureBufferMetrics();
+    }
+
+    /**
+     * Report the number of out of order messages buffered. As the buffer managers are replaced
+     * on every sync, the gauges read the size of the current ones. The sink does not know the
+     * id of the active cluster, so the gauges are tagged with the id of the local cluster.
+     */
+    private void configureBufferMetrics() {
+        Tag clusterTag = Tag.of(LogReplicationMetrics.CLUSTER_TAG, logReplicationMetadataManager.getLocalClusterId());
+        LogReplicationMetrics.registerGauge("logreplication.sink.buffer.size",
+                ImmutableList.of(Tag.of("replication.type", LogReplicationMetrics.LOG_ENTRY), clusterTag),
+                this, sinkManager -> getBufferSize(sinkManager.logEntrySinkBufferManager))
+                .ifPresent(meters::add);
+        LogReplicationMetrics.registerGauge("logreplication.sink.buffer.size",
+                ImmutableList.of(Tag.of("replication.type", LogReplicationMetrics.SNAPSHOT), clusterTag),
+                this, sinkManager -> getBufferSize(sinkManager.snapshotSinkBufferManager))
+                .ifPresent(meters::add);
+    }
+
+    private static double getBufferSize(SinkBufferManager bufferManager) {
+        return bufferManager == null ? 0 : bufferManager.buffer.size();
     }
 
     /**
@@ -183,7 +241,7 @@ public class LogReplicationSinkManager implements DataReceiver {
                 logReplicationMetadataManager.getLastProcessedLogEntryTimestamp());
 
         logEntrySinkBufferManager = new LogEntrySinkBufferManager(ackCycleTime, ackCycleCnt, bufferSize,
-                logReplicationMetadataManager.getLastProcessedLogEntryTimestamp(), this);
+                logReplicationMetadataManager.getLastProcessedLogEntryTimestamp(), applyBatchSize, this);
     }
 
     private ISnapshotSyncPlugin getSnapshotPlugin() {
@@ -212,24 +270,38 @@ public class LogReplicationSinkManager implements DataReceiver {
             bufferSize = Integer.parseInt(props.getProperty("log_reader_max_retry", Integer.toString(bufferSize)));
             ackCycleCnt = Integer.parseInt(props.getProperty("log_writer_ack_cycle_count", Integer.toString(ackCycleCnt)));
             ackCycleTime = Integer.parseInt(props.getProperty("log_writer_ack_cycle_time", Integer.toString(ackCycleTime)));
+            applyBatchSize = Integer.parseInt(props.getProperty("log_writer_apply_batch_size", Integer.toString(applyBatchSize)));
             reader.close();
         } catch (FileNotFoundException e) {
             log.warn("Config file {} does not exist.  Using default configs", config_file);
         } catch (IOException e) {
             log.error("IO Exception when reading config file", e);
         }
-        log.info("Sink Manager Buffer config queue size {} ackCycleCnt {} ackCycleTime {}",
-                bufferSize, ackCycleCnt, ackCycleTime);
+        log.info("Sink Manager Buffer config queue size {} ackCycleCnt {} ackCycleTime {} applyBatchSize {}",
+                bufferSize, ackCycleCnt, ackCycleTime, applyBatchSize);
     }
 
     /**
-     * Receive a message from the sender.
+     * Receive a message from the sender, waiting for its ACK if it is computed asynchronously.
      *
      * @param message
      * @return
      */
     @Override
     public LogReplicationEntry receive(LogReplicationEntry message) {
+        return receiveAsync(message).join();
+    }
+
+    /**
+     * Receive a message from the sender.
+     *
+     * The start marker of an incremental snapshot sync is acknowledged once the digests of the streams
+     * are compared, which does not hold back the messages received in the meantime.
+     *
+     * @param message
+     * @return future of the ACK of the message, completed with null if the message is not acknowledged
+     */
+    public CompletableFuture<LogReplicationEntry> receiveAsync(LogReplicationEntry message) {
         rxMessageCounter++;
         rxMessageCount.setValue(rxMessageCounter);
 
@@ -241,7 +313,7 @@ public class LogReplicationSinkManager implements DataReceiver {
         if (message.getMetadata().getTopologyConfigId() != topologyConfigId) {
             log.warn("Drop message {}. Topology config id mismatch, local={}, msg={}", message.getMetadata().getMessageMetadataType(),
                     topologyConfigId, message.getMetadata().getTopologyConfigId());
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
         // If it receives a SNAPSHOT_START message, prepare a transition
@@ -255,8 +327,19 @@ public class LogReplicationSinkManager implements DataReceiver {
                 log.info("Enter onSnapshotSyncStart :: {}", snapshotSyncPlugin.getClass().getSimpleName());
                 snapshotSyncPlugin.onSnapshotSyncStart(runtime);
                 log.info("Exit onSnapshotSyncStart :: {}", snapshotSyncPlugin.getClass().getSimpleName());
+
+                // The start marker of an incremental snapshot sync carries the digests of the streams on the
+                // active cluster, acknowledge the streams which are unchanged so they are not transferred.
+                if (!message.getStreamDigests().isEmpty()) {
+                    return CompletableFuture.supplyAsync(() -> processIncrementalSnapshotStart(message), digestExecutor)
+                            .exceptionally(e -> {
+                                log.warn("Failed to compare the stream digests of {}, all streams will be transferred",
+                                        message.getMetadata(), e);
+                                return null;
+                            });
+                }
             }
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
         if (!receivedValidMessage(message)) {
@@ -269,7 +352,7 @@ public class LogReplicationSinkManager implements DataReceiver {
                 if (ackMetadata.getMessageMetadataType() == MessageType.SNAPSHOT_TRANSFER_COMPLETE) {
                     log.warn("Resend snapshot sync transfer complete ack. Sink state={}, received={}", rxState,
                             message.getMetadata().getMessageMetadataType());
-                    return new LogReplicationEntry(ackMetadata);
+                    return CompletableFuture.completedFuture(new LogReplicationEntry(ackMetadata));
                 }
             }
 
@@ -277,10 +360,10 @@ public class LogReplicationSinkManager implements DataReceiver {
             log.warn("Sink Manager in state {} and received message {}. Dropping Message.", rxState,
                     message.getMetadata().getMessageMetadataType());
 
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
-        return processReceivedMessage(message);
+        return CompletableFuture.completedFuture(processReceivedMessage(message));
     }
 
     /**
@@ -384,6 +467,47 @@ public class LogReplicationSinkManager implements DataReceiver {
         return true;
     }
 
+    /**
+     * Compare the digests of the streams on the active cluster, carried by the start marker of an incremental
+     * snapshot sync, with the digests of the same streams at the tail of the local log. The streams which have
+     * the same digest are persisted as unchanged, so that they are not cleared nor applied by this snapshot sync,
+     * and acknowledged so that the active cluster does not transfer them.
+     *
+     * This runs on the digest executor. If another snapshot sync started in the meantime, persisting the
+     * unchanged streams is fenced off by the base snapshot, and the start marker is not acknowledged.
+     *
+     * @param entry snapshot sync start marker
+     * @return ack with the digests of the unchanged streams, or null if they could not be persisted
+     */
+    private LogReplicationEntry processIncrementalSnapshotStart(LogReplicationEntry entry) {
+        long tail = runtime.getAddressSpaceView().getLogTail();
+        Map<UUID, String> unchangedStreams = new HashMap<>();
+        entry.getStreamDigests().forEach((streamId, digest) -> {
+            try {
+                StreamDigests.compute(runtime, streamId, tail)
+                        .filter(digest::equals)
+                        .ifPresent(localDigest -> unchangedStreams.put(streamId, localDigest));
+            } catch (RuntimeException e) {
+                log.warn("Failed to compute the digest of stream {}, it will be transferred", streamId, e);
+            }
+        });
+
+        if (!logReplicationMetadataManager.setUnchangedStreams(entry.getMetadata().getTopologyConfigId(),
+                entry.getMetadata().getSnapshotTimestamp(), unchangedStreams.keySet())) {
+            return null;
+        }
+
+        log.info("Incremental snapshot sync {} on snapshot {}, {}/{} streams unchanged",
+                entry.getMetadata().getSyncRequestId(), entry.getMetadata().getSnapshotTimestamp(),
+                unchangedStreams.size(), entry.getStreamDigests().size());
+
+        LogReplicationEntryMetadata ackMetadata = new LogReplicationEntryMetadata(entry.getMetadata());
+        ackMetadata.setMessageMetadataType(MessageType.SNAPSHOT_DIGESTS_COMPARED);
+        LogReplicationEntry ack = new LogReplicationEntry(ackMetadata);
+        ack.setStreamDigests(unchangedStreams);
+        return ack;
+    }
+
     /**
      * Given that snapshot sync apply phase has finished, set the corresponding
      * metadata and signal external plugin on completion of snapshot sync, so
@@ -396,7 +520,7 @@ public class LogReplicationSinkManager implements DataReceiver {
 
         rxState = RxState.LOG_ENTRY_SYNC;
         logEntrySinkBufferManager = new LogEntrySinkBufferManager(ackCycleTime, ackCycleCnt, bufferSize,
-                logReplicationMetadataManager.getLastProcessedLogEntryTimestamp(), this);
+                logReplicationMetadataManager.getLastProcessedLogEntryTimestamp(), applyBatchSize, this);
 
         log.info("Snapshot apply complete, sync_id={}, snapshot={}, state={}", entry.getMetadata().getSyncRequestId(),
                 entry.getMetadata().getSnapshotTimestamp(), rxState);
@@ -410,7 +534,9 @@ public class LogReplicationSinkManager implements DataReceiver {
     private void processSnapshotMessage(LogReplicationEntry entry) {
         switch (entry.getMetadata().getMessageMetadataType()) {
             case SNAPSHOT_MESSAGE:
+                long start = System.nanoTime();
                 snapshotWriter.apply(entry);
+                recordApplied(LogReplicationMetrics.SNAPSHOT, Collections.singletonList(entry), start);
                 break;
             case SNAPSHOT_END:
                 if (snapshotWriter.getPhase() != StreamsSnapshotWriter.Phase.APPLY_PHASE) {
@@ -457,7 +583,9 @@ public class LogReplicationSinkManager implements DataReceiver {
 
         switch (rxState) {
             case LOG_ENTRY_SYNC:
+                long start = System.nanoTime();
                 logEntryWriter.apply(message);
+                recordApplied(LogReplicationMetrics.LOG_ENTRY, Collections.singletonList(message), start);
                 break;
 
             case SNAPSHOT_SYNC:
@@ -469,6 +597,43 @@ public class LogReplicationSinkManager implements DataReceiver {
         }
     }
 
+    /**
+     * While processing contiguous in order log entry messages, the buffer will callback and apply them together
+     * @param messages
+     */
+    public void processMessages(List<LogReplicationEntry> messages) {
+        log.trace("Received {} dataMessages by Sink Manager. Total [{}]", messages.size(), rxMessageCounter);
+
+        if (rxState == RxState.LOG_ENTRY_SYNC) {
+            long start = System.nanoTime();
+            logEntryWriter.apply(messages);
+            recordApplied(LogReplicationMetrics.LOG_ENTRY, messages, start);
+        } else {
+            messages.forEach(this::processMessage);
+        }
+    }
+
+    /**
+     * Record the time taken to apply messages, and count the messages and SMR entries applied.
+     *
+     * @param replicationType logentry or snapshot
+     * @param messages messages applied
+     * @param startNanos time the apply started, in nanoseconds
+     */
+    private void recordApplied(String replicationType, List<LogReplicationEntry> messages, long startNanos) {
+        if (!MeterRegistryProvider.getInstance().isPresent()) {
+            return;
+        }
+
+        LogReplicationMetrics.recordStage(Stage.APPLY, replicationType, startNanos);
+        int numEntries = messages.stream()
+                .flatMap(message -> message.getOpaqueEntryList().stream())
+                .flatMap(opaqueEntry -> opaqueEntry.getEntries().values().stream())
+                .mapToInt(List::size)
+                .sum();
+        LogReplicationMetrics.recordApplied(replicationType, messages.size(), numEntries);
+    }
+
     /**
      * Verify if the message is the correct type for the current state.
      *
@@ -511,12 +676,14 @@ public class LogReplicationSinkManager implements DataReceiver {
         snapshotWriter.reset(topologyConfigId, lastAppliedSnapshotTimestamp);
         logEntryWriter.reset(lastAppliedSnapshotTimestamp, lastProcessedLogEntryTimestamp);
         logEntrySinkBufferManager = new LogEntrySinkBufferManager(ackCycleTime, ackCycleCnt, bufferSize,
-                lastProcessedLogEntryTimestamp, this);
+                lastProcessedLogEntryTimestamp, applyBatchSize, this);
     }
 
     public void shutdown() {
+        LogReplicationMetrics.removeMeters(meters);
         this.runtime.shutdown();
         this.applyExecutor.shutdownNow();
+        this.digestExecutor.shutdownNow();
     }
 
     /**
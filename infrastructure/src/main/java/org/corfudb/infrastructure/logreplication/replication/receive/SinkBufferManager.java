@@ -6,7 +6,7 @@ import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntryMetadata;
 import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
 
-import java.util.HashMap;
+import java.util.TreeMap;
 
 
 /**
@@ -23,11 +23,11 @@ import java.util.HashMap;
 public abstract class SinkBufferManager {
 
     /*
-     * The buffer is implemented as a hashmap.
+     * The buffer is implemented as a map ordered by key.
      * For logEntry buffer, the key is the entry's previousTimeStamp
      * For Snapshot buffer, the key is the previous entry's snapshotSeqNumber
      */
-    public HashMap<Long, LogReplicationEntry> buffer;
+    public TreeMap<Long, LogReplicationEntry> buffer;
 
     /*
      * While processing a message in the buffer, it will call
@@ -88,7 +88,7 @@ public abstract class SinkBufferManager {
         this.maxSize = size;
         this.sinkManager = sinkManager;
         this.lastProcessedSeq = lastProcessedSeq;
-        buffer = new HashMap<>();
+        buffer = new TreeMap<>();
     }
 
     /**
@@ -131,10 +131,7 @@ public abstract class SinkBufferManager {
         // This message contains entries that haven't been applied yet
         if (preTs <= lastProcessedSeq && currentTs > lastProcessedSeq) {
             log.trace("Received in order message={}, lastProcessed={}", currentTs, lastProcessedSeq);
-            sinkManager.processMessage(dataMessage);
-            ackCnt++;
-            lastProcessedSeq = getCurrentSeq(dataMessage);
-            processBuffer();
+            processInOrderMsg(dataMessage);
         } else if (currentTs > lastProcessedSeq && buffer.size() < maxSize) {
             log.debug("Received unordered message, currentTs={}, lastProcessed={}", currentTs, lastProcessedSeq);
             buffer.put(preTs, dataMessage);
@@ -152,6 +149,17 @@ public abstract class SinkBufferManager {
         return null;
     }
 
+    /**
+     * Process the expected message, then the messages in the buffer that follow it in order.
+     * @param dataMessage
+     */
+    protected void processInOrderMsg(LogReplicationEntry dataMessage) {
+        sinkManager.processMessage(dataMessage);
+        ackCnt++;
+        lastProcessedSeq = getCurrentSeq(dataMessage);
+        processBuffer();
+    }
+
     // Process messages in the buffer that are in order
     public abstract void processBuffer();
 
@@ -19,10 +19,12 @@ import org.corfudb.util.serializer.Serializers;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.lang.reflect.Array;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -119,8 +121,11 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
             return;
         }
 
+        // Streams not transferred by an incremental snapshot sync are left as they are
+        Set<UUID> unchangedStreams = Collections.emptySet();
         if (phase == Phase.APPLY_PHASE) {
-            log.debug("Clear regular streams, count={}", streamViewMap.size());
+            unchangedStreams = logReplicationMetadataManager.getUnchangedStreams();
+            log.debug("Clear regular streams, count={}, unchanged={}", streamViewMap.size(), unchangedStreams.size());
         } else {
             log.debug("Clear shadow streams, count={}", streamViewMap.size());
         }
@@ -129,6 +134,10 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
         logReplicationMetadataManager.appendUpdate(txBuilder, LogReplicationMetadataType.TOPOLOGY_CONFIG_ID, topologyConfigId);
 
         for (UUID streamID : streamViewMap.keySet()) {
+            if (unchangedStreams.contains(streamID)) {
+                continue;
+            }
+
             UUID streamToClear = streamID;
             if (phase == Phase.TRANSFER_PHASE) {
                 streamToClear = regularToShadowStreamId.get(streamID);
@@ -257,6 +266,11 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
      * Apply updates to shadow stream (temporarily) to avoid data
      * inconsistency until full snapshot has been transferred.
      *
+     * Messages must arrive in sequence number order, but the messages of different
+     * streams may be interleaved (the sender can read several streams concurrently):
+     * each message holds entries of a single stream, which are appended to that stream's
+     * own shadow stream, so each shadow stream still receives its entries in order.
+     *
      * @param message snapshot log entry
      */
     @Override
@@ -339,9 +353,12 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
     public void applyShadowStreams() {
         long snapshot = rt.getAddressSpaceView().getLogTail();
         clearTables();
-        log.debug("Apply Shadow Streams, total={}", streamViewMap.size());
+        Set<UUID> unchangedStreams = logReplicationMetadataManager.getUnchangedStreams();
+        log.debug("Apply Shadow Streams, total={}, unchanged={}", streamViewMap.size(), unchangedStreams.size());
         for (UUID uuid : streamViewMap.keySet()) {
-            applyShadowStream(uuid, snapshot);
+            if (!unchangedStreams.contains(uuid)) {
+                applyShadowStream(uuid, snapshot);
+            }
         }
     }
 
@@ -359,6 +376,11 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
         if (seqNum != Address.NON_ADDRESS) {
             log.debug("Start applying shadow streams, seqNum={}", seqNum);
             applyShadowStreams();
+        } else if (!logReplicationMetadataManager.getUnchangedStreams().isEmpty()) {
+            // An incremental snapshot sync transferred no data, the streams which changed are empty
+            // on the active cluster.
+            log.debug("Clear changed streams, no data transferred");
+            clearTables();
         }
     }
     
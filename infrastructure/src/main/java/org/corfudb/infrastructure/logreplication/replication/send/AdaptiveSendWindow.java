@@ -0,0 +1,143 @@
+package org.corfudb.infrastructure.logreplication.replication.send;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A congestion control style window of in flight messages for the sender buffer manager.
+ *
+ * The window grows while messages get acknowledged (exponentially up to the slow start
+ * threshold, then by one message per window acknowledged) and is halved on a loss, so that
+ * the sender keeps a long fat network between sites busy without flooding a lossy one.
+ * The round trip time of acknowledgements is tracked as in TCP (RFC 6298) to derive the
+ * timeout after which a message is considered lost and retransmitted.
+ */
+@Slf4j
+public class AdaptiveSendWindow {
+
+    /*
+     * Weights of a new sample in the smoothed round trip time and its variation.
+     */
+    private static final double ALPHA = 0.125;
+    private static final double BETA = 0.25;
+
+    /*
+     * Number of round trip time variations added to the smoothed round trip time for the timeout.
+     */
+    private static final int K = 4;
+
+    /*
+     * The min retransmission timeout, in milliseconds.
+     */
+    private static final long MIN_RETRANSMIT_TIMEOUT_MS = 100;
+
+    /*
+     * The retransmission timeout before any round trip time is measured, in milliseconds.
+     */
+    private static final long INITIAL_RETRANSMIT_TIMEOUT_MS = 1000;
+
+    /*
+     * The min window size.
+     */
+    private static final int MIN_SIZE = 1;
+
+    /*
+     * The max window size.
+     */
+    private final int maxSize;
+
+    /*
+     * The max retransmission timeout, in milliseconds.
+     */
+    private final long maxRetransmitTimeoutMs;
+
+    /*
+     * The current number of messages that can be in flight.
+     */
+    @Getter
+    private int size;
+
+    /*
+     * The window grows exponentially below this size, linearly above it.
+     */
+    private int slowStartThreshold;
+
+    /*
+     * The number of messages acknowledged since the window last grew linearly.
+     */
+    private int ackedSinceIncrease = 0;
+
+    /*
+     * The smoothed round trip time and its variation, in milliseconds, negative until measured.
+     */
+    @Getter
+    private double smoothedRttMs = -1;
+    private double rttVariationMs = 0;
+
+    /**
+     * Constructor
+     *
+     * @param initialSize initial number of messages in flight
+     * @param maxSize max number of messages in flight
+     * @param maxRetransmitTimeoutMs max time to wait for an acknowledgement before a retransmission
+     */
+    public AdaptiveSendWindow(int initialSize, int maxSize, long maxRetransmitTimeoutMs) {
+        this.maxSize = Math.max(MIN_SIZE, maxSize);
+        this.size = Math.max(MIN_SIZE, Math.min(initialSize, this.maxSize));
+        this.slowStartThreshold = this.maxSize;
+        this.maxRetransmitTimeoutMs = Math.max(MIN_RETRANSMIT_TIMEOUT_MS, maxRetransmitTimeoutMs);
+    }
+
+    /**
+     * Grow the window on acknowledgements, and update the round trip time estimate.
+     *
+     * @param numAcked number of messages acknowledged
+     * @param rttSampleMs round trip time of a message acknowledged, negative if there is
+     *                    no valid sample (e.g. all acknowledged messages were retransmitted)
+     */
+    public void onAck(int numAcked, long rttSampleMs) {
+        if (rttSampleMs >= 0) {
+            if (smoothedRttMs < 0) {
+                smoothedRttMs = rttSampleMs;
+                rttVariationMs = rttSampleMs / 2.0;
+            } else {
+                rttVariationMs = (1 - BETA) * rttVariationMs + BETA * Math.abs(smoothedRttMs - rttSampleMs);
+                smoothedRttMs = (1 - ALPHA) * smoothedRttMs + ALPHA * rttSampleMs;
+            }
+        }
+
+        if (size < slowStartThreshold) {
+            size = Math.min(size + numAcked, slowStartThreshold);
+        } else {
+            ackedSinceIncrease += numAcked;
+            while (ackedSinceIncrease >= size) {
+                ackedSinceIncrease -= size;
+                size++;
+            }
+        }
+        size = Math.min(size, maxSize);
+    }
+
+    /**
+     * Shrink the window on a loss, i.e., a message which was not acknowledged in time.
+     */
+    public void onLoss() {
+        slowStartThreshold = Math.max(MIN_SIZE, size / 2);
+        size = slowStartThreshold;
+        ackedSinceIncrease = 0;
+        log.debug("Loss detected, shrink send window to {}", size);
+    }
+
+    /**
+     * Get the time to wait for an acknowledgement before retransmitting a message.
+     *
+     * @return the retransmission timeout in milliseconds
+     */
+    public long getRetransmitTimeoutMs() {
+        if (smoothedRttMs < 0) {
+            return Math.min(INITIAL_RETRANSMIT_TIMEOUT_MS, maxRetransmitTimeoutMs);
+        }
+        long timeout = (long) Math.ceil(smoothedRttMs + K * rttVariationMs);
+        return Math.max(MIN_RETRANSMIT_TIMEOUT_MS, Math.min(timeout, maxRetransmitTimeoutMs));
+    }
+}
@@ -9,6 +9,8 @@ import org.corfudb.infrastructure.logreplication.replication.fsm.LogReplicationE
 import org.corfudb.infrastructure.logreplication.replication.fsm.LogReplicationFSM;
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.LogEntryReader;
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.ReadProcessor;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics.Stage;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.runtime.exceptions.TrimmedException;
 
@@ -50,6 +52,13 @@ public class LogEntrySender {
         taskActive = false;
     }
 
+    /**
+     * Release the resources of the sender, once log entry sync is stopped for good.
+     */
+    public void shutdown() {
+        dataSenderBufferManager.shutdown();
+    }
+
     /**
      * Constructor
      *
@@ -100,8 +109,10 @@ public class LogEntrySender {
              * Read and Send Log Entries
              */
             try {
+                long readStart = System.nanoTime();
                 message = logEntryReader.read(logEntrySyncEventId);
                 if (message != null) {
+                    LogReplicationMetrics.recordStage(Stage.READ, LogReplicationMetrics.LOG_ENTRY, readStart);
                     if (MeterRegistryProvider.getInstance().isPresent()) {
                         dataSenderBufferManager.sendWithBuffering(message, "logreplication.sender.duration.seconds",
                                 Tag.of("replication.type", "logentry"));
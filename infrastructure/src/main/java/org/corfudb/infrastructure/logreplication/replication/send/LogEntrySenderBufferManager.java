@@ -26,7 +26,7 @@ public class LogEntrySenderBufferManager extends SenderBufferManager {
      * @param dataSender
      */
     public LogEntrySenderBufferManager(DataSender dataSender, LogReplicationAckReader ackReader) {
-        super(dataSender, configureAcksCounter());
+        super(dataSender, configureAcksCounter(), "logentry", ackReader.getRemoteClusterId());
         this.ackReader = ackReader;
     }
 
@@ -57,7 +57,7 @@ public class LogEntrySenderBufferManager extends SenderBufferManager {
         maxAckTimestamp = newAck;
 
         // Remove pending messages that have been ACKed.
-        pendingMessages.evictAccordingToTimestamp(maxAckTimestamp);
+        onAcked(pendingMessages.evictAccordingToTimestamp(maxAckTimestamp));
 
         // Remove CompletableFutures for Acks that has received.
         pendingCompletableFutureForAcks = pendingCompletableFutureForAcks.entrySet().stream()
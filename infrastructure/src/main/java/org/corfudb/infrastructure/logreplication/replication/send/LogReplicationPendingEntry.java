@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * The element kept in the sliding window to remember the log entries sent over but hasn't been acknowledged by the
  * receiver and we use the time to decide when a re-send is necessary.
@@ -29,10 +31,22 @@ public class LogReplicationPendingEntry {
     // The number of retries for this entry
     public int retry;
 
+    // The system time the log entry was last sent over, in nanoseconds
+    private long sentTimeNanos;
+
     public LogReplicationPendingEntry(LogReplicationEntry data) {
         this.data = data;
         this.time = getCurrentTime();
         this.retry = 0;
+        this.sentTimeNanos = System.nanoTime();
+    }
+
+    /**
+     * The time elapsed since the log entry was last sent over.
+     * @return elapsed time in milliseconds
+     */
+    public long getElapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentTimeNanos);
     }
 
     public boolean timeout(long timer) {
@@ -46,6 +60,7 @@ public class LogReplicationPendingEntry {
      */
     public void retry() {
         this.time = getCurrentTime();
+        this.sentTimeNanos = System.nanoTime();
         retry++;
     }
 
@@ -1,6 +1,8 @@
 package org.corfudb.infrastructure.logreplication.replication.send;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
@@ -9,11 +11,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
 import org.corfudb.infrastructure.logreplication.DataSender;
 import org.corfudb.infrastructure.logreplication.infrastructure.plugins.DefaultClusterConfig;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics.Stage;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.runtime.view.Address;
 
 import java.io.File;
 import java.io.FileReader;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +40,16 @@ public abstract class SenderBufferManager {
      */
     public static final String config_file = "/config/corfu/corfu_replication_config.properties";
 
+    /*
+     * The default max window size, as a multiple of the buffer size, when the send window is adaptive.
+     */
+    private static final int MAX_WINDOW_SIZE_FACTOR = 4;
+
+    /*
+     * Cap on the exponential backoff of the retransmission timeout of a message resent several times.
+     */
+    private static final int MAX_BACKOFF_SHIFT = 6;
+
     /*
      * The max buffer size
      */
@@ -60,6 +75,32 @@ public abstract class SenderBufferManager {
      */
     private boolean errorOnMsgTimeout;
 
+    /*
+     * If the number of messages in flight adapts to the measured ACK round trip time and losses,
+     * instead of being fixed to the buffer size.
+     */
+    private boolean adaptiveWindow = false;
+
+    /*
+     * The max number of messages in flight when the send window is adaptive.
+     */
+    private int maxWindowSize = -1;
+
+    /*
+     * The adaptive send window, null if the send window is fixed.
+     */
+    private AdaptiveSendWindow window;
+
+    /*
+     * The buffer and send window gauges, removed on shutdown.
+     */
+    private final List<Meter.Id> meters = new ArrayList<>();
+
+    /*
+     * The replication type the stage durations are tagged with, null if they are not recorded.
+     */
+    private String replicationType = null;
+
     /*
      * The max ACK timestamp received.
      *
@@ -109,6 +150,14 @@ public abstract class SenderBufferManager {
         pendingMessages = new SenderPendingMessageQueue(maxBufferSize);
         pendingCompletableFutureForAcks = new HashMap<>();
         this.dataSender = dataSender;
+
+        if (adaptiveWindow) {
+            if (maxWindowSize < 0) {
+                maxWindowSize = maxBufferSize * MAX_WINDOW_SIZE_FACTOR;
+            }
+            window = new AdaptiveSendWindow(maxBufferSize, maxWindowSize, timeoutTimer);
+            pendingMessages.setMaxSize(window.getSize());
+        }
     }
 
     public SenderBufferManager(DataSender dataSender, Optional<AtomicLong> counter) {
@@ -116,6 +165,36 @@ public abstract class SenderBufferManager {
         this.ackCounter = counter;
     }
 
+    /**
+     * Constructor
+     * @param dataSender
+     * @param counter the counter of ACKs received
+     * @param replicationType the replication type the buffer, send window and stage duration metrics are tagged with
+     * @param remoteClusterId the remote cluster the buffer and send window metrics are tagged with
+     */
+    public SenderBufferManager(DataSender dataSender, Optional<AtomicLong> counter, String replicationType,
+                               String remoteClusterId) {
+        this(dataSender, counter);
+        this.replicationType = replicationType;
+        List<Tag> tags = ImmutableList.of(Tag.of(LogReplicationMetrics.REPLICATION_TYPE_TAG, replicationType),
+                Tag.of(LogReplicationMetrics.CLUSTER_TAG, remoteClusterId));
+        LogReplicationMetrics.registerGauge("logreplication.sender.buffer.size", tags,
+                pendingMessages, SenderPendingMessageQueue::getSize).ifPresent(meters::add);
+        if (window != null) {
+            LogReplicationMetrics.registerGauge("logreplication.sender.window.size", tags,
+                    this, manager -> manager.window.getSize()).ifPresent(meters::add);
+            LogReplicationMetrics.registerGauge("logreplication.sender.rtt", tags,
+                    this, manager -> Math.max(0, manager.window.getSmoothedRttMs())).ifPresent(meters::add);
+        }
+    }
+
+    /**
+     * Remove the metrics of this buffer manager, once it does not send messages anymore.
+     */
+    public void shutdown() {
+        LogReplicationMetrics.removeMeters(meters);
+    }
+
     /**
      * Read the config from a file. If the file doesn't exist, use the default values.
      */
@@ -133,12 +212,15 @@ public abstract class SenderBufferManager {
             timeoutTimer = Integer.parseInt(props.getProperty("log_reader_resend_timeout", Integer.toString(timeoutTimer)));
             errorOnMsgTimeout = Boolean.parseBoolean(props.getProperty("log_reader_error_on_message_timeout",
                     Boolean.toString(errorOnMsgTimeout)));
+            adaptiveWindow = Boolean.parseBoolean(props.getProperty("log_reader_adaptive_window",
+                    Boolean.toString(adaptiveWindow)));
+            maxWindowSize = Integer.parseInt(props.getProperty("log_reader_max_window_size", Integer.toString(maxWindowSize)));
             reader.close();
         } catch (Exception e) {
             log.warn("Use default config, could not load {}, cause={}", config_file, e.getMessage());
         } finally {
-            log.info("Config :: max_retry={}, reader_queue_size={}, entry_resend_timer={}, waitAck={}",
-                    maxRetry, maxBufferSize, msgTimer, errorOnMsgTimeout);
+            log.info("Config :: max_retry={}, reader_queue_size={}, entry_resend_timer={}, waitAck={}, adaptiveWindow={}",
+                    maxRetry, maxBufferSize, msgTimer, errorOnMsgTimeout, adaptiveWindow);
         }
     }
 
@@ -154,8 +236,10 @@ public abstract class SenderBufferManager {
         LogReplicationEntry ack = null;
 
         if (!pendingCompletableFutureForAcks.isEmpty()) {
+            // With an adaptive window, do not wait longer than the retransmission timeout to detect a loss
+            long waitMs = window == null ? timeoutTimer : Math.min(timeoutTimer, window.getRetransmitTimeoutMs());
             ack = (LogReplicationEntry) CompletableFuture.anyOf(pendingCompletableFutureForAcks
-                    .values().toArray(new CompletableFuture<?>[pendingCompletableFutureForAcks.size()])).get(timeoutTimer, TimeUnit.MILLISECONDS);
+                    .values().toArray(new CompletableFuture<?>[pendingCompletableFutureForAcks.size()])).get(waitMs, TimeUnit.MILLISECONDS);
 
             if (ack != null) {
                 updateAck(ack);
@@ -172,7 +256,7 @@ public abstract class SenderBufferManager {
     public CompletableFuture<LogReplicationEntry> sendWithBuffering(LogReplicationEntry message) {
         message.getMetadata().setSnapshotSyncSeqNum(snapshotSyncSequenceNumber++);
         pendingMessages.append(message);
-        CompletableFuture<LogReplicationEntry> cf = dataSender.send(message);
+        CompletableFuture<LogReplicationEntry> cf = send(message);
         addCFToAcked(message, cf);
         return cf;
     }
@@ -183,13 +267,25 @@ public abstract class SenderBufferManager {
         message.getMetadata().setSnapshotSyncSeqNum(snapshotSyncSequenceNumber++);
         pendingMessages.append(message);
         Optional<Timer.Sample> sample = MeterRegistryProvider.getInstance().map(Timer::start);
-        CompletableFuture<LogReplicationEntry> future = dataSender.send(message);
+        CompletableFuture<LogReplicationEntry> future = send(message);
         CompletableFuture<LogReplicationEntry> cf = sample.map(s -> timeEntrySend(s, future, metricName, replicationTag))
                 .orElse(future);
         addCFToAcked(message, cf);
         return cf;
     }
 
+    /**
+     * Hand a message over to the data sender, recording the time it takes.
+     */
+    private CompletableFuture<LogReplicationEntry> send(LogReplicationEntry message) {
+        long start = System.nanoTime();
+        CompletableFuture<LogReplicationEntry> cf = dataSender.send(message);
+        if (replicationType != null) {
+            LogReplicationMetrics.recordStage(Stage.SEND, replicationType, start);
+        }
+        return cf;
+    }
+
     public void sendWithBuffering(List<LogReplicationEntry> dataToSend) {
         if (dataToSend.isEmpty()) {
             return;
@@ -208,6 +304,11 @@ public abstract class SenderBufferManager {
 
     /**
      * Resend the messages in the queue if they have timed out.
+     *
+     * With a fixed window, all pending messages are resent if no ACK was received in time.
+     * With an adaptive window, only the oldest pending message is forced out then: the other
+     * messages are resent once their own retransmission timeout expires, as a cumulative ACK
+     * does not tell which of them were lost (see {@link #resendLost(boolean)}).
      */
     public LogReplicationEntry resend() {
         LogReplicationEntry ack = null;
@@ -229,23 +330,97 @@ public abstract class SenderBufferManager {
             log.warn("Caught an exception while processing ACKs.", e);
         }
 
+        if (window != null) {
+            resendLost(force);
+            return ack;
+        }
+
         for (int i = 0; i < pendingMessages.getSize(); i++) {
             LogReplicationPendingEntry entry = pendingMessages.getPendingEntries().get(i);
             if (entry.timeout(msgTimer) || force) {
-                entry.retry();
-                // Update metadata as topologyConfigId could have changed in between resend cycles
-                LogReplicationEntry dataEntry = entry.getData();
-                dataEntry.getMetadata().setTopologyConfigId(topologyConfigId);
-                CompletableFuture<LogReplicationEntry> cf = dataSender.send(entry.getData());
-                addCFToAcked(entry.getData(), cf);
-                log.debug("Resend message {}[ts={}, snapshotSyncNum={}]", entry.getData().getMetadata().getMessageMetadataType(),
-                        entry.getData().getMetadata().getTimestamp(), entry.getData().getMetadata().getSnapshotSyncSeqNum());
+                resend(entry);
             }
         }
 
         return ack;
     }
 
+    /**
+     * Selectively resend the messages considered lost with an adaptive window, i.e., the messages
+     * that have not been ACKed within their retransmission timeout (backed off exponentially for
+     * each retry), or the oldest message if no ACK was received at all. As the receiver ACKs
+     * cumulatively, the later messages are likely to have been received and are not resent.
+     *
+     * @param timedOut true if no ACK was received within the retransmission timeout
+     */
+    private void resendLost(boolean timedOut) {
+        long retransmitTimeoutMs = window.getRetransmitTimeoutMs();
+        boolean lost = false;
+
+        for (int i = 0; i < pendingMessages.getSize(); i++) {
+            LogReplicationPendingEntry entry = pendingMessages.getPendingEntries().get(i);
+            long entryTimeoutMs = Math.min(timeoutTimer,
+                    retransmitTimeoutMs << Math.min(entry.getRetry(), MAX_BACKOFF_SHIFT));
+            if (entry.getElapsedMs() >= entryTimeoutMs || (timedOut && i == 0)) {
+                resend(entry);
+                lost = true;
+            }
+        }
+
+        if (lost) {
+            window.onLoss();
+            pendingMessages.setMaxSize(window.getSize());
+        }
+    }
+
+    private void resend(LogReplicationPendingEntry entry) {
+        entry.retry();
+        // Update metadata as topologyConfigId could have changed in between resend cycles
+        LogReplicationEntry dataEntry = entry.getData();
+        dataEntry.getMetadata().setTopologyConfigId(topologyConfigId);
+        CompletableFuture<LogReplicationEntry> cf = dataSender.send(entry.getData());
+        addCFToAcked(entry.getData(), cf);
+        log.debug("Resend message {}[ts={}, snapshotSyncNum={}]", entry.getData().getMetadata().getMessageMetadataType(),
+                entry.getData().getMetadata().getTimestamp(), entry.getData().getMetadata().getSnapshotSyncSeqNum());
+    }
+
+    /**
+     * Record the time taken to ACK the pending messages, and grow the adaptive window (if any)
+     * once they have been ACKed, i.e., once the max ACK timestamp has progressed.
+     *
+     * @param acked the messages evicted from the pending queue, in the order of sending
+     */
+    protected void onAcked(List<LogReplicationPendingEntry> acked) {
+        if (replicationType != null) {
+            // The ACK time of a resent message is ambiguous, it is left out
+            acked.stream().filter(entry -> entry.getRetry() == 0).forEach(entry ->
+                    LogReplicationMetrics.recordStageDuration(Stage.ACK, replicationType,
+                            entry.getElapsedMs(), TimeUnit.MILLISECONDS));
+        }
+
+        if (window == null || acked.isEmpty()) {
+            return;
+        }
+
+        // Only a message sent once gives a valid round trip time sample (Karn's algorithm)
+        LogReplicationPendingEntry last = acked.get(acked.size() - 1);
+        long rttSampleMs = last.getRetry() == 0 ? last.getElapsedMs() : -1;
+
+        window.onAck(acked.size(), rttSampleMs);
+        pendingMessages.setMaxSize(window.getSize());
+    }
+
+    /**
+     * Make the send window adaptive, whatever the configuration.
+     *
+     * @param window the adaptive send window
+     */
+    @VisibleForTesting
+    void setWindow(AdaptiveSendWindow window) {
+        this.window = window;
+        pendingMessages.setMaxSize(window.getSize());
+    }
+
 
     /**
      * Reset the buffer state
@@ -52,32 +52,46 @@ public class SenderPendingMessageQueue {
         pendingEntries = new ArrayList<>();
     }
 
+    /**
+     * Resize the queue, e.g. as the send window adapts. Entries already in the queue are kept.
+     * @param maxSize
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
     /**
      * Remove all the entries whose timestamp is not larger than the given ts
      * @param ts
+     * @return the removed entries, in the order of sending
      */
-    void evictAccordingToTimestamp(long ts) {
+    List<LogReplicationPendingEntry> evictAccordingToTimestamp(long ts) {
         log.trace("Evict all messages whose timestamp is smaller or equal to {}", ts);
+        List<LogReplicationPendingEntry> evicted = new ArrayList<>();
 
         //As the entries are in the order of timestamp value, we can just remove the first each time
         //until the condition is not met anymore.
         while(!pendingEntries.isEmpty() && pendingEntries.get(0).getData().getMetadata().getTimestamp() <= ts) {
-            pendingEntries.remove(0);
+            evicted.add(pendingEntries.remove(0));
         }
+        return evicted;
     }
 
     /**
      * Remove all the entries whose snapshotSeqNum is not larger than the given seqNum
      * @param seqNum
+     * @return the removed entries, in the order of sending
      */
-    void evictAccordingToSeqNum(long seqNum) {
+    List<LogReplicationPendingEntry> evictAccordingToSeqNum(long seqNum) {
         log.trace("Evict all messages whose snapshotSeqNum is smaller or equal to {}", seqNum);
+        List<LogReplicationPendingEntry> evicted = new ArrayList<>();
 
         //As the entries are in the order of timestamp value, we can just remove the first each time
         //until the condition is not met anymore.
         while(!pendingEntries.isEmpty() && pendingEntries.get(0).getData().getMetadata().getSnapshotSyncSeqNum() <= seqNum) {
-            pendingEntries.remove(0);
+            evicted.add(pendingEntries.remove(0));
         }
+        return evicted;
     }
 
     /**
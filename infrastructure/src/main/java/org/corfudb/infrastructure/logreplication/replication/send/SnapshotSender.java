@@ -14,6 +14,9 @@ import org.corfudb.infrastructure.logreplication.replication.fsm.LogReplicationF
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.ReadProcessor;
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.SnapshotReadMessage;
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.SnapshotReader;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics.Stage;
+import org.corfudb.infrastructure.logreplication.utils.StreamDigests;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntryMetadata;
 import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
@@ -21,12 +24,16 @@ import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.view.Address;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.DEFAULT_MAX_NUM_MSG_PER_BATCH;
 import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.DEFAULT_TIMEOUT_MS;
@@ -61,6 +68,20 @@ public class SnapshotSender {
     // This flag will indicate the start of a snapshot sync, so start snapshot marker is sent once.
     private boolean startSnapshotSync = true;
 
+    // Whether a snapshot sync only transfers the streams whose content differs on the standby.
+    private final boolean incrementalSnapshotSync;
+
+    // Time budget in milliseconds to compute the stream digests of an incremental snapshot sync,
+    // and to wait for the standby to compare them.
+    private final long incrementalSnapshotSyncTimeoutMs;
+
+    // Digests of the streams of the incremental snapshot sync being started, computed off the sender thread.
+    private CompletableFuture<StreamDigests.Computation> streamDigests;
+
+    // How many times longer than the active the standby may take to compare the stream digests, as it
+    // digests the streams one at a time.
+    private static final int STANDBY_DIGEST_FACTOR = 2;
+
     @Getter
     @VisibleForTesting
     // For testing purposes, used to count the number of messages sent in order to interrupt snapshot sync
@@ -71,11 +92,14 @@ public class SnapshotSender {
     private volatile boolean stopSnapshotSync = false;
 
     public SnapshotSender(CorfuRuntime runtime, SnapshotReader snapshotReader, DataSender dataSender,
-                          ReadProcessor readProcessor, int snapshotSyncBatchSize, LogReplicationFSM fsm) {
+                          ReadProcessor readProcessor, int snapshotSyncBatchSize, boolean incrementalSnapshotSync,
+                          long incrementalSnapshotSyncTimeoutMs, LogReplicationFSM fsm) {
         this.runtime = runtime;
         this.snapshotReader = snapshotReader;
         this.fsm = fsm;
         this.maxNumSnapshotMsgPerBatch = snapshotSyncBatchSize <= 0 ? DEFAULT_MAX_NUM_MSG_PER_BATCH : snapshotSyncBatchSize;
+        this.incrementalSnapshotSync = incrementalSnapshotSync;
+        this.incrementalSnapshotSyncTimeoutMs = incrementalSnapshotSyncTimeoutMs;
         this.dataSenderBufferManager = new SnapshotSenderBufferManager(dataSender, fsm.getAckReader());
         this.messageCounter = MeterRegistryProvider.getInstance().map(registry ->
                 registry.gauge("logreplication.messages",
@@ -107,10 +131,16 @@ public class SnapshotSender {
             // Read and Send Batch Size messages, unless snapshot is completed before (endRead)
             // or snapshot sync is stopped
             dataSenderBufferManager.resend();
+            if (startSnapshotSync && incrementalSnapshotSync && !startIncrementalSnapshotSync(snapshotSyncEventId)) {
+                // The snapshot sync continues once the stream digests are computed
+                return;
+            }
             while (messagesSent < maxNumSnapshotMsgPerBatch && !dataSenderBufferManager.getPendingMessages().isFull() && !completed && !stopSnapshotSync) {
 
                 try {
+                    long readStart = System.nanoTime();
                     snapshotReadMessage = snapshotReader.read(snapshotSyncEventId);
+                    LogReplicationMetrics.recordStage(Stage.READ, LogReplicationMetrics.SNAPSHOT, readStart);
                     completed = snapshotReadMessage.isEndRead();
                     // Data Transformation / Processing
                     // readProcessor.process(snapshotReadMessage.getMessages())
@@ -214,6 +244,83 @@ public class SnapshotSender {
         return numMessages + logReplicationEntries.size();
     }
 
+    /**
+     * Start an incremental snapshot sync: send the digests of the streams to replicate along with the start marker,
+     * and skip the streams which the standby acknowledges to have the same digest. If the digests can not be
+     * computed, or the standby does not acknowledge them in time (e.g., it does not support incremental snapshot
+     * syncs), all streams are transferred.
+     *
+     * The digests are computed off the sender thread, within the configured time budget, and the snapshot sync
+     * continues once they are. The standby then replays the same streams one at a time, so it is waited for at
+     * least {@link #STANDBY_DIGEST_FACTOR} times as long as the streams took to digest, and at least the budget.
+     *
+     * @param snapshotSyncEventId snapshot sync event identifier
+     * @return whether the snapshot sync can go on, false until the digests are computed
+     */
+    private boolean startIncrementalSnapshotSync(UUID snapshotSyncEventId) {
+        if (streamDigests == null) {
+            try {
+                streamDigests = snapshotReader.computeStreamDigests(Duration.ofMillis(incrementalSnapshotSyncTimeoutMs));
+            } catch (RuntimeException e) {
+                streamDigests = new CompletableFuture<>();
+                streamDigests.completeExceptionally(e);
+            }
+            if (!streamDigests.isDone()) {
+                streamDigests.whenComplete((computation, e) -> fsm.input(new LogReplicationEvent(
+                        LogReplicationEventType.SNAPSHOT_SYNC_CONTINUE,
+                        new LogReplicationEventMetadata(snapshotSyncEventId))));
+                return false;
+            }
+        } else if (!streamDigests.isDone()) {
+            return false;
+        }
+
+        final StreamDigests.Computation computation;
+        try {
+            computation = streamDigests.join();
+        } catch (Exception e) {
+            log.warn("Failed to compute stream digests for {}, all streams will be transferred", snapshotSyncEventId, e);
+            return true;
+        }
+
+        final Map<UUID, String> digests = computation.getDigests();
+        if (digests.isEmpty()) {
+            return true;
+        }
+
+        LogReplicationEntry startMarker = getSnapshotSyncStartMarker(snapshotSyncEventId);
+        startMarker.setStreamDigests(digests);
+        CompletableFuture<LogReplicationEntry> startAck = dataSenderBufferManager.sendWithBuffering(startMarker);
+        startSnapshotSync = false;
+
+        final long ackTimeoutMs = Math.max(incrementalSnapshotSyncTimeoutMs,
+                STANDBY_DIGEST_FACTOR * TimeUnit.NANOSECONDS.toMillis(computation.getDigestNanos()));
+        try {
+            LogReplicationEntry ack = startAck.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+            if (ack.getMetadata().getMessageMetadataType() != MessageType.SNAPSHOT_DIGESTS_COMPARED ||
+                    ack.getMetadata().getSnapshotTimestamp() != baseSnapshotTimestamp) {
+                log.warn("Expected start ack for {}, but received {}, all streams will be transferred",
+                        baseSnapshotTimestamp, ack.getMetadata());
+                LogReplicationMetrics.recordDigestFallback(LogReplicationMetrics.DIGEST_NO_ACK, digests.size());
+                return true;
+            }
+
+            dataSenderBufferManager.updateAck(ack);
+            Set<UUID> unchangedStreams = ack.getStreamDigests().entrySet().stream()
+                    .filter(digest -> digest.getValue().equals(digests.get(digest.getKey())))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+            snapshotReader.excludeStreams(unchangedStreams);
+            log.info("Incremental snapshot sync {} on timestamp={}, {}/{} streams unchanged", snapshotSyncEventId,
+                    baseSnapshotTimestamp, unchangedStreams.size(), digests.size());
+        } catch (Exception e) {
+            log.warn("No ack of the start of incremental snapshot sync {} within {}ms, all streams will be transferred",
+                    snapshotSyncEventId, ackTimeoutMs, e);
+            LogReplicationMetrics.recordDigestFallback(LogReplicationMetrics.DIGEST_NO_ACK, digests.size());
+        }
+        return true;
+    }
+
     /**
      * Prepare a Snapshot Sync Replication start marker.
      *
@@ -278,6 +385,7 @@ public class SnapshotSender {
 
         stopSnapshotSync = false;
         startSnapshotSync = true;
+        streamDigests = null;
     }
 
     /**
@@ -287,6 +395,13 @@ public class SnapshotSender {
         stopSnapshotSync = true;
     }
 
+    /**
+     * Release the resources of the sender, once snapshot sync is stopped for good.
+     */
+    public void shutdown() {
+        dataSenderBufferManager.shutdown();
+    }
+
     public void updateTopologyConfigId(long topologyConfigId) {
         dataSenderBufferManager.updateTopologyConfigId(topologyConfigId);
     }
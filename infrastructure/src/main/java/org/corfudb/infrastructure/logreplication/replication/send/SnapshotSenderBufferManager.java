@@ -23,7 +23,7 @@ public class SnapshotSenderBufferManager extends SenderBufferManager {
     private LogReplicationAckReader ackReader;
 
     public SnapshotSenderBufferManager(DataSender dataSender, LogReplicationAckReader ackReader) {
-        super(dataSender, configureAcksCounter());
+        super(dataSender, configureAcksCounter(), "snapshot", ackReader.getRemoteClusterId());
         this.ackReader = ackReader;
     }
 
@@ -37,7 +37,7 @@ public class SnapshotSenderBufferManager extends SenderBufferManager {
         if (maxAckTimestamp < newAck) {
             log.debug("Ack Received for Snapshot Sync {}", newAck);
             maxAckTimestamp = newAck;
-            pendingMessages.evictAccordingToSeqNum(maxAckTimestamp);
+            onAcked(pendingMessages.evictAccordingToSeqNum(maxAckTimestamp));
             pendingCompletableFutureForAcks = pendingCompletableFutureForAcks.entrySet().stream()
                     .filter(entry -> entry.getKey() > maxAckTimestamp)
                     .collect(Collectors.toMap(x -> x.getKey(), x -> x.getValue()));
@@ -50,6 +50,15 @@ public class SnapshotSenderBufferManager extends SenderBufferManager {
      */
     @Override
     public void updateAck(LogReplicationEntry entry) {
+        if (entry.getMetadata().getMessageMetadataType() == MessageType.SNAPSHOT_DIGESTS_COMPARED) {
+            // The start marker of an incremental snapshot sync is acknowledged with the streams which
+            // are not transferred, the ACK does not account for any replicated data.
+            long seqNum = entry.getMetadata().getSnapshotSyncSeqNum();
+            onAcked(pendingMessages.evictAccordingToSeqNum(seqNum));
+            pendingCompletableFutureForAcks.remove(seqNum);
+            return;
+        }
+
         updateAck(entry.getMetadata().getSnapshotSyncSeqNum());
 
         // If only a given stream has been replicated, update with the sequence number
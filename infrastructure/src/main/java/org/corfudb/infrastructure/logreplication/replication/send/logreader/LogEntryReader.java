@@ -27,4 +27,11 @@ public interface LogEntryReader {
     boolean hasMessageExceededSize();
 
     StreamsLogEntryReader.StreamIteratorMetadata getCurrentProcessedEntryMetadata();
+
+    /**
+     * Release the resources of the reader, once replication to the remote cluster is shut down.
+     */
+    default void close() {
+        // Nothing to release by default
+    }
 }
@@ -1,10 +1,14 @@
 package org.corfudb.infrastructure.logreplication.replication.send.logreader;
 
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.logprotocol.OpaqueEntry;
 import org.corfudb.protocols.logprotocol.SMREntry;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 public class ReaderUtility {
@@ -35,4 +39,21 @@ public class ReaderUtility {
         }
         return size;
     }
+
+    /**
+     * Create the executor of the concurrent reads of a reader. Reads run on the calling thread
+     * if they are not concurrent. The executor must be shut down when the reader is closed.
+     * @param parallelism max number of concurrent reads
+     * @param nameFormat name format of the read threads
+     * @return
+     */
+    public static ExecutorService newReadExecutor(int parallelism, String nameFormat) {
+        if (parallelism > 1) {
+            return Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat(nameFormat)
+                    .build());
+        }
+        return MoreExecutors.newDirectExecutorService();
+    }
 }
@@ -1,8 +1,13 @@
 package org.corfudb.infrastructure.logreplication.replication.send.logreader;
 
 import lombok.NonNull;
+import org.corfudb.infrastructure.logreplication.utils.StreamDigests;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * An Interface for snapshot logreader.
@@ -29,4 +34,33 @@ public interface SnapshotReader {
     void reset(long snapshotTimestamp);
 
     void setTopologyConfigId(long topologyConfigId);
+
+    /**
+     * Compute the digests of the content of the streams to replicate at the current snapshot timestamp,
+     * used by an incremental snapshot sync to skip the streams which are the same on the standby.
+     * Streams which are not digested within the time budget are left out, so that they are transferred.
+     *
+     * @param budget time to compute the digests in
+     * @return future of the digest of each stream which can be compared, without any digest if the
+     *         reader does not support it
+     */
+    default CompletableFuture<StreamDigests.Computation> computeStreamDigests(Duration budget) {
+        return CompletableFuture.completedFuture(new StreamDigests.Computation(Collections.emptyMap(), 0, 0));
+    }
+
+    /**
+     * Exclude streams from the current snapshot sync, as their content is already on the standby.
+     *
+     * @param streamIds ids of the streams not to read
+     */
+    default void excludeStreams(Set<UUID> streamIds) {
+        // Readers without stream digests read all streams
+    }
+
+    /**
+     * Release the resources of the reader, once replication to the remote cluster is shut down.
+     */
+    default void close() {
+        // Nothing to release by default
+    }
 }
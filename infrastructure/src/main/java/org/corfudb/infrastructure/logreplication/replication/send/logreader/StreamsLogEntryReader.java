@@ -1,6 +1,7 @@
 package org.corfudb.infrastructure.logreplication.replication.send.logreader;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
 import lombok.Getter;
@@ -10,17 +11,25 @@ import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
 import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
 import org.corfudb.protocols.logprotocol.OpaqueEntry;
 import org.corfudb.protocols.logprotocol.SMREntry;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.StreamAddressRange;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.ObjectsView;
+import org.corfudb.runtime.view.ReadOptions;
 import org.corfudb.runtime.view.stream.OpaqueStream;
+import org.corfudb.runtime.view.stream.StreamAddressSpace;
+import org.corfudb.util.CFUtils;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -28,6 +37,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.MAX_DATA_MSG_SIZE_SUPPORTED;
@@ -94,8 +106,8 @@ public class StreamsLogEntryReader implements LogEntryReader {
 
         log.debug("Streams to replicate total={}, stream_names={}, stream_ids={}", streamUUIDs.size(), streams, streamUUIDs);
 
-        //create an opaque stream for transaction stream
-        txOpaqueStream = new TxOpaqueStream(rt);
+        //create an opaque stream for transaction stream, which catches up on a backlog with parallel reads
+        txOpaqueStream = new TxOpaqueStream(rt, config.getLogEntrySyncParallelism(), this::filterTransactionEntry);
     }
 
     private LogReplicationEntry generateMessageWithOpaqueEntryList(List<OpaqueEntry> opaqueEntryList, UUID logEntryRequestId) {
@@ -212,7 +224,7 @@ public class StreamsLogEntryReader implements LogEntryReader {
                 if (lastOpaqueEntryValid) {
                     validDeltaCounter.ifPresent(Counter::increment);
                 }
-                currentProcessedEntryMetadata = new StreamIteratorMetadata(txOpaqueStream.txStream.pos(), lastOpaqueEntryValid);
+                currentProcessedEntryMetadata = new StreamIteratorMetadata(txOpaqueStream.pos(), lastOpaqueEntryValid);
             }
 
             log.trace("Generate LogEntryDataMessage size {} with {} entries for maxDataSizePerMsg {}. lastEntry size {}",
@@ -279,24 +291,95 @@ public class StreamsLogEntryReader implements LogEntryReader {
         setGlobalBaseSnapshot(lastSentBaseSnapshotTimestamp, lastAckedTimestamp);
     }
 
+    @Override
+    public void close() {
+        txOpaqueStream.close();
+        log.info("Log entry reader closed");
+    }
+
     @Override
     public StreamIteratorMetadata getCurrentProcessedEntryMetadata() {
         return currentProcessedEntryMetadata;
     }
 
     /**
-     * The class used to track the transaction opaque stream
+     * The class used to track the transaction opaque stream.
+     *
+     * While the transaction stream is tailed, entries are read one at a time through the opaque stream.
+     * When the reader is far behind the log tail (e.g. after a long disconnect), the stream catches up:
+     * the addresses of the transaction stream up to the log tail are split into chunks, which are
+     * bulk read, deserialized and filtered concurrently, with at most parallelism chunks in memory.
+     * Chunks are consumed in address order, so entries are returned in the same order as when tailing.
      */
     public static class TxOpaqueStream {
+        /*
+         * Number of transaction stream addresses bulk read at once while catching up.
+         */
+        private static final int CATCH_UP_CHUNK_SIZE = 256;
+
+        /*
+         * Catch up reads are not cached, as each entry is only read once by this reader,
+         * but are admitted as scan reads to the off-heap cache shared with other readers.
+         */
+        private static final ReadOptions CATCH_UP_READ_OPTIONS = ReadOptions.builder()
+                .clientCacheable(false)
+                .scanCacheable(true)
+                .build();
+
         private CorfuRuntime rt;
         private OpaqueStream txStream;
         private Iterator iterator;
 
+        // Max number of chunks read concurrently while catching up, no catch up if 1
+        private final int parallelism;
+
+        // Min distance to the log tail (number of addresses) from which the stream catches up
+        private final long catchUpThreshold;
+
+        private final ExecutorService readExecutor;
+
+        // Filter applied to the entries read while catching up
+        private final UnaryOperator<OpaqueEntry> filter;
+
+        // The chunks being read, in address order
+        private final Deque<CompletableFuture<List<OpaqueEntry>>> pendingChunks = new ArrayDeque<>();
+
+        // The chunks left to read
+        private Iterator<List<Long>> chunksToRead = Collections.emptyIterator();
+
+        private boolean catchingUp = false;
+
+        // The log tail the stream catches up to
+        private long catchUpTail = Address.NON_ADDRESS;
+
+        // The next address to read from
+        private long nextAddress = Address.NON_ADDRESS;
+
+        // The address of the last entry returned while catching up
+        private long catchUpPosition = Address.NON_ADDRESS;
+
         public TxOpaqueStream(CorfuRuntime rt) {
+            this(rt, 1, UnaryOperator.identity());
+        }
+
+        /**
+         * Constructor
+         *
+         * @param rt corfu runtime
+         * @param parallelism max number of chunks read concurrently while catching up, no catch up if 1
+         * @param filter filter applied to the entries read while catching up, it must not change the
+         *               validity of an entry for replication
+         */
+        public TxOpaqueStream(CorfuRuntime rt, int parallelism, UnaryOperator<OpaqueEntry> filter) {
             //create an opaque stream for transaction stream
             this.rt = rt;
+            this.parallelism = Math.max(1, parallelism);
+            this.catchUpThreshold = (long) this.parallelism * CATCH_UP_CHUNK_SIZE;
+            this.filter = filter;
+            this.readExecutor = ReaderUtility.newReadExecutor(this.parallelism, "log-entry-reader-%d");
             txStream = new OpaqueStream(rt, rt.getStreamsView().get(ObjectsView.TRANSACTION_STREAM_ID));
-            streamUpTo();
+            // Do not catch up before the stream is positioned by a seek
+            streamUpTo(rt.getAddressSpaceView().getLogTail());
         }
 
         /**
@@ -310,17 +393,102 @@ public class StreamsLogEntryReader implements LogEntryReader {
         }
 
         /**
-         * Set the iterator with entries from current seekAddress till end of the log tail
+         * Set the iterator with entries from current seekAddress till end of the log tail,
+         * catching up with parallel reads if the log tail is far ahead.
          */
         private void streamUpTo() {
-            streamUpTo(rt.getAddressSpaceView().getLogTail());
+            long tail = rt.getAddressSpaceView().getLogTail();
+            if (parallelism > 1 && tail - nextAddress >= catchUpThreshold) {
+                catchUp(tail);
+            } else {
+                streamUpTo(tail);
+            }
+        }
+
+        /**
+         * Start catching up with the log tail, by reading the chunks of transaction stream addresses concurrently.
+         *
+         * @param tail the log tail
+         */
+        private void catchUp(long tail) {
+            // Address range (end, start] of the transaction stream
+            StreamAddressSpace addressSpace = rt.getSequencerView().getStreamAddressSpace(
+                    new StreamAddressRange(ObjectsView.TRANSACTION_STREAM_ID, tail, nextAddress - 1));
+            if (addressSpace.getTrimMark() >= nextAddress) {
+                log.warn("Catch up from {} to {} failed, transaction stream is trimmed up to {}",
+                        nextAddress, tail, addressSpace.getTrimMark());
+                throw new TrimmedException();
+            }
+
+            List<Long> addresses = new ArrayList<>(addressSpace.copyAddressesToSet(tail));
+            log.info("Catch up from {} to log tail {}, {} transaction stream entries", nextAddress, tail, addresses.size());
+
+            catchingUp = true;
+            catchUpTail = tail;
+            chunksToRead = Iterables.partition(addresses, CATCH_UP_CHUNK_SIZE).iterator();
+            iterator = Collections.emptyIterator();
+            readChunks();
+        }
+
+        /**
+         * Read chunks ahead, up to parallelism chunks.
+         */
+        private void readChunks() {
+            while (pendingChunks.size() < parallelism && chunksToRead.hasNext()) {
+                List<Long> chunk = chunksToRead.next();
+                pendingChunks.add(CompletableFuture.supplyAsync(() -> readChunk(chunk), readExecutor));
+            }
+        }
+
+        /**
+         * Bulk read a chunk of transaction stream addresses, and deserialize and filter its entries.
+         *
+         * @param addresses transaction stream addresses, in order
+         * @return the entries read, in address order
+         */
+        private List<OpaqueEntry> readChunk(List<Long> addresses) {
+            Map<Long, ILogData> chunk = rt.getAddressSpaceView().read(addresses, CATCH_UP_READ_OPTIONS);
+            List<OpaqueEntry> entries = new ArrayList<>(addresses.size());
+            for (Long address : addresses) {
+                ILogData logData = chunk.get(address);
+                if (logData == null || logData.getType() != DataType.DATA) {
+                    continue;
+                }
+
+                OpaqueEntry entry = OpaqueEntry.unpack(logData);
+                if (!entry.getEntries().isEmpty()) {
+                    entries.add(filter.apply(entry));
+                }
+            }
+            return entries;
+        }
+
+        /**
+         * Stop catching up, and tail the transaction stream from the log tail caught up to.
+         */
+        private void endCatchUp() {
+            log.info("Caught up to log tail {}", catchUpTail);
+            catchingUp = false;
+            nextAddress = catchUpTail + 1;
+            txStream.seek(nextAddress);
+            streamUpTo();
         }
 
         /**
          * Tell if the transaction stream has the next entry
          */
         private boolean hasNext() {
+            while (catchingUp && !iterator.hasNext()) {
+                if (pendingChunks.isEmpty()) {
+                    endCatchUp();
+                    return iterator.hasNext();
+                }
+                iterator = CFUtils.getUninterruptibly(pendingChunks.poll()).iterator();
+                readChunks();
+            }
+
             if (!iterator.hasNext()) {
+                nextAddress = Math.max(nextAddress, txStream.pos() + 1);
                 streamUpTo();
             }
             return iterator.hasNext();
@@ -334,10 +502,21 @@ public class StreamsLogEntryReader implements LogEntryReader {
                 return null;
 
             OpaqueEntry opaqueEntry = (OpaqueEntry) iterator.next();
+            nextAddress = opaqueEntry.getVersion() + 1;
+            if (catchingUp) {
+                catchUpPosition = opaqueEntry.getVersion();
+            }
             log.trace("Address {} OpaqueEntry {}", opaqueEntry.getVersion(), opaqueEntry);
             return opaqueEntry;
         }
 
+        /**
+         * Get the address of the last entry processed.
+         */
+        private long pos() {
+            return catchingUp ? catchUpPosition : txStream.pos();
+        }
+
         /**
          * Set stream head as firstAddress, set the iterator from
          * firstAddress till the current tail of the log
@@ -346,9 +525,29 @@ public class StreamsLogEntryReader implements LogEntryReader {
          */
         public void seek(long firstAddress) {
             log.trace("seek head {}", firstAddress);
+            cancelChunks();
+            catchingUp = false;
+            nextAddress = firstAddress;
             txStream.seek(firstAddress);
             streamUpTo();
         }
+
+        /**
+         * Cancel the chunks being read. Chunks which have not started yet are skipped.
+         */
+        private void cancelChunks() {
+            pendingChunks.forEach(chunk -> chunk.cancel(true));
+            pendingChunks.clear();
+            chunksToRead = Collections.emptyIterator();
+        }
+
+        /**
+         * Stop catching up and shut down the read executor, the stream can not be read afterwards.
+         */
+        public void close() {
+            cancelChunks();
+            readExecutor.shutdownNow();
+        }
     }
 
     public static class StreamIteratorMetadata {
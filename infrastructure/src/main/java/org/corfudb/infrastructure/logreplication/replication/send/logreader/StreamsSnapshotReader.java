@@ -1,6 +1,10 @@
 package org.corfudb.infrastructure.logreplication.replication.send.logreader;
 
+import com.google.common.collect.ImmutableList;
 import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -8,6 +12,8 @@ import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
 import org.corfudb.common.util.ObservableValue;
 import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
 import org.corfudb.infrastructure.logreplication.replication.send.IllegalSnapshotEntrySizeException;
+import org.corfudb.infrastructure.logreplication.utils.LogReplicationMetrics;
+import org.corfudb.infrastructure.logreplication.utils.StreamDigests;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
 import org.corfudb.protocols.logprotocol.OpaqueEntry;
@@ -17,9 +23,11 @@ import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.StreamOptions;
 import org.corfudb.runtime.view.stream.OpaqueStream;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.MetricsUtils;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -29,6 +37,16 @@ import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.MAX_DATA_MSG_SIZE_SUPPORTED;
@@ -54,9 +72,48 @@ public class StreamsSnapshotReader implements SnapshotReader {
     private CorfuRuntime rt;
     private long preMsgTs;
     private long currentMsgTs;
-    private OpaqueStreamIterator currentStreamInfo;
     private long sequence;
-    private OpaqueEntry lastEntry = null;
+
+    /**
+     * The max number of streams read concurrently.
+     */
+    private final int parallelism;
+
+    /**
+     * Executor of the stream reads. Reads run on the calling thread if streams are read one at a time.
+     */
+    private final ExecutorService readExecutor;
+
+    /**
+     * The streams being read, each with the read of its next batch of entries in flight.
+     * At most one batch per stream is read ahead, which bounds the memory used by the reads.
+     */
+    private final List<CompletableFuture<StreamChunk>> activeStreams = new ArrayList<>();
+
+    /**
+     * The active stream polled first by the next read, so that streams take turns.
+     */
+    private int nextStream = 0;
+
+    /**
+     * The number of SMR entries read from each stream by the current snapshot sync.
+     */
+    private final Map<String, AtomicLong> streamEntriesRead = new ConcurrentHashMap<>();
+
+    /**
+     * The number of streams fully read by the current snapshot sync.
+     */
+    private final AtomicLong streamsCompleted = new AtomicLong();
+
+    /**
+     * Id of the remote cluster the snapshot is replicated to, which tags the progress gauges.
+     */
+    private final String remoteClusterId;
+
+    /**
+     * The progress gauges of this reader, removed once it is closed.
+     */
+    private final List<Meter.Id> meters = new CopyOnWriteArrayList<>();
 
     @Getter
     private ObservableValue<Integer> observeBiggerMsg = new ObservableValue(0);
@@ -67,12 +124,16 @@ public class StreamsSnapshotReader implements SnapshotReader {
     /**
      * Init runtime and streams to read
      */
-    public StreamsSnapshotReader(CorfuRuntime runtime, LogReplicationConfig config) {
+    public StreamsSnapshotReader(CorfuRuntime runtime, LogReplicationConfig config, String remoteClusterId) {
         this.rt = runtime;
+        this.remoteClusterId = remoteClusterId;
         this.rt.parseConfigurationString(runtime.getLayoutServers().get(0)).connect();
         this.maxDataSizePerMsg = config.getMaxDataSizePerMsg();
         this.streams = config.getStreamsToReplicate();
         this.messageSizeDistributionSummary = configureMessageSizeDistributionSummary();
+        configureProgressMetrics();
+        this.parallelism = Math.max(1, config.getSnapshotSyncParallelism());
+        this.readExecutor = ReaderUtility.newReadExecutor(parallelism, "snapshot-reader-%d");
     }
 
     /**
@@ -92,12 +153,14 @@ public class StreamsSnapshotReader implements SnapshotReader {
      * use the opaque entry to generate a TxMessage.
      * @param stream
      * @param entryList
+     * @param lastMessage whether this is the last message of the stream
      * @return
      */
-    private LogReplicationEntry generateMessage(OpaqueStreamIterator stream, SMREntryList entryList, UUID snapshotRequestId) {
+    private LogReplicationEntry generateMessage(OpaqueStreamIterator stream, SMREntryList entryList, boolean lastMessage,
+                                                UUID snapshotRequestId) {
         currentMsgTs = stream.maxVersion;
         OpaqueEntry opaqueEntry = generateOpaqueEntry(currentMsgTs, stream.uuid, entryList);
-        if (!stream.iterator.hasNext()) {
+        if (lastMessage) {
             //mark the end of the current stream.
             currentMsgTs = snapshotTimestamp;
         }
@@ -125,8 +188,8 @@ public class StreamsSnapshotReader implements SnapshotReader {
 
         try {
             while (currentMsgSize < maxDataSizePerMsg) {
-                if (lastEntry != null) {
-                    List<SMREntry> smrEntries = lastEntry.getEntries().get(stream.uuid);
+                if (stream.lastEntry != null) {
+                    List<SMREntry> smrEntries = stream.lastEntry.getEntries().get(stream.uuid);
                     if (smrEntries != null) {
                         int currentEntrySize = ReaderUtility.calculateSize(smrEntries);
 
@@ -147,16 +210,16 @@ public class StreamsSnapshotReader implements SnapshotReader {
 
                         smrList.addAll(smrEntries);
                         currentMsgSize += currentEntrySize;
-                        stream.maxVersion = Math.max(stream.maxVersion, lastEntry.getVersion());
+                        stream.maxVersion = Math.max(stream.maxVersion, stream.lastEntry.getVersion());
                     }
-                    lastEntry = null;
+                    stream.lastEntry = null;
                 }
 
                 if (stream.iterator.hasNext()) {
-                    lastEntry = (OpaqueEntry) stream.iterator.next();
+                    stream.lastEntry = (OpaqueEntry) stream.iterator.next();
                 }
 
-                if (lastEntry == null) {
+                if (stream.lastEntry == null) {
                     break;
                 }
             }
@@ -166,94 +229,198 @@ public class StreamsSnapshotReader implements SnapshotReader {
         }
 
         log.trace("CurrentMsgSize {} lastEntrySize {}  maxDataSizePerMsg {}",
-                currentMsgSize, lastEntry == null ? 0 : ReaderUtility.calculateSize(lastEntry.getEntries().get(stream.uuid)), maxDataSizePerMsg);
+                currentMsgSize, stream.lastEntry == null ? 0 : ReaderUtility.calculateSize(stream.lastEntry.getEntries().get(stream.uuid)), maxDataSizePerMsg);
         return new SMREntryList(currentMsgSize, smrList);
     }
 
     /**
-     * Poll the current stream and get a batch of SMR entries and
-     * generate one message
-     * @param stream bookkeeping of the current stream information.
+     * Read the next batch of SMR entries of a stream, on the read executor.
+     * @param stream bookkeeping of the stream information.
+     * @return a future completed once the batch is read.
+     */
+    private CompletableFuture<StreamChunk> readAsync(Supplier<OpaqueStreamIterator> stream) {
+        return CompletableFuture.supplyAsync(() -> {
+            OpaqueStreamIterator streamInfo = stream.get();
+            SMREntryList entryList = next(streamInfo);
+            return new StreamChunk(streamInfo, entryList, streamInfo.hasNext());
+        }, readExecutor);
+    }
+
+    /**
+     * Generate one message from a batch of SMR entries read from a stream.
+     * @param chunk the batch of entries and the stream they were read from.
      * @return
      */
-    private LogReplicationEntry read(OpaqueStreamIterator stream, UUID syncRequestId) {
-        SMREntryList entryList = next(stream);
-        LogReplicationEntry txMsg = generateMessage(stream, entryList, syncRequestId);
+    private LogReplicationEntry read(StreamChunk chunk, UUID syncRequestId) {
+        OpaqueStreamIterator stream = chunk.stream;
+        SMREntryList entryList = chunk.entryList;
+        LogReplicationEntry txMsg = generateMessage(stream, entryList, !chunk.hasNext, syncRequestId);
         log.info("Successfully generate a snapshot message for stream {} with snapshotTimestamp={}, numEntries={}, " +
                         "entriesBytes={}, streamId={}", stream.name, snapshotTimestamp,
                 entryList.getSmrEntries().size(), entryList.getSizeInBytes(), stream.uuid);
         messageSizeDistributionSummary
                 .ifPresent(distribution -> distribution.record(entryList.getSizeInBytes()));
+        getStreamEntriesRead(stream.name).addAndGet(entryList.getSmrEntries().size());
         return txMsg;
     }
 
     /**
-     * If currentStreamInfo is null that is the case for the first call of read, it will init currentStreamInfo.
-     * If the currentStreamInfo ends, poll the next stream.
-     * Otherwise, continue to process the current stream and generate one message only.
+     * Get the index of an active stream whose next batch of entries is read, waiting for one if
+     * there is none yet. Streams are polled round robin, so that a large stream does not hold back
+     * the others.
+     * @return
+     */
+    private int pollActiveStream() {
+        while (true) {
+            for (int i = 0; i < activeStreams.size(); i++) {
+                int index = (nextStream + i) % activeStreams.size();
+                if (activeStreams.get(index).isDone()) {
+                    return index;
+                }
+            }
+            // Rethrows the failure of a stream read, if any.
+            CFUtils.getUninterruptibly(CompletableFuture.anyOf(
+                    activeStreams.toArray(new CompletableFuture[activeStreams.size()])));
+        }
+    }
+
+    /**
+     * Keep up to snapshotSyncParallelism streams with a read in flight, and generate one message from
+     * the first stream that has a batch of entries ready. The messages of concurrently read streams are
+     * interleaved, with consecutive sequence numbers; the messages of a given stream remain in order.
+     * Streams with no entries to process are skipped.
      * @return
      */
     @Override
     public SnapshotReadMessage read(UUID syncRequestId) {
         List<LogReplicationEntry> messages = new ArrayList<>();
 
-        boolean endSnapshotSync = false;
-        LogReplicationEntry msg;
-
-        // If the currentStreamInfo still has entry to process, it will reuse the currentStreamInfo
-        // and process the remaining entries.
-        if (currentStreamInfo == null) {
-            while (!streamsToSend.isEmpty()) {
-                // Setup a new stream
+        while (messages.isEmpty() && (!activeStreams.isEmpty() || !streamsToSend.isEmpty())) {
+            // Setup new streams, up to the number of streams read concurrently
+            while (activeStreams.size() < parallelism && !streamsToSend.isEmpty()) {
                 String streamToReplicate = streamsToSend.poll();
-                currentStreamInfo = new OpaqueStreamIterator(streamToReplicate, rt, snapshotTimestamp);
                 log.info("Start Snapshot Sync replication for stream name={}, id={}", streamToReplicate,
                         CorfuRuntime.getStreamID(streamToReplicate));
+                activeStreams.add(readAsync(() -> new OpaqueStreamIterator(streamToReplicate, rt, snapshotTimestamp)));
+            }
 
-                // If the new stream has entries to be processed, go to the next step
-                if (currentStreamInfo.iterator.hasNext()) {
-                    break;
-                } else {
-                    // Skip process this stream as it has no entries to process, will poll the next one.
-                    log.info("Snapshot reader will skip reading stream {} as there are no entries to send",
-                            currentStreamInfo.uuid);
-                }
+            int index = pollActiveStream();
+            StreamChunk chunk = CFUtils.getUninterruptibly(activeStreams.get(index));
+
+            if (!chunk.entryList.getSmrEntries().isEmpty()) {
+                messages.add(read(chunk, syncRequestId));
+            } else if (chunk.stream.maxVersion == 0) {
+                // Skip process this stream as it has no entries to process, will poll the next one.
+                log.info("Snapshot reader will skip reading stream {} as there are no entries to send",
+                        chunk.stream.uuid);
             }
-        }
 
-        if (currentStreamHasNext()) {
-            msg = read(currentStreamInfo, syncRequestId);
-            if (msg != null) {
-                messages.add(msg);
+            if (chunk.hasNext) {
+                // Read the next batch of this stream while the message is sent, and move on to the next stream.
+                activeStreams.set(index, readAsync(() -> chunk.stream));
+                nextStream = index + 1;
+            } else {
+                log.debug("Snapshot log reader finished reading stream id={}, name={}", chunk.stream.uuid, chunk.stream.name);
+                streamsCompleted.incrementAndGet();
+                activeStreams.remove(index);
+                nextStream = index;
             }
         }
 
-        if (!currentStreamHasNext()) {
-            log.debug("Snapshot log reader finished reading stream id={}, name={}", currentStreamInfo.uuid, currentStreamInfo.name);
-            currentStreamInfo = null;
-
-            if (streamsToSend.isEmpty()) {
-                log.info("Snapshot log reader finished reading ALL streams, total={}", streams.size());
-                endSnapshotSync = true;
-            }
+        boolean endSnapshotSync = activeStreams.isEmpty() && streamsToSend.isEmpty();
+        if (endSnapshotSync) {
+            log.info("Snapshot log reader finished reading ALL streams, total={}", streams.size());
         }
 
         return new SnapshotReadMessage(messages, endSnapshotSync);
     }
 
-    private boolean currentStreamHasNext() {
-        return currentStreamInfo.iterator.hasNext() || lastEntry != null;
-    }
-
     @Override
     public void reset(long ts) {
         streamsToSend = new PriorityQueue<>(streams);
         preMsgTs = Address.NON_ADDRESS;
         currentMsgTs = Address.NON_ADDRESS;
         snapshotTimestamp = ts;
-        currentStreamInfo = null;
+        cancelReads();
+        nextStream = 0;
         sequence = 0;
-        lastEntry = null;
+        streamEntriesRead.values().forEach(entriesRead -> entriesRead.set(0));
+        streamsCompleted.set(0);
+    }
+
+    /**
+     * Cancel the reads of the previous snapshot sync. Reads which have not started yet are
+     * skipped, the results of the reads still running are dropped.
+     */
+    private void cancelReads() {
+        activeStreams.forEach(chunk -> chunk.cancel(true));
+        activeStreams.clear();
+    }
+
+    @Override
+    public void close() {
+        cancelReads();
+        readExecutor.shutdownNow();
+        LogReplicationMetrics.removeMeters(meters);
+        log.info("Snapshot reader closed");
+    }
+
+    /**
+     * Compute the digests of the streams to replicate at the snapshot timestamp, up to
+     * snapshotSyncParallelism streams at a time. Streams whose digest can not be computed,
+     * or not before the time budget is up, are left out, so that they are always transferred.
+     */
+    @Override
+    public CompletableFuture<StreamDigests.Computation> computeStreamDigests(Duration budget) {
+        final long snapshot = snapshotTimestamp;
+        final long deadline = System.nanoTime() + budget.toNanos();
+        final BooleanSupplier expired = () -> System.nanoTime() - deadline > 0;
+        final LongAdder digestNanos = new LongAdder();
+        final Map<UUID, String> streamDigests = new ConcurrentHashMap<>();
+        final AtomicInteger expiredStreams = new AtomicInteger();
+
+        List<CompletableFuture<Void>> digests = new ArrayList<>();
+        for (String stream : streams) {
+            UUID streamId = CorfuRuntime.getStreamID(stream);
+            digests.add(CompletableFuture.runAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    Optional<String> digest = StreamDigests.compute(rt, streamId, snapshot, expired);
+                    if (digest.isPresent()) {
+                        streamDigests.put(streamId, digest.get());
+                    } else if (expired.getAsBoolean()) {
+                        expiredStreams.incrementAndGet();
+                        LogReplicationMetrics.recordDigestFallback(LogReplicationMetrics.DIGEST_TIMEOUT, 1);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to compute the digest of stream {}, it will be transferred", stream, e);
+                    LogReplicationMetrics.recordDigestFallback(LogReplicationMetrics.DIGEST_ERROR, 1);
+                } finally {
+                    digestNanos.add(System.nanoTime() - start);
+                }
+            }, readExecutor));
+        }
+
+        return CompletableFuture.allOf(digests.toArray(new CompletableFuture[0])).thenApply(done -> {
+            log.info("Computed digests of {}/{} streams at snapshot {}, {} streams out of time", streamDigests.size(),
+                    streams.size(), snapshot, expiredStreams.get());
+            return new StreamDigests.Computation(new HashMap<>(streamDigests), digestNanos.sum(), expiredStreams.get());
+        });
+    }
+
+    /**
+     * Exclude streams which are already on the standby from the current snapshot sync.
+     * This is only called before the first read of the snapshot sync.
+     * @param streamIds ids of the streams not to read
+     */
+    @Override
+    public void excludeStreams(Set<UUID> streamIds) {
+        List<String> excluded = streamsToSend.stream()
+                .filter(stream -> streamIds.contains(CorfuRuntime.getStreamID(stream)))
+                .collect(Collectors.toList());
+        streamsToSend.removeAll(excluded);
+        streamsCompleted.addAndGet(excluded.size());
+        log.info("Snapshot sync will skip {} streams already on the standby: {}", excluded.size(), excluded);
     }
 
     /**
@@ -264,6 +431,7 @@ public class StreamsSnapshotReader implements SnapshotReader {
         private UUID uuid;
         private Iterator iterator;
         private long maxVersion; // the max address of the log entries processed for this stream.
+        private OpaqueEntry lastEntry = null; // the entry read ahead, not yet part of a message.
 
         OpaqueStreamIterator(String name, CorfuRuntime rt, long snapshot) {
             this.name = name;
@@ -276,6 +444,10 @@ public class StreamsSnapshotReader implements SnapshotReader {
             iterator = stream.iterator();
             maxVersion = 0;
          }
+
+        private boolean hasNext() {
+            return iterator.hasNext() || lastEntry != null;
+        }
     }
 
     @Override
@@ -283,6 +455,28 @@ public class StreamsSnapshotReader implements SnapshotReader {
         this.topologyConfigId = topologyConfigId;
     }
 
+    /**
+     * Report the progress of the snapshot sync: the number of streams fully read out of the streams to replicate,
+     * and the number of SMR entries read from each stream.
+     */
+    private void configureProgressMetrics() {
+        List<Tag> tags = ImmutableList.of(Tag.of(LogReplicationMetrics.CLUSTER_TAG, remoteClusterId));
+        LogReplicationMetrics.registerGauge("logreplication.snapshot.streams.completed", tags,
+                streamsCompleted, AtomicLong::get).ifPresent(meters::add);
+        LogReplicationMetrics.registerGauge("logreplication.snapshot.streams.total", tags,
+                this, reader -> reader.streams.size()).ifPresent(meters::add);
+    }
+
+    private AtomicLong getStreamEntriesRead(String streamName) {
+        return streamEntriesRead.computeIfAbsent(streamName, name -> {
+            AtomicLong entriesRead = new AtomicLong();
+            LogReplicationMetrics.registerGauge("logreplication.snapshot.stream.entries",
+                    ImmutableList.of(Tag.of("stream", name), Tag.of(LogReplicationMetrics.CLUSTER_TAG, remoteClusterId)),
+                    entriesRead, AtomicLong::get).ifPresent(meters::add);
+            return entriesRead;
+        });
+    }
+
     private Optional<DistributionSummary> configureMessageSizeDistributionSummary() {
         return MeterRegistryProvider.getInstance().map(registry ->
                 DistributionSummary.builder("logreplication.message.size.bytes")
@@ -291,6 +485,17 @@ public class StreamsSnapshotReader implements SnapshotReader {
                         .register(registry));
     }
 
+    /**
+     * A batch of SMR entries read from a stream
+     */
+    @AllArgsConstructor
+    private static class StreamChunk {
+        private final OpaqueStreamIterator stream;
+        private final SMREntryList entryList;
+        // Whether the stream has more entries to read after this batch.
+        private final boolean hasNext;
+    }
+
     /**
      * Record a list of SMR entries
      */
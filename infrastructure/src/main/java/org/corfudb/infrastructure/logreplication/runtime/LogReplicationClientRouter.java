@@ -4,6 +4,7 @@ import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.common.compression.Codec;
 import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
 import org.corfudb.infrastructure.LogReplicationRuntimeParameters;
 import org.corfudb.infrastructure.logreplication.infrastructure.ClusterDescriptor;
@@ -34,6 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -115,6 +117,12 @@ public class LogReplicationClientRouter implements IClientRouter {
      */
     private CorfuLogReplicationRuntime runtimeFSM;
 
+    /**
+     * Codec the data of log replication entries is compressed with, as negotiated with the remote cluster
+     */
+    @Getter
+    private volatile Codec.Type compressionCodec = Codec.Type.NONE;
+
     /**
      * Log Replication Client Constructor
      *
@@ -136,6 +144,25 @@ public class LogReplicationClientRouter implements IClientRouter {
         this.remoteLeaderConnectionFuture = new CompletableFuture<>();
     }
 
+    /**
+     * Select the codec to compress log replication entries with: the configured codec
+     * if the remote cluster supports it, no compression otherwise.
+     *
+     * @param supportedCodecs codecs supported by the remote cluster
+     */
+    public void negotiateCompressionCodec(Set<Codec.Type> supportedCodecs) {
+        Codec.Type configuredCodec = parameters.getReplicationConfig() == null ? Codec.Type.NONE
+                : parameters.getReplicationConfig().getCompressionCodec();
+        if (supportedCodecs.contains(configuredCodec)) {
+            compressionCodec = configuredCodec;
+        } else {
+            log.warn("Remote cluster {} does not support codec {}, supported={}. Disable compression.",
+                    remoteClusterId, configuredCodec, supportedCodecs);
+            compressionCodec = Codec.Type.NONE;
+        }
+        log.info("Compress log replication entries to {} with {}", remoteClusterId, compressionCodec);
+    }
+
     // ------------------- IClientRouter Interface ----------------------
 
     @Override
@@ -205,7 +232,7 @@ public class LogReplicationClientRouter implements IClientRouter {
                 // block on connection future, this is the case of leader verification.
                 log.info("Send message to {}, type={}", endpoint, message.getMsgType());
                 this.requestSample = MeterRegistryProvider.getInstance().map(Timer::start);
-                channelAdapter.send(endpoint, CorfuMessageConverterUtils.toProtoBuf(message));
+                channelAdapter.send(endpoint, CorfuMessageConverterUtils.toProtoBuf(message, compressionCodec));
 
             } catch (NetworkException ne) {
                 log.error("Caught Network Exception while trying to send message to remote leader {}", endpoint);
@@ -276,7 +303,7 @@ public class LogReplicationClientRouter implements IClientRouter {
         if (runtimeFSM.getRemoteLeader().isPresent()) {
             String remoteLeader = runtimeFSM.getRemoteLeader().get();
             this.requestSample = MeterRegistryProvider.getInstance().map(Timer::start);
-            channelAdapter.send(remoteLeader, CorfuMessageConverterUtils.toProtoBuf(message));
+            channelAdapter.send(remoteLeader, CorfuMessageConverterUtils.toProtoBuf(message, compressionCodec));
             log.trace("Sent one-way message: {}", message);
         } else {
             log.error("Leader not found to remote cluster {}, dropping {}", remoteClusterId, message.getMsgType());
@@ -163,6 +163,11 @@ public class NegotiatingState implements LogReplicationRuntimeState {
             throw new LogReplicationNegotiationException(" Mismatch of version number");
         }
 
+        /*
+         * Compress the replicated data if the standby site supports the configured codec.
+         */
+        router.negotiateCompressionCodec(negotiationResponse.getSupportedCodecs());
+
         /*
          * The standby site has a smaller config ID, redo the discovery for this standby site when
          * getting a new notification of the site config change if this standby is in the new config.
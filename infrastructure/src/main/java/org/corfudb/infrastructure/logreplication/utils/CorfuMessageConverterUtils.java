@@ -2,8 +2,12 @@ package org.corfudb.infrastructure.logreplication.utils;
 
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.common.compression.Codec;
+import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
@@ -12,17 +16,23 @@ import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationLeadershipLoss;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationMetadataResponse;
 import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationQueryLeaderShipResponse;
+import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
 import org.corfudb.runtime.Messages;
 import org.corfudb.runtime.Messages.CorfuMessage;
 import org.corfudb.runtime.Messages.LogReplicationEntryMetadata;
 import org.corfudb.runtime.Messages.CorfuMessageType;
 import org.corfudb.utils.common.CorfuMessageProtoBufException;
 
+import java.nio.ByteBuffer;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Utility class to convert between legacy Corfu Messages and ProtoBuf messages
  */
+@Slf4j
 public class CorfuMessageConverterUtils {
 
     /**
@@ -32,6 +42,18 @@ public class CorfuMessageConverterUtils {
      * @return protoBuf message definition or null if message is not supported.
      */
     public static CorfuMessage toProtoBuf(CorfuMsg msg) {
+        return toProtoBuf(msg, Codec.Type.NONE);
+    }
+
+    /**
+     * Convert between legacy Java CorfuMsg to protoBuf definition, compressing
+     * the data of log replication entries.
+     *
+     * @param msg legacy corfu message
+     * @param codecType codec to compress the data of log replication entries with
+     * @return protoBuf message definition or null if message is not supported.
+     */
+    public static CorfuMessage toProtoBuf(CorfuMsg msg, Codec.Type codecType) {
 
         CorfuMessage.Builder protoCorfuMsg = CorfuMessage.newBuilder()
                 .setClientID(Messages.Uuid.newBuilder().setLsb(msg.getClientID().getLeastSignificantBits())
@@ -42,9 +64,22 @@ public class CorfuMessageConverterUtils {
 
         switch (msg.getMsgType()) {
             case LOG_REPLICATION_ENTRY:
+                long serializeStart = System.nanoTime();
                 CorfuPayloadMsg<LogReplicationEntry> entry = (CorfuPayloadMsg<LogReplicationEntry>) msg;
                 LogReplicationEntry logReplicationEntry = entry.getPayload();
-                return protoCorfuMsg
+                byte[] payload = logReplicationEntry.getPayload();
+                Codec.Type dataCodecType = Codec.Type.NONE;
+                ByteString data = null;
+                if (codecType != Codec.Type.NONE && payload.length > 0) {
+                    data = compress(payload, codecType);
+                    dataCodecType = codecType;
+                }
+                // Send the data as is if it does not compress
+                if (data == null || data.size() >= payload.length) {
+                    data = ByteString.copyFrom(payload);
+                    dataCodecType = Codec.Type.NONE;
+                }
+                CorfuMessage protoEntryMsg = protoCorfuMsg
                         .setType(CorfuMessageType.LOG_REPLICATION_ENTRY)
                         // Set Log Replication Entry as payload
                         .setPayload(Any.pack(Messages.LogReplicationEntry.newBuilder()
@@ -57,9 +92,19 @@ public class CorfuMessageConverterUtils {
                                         .setSyncRequestId(Messages.Uuid.newBuilder().setMsb(logReplicationEntry.getMetadata().getSyncRequestId().getMostSignificantBits())
                                                 .setLsb(logReplicationEntry.getMetadata().getSyncRequestId().getLeastSignificantBits()).build())
                                         .setTimestamp(logReplicationEntry.getMetadata().getTimestamp()))
-                                .setData(ByteString.copyFrom(logReplicationEntry.getPayload()))
+                                .setData(data)
+                                .setCodec(dataCodecType.getId())
+                                .putAllStreamDigests(logReplicationEntry.getStreamDigests().entrySet().stream()
+                                        .collect(Collectors.toMap(e -> e.getKey().toString(), Map.Entry::getValue)))
                                 .build()))
                         .build();
+                // Only the data messages are accounted for, not the ACKs and markers
+                MessageType entryType = logReplicationEntry.getMetadata().getMessageMetadataType();
+                if (entryType == MessageType.LOG_ENTRY_MESSAGE || entryType == MessageType.SNAPSHOT_MESSAGE) {
+                    LogReplicationMetrics.recordStage(LogReplicationMetrics.Stage.SERIALIZE,
+                            LogReplicationMetrics.getReplicationType(entryType), serializeStart);
+                }
+                return protoEntryMsg;
             case LOG_REPLICATION_METADATA_RESPONSE:
                 CorfuPayloadMsg<LogReplicationMetadataResponse> corfuMsg = (CorfuPayloadMsg<LogReplicationMetadataResponse>) msg;
                 LogReplicationMetadataResponse negotiationResponse = corfuMsg.getPayload();
@@ -72,6 +117,9 @@ public class CorfuMessageConverterUtils {
                                 .setSnapshotTransferred(negotiationResponse.getSnapshotTransferred())
                                 .setSnapshotApplied(negotiationResponse.getSnapshotApplied())
                                 .setLastLogEntryTimestamp(negotiationResponse.getLastLogProcessed())
+                                .addAllSupportedCodecs(negotiationResponse.getSupportedCodecs().stream()
+                                        .map(Codec.Type::getId)
+                                        .collect(Collectors.toList()))
                                 .build()))
                         .build();
             case LOG_REPLICATION_QUERY_LEADERSHIP_RESPONSE:
@@ -106,6 +154,32 @@ public class CorfuMessageConverterUtils {
         }
     }
 
+    /**
+     * Compress the data of a log replication entry, and record the compression ratio
+     * and time of the codec.
+     *
+     * @param payload uncompressed data
+     * @param codecType codec to compress the data with
+     * @return compressed data
+     */
+    private static ByteString compress(byte[] payload, Codec.Type codecType) {
+        long start = System.nanoTime();
+        ByteString compressed = ByteString.copyFrom(codecType.getInstance().compress(ByteBuffer.wrap(payload)));
+        long elapsed = System.nanoTime() - start;
+
+        log.trace("Compressed log replication entry with {} from {} to {} bytes in {} ns", codecType,
+                payload.length, compressed.size(), elapsed);
+        MeterRegistryProvider.getInstance().ifPresent(registry -> {
+            registry.timer("logreplication.message.compression.duration", "codec", codecType.name())
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("logreplication.message.compression.ratio")
+                    .tags("codec", codecType.name())
+                    .register(registry)
+                    .record((double) payload.length / compressed.size());
+        });
+        return compressed;
+    }
+
     /**
      * Convert from protoBuf definition to legacy Java Corfu Message
      *
@@ -0,0 +1,169 @@
+package org.corfudb.infrastructure.logreplication.utils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
+import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Metrics shared by the stages of the log replication pipeline, exported through the {@link MeterRegistryProvider}.
+ *
+ * The time spent in each stage is recorded by the timer logreplication.stage.duration, tagged with the stage
+ * and the replication type (logentry or snapshot):
+ * - read: read a message from the log of the source cluster,
+ * - serialize: convert a message to its wire format (including compression),
+ * - send: hand a message over to the transport,
+ * - ack: from sending a message until it is acknowledged by the sink cluster,
+ * - apply: write a message to the log of the sink cluster.
+ *
+ * The throughput of the sink cluster is counted by logreplication.sink.applied.messages and
+ * logreplication.sink.applied.entries (SMR entries).
+ *
+ * The streams an incremental snapshot sync transfers because their digests could not be compared are
+ * counted by logreplication.snapshot.digest.fallbacks, tagged with the reason: timeout (not digested within
+ * the time budget), error (failed to digest) or noack (the standby did not compare the digests in time).
+ *
+ * The gauges of the source cluster report the state of the replication to one remote cluster, and are tagged
+ * with its id (the gauges of the sink cluster are tagged with its own id). They are removed when the replication
+ * stops, so that a later replication to the same cluster reports its own state.
+ */
+public final class LogReplicationMetrics {
+
+    public static final String REPLICATION_TYPE_TAG = "replication.type";
+
+    public static final String CLUSTER_TAG = "cluster";
+
+    public static final String LOG_ENTRY = "logentry";
+
+    public static final String SNAPSHOT = "snapshot";
+
+    private static final String STAGE_DURATION = "logreplication.stage.duration";
+
+    private static final String APPLIED_MESSAGES = "logreplication.sink.applied.messages";
+
+    private static final String APPLIED_ENTRIES = "logreplication.sink.applied.entries";
+
+    private static final String DIGEST_FALLBACKS = "logreplication.snapshot.digest.fallbacks";
+
+    public static final String DIGEST_TIMEOUT = "timeout";
+
+    public static final String DIGEST_ERROR = "error";
+
+    public static final String DIGEST_NO_ACK = "noack";
+
+    /**
+     * Stages of the log replication pipeline.
+     */
+    public enum Stage {
+        READ("read"),
+        SERIALIZE("serialize"),
+        SEND("send"),
+        ACK("ack"),
+        APPLY("apply");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private LogReplicationMetrics() {
+        // Prevent instantiation of this class
+    }
+
+    /**
+     * Get the replication type a message belongs to.
+     *
+     * @param type type of the message
+     * @return logentry or snapshot
+     */
+    public static String getReplicationType(MessageType type) {
+        return type == MessageType.LOG_ENTRY_MESSAGE || type == MessageType.LOG_ENTRY_REPLICATED
+                ? LOG_ENTRY : SNAPSHOT;
+    }
+
+    /**
+     * Record the time spent in a stage of the pipeline, since the given start time.
+     *
+     * @param stage           stage of the pipeline
+     * @param replicationType logentry or snapshot
+     * @param startNanos      start time in nanoseconds, as given by System.nanoTime()
+     */
+    public static void recordStage(Stage stage, String replicationType, long startNanos) {
+        recordStageDuration(stage, replicationType, System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the time spent in a stage of the pipeline.
+     *
+     * @param stage           stage of the pipeline
+     * @param replicationType logentry or snapshot
+     * @param duration        time spent in the stage
+     * @param unit            unit of the duration
+     */
+    public static void recordStageDuration(Stage stage, String replicationType, long duration, TimeUnit unit) {
+        MeterRegistryProvider.getInstance().ifPresent(registry ->
+                registry.timer(STAGE_DURATION, Tags.of(Tag.of("stage", stage.tag),
+                        Tag.of(REPLICATION_TYPE_TAG, replicationType)))
+                        .record(duration, unit));
+    }
+
+    /**
+     * Count the messages and the SMR entries applied to the log of the sink cluster.
+     *
+     * @param replicationType logentry or snapshot
+     * @param numMessages     number of messages applied
+     * @param numEntries      number of SMR entries (updates) in the messages
+     */
+    public static void recordApplied(String replicationType, int numMessages, int numEntries) {
+        MeterRegistryProvider.getInstance().ifPresent(registry -> {
+            Tags tags = Tags.of(REPLICATION_TYPE_TAG, replicationType);
+            registry.counter(APPLIED_MESSAGES, tags).increment(numMessages);
+            registry.counter(APPLIED_ENTRIES, tags).increment(numEntries);
+        });
+    }
+
+    /**
+     * Count the streams an incremental snapshot sync transfers, as their digests could not be compared.
+     *
+     * @param reason     why the digests could not be compared: timeout, error or noack
+     * @param numStreams number of streams
+     */
+    public static void recordDigestFallback(String reason, int numStreams) {
+        MeterRegistryProvider.getInstance().ifPresent(registry ->
+                registry.counter(DIGEST_FALLBACKS, Tags.of("reason", reason)).increment(numStreams));
+    }
+
+    /**
+     * Register a gauge of the state of a log replication component. The gauge must be removed
+     * with {@link #removeMeters(Collection)} when the component is shut down.
+     *
+     * @param name          name of the gauge
+     * @param tags          tags of the gauge
+     * @param obj           object the gauge reports the state of
+     * @param valueFunction function giving the value of the gauge from the object
+     * @return the id of the gauge, empty if there is no registry
+     */
+    public static <T> Optional<Meter.Id> registerGauge(String name, Iterable<Tag> tags, T obj,
+                                                       ToDoubleFunction<T> valueFunction) {
+        return MeterRegistryProvider.getInstance().map(registry ->
+                Gauge.builder(name, obj, valueFunction).tags(tags).register(registry).getId());
+    }
+
+    /**
+     * Remove the meters of a log replication component which is shut down.
+     *
+     * @param meterIds ids of the meters to remove
+     */
+    public static void removeMeters(Collection<Meter.Id> meterIds) {
+        MeterRegistryProvider.getInstance().ifPresent(registry -> meterIds.forEach(registry::remove));
+    }
+}
@@ -0,0 +1,227 @@
+package org.corfudb.infrastructure.logreplication.utils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.protocols.logprotocol.OpaqueEntry;
+import org.corfudb.protocols.logprotocol.SMREntry;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.view.StreamOptions;
+import org.corfudb.runtime.view.stream.OpaqueStream;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Digests of the content of replicated streams, used by an incremental snapshot sync to find the
+ * streams whose content on the standby cluster already matches the content on the active cluster.
+ *
+ * The digest of a stream is computed from its state at a given snapshot, not from its history: the
+ * put, remove and clear updates of the stream are replayed (opaquely, on the serialized keys and values)
+ * into the digest of each key and value, and the digests of all keys are combined regardless of their order.
+ * Two clusters which wrote the same keys and values in a different order, or with different addresses,
+ * have the same digest.
+ *
+ * Digests are neither persisted nor maintained as streams are written: each incremental snapshot sync
+ * replays the full history of every stream on both clusters, within the time budget of the sync (see
+ * {@link org.corfudb.infrastructure.logreplication.LogReplicationConfig#getIncrementalSnapshotSyncTimeoutMs}).
+ * The memory of a digest grows with the number of keys of its stream, about 170 bytes per key, so streams
+ * with more than {@link #MAX_KEYS} keys, and streams which can not be replayed within the time budget, are
+ * not compared and are always transferred. Incremental snapshot syncs therefore pay off for many small and
+ * medium streams, not for the largest ones.
+ */
+@Slf4j
+public final class StreamDigests {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+    /**
+     * The digest of a stream without any key.
+     */
+    public static final String EMPTY_DIGEST = HASH_FUNCTION.hashBytes(new byte[0]).toString();
+
+    /**
+     * Maximum number of keys of a stream to compare, larger streams are always transferred.
+     * Bounds the memory of a digest to about 45MB.
+     */
+    public static final int MAX_KEYS = 1 << 18;
+
+    private StreamDigests() {
+        // Prevent instantiation of this class
+    }
+
+    /**
+     * Compute the digest of the content of a stream at a snapshot.
+     *
+     * @param runtime  corfu runtime
+     * @param streamId id of the stream
+     * @param snapshot snapshot timestamp to read the stream up to
+     * @return the digest of the stream, or empty if the stream has updates which can not be replayed opaquely
+     *         or more than {@link #MAX_KEYS} keys, in which case it can not be compared and has to be transferred
+     */
+    public static Optional<String> compute(CorfuRuntime runtime, UUID streamId, long snapshot) {
+        return compute(runtime, streamId, snapshot, () -> false);
+    }
+
+    /**
+     * Compute the digest of the content of a stream at a snapshot, unless it takes too long.
+     *
+     * @param runtime  corfu runtime
+     * @param streamId id of the stream
+     * @param snapshot snapshot timestamp to read the stream up to
+     * @param expired  whether the time to compute the digest is up, checked as the stream is read
+     * @return the digest of the stream, or empty if it can not be compared or the time is up before
+     *         the stream is read up to the snapshot
+     */
+    public static Optional<String> compute(CorfuRuntime runtime, UUID streamId, long snapshot,
+                                           BooleanSupplier expired) {
+        StreamOptions options = StreamOptions.builder()
+                .ignoreTrimmed(false)
+                .cacheEntries(false)
+                .build();
+        Iterator<OpaqueEntry> iterator = new OpaqueStream(runtime, runtime.getStreamsView().get(streamId, options))
+                .streamUpTo(snapshot).iterator();
+
+        Digest digest = new Digest(MAX_KEYS);
+        while (iterator.hasNext()) {
+            if (expired.getAsBoolean()) {
+                log.debug("Stream {} can not be compared in time, {} keys", streamId, digest.size());
+                return Optional.empty();
+            }
+
+            List<SMREntry> smrEntries = iterator.next().getEntries().get(streamId);
+            if (smrEntries == null) {
+                continue;
+            }
+
+            for (SMREntry smrEntry : smrEntries) {
+                if (!digest.apply(smrEntry)) {
+                    log.debug("Stream {} can not be compared at update {}, {} keys", streamId,
+                            smrEntry.getSMRMethod(), digest.size());
+                    return Optional.empty();
+                }
+            }
+        }
+
+        return Optional.of(digest.toString());
+    }
+
+    /**
+     * The digests of the streams of a snapshot sync, and the work of computing them.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Computation {
+
+        /**
+         * Digest of each stream which can be compared.
+         */
+        private final Map<UUID, String> digests;
+
+        /**
+         * Time spent computing the digests in nanoseconds, summed over the streams.
+         */
+        private final long digestNanos;
+
+        /**
+         * Number of streams which could not be digested within the time budget.
+         */
+        private final int expiredStreams;
+    }
+
+    /**
+     * The running digest of a stream, updated as the updates of the stream are replayed.
+     *
+     * The digests of the keys and values are combined by adding their bytes (as
+     * {@link Hashing#combineUnordered} does), so a put or a remove only adds or subtracts the
+     * digest of a single key, instead of combining all keys again. Only the digest of the value
+     * of each key is kept, to subtract it once the key is overwritten or removed.
+     */
+    @VisibleForTesting
+    static final class Digest {
+
+        private final Map<HashCode, HashCode> entries = new HashMap<>();
+
+        private final byte[] combined = new byte[HASH_FUNCTION.bits() / Byte.SIZE];
+
+        private final int maxKeys;
+
+        Digest(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        /**
+         * Apply an update to the digest.
+         *
+         * @param smrEntry opaque update
+         * @return true if the update was applied, false if it is unknown or the stream has too many keys
+         */
+        boolean apply(SMREntry smrEntry) {
+            Object[] args = smrEntry.getSMRArguments();
+            switch (smrEntry.getSMRMethod()) {
+                case "put":
+                    if (args.length != 2 || !(args[0] instanceof byte[]) || !(args[1] instanceof byte[])) {
+                        return false;
+                    }
+                    HashCode value = HASH_FUNCTION.newHasher()
+                            .putInt(((byte[]) args[0]).length)
+                            .putBytes((byte[]) args[0])
+                            .putBytes((byte[]) args[1])
+                            .hash();
+                    HashCode previous = entries.put(HASH_FUNCTION.hashBytes((byte[]) args[0]), value);
+                    if (previous != null) {
+                        combine(previous, -1);
+                    }
+                    combine(value, 1);
+                    return entries.size() <= maxKeys;
+                case "remove":
+                    if (args.length != 1 || !(args[0] instanceof byte[])) {
+                        return false;
+                    }
+                    HashCode removed = entries.remove(HASH_FUNCTION.hashBytes((byte[]) args[0]));
+                    if (removed != null) {
+                        combine(removed, -1);
+                    }
+                    return true;
+                case "clear":
+                    entries.clear();
+                    Arrays.fill(combined, (byte) 0);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private void combine(HashCode hashCode, int sign) {
+            byte[] bytes = hashCode.asBytes();
+            for (int i = 0; i < combined.length; i++) {
+                combined[i] += sign * bytes[i];
+            }
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        /**
+         * @return digest of the stream
+         */
+        @Override
+        public String toString() {
+            if (entries.isEmpty()) {
+                return EMPTY_DIGEST;
+            }
+            return HashCode.fromBytes(combined).toString();
+        }
+    }
+}
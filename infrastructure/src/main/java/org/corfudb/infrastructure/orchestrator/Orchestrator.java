@@ -111,7 +111,8 @@ public class Orchestrator {
                 query(msg, ctx, r);
                 break;
             case ADD_NODE:
-                workflow = new AddNodeWorkflow((AddNodeRequest) orchReq.getRequest());
+                workflow = new AddNodeWorkflow((AddNodeRequest) orchReq.getRequest(),
+                        serverContext::getStateTransferBandwidthLimit);
                 dispatch(workflow, msg, ctx, r);
                 break;
             case REMOVE_NODE:
@@ -119,7 +120,8 @@ public class Orchestrator {
                 dispatch(workflow, msg, ctx, r);
                 break;
             case HEAL_NODE:
-                workflow = new HealNodeWorkflow((HealNodeRequest) orchReq.getRequest());
+                workflow = new HealNodeWorkflow((HealNodeRequest) orchReq.getRequest(),
+                        serverContext::getStateTransferBandwidthLimit);
                 dispatch(workflow, msg, ctx, r);
                 break;
             case FORCE_REMOVE_NODE:
@@ -128,7 +130,8 @@ public class Orchestrator {
                 break;
             case RESTORE_REDUNDANCY_MERGE_SEGMENTS:
                 workflow = new RestoreRedundancyMergeSegmentsWorkflow(
-                        (RestoreRedundancyMergeSegmentsRequest) orchReq.getRequest());
+                        (RestoreRedundancyMergeSegmentsRequest) orchReq.getRequest(),
+                        serverContext::getStateTransferBandwidthLimit);
                 dispatch(workflow, msg, ctx, r);
                 break;
             default:
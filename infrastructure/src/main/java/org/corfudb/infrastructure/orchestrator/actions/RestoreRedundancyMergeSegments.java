@@ -13,8 +13,10 @@ import org.corfudb.infrastructure.log.statetransfer.batchprocessor.protocolbatch
 import org.corfudb.infrastructure.log.statetransfer.exceptions.TransferSegmentException;
 import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegment;
 import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentRange;
+import org.corfudb.infrastructure.log.statetransfer.transferprocessor.AdaptiveTransferController;
 import org.corfudb.infrastructure.log.statetransfer.transferprocessor.BasicTransferProcessor;
 import org.corfudb.infrastructure.log.statetransfer.transferprocessor.ParallelTransferProcessor;
+import org.corfudb.infrastructure.log.statetransfer.transferprocessor.SegmentTransferProcessor;
 import org.corfudb.infrastructure.orchestrator.Action;
 import org.corfudb.infrastructure.redundancy.RedundancyCalculator;
 import org.corfudb.protocols.wireprotocol.Token;
@@ -43,6 +45,7 @@ import java.util.Optional;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -81,6 +84,12 @@ public class RestoreRedundancyMergeSegments extends Action {
     @Default
     private final int restoreRetries = 3;
 
+    /**
+     * Supplier of the max number of bytes per second copied by the state transfer, 0 if unlimited.
+     */
+    @Default
+    private final LongSupplier bandwidthLimit = () -> 0L;
+
     /**
      * A data class that stores both the layout and the transferred segments.
      */
@@ -453,9 +462,21 @@ public class RestoreRedundancyMergeSegments extends Action {
                 .runtimeLayout(runtime.getLayoutView().getRuntimeLayout(layout))
                 .build();
 
-        // Create a parallel transfer processor for the committed transfer
+        // Create a parallel transfer processor for the committed transfer, which adapts
+        // the number of in-flight batches to the batch latency and paces the bandwidth used.
+        AdaptiveTransferController transferController = new AdaptiveTransferController(
+                AdaptiveTransferController.DEFAULT_MAX_IN_FLIGHT_PER_NODE, bandwidthLimit);
         ParallelTransferProcessor parallelTransferProcessor =
-                new ParallelTransferProcessor(committedBatchProcessor);
+                new ParallelTransferProcessor(committedBatchProcessor, transferController);
+
+        // Create a segment transfer processor for the committed segments,
+        // paced to the bandwidth limit by the same controller.
+        SegmentTransferProcessor segmentTransferProcessor = SegmentTransferProcessor
+                .builder()
+                .currentNode(currentNode)
+                .runtimeLayout(runtime.getLayoutView().getRuntimeLayout(layout))
+                .controller(transferController)
+                .build();
 
         // Create a state transfer manager
         StateTransferManager transferManager =
@@ -465,6 +486,7 @@ public class RestoreRedundancyMergeSegments extends Action {
                         .batchSize(runtime.getParameters().getBulkReadSize())
                         .basicTransferProcessor(basicTransferProcessor)
                         .parallelTransferProcessor(parallelTransferProcessor)
+                        .segmentTransferProcessor(Optional.of(segmentTransferProcessor))
                         .build();
 
         // While a redundancy can be restored or segments can be merged, perform a state transfer
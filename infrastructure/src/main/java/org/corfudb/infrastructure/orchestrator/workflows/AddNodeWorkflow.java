@@ -15,6 +15,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.LongSupplier;
 
 import static org.corfudb.protocols.wireprotocol.orchestrator.OrchestratorRequestType.ADD_NODE;
 
@@ -47,6 +48,17 @@ public class AddNodeWorkflow implements IWorkflow {
      * @param request request to add a node
      */
     public AddNodeWorkflow(AddNodeRequest request) {
+        this(request, () -> 0L);
+    }
+
+    /**
+     * Creates a new add node workflow from a request.
+     *
+     * @param request        request to add a node
+     * @param bandwidthLimit supplier of the max number of bytes per second copied by
+     *                       the state transfer, 0 if unlimited
+     */
+    public AddNodeWorkflow(AddNodeRequest request, LongSupplier bandwidthLimit) {
         this.id = UUID.randomUUID();
         this.request = request;
         actions = ImmutableList.of(new BootstrapNode(),
@@ -54,6 +66,7 @@ public class AddNodeWorkflow implements IWorkflow {
                 RestoreRedundancyMergeSegments.builder()
                         .currentNode(request.getEndpoint())
                         .redundancyCalculator(new RedundancyCalculator(request.getEndpoint()))
+                        .bandwidthLimit(bandwidthLimit)
                         .build());
     }
 
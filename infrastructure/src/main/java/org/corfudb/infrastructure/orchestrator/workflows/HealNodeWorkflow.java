@@ -11,6 +11,7 @@ import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.view.Layout;
 
 import javax.annotation.Nonnull;
+import java.util.function.LongSupplier;
 
 import static org.corfudb.protocols.wireprotocol.orchestrator.OrchestratorRequestType.HEAL_NODE;
 
@@ -28,12 +29,17 @@ public class HealNodeWorkflow extends AddNodeWorkflow {
     private final HealNodeRequest request;
 
     public HealNodeWorkflow(HealNodeRequest healNodeRequest) {
-        super(new AddNodeRequest(healNodeRequest.getEndpoint()));
+        this(healNodeRequest, () -> 0L);
+    }
+
+    public HealNodeWorkflow(HealNodeRequest healNodeRequest, LongSupplier bandwidthLimit) {
+        super(new AddNodeRequest(healNodeRequest.getEndpoint()), bandwidthLimit);
         this.request = healNodeRequest;
         this.actions = ImmutableList.of(new HealNodeToLayout(),
                 RestoreRedundancyMergeSegments.builder()
                         .currentNode(request.getEndpoint())
                         .redundancyCalculator(new RedundancyCalculator(request.getEndpoint()))
+                        .bandwidthLimit(bandwidthLimit)
                         .build());
     }
 
@@ -11,6 +11,7 @@ import org.corfudb.protocols.wireprotocol.orchestrator.RestoreRedundancyMergeSeg
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.LongSupplier;
 
 import static org.corfudb.protocols.wireprotocol.orchestrator.OrchestratorRequestType.RESTORE_REDUNDANCY_MERGE_SEGMENTS;
 
@@ -40,12 +41,25 @@ public class RestoreRedundancyMergeSegmentsWorkflow implements IWorkflow {
      */
     public RestoreRedundancyMergeSegmentsWorkflow(
             RestoreRedundancyMergeSegmentsRequest request) {
+        this(request, () -> 0L);
+    }
+
+    /**
+     * Creates a new merge segments workflow from a request.
+     *
+     * @param request        request to restore redundancy and merge a segment.
+     * @param bandwidthLimit supplier of the max number of bytes per second copied by
+     *                       the state transfer, 0 if unlimited
+     */
+    public RestoreRedundancyMergeSegmentsWorkflow(
+            RestoreRedundancyMergeSegmentsRequest request, LongSupplier bandwidthLimit) {
         this.id = UUID.randomUUID();
         this.request = request;
         this.actions = ImmutableList.of(
                 RestoreRedundancyMergeSegments.builder()
                         .currentNode(request.getEndpoint())
                         .redundancyCalculator(new RedundancyCalculator(request.getEndpoint()))
+                        .bandwidthLimit(bandwidthLimit)
                         .build());
     }
 
@@ -1,7 +1,10 @@
 package org.corfudb.infrastructure.log.statetransfer;
 
 import com.google.common.collect.ImmutableList;
+import io.netty.buffer.Unpooled;
 import org.corfudb.common.util.Tuple;
+import org.corfudb.infrastructure.log.StreamLogFiles;
+import org.corfudb.infrastructure.log.StreamLogFiles.Checksum;
 import org.corfudb.infrastructure.log.statetransfer.batch.TransferBatchRequest;
 import org.corfudb.infrastructure.log.statetransfer.segment.StateTransferType;
 import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegment;
@@ -11,13 +14,22 @@ import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentRange
 import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentStatus;
 import org.corfudb.infrastructure.log.statetransfer.transferprocessor.BasicTransferProcessor;
 import org.corfudb.infrastructure.log.statetransfer.transferprocessor.ParallelTransferProcessor;
+import org.corfudb.infrastructure.log.statetransfer.transferprocessor.SegmentTransferProcessor;
+import org.corfudb.infrastructure.log.statetransfer.transferprocessor.TransferProcessorResult;
 import org.corfudb.protocols.wireprotocol.KnownAddressResponse;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
 import org.corfudb.runtime.clients.LogUnitClient;
 import org.corfudb.runtime.exceptions.NetworkException;
+import org.corfudb.runtime.exceptions.SegmentUnavailableException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
+import org.corfudb.runtime.view.RuntimeLayout;
 import org.corfudb.util.NodeLocator;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -31,10 +43,17 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.corfudb.infrastructure.log.statetransfer.segment.StateTransferType.CONSISTENT_READ;
 import static org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentStatus.SegmentState.RESTORED;
+import static org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentStatus.SegmentState.TRANSFERRED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 class StateTransferManagerTest implements TransferSegmentCreator {
 
@@ -545,5 +564,110 @@ class StateTransferManagerTest implements TransferSegmentCreator {
         assertThat(protocolList).isEqualTo(expectedProtocolWorkload);
     }
 
+    /**
+     * Create a manager which copies the segment files of the committed ranges first, from a source
+     * node which serves the given segment file, or which reports the segments as unavailable if null.
+     */
+    private StateTransferManager getSegmentTransferInstance(LogUnitClient client,
+                                                            ParallelTransferProcessor parallelProcessor,
+                                                            byte[] segmentFile) {
+        RuntimeLayout runtimeLayout = mock(RuntimeLayout.class);
+        LogUnitClient sourceClient = mock(LogUnitClient.class);
+        doReturn(client).when(runtimeLayout).getLogUnitClient("current");
+        doReturn(sourceClient).when(runtimeLayout).getLogUnitClient("source");
+        doAnswer(invocation -> {
+            long segment = invocation.getArgument(0);
+            CompletableFuture<LogSegmentChunk> future = new CompletableFuture<>();
+            if (segmentFile == null) {
+                future.completeExceptionally(new SegmentUnavailableException(segment));
+            } else {
+                future.complete(new LogSegmentChunk(segment, 0L, (long) segmentFile.length,
+                        Checksum.getChecksum(segmentFile), Unpooled.wrappedBuffer(segmentFile)));
+            }
+            return future;
+        }).when(sourceClient).readSegmentChunk(anyLong(), anyLong(), anyInt());
+
+        BasicTransferProcessor basicProcessor = mock(BasicTransferProcessor.class);
+        doReturn(CompletableFuture.completedFuture(TransferProcessorResult.builder().build()))
+                .when(basicProcessor).runStateTransfer(any());
+
+        SegmentTransferProcessor segmentProcessor = SegmentTransferProcessor.builder()
+                .currentNode("current")
+                .runtimeLayout(runtimeLayout)
+                .build();
+
+        return StateTransferManager.builder()
+                .batchSize(10)
+                .logUnitClient(client)
+                .basicTransferProcessor(basicProcessor)
+                .parallelTransferProcessor(parallelProcessor)
+                .segmentTransferProcessor(Optional.of(segmentProcessor))
+                .build();
+    }
+
+    /**
+     * Create a parallel transfer processor which records the addresses it transfers.
+     */
+    private ParallelTransferProcessor getRecordingParallelProcessor(List<Long> transferred) {
+        ParallelTransferProcessor parallelProcessor = mock(ParallelTransferProcessor.class);
+        doAnswer(invocation -> {
+            Stream<TransferBatchRequest> batches = invocation.getArgument(0);
+            batches.forEach(batch -> transferred.addAll(batch.getAddresses()));
+            return CompletableFuture.completedFuture(TransferProcessorResult.builder().build());
+        }).when(parallelProcessor).runStateTransfer(any(), anyInt());
+        return parallelProcessor;
+    }
+
+    @Test
+    void testSegmentTransferBeforeBatchTransfer() {
+        final long segmentEnd = StreamLogFiles.RECORDS_PER_LOG_FILE - 1;
+        LogUnitClient client = mock(LogUnitClient.class);
+        Set<Long> known = new HashSet<>();
+        doAnswer(invocation -> CompletableFuture.completedFuture(new KnownAddressResponse(new HashSet<>(known))))
+                .when(client).requestKnownAddresses(anyLong(), anyLong());
+        // Installing the segment file makes all its addresses known
+        doAnswer(invocation -> {
+            known.addAll(LongStream.rangeClosed(0L, segmentEnd).boxed().collect(Collectors.toSet()));
+            return CompletableFuture.completedFuture(true);
+        }).when(client).writeSegmentChunk(any(LogSegmentChunk.class));
+
+        List<Long> transferred = new ArrayList<>();
+        ParallelTransferProcessor parallelProcessor = getRecordingParallelProcessor(transferred);
+        StateTransferManager manager = getSegmentTransferInstance(client, parallelProcessor,
+                "segment-file".getBytes());
+
+        ImmutableList<TransferSegment> segments = manager.handleTransfer(ImmutableList.of(
+                getSingleRange(0L, segmentEnd + 10L, CONSISTENT_READ, false,
+                        Optional.of(ImmutableList.of("source")), TransferSegmentStatus.builder().build())));
+
+        InOrder inOrder = inOrder(client, parallelProcessor);
+        inOrder.verify(client).writeSegmentChunk(any(LogSegmentChunk.class));
+        inOrder.verify(parallelProcessor).runStateTransfer(any(), anyInt());
+        // Only the addresses past the copied segment are left to the batch transfer
+        assertThat(transferred).containsExactlyElementsOf(LongStream.rangeClosed(segmentEnd + 1L, segmentEnd + 10L)
+                .boxed().collect(Collectors.toList()));
+        assertThat(segments).allMatch(segment -> segment.getStatus().getSegmentState() == TRANSFERRED);
+    }
 
-}
\ No newline at end of file
+    @Test
+    void testSegmentTransferFallbackToBatchTransfer() {
+        final long segmentEnd = StreamLogFiles.RECORDS_PER_LOG_FILE - 1;
+        LogUnitClient client = mock(LogUnitClient.class);
+        doReturn(CompletableFuture.completedFuture(new KnownAddressResponse(new HashSet<>())))
+                .when(client).requestKnownAddresses(anyLong(), anyLong());
+
+        List<Long> transferred = new ArrayList<>();
+        ParallelTransferProcessor parallelProcessor = getRecordingParallelProcessor(transferred);
+        StateTransferManager manager = getSegmentTransferInstance(client, parallelProcessor, null);
+
+        ImmutableList<TransferSegment> segments = manager.handleTransfer(ImmutableList.of(
+                getSingleRange(0L, segmentEnd, CONSISTENT_READ, false,
+                        Optional.of(ImmutableList.of("source")), TransferSegmentStatus.builder().build())));
+
+        // The segment is not available on the source, all its addresses are transferred in batches
+        verify(client, never()).writeSegmentChunk(any(LogSegmentChunk.class));
+        assertThat(transferred).containsExactlyElementsOf(LongStream.rangeClosed(0L, segmentEnd)
+                .boxed().collect(Collectors.toList()));
+        assertThat(segments).allMatch(segment -> segment.getStatus().getSegmentState() == TRANSFERRED);
+    }
+}
@@ -0,0 +1,76 @@
+package org.corfudb.infrastructure.log.statetransfer.transferprocessor;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.corfudb.infrastructure.log.statetransfer.transferprocessor.AdaptiveTransferController.DEFAULT_IN_FLIGHT_PER_NODE;
+
+class AdaptiveTransferControllerTest {
+
+    private static final int MAX_IN_FLIGHT_PER_NODE = 8;
+    private static final long LATENCY_MS = 10;
+    private static final long BATCH_BYTES = 1000;
+
+    private void transferBatches(AdaptiveTransferController controller, int numBatches,
+                                 long latencyMs) throws InterruptedException {
+        for (int i = 0; i < numBatches; i++) {
+            controller.acquire(1);
+            controller.release(latencyMs, BATCH_BYTES);
+        }
+    }
+
+    @Test
+    void testInFlightBatchesFollowLatency() throws Exception {
+        AdaptiveTransferController controller =
+                new AdaptiveTransferController(MAX_IN_FLIGHT_PER_NODE, () -> 0L);
+        assertThat(controller.getInFlightPerNode()).isEqualTo(DEFAULT_IN_FLIGHT_PER_NODE);
+
+        // A steady latency grows the number of in-flight batches up to its max.
+        transferBatches(controller, MAX_IN_FLIGHT_PER_NODE * MAX_IN_FLIGHT_PER_NODE, LATENCY_MS);
+        assertThat(controller.getInFlightPerNode()).isEqualTo(MAX_IN_FLIGHT_PER_NODE);
+
+        // A latency increase halves it, down to a single batch.
+        transferBatches(controller, 1, LATENCY_MS * LATENCY_MS);
+        assertThat(controller.getInFlightPerNode()).isEqualTo(MAX_IN_FLIGHT_PER_NODE / 2);
+        transferBatches(controller, MAX_IN_FLIGHT_PER_NODE, LATENCY_MS * LATENCY_MS);
+        assertThat(controller.getInFlightPerNode()).isEqualTo(1);
+    }
+
+    @Test
+    void testBandwidthLimit() throws Exception {
+        AtomicLong nanos = new AtomicLong();
+        AtomicLong slept = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        AtomicLong bandwidthLimit = new AtomicLong(BATCH_BYTES);
+        AdaptiveTransferController controller = new AdaptiveTransferController(MAX_IN_FLIGHT_PER_NODE,
+                bandwidthLimit::get, ticker, sleepNanos -> {
+                    nanos.addAndGet(sleepNanos);
+                    slept.addAndGet(sleepNanos);
+                });
+
+        // Each batch transferred costs a second at this limit, paid for by the batch after the next one.
+        final int numBatches = 3;
+        transferBatches(controller, numBatches, LATENCY_MS);
+        assertThat(slept.get()).isEqualTo(TimeUnit.SECONDS.toNanos(numBatches - 2));
+
+        // The limit can be lifted while transferring.
+        bandwidthLimit.set(0);
+        slept.set(0);
+        transferBatches(controller, numBatches, LATENCY_MS);
+        assertThat(slept.get()).isZero();
+
+        // And set again, the batches are paced to the new limit only.
+        bandwidthLimit.set(2 * BATCH_BYTES);
+        transferBatches(controller, numBatches, LATENCY_MS);
+        assertThat(slept.get()).isEqualTo(TimeUnit.SECONDS.toNanos(numBatches - 2) / 2);
+    }
+}
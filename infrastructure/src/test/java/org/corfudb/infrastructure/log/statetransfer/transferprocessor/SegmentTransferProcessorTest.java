@@ -0,0 +1,269 @@
+package org.corfudb.infrastructure.log.statetransfer.transferprocessor;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.corfudb.infrastructure.log.StreamLogFiles;
+import org.corfudb.infrastructure.log.StreamLogFiles.Checksum;
+import org.corfudb.infrastructure.log.statetransfer.segment.StateTransferType;
+import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentRangeSingle;
+import org.corfudb.infrastructure.log.statetransfer.segment.TransferSegmentStatus;
+import org.corfudb.protocols.wireprotocol.KnownAddressResponse;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
+import org.corfudb.runtime.clients.LogUnitClient;
+import org.corfudb.runtime.exceptions.SegmentUnavailableException;
+import org.corfudb.runtime.view.Address;
+import org.corfudb.runtime.view.RuntimeLayout;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.corfudb.infrastructure.log.statetransfer.segment.StateTransferType.CONSISTENT_READ;
+import static org.corfudb.infrastructure.log.statetransfer.segment.StateTransferType.PROTOCOL_READ;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SegmentTransferProcessorTest {
+
+    private static final long RECORDS_PER_SEGMENT = StreamLogFiles.RECORDS_PER_LOG_FILE;
+    private static final int CHUNK_SIZE = 4;
+    private static final String CURRENT_NODE = "current";
+
+    private final RuntimeLayout runtimeLayout = mock(RuntimeLayout.class);
+
+    private final LogUnitClient currentNodeClient = mock(LogUnitClient.class);
+
+    private final List<LogSegmentChunk> writtenChunks = new ArrayList<>();
+
+    /**
+     * Create the processor, the current node knowing none of the addresses
+     * and writing the chunks successfully.
+     */
+    private SegmentTransferProcessor setUp() {
+        return setUp(new AdaptiveTransferController());
+    }
+
+    /**
+     * Create the processor paced by the given controller.
+     */
+    private SegmentTransferProcessor setUp(AdaptiveTransferController controller) {
+        doReturn(currentNodeClient).when(runtimeLayout).getLogUnitClient(CURRENT_NODE);
+        knownAddresses(Collections.emptySet());
+        doAnswer(invocation -> {
+            writtenChunks.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(true);
+        }).when(currentNodeClient).writeSegmentChunk(any(LogSegmentChunk.class));
+
+        return SegmentTransferProcessor.builder()
+                .chunkSize(CHUNK_SIZE)
+                .currentNode(CURRENT_NODE)
+                .runtimeLayout(runtimeLayout)
+                .controller(controller)
+                .build();
+    }
+
+    private void knownAddresses(Set<Long> addresses) {
+        doReturn(CompletableFuture.completedFuture(new KnownAddressResponse(addresses)))
+                .when(currentNodeClient).requestKnownAddresses(anyLong(), anyLong());
+    }
+
+    /**
+     * Create a source node serving the given bytes as the file of every segment.
+     */
+    private LogUnitClient sourceNode(String node, byte[] segmentFile) {
+        LogUnitClient client = mock(LogUnitClient.class);
+        doAnswer(invocation -> {
+            long segment = invocation.getArgument(0);
+            long offset = invocation.getArgument(1);
+            int maxLength = invocation.getArgument(2);
+            int length = Math.min(maxLength, (int) (segmentFile.length - offset));
+            byte[] bytes = new byte[length];
+            System.arraycopy(segmentFile, (int) offset, bytes, 0, length);
+            return CompletableFuture.completedFuture(new LogSegmentChunk(segment, offset,
+                    (long) segmentFile.length, Checksum.getChecksum(bytes), Unpooled.wrappedBuffer(bytes)));
+        }).when(client).readSegmentChunk(anyLong(), anyLong(), anyInt());
+        doReturn(client).when(runtimeLayout).getLogUnitClient(node);
+        return client;
+    }
+
+    /**
+     * Create a source node which does not have any complete segment.
+     */
+    private LogUnitClient unavailableSourceNode(String node) {
+        LogUnitClient client = mock(LogUnitClient.class);
+        doAnswer(invocation -> {
+            long segment = invocation.getArgument(0);
+            CompletableFuture<LogSegmentChunk> future = new CompletableFuture<>();
+            future.completeExceptionally(new SegmentUnavailableException(segment));
+            return future;
+        }).when(client).readSegmentChunk(anyLong(), anyLong(), anyInt());
+        doReturn(client).when(runtimeLayout).getLogUnitClient(node);
+        return client;
+    }
+
+    private static TransferSegmentRangeSingle range(long start, long end, StateTransferType type,
+                                                    ImmutableList<String> nodes) {
+        return TransferSegmentRangeSingle.builder()
+                .startAddress(start)
+                .endAddress(end)
+                .unknownAddressesInRange(ImmutableList.of())
+                .typeOfTransfer(type)
+                .split(false)
+                .availableServers(type == CONSISTENT_READ ? Optional.of(nodes) : Optional.empty())
+                .status(TransferSegmentStatus.builder().build())
+                .build();
+    }
+
+    private byte[] writtenBytes(long segment) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writtenChunks.stream()
+                .filter(chunk -> chunk.getSegment() == segment)
+                .forEach(chunk -> {
+                    assertThat(chunk.getOffset()).isEqualTo((long) bytes.size());
+                    bytes.write(ByteBufUtil.getBytes(chunk.getData()), 0, chunk.getData().readableBytes());
+                });
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void testTransferInChunks() {
+        SegmentTransferProcessor processor = setUp();
+        byte[] segmentFile = "segment-file".getBytes();
+        sourceNode("node1", segmentFile);
+
+        int transferred = processor.runSegmentTransfer(Collections.singletonList(
+                range(0L, RECORDS_PER_SEGMENT - 1, CONSISTENT_READ, ImmutableList.of("node1"))));
+
+        assertThat(transferred).isEqualTo(1);
+        assertThat(writtenChunks).hasSize((segmentFile.length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        assertThat(writtenChunks.get(writtenChunks.size() - 1).isLast()).isTrue();
+        assertThat(writtenBytes(0L)).isEqualTo(segmentFile);
+    }
+
+    @Test
+    void testFallbackToNextNode() {
+        SegmentTransferProcessor processor = setUp();
+        byte[] segmentFile = "segment-file".getBytes();
+        unavailableSourceNode("node1");
+        LogUnitClient node2 = sourceNode("node2", segmentFile);
+
+        int transferred = processor.runSegmentTransfer(Collections.singletonList(
+                range(0L, RECORDS_PER_SEGMENT - 1, CONSISTENT_READ, ImmutableList.of("node1", "node2"))));
+
+        assertThat(transferred).isEqualTo(1);
+        assertThat(writtenBytes(0L)).isEqualTo(segmentFile);
+        verify(node2, times(writtenChunks.size())).readSegmentChunk(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testSegmentUnavailableOnAllNodes() {
+        SegmentTransferProcessor processor = setUp();
+        LogUnitClient node1 = unavailableSourceNode("node1");
+        LogUnitClient node2 = unavailableSourceNode("node2");
+
+        int transferred = processor.runSegmentTransfer(Collections.singletonList(
+                range(0L, RECORDS_PER_SEGMENT - 1, CONSISTENT_READ, ImmutableList.of("node1", "node2"))));
+
+        // The segment is left to the batch transfer
+        assertThat(transferred).isZero();
+        assertThat(writtenChunks).isEmpty();
+        verify(node1).readSegmentChunk(anyLong(), anyLong(), anyInt());
+        verify(node2).readSegmentChunk(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testTransferNotSupportedByCurrentNode() {
+        SegmentTransferProcessor processor = setUp();
+        LogUnitClient node1 = sourceNode("node1", "segment-file".getBytes());
+        doAnswer(invocation -> {
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            future.completeExceptionally(new SegmentUnavailableException(Address.NON_ADDRESS));
+            return future;
+        }).when(currentNodeClient).writeSegmentChunk(any(LogSegmentChunk.class));
+
+        int transferred = processor.runSegmentTransfer(Collections.singletonList(
+                range(0L, 2 * RECORDS_PER_SEGMENT - 1, CONSISTENT_READ, ImmutableList.of("node1"))));
+
+        // No other segment is attempted once the current node rejected the first chunk
+        assertThat(transferred).isZero();
+        verify(currentNodeClient).writeSegmentChunk(any(LogSegmentChunk.class));
+        verify(node1).readSegmentChunk(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testOnlyWholeUnknownSegmentsAreTransferred() {
+        SegmentTransferProcessor processor = setUp();
+        LogUnitClient node1 = sourceNode("node1", "segment-file".getBytes());
+        doReturn(CompletableFuture.completedFuture(new KnownAddressResponse(Collections.singleton(RECORDS_PER_SEGMENT))))
+                .when(currentNodeClient).requestKnownAddresses(RECORDS_PER_SEGMENT, 2 * RECORDS_PER_SEGMENT - 1);
+
+        // Segment 0 is partially in the range, segment 1 has a known address and segment 3 is not committed
+        int transferred = processor.runSegmentTransfer(ImmutableList.of(
+                range(1L, 3 * RECORDS_PER_SEGMENT - 1, CONSISTENT_READ, ImmutableList.of("node1")),
+                range(3 * RECORDS_PER_SEGMENT, 4 * RECORDS_PER_SEGMENT - 1, PROTOCOL_READ, ImmutableList.of())));
+
+        assertThat(transferred).isEqualTo(1);
+        assertThat(writtenChunks).allMatch(chunk -> chunk.getSegment() == 2L);
+        verify(node1, never()).readSegmentChunk(0L, 0L, CHUNK_SIZE);
+        verify(node1, never()).readSegmentChunk(1L, 0L, CHUNK_SIZE);
+    }
+
+    @Test
+    void testChunksArePacedToBandwidthLimit() {
+        AtomicLong nanos = new AtomicLong();
+        AtomicLong slept = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        // A chunk per second
+        AtomicLong bandwidthLimit = new AtomicLong(CHUNK_SIZE);
+        AdaptiveTransferController controller = new AdaptiveTransferController(
+                AdaptiveTransferController.DEFAULT_MAX_IN_FLIGHT_PER_NODE, bandwidthLimit::get, ticker,
+                sleepNanos -> {
+                    nanos.addAndGet(sleepNanos);
+                    slept.addAndGet(sleepNanos);
+                });
+        SegmentTransferProcessor processor = setUp(controller);
+        byte[] segmentFile = "segment-file".getBytes();
+        sourceNode("node1", segmentFile);
+
+        int transferred = processor.runSegmentTransfer(Collections.singletonList(
+                range(0L, RECORDS_PER_SEGMENT - 1, CONSISTENT_READ, ImmutableList.of("node1"))));
+
+        // Each chunk is paid for by the chunk after the next one, as the batches are
+        int numChunks = writtenChunks.size();
+        assertThat(transferred).isEqualTo(1);
+        assertThat(numChunks).isEqualTo(segmentFile.length / CHUNK_SIZE);
+        assertThat(slept.get()).isEqualTo(TimeUnit.SECONDS.toNanos(numChunks - 2));
+        assertThat(writtenBytes(0L)).isEqualTo(segmentFile);
+
+        // The limit can be lifted while copying
+        bandwidthLimit.set(0);
+        slept.set(0);
+        writtenChunks.clear();
+        processor.runSegmentTransfer(Collections.singletonList(
+                range(RECORDS_PER_SEGMENT, 2 * RECORDS_PER_SEGMENT - 1, CONSISTENT_READ, ImmutableList.of("node1"))));
+        assertThat(writtenBytes(1L)).isEqualTo(segmentFile);
+        assertThat(slept.get()).isZero();
+    }
+}
@@ -0,0 +1,182 @@
+package org.corfudb.comm;
+
+import com.google.common.collect.ImmutableMap;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollSocketChannel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+
+/**
+ * Tuning options of the Netty channels of a client or server: buffer allocation,
+ * socket buffers, write buffer watermarks and epoll-specific options.
+ *
+ * <p>Options which do not apply to a channel implementation (e.g. epoll options on
+ * NIO channels) are ignored.
+ */
+@Builder(toBuilder = true)
+@Getter
+@ToString
+public class ChannelTuningOptions {
+
+    /**
+     * The default tuning, which matches the Netty defaults.
+     */
+    public static final ChannelTuningOptions DEFAULT = ChannelTuningOptions.builder().build();
+
+    /**
+     * Buffer allocators channels can use.
+     */
+    @AllArgsConstructor
+    public enum Allocator {
+        POOLED_DIRECT(PooledByteBufAllocator.DEFAULT),
+        POOLED_HEAP(new PooledByteBufAllocator(false)),
+        UNPOOLED_DIRECT(new UnpooledByteBufAllocator(true)),
+        UNPOOLED_HEAP(new UnpooledByteBufAllocator(false));
+
+        @Getter
+        private final ByteBufAllocator allocator;
+    }
+
+    /**
+     * The allocator of the channel buffers.
+     */
+    @Default
+    private final Allocator allocator = Allocator.POOLED_DIRECT;
+
+    /**
+     * Whether to disable Nagle's algorithm.
+     */
+    @Default
+    private final boolean tcpNoDelay = true;
+
+    /**
+     * Size of the socket send buffer (SO_SNDBUF) in bytes, 0 for the OS default.
+     */
+    @Default
+    private final int sendBufferSize = 0;
+
+    /**
+     * Size of the socket receive buffer (SO_RCVBUF) in bytes, 0 for the OS default.
+     */
+    @Default
+    private final int receiveBufferSize = 0;
+
+    /**
+     * Size of the outbound buffer in bytes below which a channel becomes writable again.
+     */
+    @Default
+    private final int writeBufferLowWaterMark = 32 * 1024;
+
+    /**
+     * Size of the outbound buffer in bytes above which a channel is no longer writable.
+     */
+    @Default
+    private final int writeBufferHighWaterMark = 64 * 1024;
+
+    /**
+     * Whether senders are paused while the outbound buffer of a channel is above its high
+     * watermark: clients block request senders, and servers stop reading requests.
+     */
+    @Default
+    private final boolean writeBackpressure = false;
+
+    /**
+     * Whether epoll channels use edge-triggered (rather than level-triggered) mode.
+     */
+    @Default
+    private final boolean epollEdgeTriggered = true;
+
+    /**
+     * Whether epoll channels send ACKs immediately (TCP_QUICKACK), instead of delaying them.
+     */
+    @Default
+    private final boolean tcpQuickAck = false;
+
+    /**
+     * Time in microseconds epoll channels busy poll the socket for data (SO_BUSY_POLL),
+     * 0 to disable busy polling.
+     */
+    @Default
+    private final int busyPollMicros = 0;
+
+    /**
+     * Whether the given channel implementation uses epoll channels.
+     */
+    private static boolean isEpoll(@Nonnull ChannelImplementation channelImplementation) {
+        return Epoll.isAvailable()
+                && EpollSocketChannel.class.isAssignableFrom(channelImplementation.getChannelClass());
+    }
+
+    /**
+     * Get the channel options of this tuning for a channel implementation. The default
+     * tuning matches the Netty defaults, and socket buffer sizes and busy polling are only
+     * set if configured. Callers apply any custom channel options after these, so that
+     * they take precedence.
+     *
+     * @param channelImplementation The implementation of the channels to tune.
+     * @return The channel options to set on (child) channels.
+     */
+    public Map<ChannelOption, Object> getChannelOptions(
+            @Nonnull ChannelImplementation channelImplementation) {
+        ImmutableMap.Builder<ChannelOption, Object> options = ImmutableMap.builder();
+        options.put(ChannelOption.ALLOCATOR, allocator.getAllocator());
+        options.put(ChannelOption.TCP_NODELAY, tcpNoDelay);
+        options.put(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                new WriteBufferWaterMark(writeBufferLowWaterMark, writeBufferHighWaterMark));
+        if (sendBufferSize > 0) {
+            options.put(ChannelOption.SO_SNDBUF, sendBufferSize);
+        }
+        if (receiveBufferSize > 0) {
+            options.put(ChannelOption.SO_RCVBUF, receiveBufferSize);
+        }
+
+        if (isEpoll(channelImplementation)) {
+            options.put(EpollChannelOption.EPOLL_MODE,
+                    epollEdgeTriggered ? EpollMode.EDGE_TRIGGERED : EpollMode.LEVEL_TRIGGERED);
+            options.put(EpollChannelOption.TCP_QUICKACK, tcpQuickAck);
+            if (busyPollMicros > 0) {
+                options.put(EpollChannelOption.SO_BUSY_POLL, busyPollMicros);
+            }
+        }
+        return options.build();
+    }
+
+    /**
+     * Tune the channels of a client bootstrap.
+     *
+     * @param bootstrap             The bootstrap to configure.
+     * @param channelImplementation The implementation of the bootstrapped channels.
+     */
+    @SuppressWarnings("unchecked")
+    public void apply(@Nonnull Bootstrap bootstrap,
+                      @Nonnull ChannelImplementation channelImplementation) {
+        getChannelOptions(channelImplementation).forEach(bootstrap::option);
+    }
+
+    /**
+     * Tune the accepted channels of a server bootstrap.
+     *
+     * @param bootstrap             The bootstrap to configure.
+     * @param channelImplementation The implementation of the bootstrapped channels.
+     */
+    @SuppressWarnings("unchecked")
+    public void applyToChildren(@Nonnull ServerBootstrap bootstrap,
+                                @Nonnull ChannelImplementation channelImplementation) {
+        getChannelOptions(channelImplementation).forEach(bootstrap::childOption);
+    }
+}
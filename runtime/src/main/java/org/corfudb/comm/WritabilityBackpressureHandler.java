@@ -0,0 +1,28 @@
+package org.corfudb.comm;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stops reading from a channel while its outbound buffer is above the high watermark,
+ * and resumes reading once it drains below the low watermark. Peers which send faster
+ * than their responses are consumed are thereby paused by TCP flow control, instead of
+ * the outbound buffer growing without bound.
+ */
+@Slf4j
+@ChannelHandler.Sharable
+public class WritabilityBackpressureHandler extends ChannelInboundHandlerAdapter {
+
+    public static final WritabilityBackpressureHandler INSTANCE =
+            new WritabilityBackpressureHandler();
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        final boolean writable = ctx.channel().isWritable();
+        log.trace("channelWritabilityChanged: {} writable {}", ctx.channel(), writable);
+        ctx.channel().config().setAutoRead(writable);
+        ctx.fireChannelWritabilityChanged();
+    }
+}
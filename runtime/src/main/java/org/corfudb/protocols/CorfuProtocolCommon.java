@@ -53,7 +53,9 @@ public class CorfuProtocolCommon {
     public enum MessageMarker {
         LEGACY_MSG_MARK(0x1),
         PROTO_REQUEST_MSG_MARK(0x2),
-        PROTO_RESPONSE_MSG_MARK(0x3);
+        PROTO_RESPONSE_MSG_MARK(0x3),
+        PROTO_REQUEST_BATCH_MSG_MARK(0x4),
+        PROTO_RESPONSE_BATCH_MSG_MARK(0x5);
 
         private final int value;
 
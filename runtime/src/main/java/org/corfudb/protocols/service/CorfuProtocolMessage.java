@@ -1,18 +1,24 @@
 package org.corfudb.protocols.service;
 
 import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.PriorityLevel;
 import org.corfudb.runtime.proto.RpcCommon.UuidMsg;
 import org.corfudb.runtime.proto.ServerErrors.ServerErrorMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage;
+import org.corfudb.runtime.proto.service.CorfuMessage.BatchedRequestMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.ProtocolVersionMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.HeaderMsg;
+import org.corfudb.runtime.proto.service.CorfuMessage.RequestBatchMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.RequestMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.RequestPayloadMsg;
+import org.corfudb.runtime.proto.service.CorfuMessage.ResponseBatchMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.ResponseMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.ResponsePayloadMsg;
 
@@ -132,6 +138,69 @@ public class CorfuProtocolMessage {
                 .build();
     }
 
+    /**
+     * Returns true if two request headers only differ by their request id,
+     * so that their requests can share a single header in a batch.
+     *
+     * @param header  a request header
+     * @param other   another request header
+     * @return        true if the requests of the headers can be batched together
+     */
+    public static boolean isBatchable(HeaderMsg header, HeaderMsg other) {
+        return header.getEpoch() == other.getEpoch()
+                && header.getPriority() == other.getPriority()
+                && header.getIgnoreClusterId() == other.getIgnoreClusterId()
+                && header.getIgnoreEpoch() == other.getIgnoreEpoch()
+                && Objects.equals(header.getClusterId(), other.getClusterId())
+                && Objects.equals(header.getClientId(), other.getClientId())
+                && Objects.equals(header.getVersion(), other.getVersion());
+    }
+
+    /**
+     * Returns a batch of requests sent by the clients, which share the header
+     * of the first request. The requests must be batchable (see
+     * {@link #isBatchable(HeaderMsg, HeaderMsg)}).
+     *
+     * @param requests  the requests to batch
+     * @return          a RequestBatchMsg carrying the provided requests
+     */
+    public static RequestBatchMsg getRequestBatchMsg(List<RequestMsg> requests) {
+        RequestBatchMsg.Builder batch = RequestBatchMsg.newBuilder()
+                .setHeader(requests.get(0).getHeader());
+        requests.forEach(request -> batch.addRequest(BatchedRequestMsg.newBuilder()
+                .setRequestId(request.getHeader().getRequestId())
+                .setPayload(request.getPayload())));
+        return batch.build();
+    }
+
+    /**
+     * Returns the requests of a batch, each with its own header.
+     *
+     * @param batch   a batch of requests
+     * @return        the RequestMsgs carried by the batch
+     */
+    public static List<RequestMsg> getRequestMsgs(RequestBatchMsg batch) {
+        List<RequestMsg> requests = new ArrayList<>(batch.getRequestCount());
+        for (BatchedRequestMsg request : batch.getRequestList()) {
+            requests.add(getRequestMsg(batch.getHeader().toBuilder()
+                    .setRequestId(request.getRequestId())
+                    .build(), request.getPayload()));
+        }
+        return requests;
+    }
+
+    /**
+     * Returns a batch of responses sent by the server.
+     *
+     * @param responses  the responses to batch
+     * @return           a ResponseBatchMsg carrying the provided responses
+     */
+    public static ResponseBatchMsg getResponseBatchMsg(List<ResponseMsg> responses) {
+        return ResponseBatchMsg.newBuilder()
+                .addAllResponse(responses)
+                .build();
+    }
+
     /**
      * Returns a response message sent by the server.
      *
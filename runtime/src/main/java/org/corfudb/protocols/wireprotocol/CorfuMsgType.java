@@ -97,6 +97,7 @@ public enum CorfuMsgType {
     ORCHESTRATOR_REQUEST(77, new TypeToken<CorfuPayloadMsg<OrchestratorMsg>>() {}, true, true),
     ORCHESTRATOR_RESPONSE(78, new TypeToken<CorfuPayloadMsg<OrchestratorResponse>>() {}, true, false),
     MANAGEMENT_LAYOUT_REQUEST(79, TypeToken.of(CorfuMsg.class), true, false),
+    MANAGEMENT_STATE_TRANSFER_BANDWIDTH_LIMIT(80, new TypeToken<CorfuPayloadMsg<Long>>(){}, true, false),
 
     NODE_STATE_REQUEST(82, TypeToken.of(CorfuMsg.class)),
     NODE_STATE_RESPONSE(83, new TypeToken<CorfuPayloadMsg<NodeState>>(){}, true, false),
@@ -106,6 +107,10 @@ public enum CorfuMsgType {
 
     KNOWN_ADDRESS_REQUEST(86, new TypeToken<CorfuPayloadMsg<KnownAddressRequest>>() {}),
     KNOWN_ADDRESS_RESPONSE(87, new TypeToken<CorfuPayloadMsg<KnownAddressResponse>>() {}),
+    LOG_SEGMENT_READ_REQUEST(88, new TypeToken<CorfuPayloadMsg<LogSegmentReadRequest>>() {}),
+    LOG_SEGMENT_READ_RESPONSE(89, new TypeToken<CorfuPayloadMsg<LogSegmentChunk>>() {}),
+    LOG_SEGMENT_WRITE(90, new TypeToken<CorfuPayloadMsg<LogSegmentChunk>>() {}),
+    ERROR_SEGMENT_UNAVAILABLE(91, new TypeToken<CorfuPayloadMsg<Long>>() {}),
 
     ERROR_SERVER_EXCEPTION(200, new TypeToken<CorfuPayloadMsg<ExceptionMsg>>() {}, true, false),
 
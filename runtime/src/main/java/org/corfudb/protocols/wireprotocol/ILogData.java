@@ -82,6 +82,14 @@ public interface ILogData extends IMetadata, Comparable<ILogData> {
      */
     void releaseBuffer();
 
+    /**
+     * Release the buffer the payload of this entry retains, if it was decoded without
+     * copying (see {@link LogData#decodeRetainingPayloads}). The payload is copied out
+     * of that buffer first, so that it can still be deserialized.
+     */
+    default void releasePayloadBuffer() {
+    }
+
     /**
      * Acquire the serialization buffer.
      *
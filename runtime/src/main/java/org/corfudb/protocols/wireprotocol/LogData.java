@@ -18,6 +18,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.EnumMap;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * Created by mwei on 8/15/16.
@@ -30,9 +31,21 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
     @Getter
     final DataType type;
 
-    @Getter
     byte[] data;
 
+    /**
+     * The serialized payload, as a retained slice of the buffer this entry was decoded
+     * from (instead of a copy in {@link #data}). Released once the payload is deserialized.
+     */
+    private ByteBuf dataBuf = null;
+
+    /**
+     * Whether entries decoded by this thread retain a slice of the source buffer as
+     * their payload, instead of copying it.
+     */
+    private static final ThreadLocal<Boolean> retainPayloadBuffers =
+            ThreadLocal.withInitial(() -> false);
+
     private SerializedCache serializedCache = null;
 
     private int lastKnownSize = NOT_KNOWN;
@@ -91,21 +104,20 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
             synchronized (this.payload) {
                 value = this.payload.get();
                 if (value == null) {
-                    if (data == null) {
+                    if (data == null && dataBuf == null) {
                         this.payload.set(null);
                     } else {
-                        ByteBuf serializedBuf = Unpooled.wrappedBuffer(data);
-                        if (hasPayloadCodec()) {
-                            // If the payload has a codec we need to decode it before deserialization.
-                            ByteBuf compressedBuf = ICorfuPayload.fromBuffer(data, ByteBuf.class);
-                            byte[] compressedArrayBuf = new byte[compressedBuf.readableBytes()];
-                            compressedBuf.readBytes(compressedArrayBuf);
-                            serializedBuf = Unpooled.wrappedBuffer(getPayloadCodecType()
-                                    .getInstance().decompress(ByteBuffer.wrap(compressedArrayBuf)));
-                        }
+                        final int dataSize = data == null ? dataBuf.readableBytes() : data.length;
+                        final ByteBuf sourceBuf = data == null ? dataBuf : Unpooled.wrappedBuffer(data);
+                        ByteBuf serializedBuf = sourceBuf;
 
                         final Object actualValue;
                         try {
+                            if (hasPayloadCodec()) {
+                                // If the payload has a codec we need to decode it before deserialization.
+                                serializedBuf = Unpooled.wrappedBuffer(decompress(sourceBuf));
+                            }
+
                             actualValue =
                                     Serializers.CORFU.deserialize(serializedBuf, runtime);
 
@@ -115,7 +127,7 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
                             }
                             value = actualValue == null ? this.payload : actualValue;
                             this.payload.set(value);
-                            lastKnownSize = data.length;
+                            lastKnownSize = dataSize;
                         } catch (Throwable throwable) {
                             log.error("Exception caught at address {}, {}, {}",
                                     getGlobalAddress(), getStreams(), getType());
@@ -124,7 +136,11 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
                             throw throwable;
                         } finally {
                             serializedBuf.release();
+                            if (serializedBuf != sourceBuf) {
+                                sourceBuf.release();
+                            }
                             data = null;
+                            dataBuf = null;
                         }
                     }
                 }
@@ -134,6 +150,72 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
         return value;
     }
 
+    /**
+     * Decompress a serialized payload. Heap buffers are decompressed in place,
+     * without copying the compressed bytes.
+     *
+     * @param sourceBuf The serialized (compressed) payload.
+     * @return The decompressed payload.
+     */
+    private ByteBuffer decompress(ByteBuf sourceBuf) {
+        ByteBuf compressedBuf = ICorfuPayload.fromBuffer(sourceBuf.duplicate(), ByteBuf.class);
+        try {
+            final ByteBuffer compressed;
+            if (compressedBuf.hasArray()) {
+                compressed = compressedBuf.nioBuffer();
+            } else {
+                byte[] compressedArrayBuf = new byte[compressedBuf.readableBytes()];
+                compressedBuf.readBytes(compressedArrayBuf);
+                compressed = ByteBuffer.wrap(compressedArrayBuf);
+            }
+            return getPayloadCodecType().getInstance().decompress(compressed);
+        } finally {
+            compressedBuf.release();
+        }
+    }
+
+    /**
+     * Get the serialized payload of this entry.
+     *
+     * @return The serialized payload, or null if there is none (e.g. it was deserialized).
+     */
+    public byte[] getData() {
+        synchronized (this.payload) {
+            releasePayloadBuffer();
+            return data;
+        }
+    }
+
+    @Override
+    public void releasePayloadBuffer() {
+        synchronized (this.payload) {
+            if (dataBuf != null) {
+                data = byteArrayFromBuf(dataBuf);
+                dataBuf.release();
+                dataBuf = null;
+            }
+        }
+    }
+
+    /**
+     * Decode entries whose payload retains a slice of the buffer they are decoded from,
+     * rather than a copy. The payload is deserialized directly from that buffer, which is
+     * released once deserialized. Only safe for buffers which may be retained until then
+     * (e.g. unpooled heap buffers).
+     *
+     * @param decoder Decodes the entries on this thread.
+     * @param <T>     The type of the decoded message.
+     * @return The decoded message.
+     */
+    public static <T> T decodeRetainingPayloads(Supplier<T> decoder) {
+        retainPayloadBuffers.set(true);
+        try {
+            return decoder.get();
+        } finally {
+            retainPayloadBuffers.set(false);
+        }
+    }
+
     @Override
     public synchronized void releaseBuffer() {
         if (serializedCache != null) {
@@ -182,6 +264,11 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
             return tempData.length;
         }
 
+        ByteBuf tempDataBuf = dataBuf;
+        if (tempDataBuf != null) {
+            return tempDataBuf.readableBytes();
+        }
+
         if (lastKnownSize != NOT_KNOWN) {
             return lastKnownSize;
         }
@@ -200,7 +287,11 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
     public LogData(ByteBuf buf) {
         type = ICorfuPayload.fromBuffer(buf, DataType.class);
         if (type == DataType.DATA) {
-            data = ICorfuPayload.fromBuffer(buf, byte[].class);
+            if (retainPayloadBuffers.get()) {
+                dataBuf = buf.readRetainedSlice(buf.readInt());
+            } else {
+                data = ICorfuPayload.fromBuffer(buf, byte[].class);
+            }
         } else {
             data = null;
         }
@@ -311,7 +402,12 @@ public class LogData implements ICorfuPayload<LogData>, IMetadata, ILogData {
     private void doSerializePayloadInternal(ByteBuf buf) {
         ICorfuPayload.serialize(buf, type);
         if (type == DataType.DATA) {
-            if (data == null) {
+            ByteBuf tempDataBuf = dataBuf;
+            if (tempDataBuf != null) {
+                // Write the retained payload as is, without copying it out first.
+                ICorfuPayload.serialize(buf, tempDataBuf);
+                lastKnownSize = tempDataBuf.readableBytes();
+            } else if (data == null) {
                 int lengthIndex = buf.writerIndex();
                 buf.writeInt(0);
                 if (hasPayloadCodec()) {
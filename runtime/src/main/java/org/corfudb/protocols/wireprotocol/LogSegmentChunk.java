@@ -0,0 +1,58 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A chunk of the raw bytes of a log segment file, as read from the segment file of a log unit
+ * server and written as is to the segment file of another log unit server by state transfer.
+ */
+@Data
+@AllArgsConstructor
+public class LogSegmentChunk implements ICorfuPayload<LogSegmentChunk> {
+
+    // The segment the chunk belongs to
+    private final Long segment;
+
+    // The offset of the chunk in the segment file
+    private final Long offset;
+
+    // The size of the whole segment file
+    private final Long segmentSize;
+
+    // The checksum of the chunk bytes
+    private final Integer checksum;
+
+    // The chunk bytes
+    private final ByteBuf data;
+
+    /**
+     * Deserialization Constructor from Bytebuf to LogSegmentChunk.
+     *
+     * @param buf The buffer to deserialize
+     */
+    public LogSegmentChunk(ByteBuf buf) {
+        segment = ICorfuPayload.fromBuffer(buf, Long.class);
+        offset = ICorfuPayload.fromBuffer(buf, Long.class);
+        segmentSize = ICorfuPayload.fromBuffer(buf, Long.class);
+        checksum = ICorfuPayload.fromBuffer(buf, Integer.class);
+        data = ICorfuPayload.fromBuffer(buf, ByteBuf.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, segment);
+        ICorfuPayload.serialize(buf, offset);
+        ICorfuPayload.serialize(buf, segmentSize);
+        ICorfuPayload.serialize(buf, checksum);
+        ICorfuPayload.serialize(buf, data);
+    }
+
+    /**
+     * Tell if this is the last chunk of the segment file.
+     */
+    public boolean isLast() {
+        return offset + data.readableBytes() >= segmentSize;
+    }
+}
@@ -0,0 +1,41 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Request for a chunk of the raw bytes of a log segment file in the log unit server.
+ * This is used by state transfer to copy whole committed segments.
+ */
+@Data
+@AllArgsConstructor
+public class LogSegmentReadRequest implements ICorfuPayload<LogSegmentReadRequest> {
+
+    // The segment to read
+    private final Long segment;
+
+    // The offset in the segment file to read from
+    private final Long offset;
+
+    // The max number of bytes to read
+    private final Integer length;
+
+    /**
+     * Deserialization Constructor from Bytebuf to LogSegmentReadRequest.
+     *
+     * @param buf The buffer to deserialize
+     */
+    public LogSegmentReadRequest(ByteBuf buf) {
+        segment = ICorfuPayload.fromBuffer(buf, Long.class);
+        offset = ICorfuPayload.fromBuffer(buf, Long.class);
+        length = ICorfuPayload.fromBuffer(buf, Integer.class);
+    }
+
+    @Override
+    public void doSerialize(ByteBuf buf) {
+        ICorfuPayload.serialize(buf, segment);
+        ICorfuPayload.serialize(buf, offset);
+        ICorfuPayload.serialize(buf, length);
+    }
+}
@@ -0,0 +1,147 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.AttributeKey;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.runtime.proto.service.CorfuMessage.RequestMsg;
+import org.corfudb.runtime.proto.service.CorfuMessage.ResponseMsg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.corfudb.protocols.service.CorfuProtocolMessage.getRequestBatchMsg;
+import static org.corfudb.protocols.service.CorfuProtocolMessage.getResponseBatchMsg;
+import static org.corfudb.protocols.service.CorfuProtocolMessage.isBatchable;
+
+/**
+ * Coalesces the Protobuf messages written to a channel into batches, which are encoded
+ * as a single frame by the {@link NettyCorfuMessageEncoder}.
+ *
+ * <p>Messages are not delayed to build batches: a flush is deferred to the end of the
+ * tasks already queued on the event loop, so that only the messages written in the
+ * meantime (i.e. under load) are batched together. Requests are batched if their headers
+ * only differ by their request id, and responses are only batched to peers which sent
+ * batches of requests, as older peers do not understand batches.
+ */
+@Slf4j
+public class NettyCorfuMessageBatcher extends ChannelOutboundHandlerAdapter {
+
+    /**
+     * Set on a channel once a batch of requests is received from its peer.
+     */
+    public static final AttributeKey<Boolean> PEER_SUPPORTS_BATCHES =
+            AttributeKey.valueOf("peerSupportsBatches");
+
+    /**
+     * The maximum number of messages in a batch.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Messages written but not yet passed to the encoder.
+     */
+    private final List<Object> pending = new ArrayList<>();
+
+    private boolean drainScheduled = false;
+
+    public NettyCorfuMessageBatcher(int maxBatchSize) {
+        if (maxBatchSize < 2) {
+            log.error("NettyCorfuMessageBatcher: invalid batch size {}", maxBatchSize);
+            throw new IllegalArgumentException("Batches must hold at least two messages");
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        // Messages with a promise are written through, as a batch does not
+        // complete the promises of the messages it carries.
+        if (!promise.isVoid() || !canBatch(ctx, msg)) {
+            writePending(ctx);
+            ctx.write(msg, promise);
+            return;
+        }
+
+        pending.add(msg);
+        if (pending.size() >= maxBatchSize) {
+            writePending(ctx);
+        }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (pending.isEmpty()) {
+            ctx.flush();
+            return;
+        }
+
+        if (!drainScheduled) {
+            drainScheduled = true;
+            ctx.executor().execute(() -> {
+                drainScheduled = false;
+                writePending(ctx);
+                ctx.flush();
+            });
+        }
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        writePending(ctx);
+        ctx.flush();
+        ctx.close(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        // The channel is torn down, so the pending messages can not be sent anymore.
+        pending.clear();
+    }
+
+    private boolean canBatch(ChannelHandlerContext ctx, Object msg) {
+        return msg instanceof RequestMsg
+                || (msg instanceof ResponseMsg
+                && Boolean.TRUE.equals(ctx.channel().attr(PEER_SUPPORTS_BATCHES).get()));
+    }
+
+    private static boolean canBatchTogether(Object first, Object msg) {
+        if (first instanceof RequestMsg && msg instanceof RequestMsg) {
+            return isBatchable(((RequestMsg) first).getHeader(), ((RequestMsg) msg).getHeader());
+        }
+        return first instanceof ResponseMsg && msg instanceof ResponseMsg;
+    }
+
+    /**
+     * Pass the pending messages to the encoder, grouping consecutive
+     * messages which can be batched together.
+     */
+    private void writePending(ChannelHandlerContext ctx) {
+        int start = 0;
+        while (start < pending.size()) {
+            final Object first = pending.get(start);
+            int end = start + 1;
+            while (end < pending.size() && end - start < maxBatchSize
+                    && canBatchTogether(first, pending.get(end))) {
+                end++;
+            }
+
+            final List<Object> batch = pending.subList(start, end);
+            if (batch.size() == 1) {
+                ctx.write(first, ctx.voidPromise());
+            } else if (first instanceof RequestMsg) {
+                ctx.write(getRequestBatchMsg(batch.stream()
+                        .map(RequestMsg.class::cast)
+                        .collect(Collectors.toList())), ctx.voidPromise());
+            } else {
+                ctx.write(getResponseBatchMsg(batch.stream()
+                        .map(ResponseMsg.class::cast)
+                        .collect(Collectors.toList())), ctx.voidPromise());
+            }
+            start = end;
+        }
+        pending.clear();
+    }
+}
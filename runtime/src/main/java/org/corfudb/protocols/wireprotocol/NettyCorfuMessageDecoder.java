@@ -10,18 +10,38 @@ import java.io.IOException;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.CorfuProtocolCommon.MessageMarker;
+import org.corfudb.runtime.proto.service.CorfuMessage.RequestBatchMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.RequestMsg;
+import org.corfudb.runtime.proto.service.CorfuMessage.ResponseBatchMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.ResponseMsg;
 
+import static org.corfudb.protocols.service.CorfuProtocolMessage.getRequestMsgs;
+
 /**
  * Created by mwei on 10/1/15.
  */
 @Slf4j
 public class NettyCorfuMessageDecoder extends ByteToMessageDecoder {
 
+    /**
+     * Whether decoded log entries retain a slice of the inbound buffer as their
+     * payload, instead of copying it (see {@link LogData#decodeRetainingPayloads}).
+     */
+    private final boolean retainPayloads;
+
+    public NettyCorfuMessageDecoder() {
+        this(false);
+    }
+
+    public NettyCorfuMessageDecoder(boolean retainPayloads) {
+        this.retainPayloads = retainPayloads;
+    }
+
     /**
      * Decodes an inbound corfu message from a ByteBuf. The corfu message is either
-     * legacy (of type CorfuMsg) or Protobuf (of type RequestMsg/ResponseMsg).
+     * legacy (of type CorfuMsg) or Protobuf (of type RequestMsg/ResponseMsg). Batches
+     * of Protobuf messages are unpacked, so that the next pipeline handler receives
+     * their messages individually.
      *
      * @param channelHandlerContext   the Netty channel handler context
      * @param byteBuf                 the underlying ByteBuf
@@ -36,7 +56,11 @@ public class NettyCorfuMessageDecoder extends ByteToMessageDecoder {
 
         switch (MessageMarker.typeMap.get(msgMark)) {
             case LEGACY_MSG_MARK:
-                list.add(CorfuMsg.deserialize(byteBuf));
+                if (retainPayloads) {
+                    list.add(LogData.decodeRetainingPayloads(() -> CorfuMsg.deserialize(byteBuf)));
+                } else {
+                    list.add(CorfuMsg.deserialize(byteBuf));
+                }
                 break;
             case PROTO_REQUEST_MSG_MARK:
                 try (ByteBufInputStream msgInputStream = new ByteBufInputStream(byteBuf)) {
@@ -61,6 +85,32 @@ public class NettyCorfuMessageDecoder extends ByteToMessageDecoder {
                     }
                 }
 
+                break;
+            case PROTO_REQUEST_BATCH_MSG_MARK:
+                try (ByteBufInputStream msgInputStream = new ByteBufInputStream(byteBuf)) {
+                    try {
+                        RequestBatchMsg batch = RequestBatchMsg.parseFrom(msgInputStream);
+                        list.addAll(getRequestMsgs(batch));
+                        // The peer understands batches, so its responses can be batched as well.
+                        channelHandlerContext.channel().attr(NettyCorfuMessageBatcher.PEER_SUPPORTS_BATCHES).set(true);
+                    } catch (IOException e) {
+                        log.error("decode: An exception occurred during parsing a batch of requests "
+                                + "from ByteBufInputStream.", e);
+                    }
+                }
+
+                break;
+            case PROTO_RESPONSE_BATCH_MSG_MARK:
+                try (ByteBufInputStream msgInputStream = new ByteBufInputStream(byteBuf)) {
+                    try {
+                        ResponseBatchMsg batch = ResponseBatchMsg.parseFrom(msgInputStream);
+                        list.addAll(batch.getResponseList());
+                    } catch (IOException e) {
+                        log.error("decode: An exception occurred during parsing a batch of responses "
+                                + "from ByteBufInputStream.", e);
+                    }
+                }
+
                 break;
             default:
                 throw new IllegalStateException("decode: Received an incorrectly marked message.");
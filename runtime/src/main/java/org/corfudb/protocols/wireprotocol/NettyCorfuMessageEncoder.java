@@ -7,11 +7,15 @@ import io.netty.handler.codec.MessageToByteEncoder;
 import java.io.IOException;
 import java.util.concurrent.atomic.LongAccumulator;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.runtime.proto.service.CorfuMessage.RequestBatchMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.RequestMsg;
+import org.corfudb.runtime.proto.service.CorfuMessage.ResponseBatchMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.ResponseMsg;
 
 import static org.corfudb.protocols.CorfuProtocolCommon.MessageMarker.LEGACY_MSG_MARK;
+import static org.corfudb.protocols.CorfuProtocolCommon.MessageMarker.PROTO_REQUEST_BATCH_MSG_MARK;
 import static org.corfudb.protocols.CorfuProtocolCommon.MessageMarker.PROTO_REQUEST_MSG_MARK;
+import static org.corfudb.protocols.CorfuProtocolCommon.MessageMarker.PROTO_RESPONSE_BATCH_MSG_MARK;
 import static org.corfudb.protocols.CorfuProtocolCommon.MessageMarker.PROTO_RESPONSE_MSG_MARK;
 
 /**
@@ -25,7 +29,8 @@ public class NettyCorfuMessageEncoder extends MessageToByteEncoder<Object> {
 
     /**
      * Encodes an outbound corfu message into a ByteBuf. The corfu message is either
-     * legacy (of type CorfuMsg) or Protobuf (of type RequestMsg/ResponseMsg).
+     * legacy (of type CorfuMsg) or Protobuf (of type RequestMsg/ResponseMsg, or a
+     * batch of them of type RequestBatchMsg/ResponseBatchMsg).
      *
      * @param channelHandlerContext   the Netty channel handler context
      * @param object                  the object being encoded
@@ -64,6 +69,32 @@ public class NettyCorfuMessageEncoder extends MessageToByteEncoder<Object> {
                                 response.getHeader().getRequestId(), response.getHeader(), e.getCause(), e);
                     }
                 }
+            } else if (object instanceof RequestBatchMsg) {
+                RequestBatchMsg batch = (RequestBatchMsg) object;
+
+                try (ByteBufOutputStream batchOutputStream = new ByteBufOutputStream(byteBuf)) {
+                    try {
+                        // Marks the Corfu msg as a batch of protobuf requests.
+                        batchOutputStream.writeByte(PROTO_REQUEST_BATCH_MSG_MARK.asByte());
+                        batch.writeTo(batchOutputStream);
+                    } catch (IOException e) {
+                        log.warn("encode: Exception occurred when encoding a batch of {} requests {}, caused by {}",
+                                batch.getRequestCount(), batch.getHeader(), e.getCause(), e);
+                    }
+                }
+            } else if (object instanceof ResponseBatchMsg) {
+                ResponseBatchMsg batch = (ResponseBatchMsg) object;
+
+                try (ByteBufOutputStream batchOutputStream = new ByteBufOutputStream(byteBuf)) {
+                    try {
+                        // Marks the Corfu msg as a batch of protobuf responses.
+                        batchOutputStream.writeByte(PROTO_RESPONSE_BATCH_MSG_MARK.asByte());
+                        batch.writeTo(batchOutputStream);
+                    } catch (IOException e) {
+                        log.warn("encode: Exception occurred when encoding a batch of {} responses, caused by {}",
+                                batch.getResponseCount(), e.getCause(), e);
+                    }
+                }
             } else {
                 log.error("encode: Unknown object of class - {} received while encoding", object.getClass());
             }
@@ -5,12 +5,16 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.common.compression.Codec;
 import org.corfudb.protocols.logprotocol.OpaqueEntry;
 import org.corfudb.protocols.wireprotocol.ICorfuPayload;
 import org.corfudb.runtime.Messages;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -27,6 +31,12 @@ public class LogReplicationEntry implements ICorfuPayload<LogReplicationEntry> {
 
     private List<OpaqueEntry> opaqueEntryList = new ArrayList<>();
 
+    /**
+     * Digests of the content of the replicated streams, only used by the start marker of an
+     * incremental snapshot sync (the digests of the source) and by its ACK (the digests
+     * which match on the sink).
+     */
+    private Map<UUID, String> streamDigests = new HashMap<>();
 
     // Only used by test cases
     @VisibleForTesting
@@ -67,6 +77,10 @@ public class LogReplicationEntry implements ICorfuPayload<LogReplicationEntry> {
             byte[] data = ICorfuPayload.fromBuffer(buf, byte[].class);
             opaqueEntryList.add(OpaqueEntry.deserialize(Unpooled.wrappedBuffer(data)));
         }
+        // A message from a cluster which does not know of incremental snapshot syncs has no digests
+        if (buf.isReadable()) {
+            streamDigests = new HashMap<>(ICorfuPayload.mapFromBuffer(buf, UUID.class, String.class));
+        }
 
         log.trace("frombuf: opaqueEntryList {}", opaqueEntryList);
     }
@@ -77,7 +91,14 @@ public class LogReplicationEntry implements ICorfuPayload<LogReplicationEntry> {
 
     public static LogReplicationEntry fromProto(Messages.LogReplicationEntry proto) {
         LogReplicationEntryMetadata metadata = LogReplicationEntryMetadata.fromProto(proto.getMetadata());
-        ByteBuf dataBuf = Unpooled.copiedBuffer(proto.getData().toByteArray());
+        ByteBuf dataBuf;
+
+        if (proto.getCodec() != Codec.Type.NONE.getId() && !proto.getData().isEmpty()) {
+            Codec codec = Codec.getCodecTypeById(proto.getCodec()).getInstance();
+            dataBuf = Unpooled.wrappedBuffer(codec.decompress(ByteBuffer.wrap(proto.getData().toByteArray())));
+        } else {
+            dataBuf = Unpooled.copiedBuffer(proto.getData().toByteArray());
+        }
 
         int opaqueEntryListSize = ICorfuPayload.fromBuffer(dataBuf, Integer.class);
 
@@ -88,7 +109,10 @@ public class LogReplicationEntry implements ICorfuPayload<LogReplicationEntry> {
         }
 
         log.trace("Msgtype {} fromProto: opaqueEntryList {}", metadata, opaqueEntryList) ;
-        return new LogReplicationEntry(metadata, opaqueEntryList);
+        LogReplicationEntry entry = new LogReplicationEntry(metadata, opaqueEntryList);
+        proto.getStreamDigestsMap().forEach((streamId, digest) ->
+                entry.getStreamDigests().put(UUID.fromString(streamId), digest));
+        return entry;
     }
 
     @Override
@@ -101,6 +125,8 @@ public class LogReplicationEntry implements ICorfuPayload<LogReplicationEntry> {
         for (OpaqueEntry opaqueEntry : opaqueEntryList) {
             ICorfuPayload.serialize(buf, opaqueEntry);
         }
+
+        ICorfuPayload.serialize(buf, streamDigests);
     }
 
     public byte[] getPayload() {
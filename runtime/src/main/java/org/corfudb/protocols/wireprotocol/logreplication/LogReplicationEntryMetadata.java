@@ -111,6 +111,8 @@ public class LogReplicationEntryMetadata {
                 return MessageType.LOG_ENTRY_REPLICATED;
             case SNAPSHOT_TRANSFER_COMPLETE:
                 return MessageType.SNAPSHOT_TRANSFER_COMPLETE;
+            case SNAPSHOT_DIGESTS_COMPARED:
+                return MessageType.SNAPSHOT_DIGESTS_COMPARED;
             default:
                 log.error("Found unknown log entry message type {}", type);
                 return null;
@@ -2,9 +2,13 @@ package org.corfudb.protocols.wireprotocol.logreplication;
 
 import io.netty.buffer.ByteBuf;
 import lombok.Data;
+import org.corfudb.common.compression.Codec;
 import org.corfudb.protocols.wireprotocol.ICorfuPayload;
 import org.corfudb.runtime.Messages;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @Data
 public class LogReplicationMetadataResponse implements ICorfuPayload<LogReplicationMetadataResponse> {
 
@@ -15,6 +19,9 @@ public class LogReplicationMetadataResponse implements ICorfuPayload<LogReplicat
     private final long snapshotApplied;
     private final long lastLogProcessed;
 
+    // Codecs the sink can decompress log replication entries with.
+    private Set<Codec.Type> supportedCodecs = EnumSet.of(Codec.Type.NONE);
+
     public LogReplicationMetadataResponse(ByteBuf buf) {
         topologyConfigId = ICorfuPayload.fromBuffer(buf, Long.class);
         version = ICorfuPayload.fromBuffer(buf, String.class);
@@ -22,6 +29,13 @@ public class LogReplicationMetadataResponse implements ICorfuPayload<LogReplicat
         snapshotTransferred = ICorfuPayload.fromBuffer(buf, Long.class);
         snapshotApplied = ICorfuPayload.fromBuffer(buf, Long.class);
         lastLogProcessed = ICorfuPayload.fromBuffer(buf, Long.class);
+        // A response from a standby which does not know of compression has no codecs
+        if (buf.isReadable()) {
+            int numCodecs = ICorfuPayload.fromBuffer(buf, Integer.class);
+            for (int i = 0; i < numCodecs; i++) {
+                supportedCodecs.add(Codec.getCodecTypeById(ICorfuPayload.fromBuffer(buf, Integer.class)));
+            }
+        }
     }
 
     public LogReplicationMetadataResponse(long topologyConfigId, String version, long snapshotStartTimestamp,
@@ -35,12 +49,18 @@ public class LogReplicationMetadataResponse implements ICorfuPayload<LogReplicat
     }
 
     public static LogReplicationMetadataResponse fromProto(Messages.LogReplicationMetadataResponse proto) {
-        return new LogReplicationMetadataResponse(proto.getSiteConfigID(),
+        LogReplicationMetadataResponse response = new LogReplicationMetadataResponse(proto.getSiteConfigID(),
                 proto.getVersion(),
                 proto.getSnapshotStart(),
                 proto.getSnapshotTransferred(),
                 proto.getSnapshotApplied(),
                 proto.getLastLogEntryTimestamp());
+        // Codecs unknown to this version are ignored, a sink which does not advertise any only supports NONE.
+        proto.getSupportedCodecsList().stream()
+                .map(Codec.Type.typeMap::get)
+                .filter(type -> type != null)
+                .forEach(response.supportedCodecs::add);
+        return response;
     }
 
     @Override
@@ -51,5 +71,9 @@ public class LogReplicationMetadataResponse implements ICorfuPayload<LogReplicat
         ICorfuPayload.serialize(buf, snapshotTransferred);
         ICorfuPayload.serialize(buf, snapshotApplied);
         ICorfuPayload.serialize(buf, lastLogProcessed);
+        ICorfuPayload.serialize(buf, supportedCodecs.size());
+        for (Codec.Type codecType : supportedCodecs) {
+            ICorfuPayload.serialize(buf, codecType.getId());
+        }
     }
 }
@@ -11,7 +11,8 @@ public enum MessageType {
     LOG_ENTRY_REPLICATED(4, LogReplicationEntryType.LOG_ENTRY_REPLICATED),
     SNAPSHOT_REPLICATED(5, LogReplicationEntryType.SNAPSHOT_REPLICATED),
     SNAPSHOT_END(6, LogReplicationEntryType.SNAPSHOT_END),
-    SNAPSHOT_TRANSFER_COMPLETE(7, LogReplicationEntryType.SNAPSHOT_TRANSFER_COMPLETE);
+    SNAPSHOT_TRANSFER_COMPLETE(7, LogReplicationEntryType.SNAPSHOT_TRANSFER_COMPLETE),
+    SNAPSHOT_DIGESTS_COMPARED(8, LogReplicationEntryType.SNAPSHOT_DIGESTS_COMPARED);
 
     @Getter
     private int val;
@@ -11,6 +11,7 @@ import lombok.ToString;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.comm.ChannelImplementation;
+import org.corfudb.comm.ChannelTuningOptions;
 import org.corfudb.common.compression.Codec;
 import org.corfudb.protocols.wireprotocol.PriorityLevel;
 import org.corfudb.protocols.wireprotocol.VersionInfo;
@@ -35,6 +36,8 @@ import org.corfudb.runtime.view.TableRegistry;
 import org.corfudb.runtime.view.LayoutView;
 import org.corfudb.runtime.view.LayoutManagementView;
 import org.corfudb.runtime.view.Layout;
+import org.corfudb.runtime.view.OffHeapLogDataCache;
+import org.corfudb.runtime.view.replication.ReplicaLatencyTracker;
 import org.corfudb.util.CFUtils;
 import org.corfudb.util.GitRepositoryState;
 import org.corfudb.util.MetricsUtils;
@@ -86,6 +89,12 @@ public class CorfuRuntime {
          */
         int maxWriteSize = Integer.MAX_VALUE;
 
+        /*
+         * Max number of bytes of asynchronous writes that can be in flight at once. Writers
+         * block once this limit is reached, until earlier writes complete.
+         */
+        int maxWriteBytesInFlight = 64 * 1024 * 1024;
+
         /*
          * Set the bulk read size.
          */
@@ -116,6 +125,19 @@ public class CorfuRuntime {
          */
         Duration holeFillTimeout = Duration.ofSeconds(10);
 
+        /*
+         * Whether reads of replicated addresses are hedged: the read is sent to the replica
+         * with the lowest observed latency and, if it does not answer within its estimated
+         * 95th percentile latency, to the next replica as well. The first valid answer wins.
+         */
+        boolean hedgedReadsEnabled = false;
+
+        /*
+         * Minimum time to wait for a replica before hedging a read, so that
+         * replicas with very stable latencies are not hedged spuriously.
+         */
+        Duration hedgedReadMinDelay = Duration.ofMillis(2);
+
         /*
          * Whether or not to disable the cache.
          */
@@ -127,15 +149,28 @@ public class CorfuRuntime {
         long maxCacheEntries;
 
         /*
-         * The max in-memory size of the cache in bytes
+         * The max in-memory size of the cache in bytes, which can not be combined
+         * with maxCacheEntries.
          */
         long maxCacheWeight;
 
         /*
-         * This is a hint to size the AddressSpaceView cache, a higher concurrency
-         * level allows for less lock contention at the cost of more memory overhead.
-         * The default value of zero will result in using the cache's internal default
-         * concurrency level (i.e. 4).
+         * The max size in bytes of the second-tier cache, which keeps serialized (compressed)
+         * log entries in direct memory and is consulted on a cache miss before a network read.
+         * The default value of zero disables it.
+         */
+        long offHeapCacheSize = 0;
+
+        /*
+         * An off-heap cache shared with other runtimes of the same process, used in place of
+         * a cache of offHeapCacheSize. It must only be shared by runtimes of the same cluster.
+         * It is not used when cacheDisabled is set.
+         */
+        OffHeapLogDataCache sharedReadCache = null;
+
+        /*
+         * No longer used: the AddressSpaceView cache does not partition its entries by
+         * concurrency level, and scales with the number of accessing threads on its own.
          */
         int cacheConcurrencyLevel = 0;
 
@@ -181,11 +216,29 @@ public class CorfuRuntime {
          */
         int streamBatchSize = 10;
 
+        /*
+         * Stream Decode Ahead: number of stream entries read ahead of the object being synced, whose
+         * payloads are deserialized in parallel while earlier entries are applied. A value of 1
+         * deserializes every entry on the syncing thread.
+         */
+        int streamDecodeAhead = 10;
+
         /*
          * Checkpoint read Batch Size: number of checkpoint addresses to fetch in batch when stream
          * address discovery mechanism relies on address maps instead of follow backpointers;
          */
         int checkpointReadBatchSize = 5;
+
+        /*
+         * Whether reads of committed addresses (i.e. below the committed tail) can be served by
+         * any replica of a chain, instead of always being sent to the chain tail.
+         */
+        boolean replicaReadsEnabled = false;
+
+        /*
+         * How often the committed tail used to route reads to replicas is refreshed from the log units.
+         */
+        Duration committedTailRefreshPeriod = Duration.ofSeconds(1);
         // endregion
 
         /*
@@ -243,14 +296,19 @@ public class CorfuRuntime {
 
         public static class CorfuRuntimeParametersBuilder extends RuntimeParametersBuilder {
             int maxWriteSize = Integer.MAX_VALUE;
+            int maxWriteBytesInFlight = 64 * 1024 * 1024;
             int bulkReadSize = 10;
             Duration fastLoaderTimeout = Duration.ofMinutes(30);
             int holeFillRetry = 10;
             Duration holeFillRetryThreshold = Duration.ofSeconds(1L);
             Duration holeFillTimeout = Duration.ofSeconds(10);
+            boolean hedgedReadsEnabled = false;
+            Duration hedgedReadMinDelay = Duration.ofMillis(2);
             boolean cacheDisabled = false;
             long maxCacheEntries;
             long maxCacheWeight;
+            long offHeapCacheSize = 0;
+            OffHeapLogDataCache sharedReadCache = null;
             int cacheConcurrencyLevel = 0;
             long cacheExpiryTime = Long.MAX_VALUE;
             boolean followBackpointersEnabled = false;
@@ -259,7 +317,10 @@ public class CorfuRuntime {
             int trimRetry = 2;
             int checkpointRetries = 5;
             int streamBatchSize = 10;
+            int streamDecodeAhead = 10;
             int checkpointReadBatchSize = 5;
+            boolean replicaReadsEnabled = false;
+            Duration committedTailRefreshPeriod = Duration.ofSeconds(1);
             Duration runtimeGCPeriod = Duration.ofMinutes(20);
             UUID clusterId = null;
             int systemDownHandlerTriggerLimit = 20;
@@ -369,6 +430,31 @@ public class CorfuRuntime {
                 return this;
             }
 
+            public CorfuRuntimeParametersBuilder connectionsPerEndpoint(int connectionsPerEndpoint) {
+                super.connectionsPerEndpoint(connectionsPerEndpoint);
+                return this;
+            }
+
+            public CorfuRuntimeParametersBuilder flushConsolidationLimit(int flushConsolidationLimit) {
+                super.flushConsolidationLimit(flushConsolidationLimit);
+                return this;
+            }
+
+            public CorfuRuntimeParametersBuilder zeroCopyReads(boolean zeroCopyReads) {
+                super.zeroCopyReads(zeroCopyReads);
+                return this;
+            }
+
+            public CorfuRuntimeParametersBuilder channelTuning(ChannelTuningOptions channelTuning) {
+                super.channelTuning(channelTuning);
+                return this;
+            }
+
+            public CorfuRuntimeParametersBuilder maxRequestBatchSize(int maxRequestBatchSize) {
+                super.maxRequestBatchSize(maxRequestBatchSize);
+                return this;
+            }
+
             public CorfuRuntimeParametersBuilder customNettyChannelOptions(Map<ChannelOption, Object> customNettyChannelOptions) {
                 super.customNettyChannelOptions(customNettyChannelOptions);
                 return this;
@@ -399,6 +485,11 @@ public class CorfuRuntime {
                 return this;
             }
 
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder maxWriteBytesInFlight(int maxWriteBytesInFlight) {
+                this.maxWriteBytesInFlight = maxWriteBytesInFlight;
+                return this;
+            }
+
             public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder bulkReadSize(int bulkReadSize) {
                 this.bulkReadSize = bulkReadSize;
                 return this;
@@ -424,6 +515,16 @@ public class CorfuRuntime {
                 return this;
             }
 
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder hedgedReadsEnabled(boolean hedgedReadsEnabled) {
+                this.hedgedReadsEnabled = hedgedReadsEnabled;
+                return this;
+            }
+
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder hedgedReadMinDelay(Duration hedgedReadMinDelay) {
+                this.hedgedReadMinDelay = hedgedReadMinDelay;
+                return this;
+            }
+
             public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder cacheDisabled(boolean cacheDisabled) {
                 this.cacheDisabled = cacheDisabled;
                 return this;
@@ -439,6 +540,16 @@ public class CorfuRuntime {
                 return this;
             }
 
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder offHeapCacheSize(long offHeapCacheSize) {
+                this.offHeapCacheSize = offHeapCacheSize;
+                return this;
+            }
+
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder sharedReadCache(OffHeapLogDataCache sharedReadCache) {
+                this.sharedReadCache = sharedReadCache;
+                return this;
+            }
+
             public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder cacheConcurrencyLevel(int cacheConcurrencyLevel) {
                 this.cacheConcurrencyLevel = cacheConcurrencyLevel;
                 return this;
@@ -479,11 +590,27 @@ public class CorfuRuntime {
                 return this;
             }
 
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder streamDecodeAhead(int streamDecodeAhead) {
+                this.streamDecodeAhead = streamDecodeAhead;
+                return this;
+            }
+
             public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder checkpointReadBatchSize(int checkpointReadBatchSize) {
                 this.checkpointReadBatchSize = checkpointReadBatchSize;
                 return this;
             }
 
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder replicaReadsEnabled(boolean replicaReadsEnabled) {
+                this.replicaReadsEnabled = replicaReadsEnabled;
+                return this;
+            }
+
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder committedTailRefreshPeriod(
+                    Duration committedTailRefreshPeriod) {
+                this.committedTailRefreshPeriod = committedTailRefreshPeriod;
+                return this;
+            }
+
             public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder runtimeGCPeriod(Duration runtimeGCPeriod) {
                 this.runtimeGCPeriod = runtimeGCPeriod;
                 return this;
@@ -546,20 +673,30 @@ public class CorfuRuntime {
                 corfuRuntimeParameters.setNettyEventLoopThreadFormat(nettyEventLoopThreadFormat);
                 corfuRuntimeParameters.setNettyEventLoopThreads(nettyEventLoopThreads);
                 corfuRuntimeParameters.setShutdownNettyEventLoop(shutdownNettyEventLoop);
+                corfuRuntimeParameters.setConnectionsPerEndpoint(connectionsPerEndpoint);
+                corfuRuntimeParameters.setFlushConsolidationLimit(flushConsolidationLimit);
+                corfuRuntimeParameters.setZeroCopyReads(zeroCopyReads);
+                corfuRuntimeParameters.setChannelTuning(channelTuning);
+                corfuRuntimeParameters.setMaxRequestBatchSize(maxRequestBatchSize);
                 corfuRuntimeParameters.setCustomNettyChannelOptions(customNettyChannelOptions);
                 corfuRuntimeParameters.setUncaughtExceptionHandler(uncaughtExceptionHandler);
                 corfuRuntimeParameters.setPrometheusMetricsPort(prometheusMetricsPort);
                 corfuRuntimeParameters.setSystemDownHandler(systemDownHandler);
                 corfuRuntimeParameters.setBeforeRpcHandler(beforeRpcHandler);
                 corfuRuntimeParameters.setMaxWriteSize(maxWriteSize);
+                corfuRuntimeParameters.setMaxWriteBytesInFlight(maxWriteBytesInFlight);
                 corfuRuntimeParameters.setBulkReadSize(bulkReadSize);
                 corfuRuntimeParameters.setFastLoaderTimeout(fastLoaderTimeout);
                 corfuRuntimeParameters.setHoleFillRetry(holeFillRetry);
                 corfuRuntimeParameters.setHoleFillRetryThreshold(holeFillRetryThreshold);
                 corfuRuntimeParameters.setHoleFillTimeout(holeFillTimeout);
+                corfuRuntimeParameters.setHedgedReadsEnabled(hedgedReadsEnabled);
+                corfuRuntimeParameters.setHedgedReadMinDelay(hedgedReadMinDelay);
                 corfuRuntimeParameters.setCacheDisabled(cacheDisabled);
                 corfuRuntimeParameters.setMaxCacheEntries(maxCacheEntries);
                 corfuRuntimeParameters.setMaxCacheWeight(maxCacheWeight);
+                corfuRuntimeParameters.setOffHeapCacheSize(offHeapCacheSize);
+                corfuRuntimeParameters.setSharedReadCache(sharedReadCache);
                 corfuRuntimeParameters.setCacheConcurrencyLevel(cacheConcurrencyLevel);
                 corfuRuntimeParameters.setCacheExpiryTime(cacheExpiryTime);
                 corfuRuntimeParameters.setFollowBackpointersEnabled(followBackpointersEnabled);
@@ -568,7 +705,10 @@ public class CorfuRuntime {
                 corfuRuntimeParameters.setTrimRetry(trimRetry);
                 corfuRuntimeParameters.setCheckpointRetries(checkpointRetries);
                 corfuRuntimeParameters.setStreamBatchSize(streamBatchSize);
+                corfuRuntimeParameters.setStreamDecodeAhead(streamDecodeAhead);
                 corfuRuntimeParameters.setCheckpointReadBatchSize(checkpointReadBatchSize);
+                corfuRuntimeParameters.setReplicaReadsEnabled(replicaReadsEnabled);
+                corfuRuntimeParameters.setCommittedTailRefreshPeriod(committedTailRefreshPeriod);
                 corfuRuntimeParameters.setRuntimeGCPeriod(runtimeGCPeriod);
                 corfuRuntimeParameters.setClusterId(clusterId);
                 corfuRuntimeParameters.setSystemDownHandlerTriggerLimit(systemDownHandlerTriggerLimit);
@@ -634,6 +774,12 @@ public class CorfuRuntime {
     @Getter(lazy = true)
     private final ManagementView managementView = new ManagementView(this);
 
+    /**
+     * Observed read latencies of the log unit servers, used to pick replicas and hedge reads.
+     */
+    @Getter
+    private final ReplicaLatencyTracker replicaLatencyTracker;
+
     /**
      * CorfuStore's table registry cache for Table lifecycle management.
      */
@@ -811,6 +957,9 @@ public class CorfuRuntime {
         // Initializing the node router pool.
         nodeRouterPool = new NodeRouterPool(getRouterFunction);
 
+        // A failed read is recorded as if it timed out
+        replicaLatencyTracker = new ReplicaLatencyTracker(parameters::getRequestTimeout);
+
         // Try to expose metrics via Dropwizard CsvReporter JmxReporter and Slf4jReporter.
         MetricsUtils.metricsReportingSetup(defaultMetrics);
         if (parameters.getPrometheusMetricsPort() != MetricsUtils.NO_METRICS_PORT) {
@@ -871,6 +1020,8 @@ public class CorfuRuntime {
             tableRegistryObj.shutdown();
         }
         garbageCollector.stop();
+        // Release the memory held by the client caches
+        addressSpaceView.invalidateClientCache();
         runtimeExecutor.shutdownNow();
         if (layout != null) {
             try {
@@ -6,6 +6,7 @@ import io.netty.channel.EventLoopGroup;
 import lombok.Data;
 import lombok.ToString;
 import org.corfudb.comm.ChannelImplementation;
+import org.corfudb.comm.ChannelTuningOptions;
 import org.corfudb.util.MetricsUtils;
 import org.corfudb.runtime.clients.NettyClientRouter;
 
@@ -140,13 +141,51 @@ public class RuntimeParameters {
          */
         public boolean shutdownNettyEventLoop = true;
 
+        /**
+         * The number of connections a {@link NettyClientRouter} opens to its endpoint.
+         * Requests are spread across all the connections which completed the handshake.
+         */
+        public int connectionsPerEndpoint = 1;
+
+        /**
+         * The maximum number of flushes a {@link NettyClientRouter} connection consolidates
+         * into a single flush (i.e. syscall) within an event loop tick. 0 disables flush
+         * consolidation, flushing every request.
+         */
+        public int flushConsolidationLimit = 256;
+
+        /**
+         * Whether a {@link NettyClientRouter} decodes read responses without copying log entry
+         * payloads out of the inbound buffers: payloads are deserialized directly from heap
+         * buffers, which are released once deserialized or evicted from the read cache.
+         * Channels then use unpooled heap buffers, unless an ALLOCATOR is set in the
+         * {@link this#customNettyChannelOptions}.
+         */
+        public boolean zeroCopyReads = false;
+
+        /**
+         * Tuning of the {@link NettyClientRouter} channels (allocator, socket buffers, write
+         * buffer watermarks and backpressure, epoll options). Applied after, and so overriding,
+         * the corresponding {@link this#customNettyChannelOptions}.
+         */
+        public ChannelTuningOptions channelTuning = ChannelTuningOptions.DEFAULT;
+
+        /**
+         * Maximum number of requests a {@link NettyClientRouter} sends under a single header
+         * in one frame, when requests are queued faster than they are written. Servers only
+         * reply with batches of responses to clients which send batches. 1 disables batching,
+         * which is required against servers that do not understand batches.
+         */
+        public int maxRequestBatchSize = 1;
+
         /**
          * Default channel options, used if there are no options in the
-         * {@link this#customNettyChannelOptions} field.
+         * {@link this#customNettyChannelOptions} field. Options set by the
+         * {@link this#channelTuning} (e.g. TCP_NODELAY) are not defaulted here,
+         * so that they do not override the tuning.
          */
         public static final Map<ChannelOption, Object> DEFAULT_CHANNEL_OPTIONS =
                 ImmutableMap.<ChannelOption, Object>builder()
-                        .put(ChannelOption.TCP_NODELAY, true)
                         .put(ChannelOption.SO_REUSEADDR, true)
                         .build();
 
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableMap;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import org.corfudb.comm.ChannelImplementation;
+import org.corfudb.comm.ChannelTuningOptions;
 import org.corfudb.util.MetricsUtils;
 
 import java.time.Duration;
@@ -31,9 +32,13 @@ public class RuntimeParametersBuilder {
     protected String nettyEventLoopThreadFormat = "netty-%d";
     protected int nettyEventLoopThreads = 0;
     protected boolean shutdownNettyEventLoop = true;
+    protected int connectionsPerEndpoint = 1;
+    protected int flushConsolidationLimit = 256;
+    protected boolean zeroCopyReads = false;
+    protected ChannelTuningOptions channelTuning = ChannelTuningOptions.DEFAULT;
+    protected int maxRequestBatchSize = 1;
     protected static final Map<ChannelOption, Object> DEFAULT_CHANNEL_OPTIONS =
             ImmutableMap.<ChannelOption, Object>builder()
-                    .put(ChannelOption.TCP_NODELAY, true)
                     .put(ChannelOption.SO_REUSEADDR, true)
                     .build();
     protected Map<ChannelOption, Object> customNettyChannelOptions = DEFAULT_CHANNEL_OPTIONS;
@@ -144,6 +149,31 @@ public class RuntimeParametersBuilder {
         return this;
     }
 
+    public RuntimeParametersBuilder connectionsPerEndpoint(int connectionsPerEndpoint) {
+        this.connectionsPerEndpoint = connectionsPerEndpoint;
+        return this;
+    }
+
+    public RuntimeParametersBuilder flushConsolidationLimit(int flushConsolidationLimit) {
+        this.flushConsolidationLimit = flushConsolidationLimit;
+        return this;
+    }
+
+    public RuntimeParametersBuilder zeroCopyReads(boolean zeroCopyReads) {
+        this.zeroCopyReads = zeroCopyReads;
+        return this;
+    }
+
+    public RuntimeParametersBuilder channelTuning(ChannelTuningOptions channelTuning) {
+        this.channelTuning = channelTuning;
+        return this;
+    }
+
+    public RuntimeParametersBuilder maxRequestBatchSize(int maxRequestBatchSize) {
+        this.maxRequestBatchSize = maxRequestBatchSize;
+        return this;
+    }
+
     public RuntimeParametersBuilder customNettyChannelOptions(Map<ChannelOption, Object> customNettyChannelOptions) {
         this.customNettyChannelOptions = customNettyChannelOptions;
         return this;
@@ -191,6 +221,11 @@ public class RuntimeParametersBuilder {
         runtimeParameters.setNettyEventLoopThreadFormat(nettyEventLoopThreadFormat);
         runtimeParameters.setNettyEventLoopThreads(nettyEventLoopThreads);
         runtimeParameters.setShutdownNettyEventLoop(shutdownNettyEventLoop);
+        runtimeParameters.setConnectionsPerEndpoint(connectionsPerEndpoint);
+        runtimeParameters.setFlushConsolidationLimit(flushConsolidationLimit);
+        runtimeParameters.setZeroCopyReads(zeroCopyReads);
+        runtimeParameters.setChannelTuning(channelTuning);
+        runtimeParameters.setMaxRequestBatchSize(maxRequestBatchSize);
         runtimeParameters.setCustomNettyChannelOptions(customNettyChannelOptions);
         runtimeParameters.setUncaughtExceptionHandler(uncaughtExceptionHandler);
         runtimeParameters.setPrometheusMetricsPort(prometheusMetricsPort);
@@ -23,6 +23,8 @@ import org.corfudb.protocols.wireprotocol.InspectAddressesResponse;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.KnownAddressRequest;
 import org.corfudb.protocols.wireprotocol.KnownAddressResponse;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
+import org.corfudb.protocols.wireprotocol.LogSegmentReadRequest;
 import org.corfudb.protocols.wireprotocol.RangeWriteMsg;
 import org.corfudb.protocols.wireprotocol.ReadRequest;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
@@ -243,6 +245,30 @@ public class LogUnitClient extends AbstractClient {
                 .payloadMsg(new KnownAddressRequest(startRange, endRange)));
     }
 
+    /**
+     * Read a chunk of the raw bytes of a committed log segment file.
+     *
+     * @param segment The segment to read.
+     * @param offset  The offset in the segment file to read from.
+     * @param length  The max number of bytes to read.
+     * @return A chunk of the segment file.
+     */
+    public CompletableFuture<LogSegmentChunk> readSegmentChunk(long segment, long offset, int length) {
+        return sendMessageWithFuture(CorfuMsgType.LOG_SEGMENT_READ_REQUEST
+                .payloadMsg(new LogSegmentReadRequest(segment, offset, length)));
+    }
+
+    /**
+     * Write a chunk of the raw bytes of a log segment file, read from another log unit.
+     * The segment is installed once its last chunk is written.
+     *
+     * @param chunk A chunk of the segment file.
+     * @return A completableFuture which returns true on success.
+     */
+    public CompletableFuture<Boolean> writeSegmentChunk(LogSegmentChunk chunk) {
+        return sendMessageWithFuture(CorfuMsgType.LOG_SEGMENT_WRITE.payloadMsg(chunk));
+    }
+
     /**
      * Send a prefix trim request that will trim the log up to a certain address
      *
@@ -13,6 +13,7 @@ import org.corfudb.protocols.wireprotocol.CorfuMsgType;
 import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
 import org.corfudb.protocols.wireprotocol.InspectAddressesResponse;
 import org.corfudb.protocols.wireprotocol.KnownAddressResponse;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
 import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.runtime.exceptions.DataCorruptionException;
@@ -20,6 +21,7 @@ import org.corfudb.runtime.exceptions.DataOutrankedException;
 import org.corfudb.runtime.exceptions.OutOfSpaceException;
 import org.corfudb.runtime.exceptions.OverwriteCause;
 import org.corfudb.runtime.exceptions.OverwriteException;
+import org.corfudb.runtime.exceptions.SegmentUnavailableException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.ValueAdoptedException;
 
@@ -274,4 +276,32 @@ public class LogUnitHandler implements IClient, IHandler<LogUnitClient> {
                                                        ChannelHandlerContext ctx, IClientRouter r) {
         return msg.getPayload();
     }
+
+    /**
+     * Handle an ERROR_SEGMENT_UNAVAILABLE message.
+     *
+     * @param msg Incoming Message
+     * @param ctx Context
+     * @param r   Router
+     * @throws SegmentUnavailableException with the segment that can not be transferred
+     */
+    @ClientHandler(type = CorfuMsgType.ERROR_SEGMENT_UNAVAILABLE)
+    private static Object handleSegmentUnavailable(CorfuPayloadMsg<Long> msg,
+                                                   ChannelHandlerContext ctx, IClientRouter r) {
+        throw new SegmentUnavailableException(msg.getPayload());
+    }
+
+    /**
+     * Handle a LOG_SEGMENT_READ_RESPONSE message.
+     *
+     * @param msg Incoming Message
+     * @param ctx Context
+     * @param r   Router
+     * @return LogSegmentChunk payload with the bytes of the segment file.
+     */
+    @ClientHandler(type = CorfuMsgType.LOG_SEGMENT_READ_RESPONSE)
+    private static Object handleLogSegmentReadResponse(CorfuPayloadMsg<LogSegmentChunk> msg,
+                                                       ChannelHandlerContext ctx, IClientRouter r) {
+        return msg.getPayload();
+    }
 }
@@ -85,6 +85,17 @@ public class ManagementClient extends AbstractClient {
         return sendMessageWithFuture(CorfuMsgType.MANAGEMENT_LAYOUT_REQUEST.msg());
     }
 
+    /**
+     * Changes the bandwidth limit of the state transfers run by the management server,
+     * including the transfers in progress.
+     *
+     * @param limit The max number of bytes per second copied by a state transfer, 0 if unlimited.
+     * @return A future which returns TRUE if the limit was changed, FALSE if it is invalid.
+     */
+    public CompletableFuture<Boolean> setStateTransferBandwidthLimit(long limit) {
+        return sendMessageWithFuture(CorfuMsgType.MANAGEMENT_STATE_TRANSFER_BANDWIDTH_LIMIT.payloadMsg(limit));
+    }
+
     /**
      * Send a add node request to an orchestrator
      * @param endpoint the endpoint to add to the cluster
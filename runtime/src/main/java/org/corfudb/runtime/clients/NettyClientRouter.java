@@ -2,6 +2,7 @@ package org.corfudb.runtime.clients;
 
 import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.bootstrap.Bootstrap;
@@ -15,22 +16,24 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.handler.timeout.IdleStateHandler;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
 import javax.net.ssl.SSLException;
@@ -40,11 +43,13 @@ import lombok.NonNull;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import org.corfudb.comm.ChannelTuningOptions;
 import org.corfudb.protocols.CorfuProtocolCommon;
 import org.corfudb.protocols.wireprotocol.ClientHandshakeHandler;
 import org.corfudb.protocols.wireprotocol.ClientHandshakeHandler.ClientHandshakeEvent;
 import org.corfudb.protocols.wireprotocol.CorfuMsg;
 import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.NettyCorfuMessageBatcher;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageDecoder;
 import org.corfudb.protocols.wireprotocol.NettyCorfuMessageEncoder;
 import org.corfudb.runtime.CorfuRuntime;
@@ -62,7 +67,6 @@ import org.corfudb.runtime.RuntimeParameters;
 import org.corfudb.security.sasl.SaslUtils;
 import org.corfudb.security.sasl.plaintext.PlainTextSaslNettyClient;
 import org.corfudb.security.tls.SslContextConstructor;
-import org.corfudb.util.CFUtils;
 import org.corfudb.util.CorfuComponent;
 import org.corfudb.util.MetricsUtils;
 import org.corfudb.util.NodeLocator;
@@ -137,13 +141,34 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
     /**
      * The outstanding requests on this router.
      */
-    public final Map<Long, CompletableFuture> outstandingRequests;
+    public final OutstandingRequests outstandingRequests;
 
     /**
-     * The currently registered channel.
+     * The most recently registered channel.
      */
     private volatile Channel channel = null;
 
+    /**
+     * The channels which completed the handshake, across which requests are spread.
+     */
+    private volatile List<Channel> connectedChannels = ImmutableList.of();
+
+    /**
+     * All the open channels of this router, including those still handshaking.
+     */
+    private final Set<Channel> openChannels = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The index of the connected channel the next request is sent on.
+     */
+    private final AtomicInteger nextChannel = new AtomicInteger();
+
+    /**
+     * Notified whenever a channel becomes writable, waking up senders paused by
+     * write backpressure.
+     */
+    private final Object writabilityLock = new Object();
+
     /**
      * Whether or not this router is shutdown.
      */
@@ -242,7 +267,7 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
 
         clientList = new ArrayList<>();
         requestID = new AtomicLong();
-        outstandingRequests = new ConcurrentHashMap<>();
+        outstandingRequests = new OutstandingRequests();
         shutdown = true;
 
         if (parameters.isTlsEnabled()) {
@@ -264,13 +289,22 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
         Bootstrap b = new Bootstrap();
         b.group(eventLoopGroup);
         b.channel(parameters.getSocketType().getChannelClass());
+        // Custom channel options take precedence over the tuning.
+        parameters.getChannelTuning().apply(b, parameters.getSocketType());
+        if (parameters.isZeroCopyReads()) {
+            // Log entries retain slices of the inbound buffers until they are deserialized
+            // or evicted from the read cache, so that they should not pin pooled memory.
+            b.option(ChannelOption.ALLOCATOR, ChannelTuningOptions.Allocator.UNPOOLED_HEAP.getAllocator());
+        }
         parameters.getNettyChannelOptions().forEach(b::option);
         b.handler(getChannelInitializer());
         b.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) timeoutConnect);
 
-        // Asynchronously connect, retrying until shut down.
-        // Once connected, connectionFuture will be completed.
-        connectAsync(b);
+        // Asynchronously connect every channel, retrying until shut down.
+        // Once any channel is connected, connectionFuture will be completed.
+        for (int i = 0; i < Math.max(1, parameters.getConnectionsPerEndpoint()); i++) {
+            connectAsync(b);
+        }
     }
 
     /**
@@ -343,6 +377,11 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
         return new ChannelInitializer() {
             @Override
             protected void initChannel(@Nonnull Channel ch) throws Exception {
+                if (parameters.getFlushConsolidationLimit() > 0) {
+                    // Requests written within the same event loop tick share a single flush.
+                    ch.pipeline().addLast(new FlushConsolidationHandler(
+                            parameters.getFlushConsolidationLimit(), true));
+                }
                 ch.pipeline().addLast(new IdleStateHandler(parameters.getIdleConnectionTimeout(),
                         parameters.getKeepAlivePeriod(), 0));
                 if (parameters.isTlsEnabled()) {
@@ -358,8 +397,12 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
                                     parameters.getPasswordFile());
                     ch.pipeline().addLast("sasl/plain-text", saslNettyClient);
                 }
-                ch.pipeline().addLast(new NettyCorfuMessageDecoder());
+                ch.pipeline().addLast(new NettyCorfuMessageDecoder(parameters.isZeroCopyReads()));
                 ch.pipeline().addLast(new NettyCorfuMessageEncoder());
+                // Coalesce the requests queued under load into batches.
+                if (parameters.getMaxRequestBatchSize() > 1) {
+                    ch.pipeline().addLast(new NettyCorfuMessageBatcher(parameters.getMaxRequestBatchSize()));
+                }
                 ch.pipeline().addLast(new ClientHandshakeHandler(parameters.getClientId(),
                         node.getNodeId(), parameters.getHandshakeTimeout()));
 
@@ -378,15 +421,16 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
                                               @Nonnull Bootstrap bootstrap) {
         channel.closeFuture().addListener((r) -> {
             log.debug("addReconnectionOnCloseFuture[{}]: disconnected", node);
-            // Remove the current completion future, forcing clients to wait for reconnection.
-            connectionFuture = new CompletableFuture<>();
-            // Exceptionally complete all requests that were waiting for a completion.
-            outstandingRequests.forEach((reqId, reqCompletableFuture) -> {
-                reqCompletableFuture.completeExceptionally(
-                        new NetworkException("Disconnected", node));
-                // And also remove them.
-                outstandingRequests.remove(reqId);
-            });
+            openChannels.remove(channel);
+            notifyWritable();
+            if (!setChannelConnected(channel, false)) {
+                // Remove the current completion future, forcing clients to wait for reconnection.
+                connectionFuture = new CompletableFuture<>();
+            }
+            // Exceptionally complete all requests that were sent on this channel
+            // and still waiting for a completion (and also remove them).
+            outstandingRequests.completeAllExceptionally(channel,
+                    new NetworkException("Disconnected", node));
             // If we aren't shutdown, reconnect.
             if (!shutdown) {
                 Sleep.sleepUninterruptibly(parameters.getConnectionRetryRate());
@@ -422,6 +466,7 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
     private void channelConnectionFutureHandler(@Nonnull ChannelFuture future,
                                                 @Nonnull Bootstrap bootstrap) {
         if (future.isSuccess()) {
+            openChannels.add(future.channel());
             // Register a future to reconnect in case we get disconnected
             addReconnectionOnCloseFuture(future.channel(), bootstrap);
             log.debug("connectAsync[{}]: Channel connected.", node);
@@ -447,8 +492,84 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
         log.debug("stop: Shutting down router for {}", node);
         shutdown = true;
         connectionFuture.completeExceptionally(new NetworkException("Router stopped", node));
-        if (channel != null && channel.isOpen()) {
-            channel.close();
+        openChannels.forEach(Channel::close);
+    }
+
+    /**
+     * Add a channel to, or remove it from, the channels requests are spread across.
+     *
+     * @param ch        The channel whose state changed.
+     * @param connected True, if the channel completed the handshake.
+     * @return True, if any channel remains connected.
+     */
+    private synchronized boolean setChannelConnected(@Nonnull Channel ch, boolean connected) {
+        ImmutableList.Builder<Channel> channels = ImmutableList.builder();
+        connectedChannels.stream().filter(c -> c != ch).forEach(channels::add);
+        if (connected) {
+            channels.add(ch);
+        }
+        connectedChannels = channels.build();
+        return !connectedChannels.isEmpty();
+    }
+
+    /**
+     * Get the channel to send the next request on, in a round-robin fashion.
+     *
+     * @return A connected channel, or the most recently registered channel if none is connected.
+     */
+    private Channel getChannel() {
+        final List<Channel> channels = connectedChannels;
+        if (channels.isEmpty()) {
+            return channel;
+        }
+        return channels.get(Math.floorMod(nextChannel.getAndIncrement(), channels.size()));
+    }
+
+    /**
+     * Get the channel to write the next request to. With write backpressure enabled, channels
+     * whose outbound buffer is full are skipped, and if all of them are full the sender is
+     * paused until the channel drains, the channel closes or the request timeout elapses.
+     *
+     * @return The channel to write the next request to.
+     */
+    private Channel getChannelForWrite() {
+        final Channel ch = getChannel();
+        if (!parameters.getChannelTuning().isWriteBackpressure() || ch == null
+                || ch.isWritable() || ch.eventLoop().inEventLoop()) {
+            return ch;
+        }
+
+        for (Channel candidate : connectedChannels) {
+            if (candidate.isWritable()) {
+                return candidate;
+            }
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutResponse);
+        synchronized (writabilityLock) {
+            while (!ch.isWritable() && ch.isActive() && !shutdown) {
+                final long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    log.debug("getChannelForWrite[{}]: channel not writable after {}ms",
+                            node, timeoutResponse);
+                    break;
+                }
+                try {
+                    writabilityLock.wait(remainingMs);
+                } catch (InterruptedException ie) {
+                    throw new UnrecoverableCorfuInterruptedError(ie);
+                }
+            }
+        }
+        return ch;
+    }
+
+    /**
+     * Wake up the senders paused by write backpressure.
+     */
+    private void notifyWritable() {
+        synchronized (writabilityLock) {
+            writabilityLock.notifyAll();
         }
     }
 
@@ -494,40 +615,18 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
         message.setClientID(parameters.getClientId());
         message.setRequestID(thisRequest);
 
-        // Generate a future and put it in the completion table.
+        // Generate a future and put it in the completion table, which completes
+        // it exceptionally if there is no response within the timeout.
         final CompletableFuture<T> cf = new CompletableFuture<>();
-        outstandingRequests.put(thisRequest, cf);
+        final Channel ch = getChannelForWrite();
+        outstandingRequests.add(thisRequest, cf, ch, roundTripMsgContext, timeoutResponse);
 
         // Write the message out to the channel.
-        channel.writeAndFlush(message, channel.voidPromise());
+        ch.writeAndFlush(message, ch.voidPromise());
 
         log.trace("Sent message: {}", message);
 
-        // Generate a benchmarked future to measure the underlying request
-        final CompletableFuture<T> cfBenchmarked = cf.thenApply(x -> {
-            MetricsUtils.stopConditionalContext(roundTripMsgContext);
-            return x;
-        });
-
-        // Generate a timeout future, which will complete exceptionally
-        // if the main future is not completed.
-        final CompletableFuture<T> cfTimeout =
-                CFUtils.within(cfBenchmarked, Duration.ofMillis(timeoutResponse));
-        cfTimeout.exceptionally(e -> {
-            // CFUtils.within() can wrap different kinds of exceptions in
-            // CompletionException, just dealing with TimeoutException here since
-            // the router is not aware of it and this::completeExceptionally()
-            // takes care of others. This avoids handling same exception twice.
-            if (e.getCause() instanceof TimeoutException) {
-                outstandingRequests.remove(thisRequest);
-                log.debug(
-                        "sendMessageAndGetCompletable: Remove request {} to {} due to timeout! Message:{}",
-                        thisRequest, node, message);
-            }
-            return null;
-        });
-
-        return cfTimeout;
+        return cf;
     }
 
     /**
@@ -566,6 +665,31 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
             return f;
         }
 
+        return sendRequestAndGetCompletable(getChannelForWrite(), payload, epoch, clusterId, priority,
+                ignoreClusterId, ignoreEpoch);
+    }
+
+    /**
+     * Send a request message on the given channel and get a completable future to be
+     * fulfilled by the reply.
+     *
+     * @param ch              The channel to send the request on.
+     * @param payload         Payload message of the pending request.
+     * @param epoch           Number of epoch.
+     * @param clusterId       Cluster id.
+     * @param priority        Priority level of the pending request
+     * @param ignoreClusterId Boolean field indicates whether to ignore cluster id.
+     * @param ignoreEpoch     Boolean field indicates whether to ignore epoch.
+     * @param <T>             The type of completable to return.
+     * @return A completable future which will be fulfilled by the reply, or a timeout in the case
+     * there is no response.
+     */
+    private <T> CompletableFuture<T> sendRequestAndGetCompletable(
+            Channel ch, CorfuMessage.RequestPayloadMsg payload,
+            long epoch, RpcCommon.UuidMsg clusterId,
+            CorfuMessage.PriorityLevel priority,
+            boolean ignoreClusterId, boolean ignoreEpoch) {
+
         // Get the next request ID
         final long thisRequestId = requestID.getAndIncrement();
         RpcCommon.UuidMsg clientId = CorfuProtocolCommon.getUuidMsg(parameters.getClientId());
@@ -583,39 +707,16 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
         final Timer.Context roundTripMsgContext = MetricsUtils
                 .getConditionalContext(roundTripMsgTimer);
 
-        // Generate a future and put it in the completion table.
+        // Generate a future and put it in the completion table, which completes
+        // it exceptionally if there is no response within the timeout.
         final CompletableFuture<T> cf = new CompletableFuture<>();
-        outstandingRequests.put(thisRequestId, cf);
+        outstandingRequests.add(thisRequestId, cf, ch, roundTripMsgContext, timeoutResponse);
 
         // Write this message out on the channel
-        channel.writeAndFlush(request, channel.voidPromise());
+        ch.writeAndFlush(request, ch.voidPromise());
         log.trace("Sent request message: {}", request.getHeader());
 
-        // Generate a benchmarked future to measure the underlying request
-        final CompletableFuture<T> cfBenchmarked = cf.thenApply(x -> {
-            MetricsUtils.stopConditionalContext(roundTripMsgContext);
-            return x;
-        });
-
-        // Generate a timeout future, which will complete exceptionally
-        // if the main future is not completed.
-        final CompletableFuture<T> cfTimeout =
-                CFUtils.within(cfBenchmarked, Duration.ofMillis(timeoutResponse));
-        cfTimeout.exceptionally(e -> {
-            // CFUtils.within() can wrap different kinds of exceptions in
-            // CompletionException, just dealing with TimeoutException here since
-            // the router is not aware of it and this::completeExceptionally()
-            // takes care of others. This avoids handling same exception twice.
-            if (e.getCause() instanceof TimeoutException) {
-                outstandingRequests.remove(thisRequestId);
-                log.debug(
-                        "sendRequestAndGetCompletable: Remove request {} to {} due to timeout! Request:{}",
-                        thisRequestId, node, request.getHeader());
-            }
-            return null;
-        });
-
-        return cfTimeout;
+        return cf;
     }
 
     /**
@@ -631,7 +732,8 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
         message.setClientID(parameters.getClientId());
         message.setRequestID(thisRequest);
         // Write this message out on the channel.
-        channel.writeAndFlush(message, channel.voidPromise());
+        final Channel ch = getChannelForWrite();
+        ch.writeAndFlush(message, ch.voidPromise());
         log.trace("Sent one-way message: {}", message);
     }
 
@@ -661,7 +763,8 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
         CorfuMessage.RequestMsg request = getRequestMsg(header, payload);
 
         // Write this message out on the channel
-        channel.writeAndFlush(request, channel.voidPromise());
+        final Channel ch = getChannelForWrite();
+        ch.writeAndFlush(request, ch.voidPromise());
         log.trace("Sent one-way request message: {}", request.getHeader());
     }
 
@@ -673,10 +776,7 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
      * @param <T>        The type of the completion.
      */
     public <T> void completeRequest(long requestId, T completion) {
-        CompletableFuture<T> cf;
-        if ((cf = (CompletableFuture<T>) outstandingRequests.remove(requestId)) != null) {
-            cf.complete(completion);
-        } else {
+        if (!outstandingRequests.complete(requestId, completion)) {
             log.warn("Attempted to complete request {}, but request not outstanding!", requestId);
         }
     }
@@ -688,9 +788,7 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
      * @param cause     The cause to give for the exceptional completion.
      */
     public void completeExceptionally(long requestID, @Nonnull Throwable cause) {
-        CompletableFuture cf;
-        if ((cf = outstandingRequests.remove(requestID)) != null) {
-            cf.completeExceptionally(cause);
+        if (outstandingRequests.completeExceptionally(requestID, cause)) {
             log.debug("completeExceptionally: Remove request {} to {} due to {}.", requestID, node,
                     cause.getClass().getSimpleName(), cause);
         } else {
@@ -783,6 +881,14 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
         }
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable()) {
+            notifyWritable();
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         log.error("Exception during channel handling.", cause);
@@ -793,17 +899,17 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
      * Sends a PING message that serves as a keep alive so that the response will keep the
      * channel active, in order to avoid a ReadTimeout exception that will close the channel.
      */
-    private void keepAlive() {
-        if (channel == null || !channel.isOpen()) {
+    private void keepAlive(@Nonnull Channel ch) {
+        if (!ch.isOpen() || !connectedChannels.contains(ch)) {
             log.info("keepAlive: channel not established or not open, skipping sending keep alive.");
             return;
         }
 
         // Note: the epoch and clusterId are ignored for this message
-        sendRequestAndGetCompletable(getPingRequestMsg(), 0, getUuidMsg(DEFAULT_UUID),
+        sendRequestAndGetCompletable(ch, getPingRequestMsg(), 0, getUuidMsg(DEFAULT_UUID),
                 CorfuMessage.PriorityLevel.NORMAL, true, true);
 
-        log.trace("keepAlive: sent ping to {}", this.channel.remoteAddress());
+        log.trace("keepAlive: sent ping to {}", ch.remoteAddress());
     }
 
     @Override
@@ -812,18 +918,20 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
             // Handshake successful. Complete the connection future to allow
             // clients to proceed.
             channel = ctx.channel();
+            setChannelConnected(ctx.channel(), true);
             connectionFuture.complete(null);
-        } else if (evt.equals(ClientHandshakeEvent.FAILED) && connectionFuture.isDone()) {
+        } else if (evt.equals(ClientHandshakeEvent.FAILED) && connectionFuture.isDone()
+                && connectedChannels.isEmpty()) {
             // Handshake failed. If the current completion future is complete,
-            // create a new one to unset it, causing future requests
-            // to wait.
+            // and no other channel is connected, create a new one to unset it,
+            // causing future requests to wait.
             connectionFuture = new CompletableFuture<>();
         } else if (evt instanceof IdleStateEvent) {
             IdleStateEvent e = (IdleStateEvent) evt;
             if (e.state() == IdleState.READER_IDLE) {
                 ctx.close();
             } else if (e.state() == IdleState.WRITER_IDLE) {
-                keepAlive();
+                keepAlive(ctx.channel());
             }
         } else {
             log.warn("userEventTriggered: unhandled event {}", evt);
@@ -0,0 +1,209 @@
+package org.corfudb.runtime.clients;
+
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.collection.LongObjectHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.util.MetricsUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The requests a client router sent and is awaiting a response for, keyed by request ID.
+ *
+ * <p>Requests are kept in lock-striped primitive-keyed maps, and time out through a
+ * single hashed-wheel timer shared by all routers: registering, completing and timing
+ * out a request are all O(1), and no task is scheduled on an executor per request.
+ */
+@Slf4j
+public class OutstandingRequests {
+
+    /**
+     * Number of stripes, a power of two. Request IDs are assigned sequentially,
+     * so concurrent requests are spread across the stripes.
+     */
+    private static final int NUM_STRIPES = 64;
+
+    /**
+     * Tick duration of the timeout wheel, i.e. the precision of request timeouts.
+     */
+    private static final long TICK_DURATION_MS = 10;
+
+    private static final int TICKS_PER_WHEEL = 512;
+
+    private static final HashedWheelTimer TIMEOUT_TIMER = new HashedWheelTimer(
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("request-timeout-%d")
+                    .build(),
+            TICK_DURATION_MS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+
+    @RequiredArgsConstructor
+    private static final class Request {
+        final CompletableFuture future;
+        final Object owner;
+        final Timer.Context timerContext;
+        volatile Timeout timeout;
+    }
+
+    private final LongObjectHashMap<Request>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public OutstandingRequests() {
+        stripes = new LongObjectHashMap[NUM_STRIPES];
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            stripes[i] = new LongObjectHashMap<>();
+        }
+    }
+
+    private LongObjectHashMap<Request> getStripe(long requestId) {
+        return stripes[(int) (requestId & (NUM_STRIPES - 1))];
+    }
+
+    /**
+     * Register a request, which times out unless it is completed within the given timeout.
+     *
+     * @param requestId    The ID of the request.
+     * @param future       The future to complete with the response.
+     * @param owner        The channel (or other owner) the request was sent on.
+     * @param timerContext An optional round trip timer, stopped once the response arrives.
+     * @param timeoutMs    The request timeout, in milliseconds.
+     */
+    public void add(long requestId, @Nonnull CompletableFuture<?> future, @Nullable Object owner,
+                    @Nullable Timer.Context timerContext, long timeoutMs) {
+        final Request request = new Request(future, owner, timerContext);
+        final LongObjectHashMap<Request> stripe = getStripe(requestId);
+        synchronized (stripe) {
+            stripe.put(requestId, request);
+        }
+
+        request.timeout = TIMEOUT_TIMER.newTimeout(t -> {
+            if (remove(requestId, request)) {
+                log.debug("OutstandingRequests: Remove request {} due to timeout!", requestId);
+                future.completeExceptionally(new TimeoutException());
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Remove the given request, if it is still outstanding.
+     */
+    private boolean remove(long requestId, @Nonnull Request request) {
+        final LongObjectHashMap<Request> stripe = getStripe(requestId);
+        synchronized (stripe) {
+            if (stripe.get(requestId) != request) {
+                return false;
+            }
+            stripe.remove(requestId);
+            return true;
+        }
+    }
+
+    /**
+     * Remove a request and cancel its timeout.
+     *
+     * @param requestId The ID of the request.
+     * @return The request, or null if it is not outstanding.
+     */
+    @Nullable
+    private Request remove(long requestId) {
+        final LongObjectHashMap<Request> stripe = getStripe(requestId);
+        final Request request;
+        synchronized (stripe) {
+            request = stripe.remove(requestId);
+        }
+
+        if (request != null && request.timeout != null) {
+            request.timeout.cancel();
+        }
+        return request;
+    }
+
+    /**
+     * Complete an outstanding request with the given value.
+     *
+     * @param requestId  The ID of the request.
+     * @param completion The value to complete the request with.
+     * @return True, if the request was outstanding.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean complete(long requestId, Object completion) {
+        final Request request = remove(requestId);
+        if (request == null) {
+            return false;
+        }
+        MetricsUtils.stopConditionalContext(request.timerContext);
+        request.future.complete(completion);
+        return true;
+    }
+
+    /**
+     * Exceptionally complete an outstanding request with the given cause.
+     *
+     * @param requestId The ID of the request.
+     * @param cause     The cause of the failure.
+     * @return True, if the request was outstanding.
+     */
+    public boolean completeExceptionally(long requestId, @Nonnull Throwable cause) {
+        final Request request = remove(requestId);
+        if (request == null) {
+            return false;
+        }
+        request.future.completeExceptionally(cause);
+        return true;
+    }
+
+    /**
+     * Exceptionally complete all the outstanding requests of the given owner.
+     *
+     * @param owner The channel (or other owner) the requests were sent on.
+     * @param cause The cause of the failure.
+     */
+    public void completeAllExceptionally(@Nullable Object owner, @Nonnull Throwable cause) {
+        for (LongObjectHashMap<Request> stripe : stripes) {
+            final List<Request> failed = new ArrayList<>();
+            synchronized (stripe) {
+                Iterator<Request> iterator = stripe.values().iterator();
+                while (iterator.hasNext()) {
+                    Request request = iterator.next();
+                    if (request.owner == owner) {
+                        failed.add(request);
+                        iterator.remove();
+                    }
+                }
+            }
+
+            failed.forEach(request -> {
+                if (request.timeout != null) {
+                    request.timeout.cancel();
+                }
+                request.future.completeExceptionally(cause);
+            });
+        }
+    }
+
+    /**
+     * Get the number of outstanding requests.
+     *
+     * @return The number of outstanding requests.
+     */
+    public int size() {
+        int size = 0;
+        for (LongObjectHashMap<Request> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+}
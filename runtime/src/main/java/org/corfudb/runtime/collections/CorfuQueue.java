@@ -3,19 +3,22 @@ package org.corfudb.runtime.collections;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Range;
 import com.google.common.reflect.TypeToken;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 import io.netty.buffer.ByteBuf;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -25,6 +28,7 @@ import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.Queue.CorfuQueueIdMsg;
 import org.corfudb.runtime.object.transactions.TransactionalContext;
 import org.corfudb.runtime.object.transactions.TransactionalContext.PreCommitListener;
+import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.CorfuGuidGenerator;
 import org.corfudb.util.serializer.ICorfuHashable;
 import org.corfudb.util.serializer.ISerializer;
@@ -41,6 +45,10 @@ import org.corfudb.util.serializer.Serializers;
  * Entries cannot be modified in-place (or will lose ordering) but can be removed from anywhere
  * from the persisted queue.
  *
+ * The ids are additionally kept in an ordered secondary index, so that consumers can
+ * <b>peek()</b>, <b>poll()</b> or page through the queue (using the last seen id as a cursor)
+ * in time proportional to the number of entries returned, rather than to the size of the queue.
+ *
  * Created by hisundar on 5/8/19.
  *
  */
@@ -51,6 +59,12 @@ public class CorfuQueue {
      */
     private final CorfuTable<CorfuRecordId, ByteString> corfuTable;
     private final CorfuGuidGenerator guidGenerator;
+    private final CorfuRuntime runtime;
+
+    /**
+     * Name of the ordered index over the ids of the committed entries.
+     */
+    private static final Index.Name BY_RECORD_ID = () -> "BY_RECORD_ID";
 
     @VisibleForTesting
     CorfuQueue(CorfuRuntime runtime, String streamName, ISerializer serializer) {
@@ -59,10 +73,11 @@ public class CorfuQueue {
         corfuTable = runtime.getObjectsView().build()
                 .setTypeToken(new TypeToken<CorfuTable<CorfuRecordId, ByteString>>() {})
                 .setStreamName(streamName)
-                .setArguments(Index.Registry.empty(), mapSupplier)
+                .setArguments(new RecordIdIndexer(), mapSupplier)
                 .setSerializer(serializer)
                 .open();
         guidGenerator = CorfuGuidGenerator.getInstance(runtime);
+        this.runtime = runtime;
     }
 
     public CorfuQueue(CorfuRuntime runtime, String streamName) {
@@ -91,6 +106,11 @@ public class CorfuQueue {
         @Getter
         private long entryId;
 
+        /**
+         * The transaction sequence of an entry whose enqueue has not yet committed.
+         */
+        static final long UNCOMMITTED_TX_SEQUENCE = Address.NON_ADDRESS;
+
         public CorfuRecordId(long txSequence, long entryId) {
             this.txSequence = txSequence;
             this.entryId = entryId;
@@ -152,9 +172,8 @@ public class CorfuQueue {
          */
         @Override
         public int compareTo(CorfuRecordId o) {
-            return Comparator.comparing(CorfuRecordId::getTxSequence)
-                    .thenComparing(CorfuRecordId::getEntryId)
-                    .compare(this, o);
+            final int bySequence = Long.compare(txSequence, o.getTxSequence());
+            return bySequence != 0 ? bySequence : Long.compare(entryId, o.getEntryId());
         }
 
         public String toString() {
@@ -210,7 +229,8 @@ public class CorfuQueue {
     public CorfuRecordId enqueue(ByteString e) {
         checkState(TransactionalContext.isInTransaction(), "must be called within a transaction!");
 
-        final CorfuRecordId id = new CorfuRecordId(0, guidGenerator.nextLong());
+        final CorfuRecordId id = new CorfuRecordId(CorfuRecordId.UNCOMMITTED_TX_SEQUENCE,
+                guidGenerator.nextLong());
 
         /**
          * This is a callback that is placed into the root transaction's context on
@@ -290,9 +310,60 @@ public class CorfuQueue {
         }
     }
 
+    /**
+     * The ids of the entries are mutated in place once their transaction obtains its commit
+     * address (see {@link #enqueue(ByteString)}), so the index is only built over a copy of
+     * the ids of committed entries. Entries whose enqueue is still in flight (i.e. optimistic
+     * writes of the current transaction) are not indexed.
+     */
+    private static class RecordIdIndexer implements Index.Registry<CorfuRecordId, ByteString> {
+
+        private static final Index.Spec<CorfuRecordId, ByteString, CorfuRecordId> BY_RECORD_ID_INDEX =
+                new Index.Spec<>(BY_RECORD_ID,
+                        (Index.Function<CorfuRecordId, ByteString, CorfuRecordId>) (id, entry) ->
+                                id.getTxSequence() == CorfuRecordId.UNCOMMITTED_TX_SEQUENCE
+                                        ? null : new CorfuRecordId(id.getTxSequence(), id.getEntryId()),
+                        Index.Type.ORDERED);
+
+        @Override
+        public Iterator<Index.Spec<CorfuRecordId, ByteString, ? extends Comparable<?>>> iterator() {
+            return Collections.<Index.Spec<CorfuRecordId, ByteString, ? extends Comparable<?>>>
+                    singletonList(BY_RECORD_ID_INDEX).iterator();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <I extends Comparable<?>> Optional<Index.Spec<CorfuRecordId, ByteString, I>> get(Index.Name name) {
+            if (name != null && BY_RECORD_ID.get().equals(name.get())) {
+                return Optional.of((Index.Spec<CorfuRecordId, ByteString, I>) (Index.Spec) BY_RECORD_ID_INDEX);
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns up to maxEntries CorfuQueueRecords within the given range of ids, sorted by the
+     * order in which the enqueue materialized.
+     */
+    private List<CorfuQueueRecord> entryList(Range<CorfuRecordId> range, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("entryList can't take zero or negative maxEntries");
+        }
+        log.trace("entryList: {} entries in {}", maxEntries, range);
+
+        List<Map.Entry<CorfuRecordId, ByteString>> entries =
+                corfuTable.getByIndexRange(BY_RECORD_ID, range, false, maxEntries);
+        List<CorfuQueueRecord> copy = new ArrayList<>(entries.size());
+        for (Map.Entry<CorfuRecordId, ByteString> entry : entries) {
+            copy.add(new CorfuQueueRecord(entry.getKey(), entry.getValue()));
+        }
+        return copy;
+    }
+
     /**
      * Returns a List of CorfuQueueRecords sorted by the order in which the enqueue materialized.
      * This is the primary method of consumption of entries enqueued into CorfuQueue.
+     * The id of the last record returned can be used as a cursor to fetch the next batch.
      *
      * <p>This function currently does not return a view like the java.util implementation,
      * and changes to the entryList will *not* be reflected in the map. </p>
@@ -303,30 +374,14 @@ public class CorfuQueue {
      * @return List of Entries sorted by their enqueue order
      */
     public List<CorfuQueueRecord> entryList(CorfuRecordId entriesAfter, int maxEntries) {
-        if (maxEntries <= 0) {
-            throw new IllegalArgumentException("entryList can't take zero or negative maxEntries");
-        }
-        log.trace("entryList: "+maxEntries+" entries after:"+entriesAfter);
-
-        List<CorfuQueueRecord> copy = new ArrayList<>(
-                Math.min(corfuTable.size(), maxEntries)
-        );
-
-        Comparator<Map.Entry<CorfuRecordId, ByteString>> recordIdComparator = Comparator.comparing(Map.Entry::getKey);
-        for (Map.Entry<CorfuRecordId, ByteString> entry : corfuTable.entryStream()
-                .filter(e -> e.getKey().compareTo(entriesAfter) > 0)
-                .limit(maxEntries)
-                .sorted(recordIdComparator).collect(Collectors.toList())) {
-            copy.add(new CorfuQueueRecord(entry.getKey(), entry.getValue()));
-        }
-        return copy;
+        return entryList(Range.greaterThan(entriesAfter), maxEntries);
     }
 
     /**
      * @return all the entries in the Queue
      */
     public List<CorfuQueueRecord> entryList() {
-        return this.entryList(new CorfuRecordId(0,0), Integer.MAX_VALUE);
+        return this.entryList(Range.all(), Integer.MAX_VALUE);
     }
 
     /**
@@ -334,7 +389,36 @@ public class CorfuQueue {
      * @return all the entries in the Queue
      */
     public List<CorfuQueueRecord> entryList(int maxEntries) {
-        return this.entryList(new CorfuRecordId(0, 0), maxEntries);
+        return this.entryList(Range.all(), maxEntries);
+    }
+
+    /**
+     * Returns (without removing) the first maxEntries entries at the head of the Queue.
+     *
+     * @param maxEntries limit number of entries returned to this.
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     * @return List of Entries sorted by their enqueue order
+     */
+    public List<CorfuQueueRecord> peek(int maxEntries) {
+        return this.entryList(Range.all(), maxEntries);
+    }
+
+    /**
+     * Removes and returns the first maxEntries entries at the head of the Queue.
+     * If not invoked within a transaction, the read and the removal are done in a transaction
+     * of their own, so concurrent consumers never both receive the same entry: one of them
+     * fails with a {@link org.corfudb.runtime.exceptions.TransactionAbortedException}.
+     *
+     * @param maxEntries limit number of entries removed to this.
+     * @throws IllegalArgumentException if maxEntries is not positive.
+     * @return List of removed Entries sorted by their enqueue order
+     */
+    public List<CorfuQueueRecord> poll(int maxEntries) {
+        return executeInTxn(() -> {
+            List<CorfuQueueRecord> records = peek(maxEntries);
+            records.forEach(record -> corfuTable.delete(record.getRecordId()));
+            return records;
+        });
     }
 
     public boolean isEmpty() {
@@ -363,6 +447,44 @@ public class CorfuQueue {
         return corfuTable.remove(entryId);
     }
 
+    /**
+     * Removes (acknowledges) all the given entries in a single transaction, or as part of
+     * the current transaction if there is one.
+     *
+     * @param entryIds ids of the entries to remove, as returned by enqueue() or entryList().
+     */
+    public void removeEntries(Collection<CorfuRecordId> entryIds) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+
+        executeInTxn(() -> {
+            entryIds.forEach(corfuTable::delete);
+            return null;
+        });
+    }
+
+    /**
+     * Run the given operation within the current transaction, or within a new one
+     * if the caller is not in a transaction.
+     */
+    private <R> R executeInTxn(Supplier<R> operation) {
+        if (TransactionalContext.isInTransaction()) {
+            return operation.get();
+        }
+
+        runtime.getObjectsView().TXBegin();
+        try {
+            R result = operation.get();
+            runtime.getObjectsView().TXEnd();
+            return result;
+        } finally {
+            if (TransactionalContext.isInTransaction()) { // Transaction failed or an exception occurred.
+                runtime.getObjectsView().TXAbort();
+            }
+        }
+    }
+
     /**
      * Remove all entries from the Queue.
      */
@@ -1,8 +1,10 @@
 package org.corfudb.runtime.collections;
 
+import com.google.common.collect.BoundType;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Range;
 import com.google.common.reflect.TypeToken;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.annotations.Accessor;
@@ -13,12 +15,14 @@ import org.corfudb.annotations.Mutator;
 import org.corfudb.annotations.MutatorAccessor;
 import org.corfudb.annotations.PassThrough;
 import org.corfudb.annotations.TransactionalMethod;
+import org.corfudb.runtime.object.ICorfuDurableObject;
 import org.corfudb.runtime.object.ICorfuExecutionContext;
 import org.corfudb.runtime.object.ICorfuSMR;
 import org.corfudb.runtime.object.ICorfuVersionPolicy;
 import org.corfudb.util.ImmutableListSetWrapper;
 
 import javax.annotation.Nonnull;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -27,8 +31,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.BiConsumer;
@@ -59,7 +66,7 @@ import java.util.stream.Stream;
 @Slf4j
 @CorfuObject
 public class CorfuTable<K, V> implements
-        ICorfuTable<K, V>, ICorfuSMR<CorfuTable<K, V>> {
+        ICorfuTable<K, V>, ICorfuSMR<CorfuTable<K, V>>, ICorfuDurableObject {
 
     // Accessor/Mutator threads can interleave in a way that create a deadlock because they can create a
     // circular dependency between the VersionLockedObject(VLO) lock and the common forkjoin thread pool. In order
@@ -111,7 +118,8 @@ public class CorfuTable<K, V> implements
                 this.secondaryIndexes, null);
 
         indices.forEach(index -> {
-            secondaryIndexes.put(index.getName().get(), new HashMap<>());
+            secondaryIndexes.put(index.getName().get(),
+                    index.isOrdered() ? new ConcurrentSkipListMap<>() : new HashMap<>());
             indexSpec.add(index);
         });
 
@@ -120,6 +128,14 @@ public class CorfuTable<K, V> implements
                 "CorfuTable: creating CorfuTable with the following indexes: {}",
                 secondaryIndexes.keySet()
             );
+
+            // A durable main map can come up already populated (resumed from local
+            // storage), in which case the secondary indexes have to be rebuilt from it.
+            if (!mainMap.isEmpty()) {
+                try (Stream<Entry<K, V>> entries = mainMap.entryStream()) {
+                    entries.forEach(entry -> mapSecondaryIndexes(entry.getKey(), entry.getValue()));
+                }
+            }
         }
     }
 
@@ -237,7 +253,9 @@ public class CorfuTable<K, V> implements
         if (secondaryIndexes.containsKey(secondaryIndex) &&
                 ((secondaryMap = secondaryIndexes.get(secondaryIndex)) != null)) {
             // If secondary index exists and function for this index is not null
-            Map<K, V> res = secondaryMap.get(indexKey);
+            // (ordered indexes do not hold null index values).
+            Map<K, V> res = indexKey == null && secondaryMap instanceof NavigableMap
+                    ? null : secondaryMap.get(indexKey);
 
             return res == null ?
                     Collections.emptySet() :
@@ -249,6 +267,88 @@ public class CorfuTable<K, V> implements
         throw new IllegalArgumentException("Secondary Index " + secondaryIndex + " is not defined.");
     }
 
+    /**
+     * Get the mappings whose index values fall within the given range, using the
+     * specified {@link Index.Type#ORDERED} index. Mappings are returned in the order
+     * of their index values (mappings sharing an index value are in no particular order).
+     *
+     * @param indexName  Name of the the ordered secondary index to query.
+     * @param range      The range of index values to look up.
+     * @param descending If true, return mappings in descending order of index value.
+     * @param limit      The maximum number of mappings to return.
+     * @return A list of Map.Entry<K, V>
+     */
+    @Accessor
+    public @Nonnull
+    <I extends Comparable<I>>
+    List<Entry<K, V>> getByIndexRange(@Nonnull Index.Name indexName,
+                                      @Nonnull Range<I> range,
+                                      boolean descending,
+                                      int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive, got " + limit);
+        }
+
+        String secondaryIndex = indexName.get();
+        Map<Comparable, Map<K, V>> secondaryMap = secondaryIndexes.get(secondaryIndex);
+        if (secondaryMap == null) {
+            log.error("CorfuTable: secondary index " + secondaryIndex + " does not exist for this table, cannot complete the get by index range.");
+            throw new IllegalArgumentException("Secondary Index " + secondaryIndex + " is not defined.");
+        }
+
+        if (!(secondaryMap instanceof NavigableMap)) {
+            throw new IllegalArgumentException("Secondary Index " + secondaryIndex + " is not ordered.");
+        }
+
+        NavigableMap<Comparable, Map<K, V>> slots =
+                subMap((NavigableMap<Comparable, Map<K, V>>) secondaryMap, range);
+        if (descending) {
+            slots = slots.descendingMap();
+        }
+
+        List<Entry<K, V>> result = new ArrayList<>();
+        for (Map<K, V> slot : slots.values()) {
+            for (Entry<K, V> entry : slot.entrySet()) {
+                if (result.size() == limit) {
+                    return result;
+                }
+                result.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get all the mappings whose index values fall within the given range, in ascending
+     * order of index value.
+     *
+     * @see #getByIndexRange(Index.Name, Range, boolean, int)
+     */
+    @Accessor
+    public @Nonnull
+    <I extends Comparable<I>>
+    List<Entry<K, V>> getByIndexRange(@Nonnull Index.Name indexName,
+                                      @Nonnull Range<I> range) {
+        return getByIndexRange(indexName, range, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Restrict an ordered index to the given range.
+     */
+    private static <K, V> NavigableMap<Comparable, Map<K, V>> subMap(
+            NavigableMap<Comparable, Map<K, V>> index, Range<?> range) {
+        if (range.hasLowerBound() && range.hasUpperBound()) {
+            return index.subMap(range.lowerEndpoint(), range.lowerBoundType() == BoundType.CLOSED,
+                    range.upperEndpoint(), range.upperBoundType() == BoundType.CLOSED);
+        } else if (range.hasLowerBound()) {
+            return index.tailMap(range.lowerEndpoint(), range.lowerBoundType() == BoundType.CLOSED);
+        } else if (range.hasUpperBound()) {
+            return index.headMap(range.upperEndpoint(), range.upperBoundType() == BoundType.CLOSED);
+        }
+        return index;
+    }
+
     /**
      * Scan and filter using the specified index function and projection.
      *
@@ -270,7 +370,8 @@ public class CorfuTable<K, V> implements
 
         if (secondaryIndexes.containsKey(secondaryIndex) &&
                 ((secondaryMap = secondaryIndexes.get(secondaryIndex)) != null)) {
-            if (secondaryMap.get(indexKey) == null) {
+            if ((indexKey == null && secondaryMap instanceof NavigableMap)
+                    || secondaryMap.get(indexKey) == null) {
                 entryStream = Stream.empty();
             } else {
                 entryStream = secondaryMap.get(indexKey).entrySet().stream();
@@ -650,9 +751,16 @@ public class CorfuTable<K, V> implements
                 String indexName = index.getName().get();
                 Map<Comparable, Map<K, V>> secondaryIndex = secondaryIndexes.get(indexName);
                 for (Comparable indexKey : index.getMultiValueIndexFunction().apply(key, value)) {
+                    if (indexKey == null && index.isOrdered()) {
+                        continue;
+                    }
                     Map<K, V> slot = secondaryIndex.get(indexKey);
                     if (slot != null) {
                         slot.remove(key, value);
+                        // Empty slots would otherwise be visited by every range query.
+                        if (slot.isEmpty() && index.isOrdered()) {
+                            secondaryIndex.remove(indexKey);
+                        }
                     }
                 }
             }
@@ -688,6 +796,9 @@ public class CorfuTable<K, V> implements
                 String indexName = index.getName().get();
                 Map<Comparable, Map<K, V>> secondaryIndex = secondaryIndexes.get(indexName);
                 for (Comparable indexKey : index.getMultiValueIndexFunction().apply(key, value)) {
+                    if (indexKey == null && index.isOrdered()) {
+                        continue;
+                    }
                     Map<K, V> slot = secondaryIndex.computeIfAbsent(indexKey, k -> new HashMap<>());
                     slot.put(key, value);
                 }
@@ -735,6 +846,48 @@ public class CorfuTable<K, V> implements
         return versionPolicy;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @DontInstrument
+    @Override
+    public boolean isDurable() {
+        return mainMap instanceof ICorfuDurableObject && ((ICorfuDurableObject) mainMap).isDurable();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @DontInstrument
+    @Override
+    public long getDurableVersion(UUID streamId) {
+        return isDurable()
+                ? ((ICorfuDurableObject) mainMap).getDurableVersion(streamId)
+                : ICorfuDurableObject.super.getDurableVersion(streamId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @DontInstrument
+    @Override
+    public void setDurableVersion(UUID streamId, long version) {
+        if (isDurable()) {
+            ((ICorfuDurableObject) mainMap).setDurableVersion(streamId, version);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @DontInstrument
+    @Override
+    public void discardDurableState() {
+        if (isDurable()) {
+            ((ICorfuDurableObject) mainMap).discardDurableState();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1,5 +1,7 @@
 package org.corfudb.runtime.collections;
 
+import com.google.common.collect.Range;
+
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Objects;
@@ -34,6 +36,45 @@ public class Index {
             extends BiFunction<K, V, Iterable<I>> {
     }
 
+    /**
+     * The structure backing a secondary index.
+     */
+    public enum Type {
+        /**
+         * Hash based index, which only supports point lookups.
+         */
+        HASH,
+        /**
+         * Index sorted by the natural ordering of the index values, which additionally
+         * supports range, prefix, limit and reverse queries. Null index values are not
+         * indexed.
+         */
+        ORDERED
+    }
+
+    /**
+     * Build the range of all strings that start with the given prefix, to be used
+     * when querying an {@link Type#ORDERED} index on a string value.
+     *
+     * @param prefix the prefix to look up.
+     * @return the range [prefix, next prefix), or all strings if the prefix is empty.
+     */
+    public static Range<String> prefixRange(String prefix) {
+        // Strings compare by their UTF-16 code units, so all the strings sharing this
+        // prefix are smaller than the prefix with its last (non-maximal) unit incremented.
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+
+        if (end == 0) {
+            return prefix.isEmpty() ? Range.all() : Range.atLeast(prefix);
+        }
+
+        final String upperBound = prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+        return Range.closedOpen(prefix, upperBound);
+    }
+
     /**
      * Descriptor of named indexing function entry. The indexing function can
      * be single indexer {@link Function} mapping a value to single
@@ -47,16 +88,25 @@ public class Index {
     public static class Spec<K, V, I extends Comparable<?>> {
         private final Name name;
         private final MultiValueFunction<K, V, I> indexFunction;
+        private final Type type;
 
         public Spec(Name name, Function<K, V, I> indexFunction) {
-            this.name = name;
-            this.indexFunction =
-                    (k, v) -> Collections.singletonList(indexFunction.apply(k, v));
+            this(name, indexFunction, Type.HASH);
+        }
+
+        public Spec(Name name, Function<K, V, I> indexFunction, Type type) {
+            this(name, (MultiValueFunction<K, V, I>)
+                    (k, v) -> Collections.singletonList(indexFunction.apply(k, v)), type);
         }
 
         public Spec(Name name, MultiValueFunction<K, V, I> indexFunction) {
+            this(name, indexFunction, Type.HASH);
+        }
+
+        public Spec(Name name, MultiValueFunction<K, V, I> indexFunction, Type type) {
             this.name = name;
             this.indexFunction = indexFunction;
+            this.type = type;
         }
 
         public Name getName() {
@@ -67,6 +117,14 @@ public class Index {
             return indexFunction;
         }
 
+        public Type getType() {
+            return type;
+        }
+
+        public boolean isOrdered() {
+            return type == Type.ORDERED;
+        }
+
 
         @Override
         public boolean equals(Object o) {
@@ -1,27 +1,43 @@
 package org.corfudb.runtime.collections;
 
+import com.google.common.primitives.Longs;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
+import org.corfudb.runtime.object.ICorfuDurableObject;
+import org.corfudb.runtime.view.Address;
 import org.corfudb.util.serializer.ISerializer;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.CompactionOptionsUniversal;
 import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
 import org.rocksdb.Holder;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -31,11 +47,21 @@ import java.util.stream.StreamSupport;
  * off-heap. The location for the off-heap data is provided by {@link File} dataPath,
  * while the resource policy (memory and storage limits) are defined in {@link Options}.
  *
+ * <p>By default the on-disk data is discarded every time the map is opened. In durable
+ * mode the data is kept, together with the last applied global address and the id of
+ * the stream it was built from, which live in a dedicated column family. Every mutation
+ * writes the data and the map size in a single {@link WriteBatch}, and the version is
+ * recorded after the updates it covers. Mutations are not synced, but the version is:
+ * syncing the write-ahead log also persists every earlier write, and since RocksDB
+ * recovers a prefix of its write-ahead log, a recovered version implies all the updates
+ * it covers, even after a machine crash. Any updates recovered beyond that version are
+ * replayed again from the log on resume, which is harmless as map updates are idempotent.
+ *
  * @param <K> key type
  * @param <V> value type
  */
 @Slf4j
-public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
+public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V>, ICorfuDurableObject {
 
     static {
         RocksDB.loadLibrary();
@@ -72,24 +98,210 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
         return options;
     }
 
+    private static final byte[] METADATA_COLUMN_FAMILY = "corfu_metadata".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] VERSION_KEY = "version".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] STREAM_ID_KEY = "streamId".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SIZE_KEY = "size".getBytes(StandardCharsets.UTF_8);
+
     private final ContextAwareMap<K, V> optimisticMap = new StreamingMapDecorator<>();
     private final AtomicInteger dataSetSize = new AtomicInteger();
     private final CorfuRuntime corfuRuntime;
     private final ISerializer serializer;
     private final RocksDB rocksDb;
 
+    /**
+     * Whether the data survives restarts. The fields below are only used
+     * (non-null) in durable mode.
+     */
+    private final boolean durable;
+    private final DBOptions dbOptions;
+    private final ColumnFamilyOptions dataOptions;
+    private final ColumnFamilyOptions metadataOptions;
+    private final WriteOptions writeOptions;
+    private final WriteOptions syncWriteOptions;
+    private final List<ColumnFamilyHandle> columnFamilyHandles = new ArrayList<>();
+    private final ColumnFamilyHandle metadataHandle;
+    private long durableVersion = Address.NON_ADDRESS;
+    private UUID durableStreamId;
+
     public PersistedStreamingMap(@NonNull Path dataPath,
                                  @NonNull Options options,
                                  @NonNull ISerializer serializer,
                                  @NonNull CorfuRuntime corfuRuntime) {
+        this(dataPath, options, serializer, corfuRuntime, false);
+    }
+
+    /**
+     * Open a disk-backed map.
+     *
+     * @param dataPath     location of the on-disk data
+     * @param options      RocksDB options
+     * @param serializer   serializer for keys and values
+     * @param corfuRuntime runtime used for deserialization
+     * @param durable      if true, keep the on-disk data across restarts (if it is valid),
+     *                     otherwise always start from an empty map
+     */
+    public PersistedStreamingMap(@NonNull Path dataPath,
+                                 @NonNull Options options,
+                                 @NonNull ISerializer serializer,
+                                 @NonNull CorfuRuntime corfuRuntime,
+                                 boolean durable) {
+        final String absolutePath = dataPath.toFile().getAbsolutePath();
+        this.serializer = serializer;
+        this.corfuRuntime = corfuRuntime;
+        this.durable = durable;
+
+        if (!durable) {
+            this.dbOptions = null;
+            this.dataOptions = null;
+            this.metadataOptions = null;
+            this.writeOptions = null;
+            this.syncWriteOptions = null;
+            this.metadataHandle = null;
+            try {
+                RocksDB.destroyDB(absolutePath, options);
+                this.rocksDb = RocksDB.open(options, absolutePath);
+            } catch (RocksDBException e) {
+                throw new UnrecoverableCorfuError(e);
+            }
+            return;
+        }
+
+        this.dbOptions = new DBOptions(options).setCreateMissingColumnFamilies(true);
+        this.dataOptions = new ColumnFamilyOptions(options);
+        this.metadataOptions = new ColumnFamilyOptions();
+        this.writeOptions = new WriteOptions();
+        this.syncWriteOptions = new WriteOptions().setSync(true);
         try {
-            RocksDB.destroyDB(dataPath.toFile().getAbsolutePath(), options);
-            this.rocksDb = RocksDB.open(options, dataPath.toFile().getAbsolutePath());
+            RocksDB db = openDurable(absolutePath);
+            final byte[] version = db.get(columnFamilyHandles.get(1), VERSION_KEY);
+            if (version == null) {
+                // No committed state: either a new table, a run that crashed before its
+                // first commit, or state that has been discarded. Start from scratch.
+                log.info("PersistedStreamingMap: no durable state found at {}.", absolutePath);
+                closeHandles(db);
+                RocksDB.destroyDB(absolutePath, options);
+                db = openDurable(absolutePath);
+            } else {
+                final byte[] streamId = db.get(columnFamilyHandles.get(1), STREAM_ID_KEY);
+                final byte[] size = db.get(columnFamilyHandles.get(1), SIZE_KEY);
+                this.durableVersion = Longs.fromByteArray(version);
+                this.durableStreamId = streamId == null ? null : fromBytes(streamId);
+                this.dataSetSize.set(size == null ? 0 : (int) Longs.fromByteArray(size));
+                log.info("PersistedStreamingMap: found durable state at {} for stream {} " +
+                                "at version {} with {} entries.", absolutePath, durableStreamId,
+                        durableVersion, dataSetSize.get());
+            }
+            this.rocksDb = db;
+            this.metadataHandle = columnFamilyHandles.get(1);
         } catch (RocksDBException e) {
             throw new UnrecoverableCorfuError(e);
         }
-        this.serializer = serializer;
-        this.corfuRuntime = corfuRuntime;
+    }
+
+    /**
+     * Open the database with the default (data) and the metadata column families.
+     */
+    private RocksDB openDurable(String absolutePath) throws RocksDBException {
+        final List<ColumnFamilyDescriptor> descriptors = Arrays.asList(
+                new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, dataOptions),
+                new ColumnFamilyDescriptor(METADATA_COLUMN_FAMILY, metadataOptions));
+        columnFamilyHandles.clear();
+        return RocksDB.open(dbOptions, absolutePath, descriptors, columnFamilyHandles);
+    }
+
+    private void closeHandles(RocksDB db) {
+        columnFamilyHandles.forEach(ColumnFamilyHandle::close);
+        columnFamilyHandles.clear();
+        db.close();
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(Long.BYTES * 2)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    private static UUID fromBytes(byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Exact existence check (unlike {@link RocksDB#keyMayExist}), required to
+     * keep the durable size consistent with the data.
+     */
+    private boolean keyExists(ByteBuf keyPayload) throws RocksDBException {
+        return rocksDb.keyMayExist(keyPayload.array(),
+                keyPayload.arrayOffset(), keyPayload.readableBytes(), new Holder<>())
+                && rocksDb.get(keyPayload.array(),
+                keyPayload.arrayOffset(), keyPayload.readableBytes()) != null;
+    }
+
+    /**
+     * Apply a (durable mode) mutation along with the resulting size of the map.
+     */
+    private void writeDurable(WriteBatch batch, int size) throws RocksDBException {
+        batch.put(metadataHandle, SIZE_KEY, Longs.toByteArray(size));
+        rocksDb.write(writeOptions, batch);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isDurable() {
+        return durable;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDurableVersion(@NonNull UUID streamId) {
+        if (!durable || !streamId.equals(durableStreamId)) {
+            return Address.NON_ADDRESS;
+        }
+        return durableVersion;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDurableVersion(@NonNull UUID streamId, long version) {
+        if (!durable || (version == durableVersion && streamId.equals(durableStreamId))) {
+            return;
+        }
+
+        try (WriteBatch batch = new WriteBatch()) {
+            batch.put(metadataHandle, VERSION_KEY, Longs.toByteArray(version));
+            batch.put(metadataHandle, STREAM_ID_KEY, toBytes(streamId));
+            rocksDb.write(syncWriteOptions, batch);
+        } catch (RocksDBException ex) {
+            throw new UnrecoverableCorfuError(ex);
+        }
+        durableVersion = version;
+        durableStreamId = streamId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void discardDurableState() {
+        if (!durable) {
+            return;
+        }
+
+        try {
+            rocksDb.delete(metadataHandle, syncWriteOptions, VERSION_KEY);
+        } catch (RocksDBException ex) {
+            throw new UnrecoverableCorfuError(ex);
+        }
+        durableVersion = Address.NON_ADDRESS;
+        durableStreamId = null;
     }
 
     /**
@@ -168,15 +380,25 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
         serializer.serialize(key, keyPayload);
         serializer.serialize(value, valuePayload);
 
-        // Only increment the count if the value is not present. In other words,
-        // increment the count if this is an update operation.
-        final boolean keyExists = rocksDb.keyMayExist(keyPayload.array(),
-                keyPayload.arrayOffset(), keyPayload.readableBytes(), new Holder<>());
-        if (!keyExists) {
-            dataSetSize.incrementAndGet();
-        }
-
         try {
+            if (durable) {
+                final int size = keyExists(keyPayload) ? dataSetSize.get() : dataSetSize.get() + 1;
+                try (WriteBatch batch = new WriteBatch()) {
+                    batch.put(ByteBufUtil.getBytes(keyPayload), ByteBufUtil.getBytes(valuePayload));
+                    writeDurable(batch, size);
+                }
+                dataSetSize.set(size);
+                return value;
+            }
+
+            // Only increment the count if the value is not present. In other words,
+            // increment the count if this is an update operation.
+            final boolean keyExists = rocksDb.keyMayExist(keyPayload.array(),
+                    keyPayload.arrayOffset(), keyPayload.readableBytes(), new Holder<>());
+            if (!keyExists) {
+                dataSetSize.incrementAndGet();
+            }
+
             rocksDb.put(
                     keyPayload.array(), keyPayload.arrayOffset(), keyPayload.readableBytes(),
                     valuePayload.array(), valuePayload.arrayOffset(), valuePayload.readableBytes());
@@ -200,8 +422,15 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
         try {
             V value = get(key);
             if (value != null) {
-                rocksDb.delete(
-                        keyPayload.array(), keyPayload.arrayOffset(), keyPayload.readableBytes());
+                if (durable) {
+                    try (WriteBatch batch = new WriteBatch()) {
+                        batch.delete(ByteBufUtil.getBytes(keyPayload));
+                        writeDurable(batch, dataSetSize.get() - 1);
+                    }
+                } else {
+                    rocksDb.delete(
+                            keyPayload.array(), keyPayload.arrayOffset(), keyPayload.readableBytes());
+                }
                 dataSetSize.decrementAndGet();
                 return value;
             } else {
@@ -291,6 +520,16 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      */
     @Override
     public void close() {
+        if (durable) {
+            columnFamilyHandles.forEach(ColumnFamilyHandle::close);
+        }
         this.rocksDb.close();
+        if (durable) {
+            writeOptions.close();
+            syncWriteOptions.close();
+            dbOptions.close();
+            dataOptions.close();
+            metadataOptions.close();
+        }
     }
 }
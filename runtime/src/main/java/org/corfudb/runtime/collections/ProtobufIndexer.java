@@ -31,22 +31,26 @@ public class ProtobufIndexer implements Index.Registry<Message, CorfuRecord<Mess
     }
 
     private <T extends Comparable<T>> Index.Spec<Message, CorfuRecord<Message, Message>, ? extends Comparable<?>>
-    getIndex(String indexName, FieldDescriptor fieldDescriptor) {
+    getIndex(String indexName, FieldDescriptor fieldDescriptor, Index.Type indexType) {
 
         return new Index.Spec<>(
                 () -> indexName,
                 (Index.Function<Message, CorfuRecord<Message, Message>, T>)
-                        (key, val) -> ClassUtils.cast(val.getPayload().getField(fieldDescriptor)));
+                        (key, val) -> ClassUtils.cast(val.getPayload().getField(fieldDescriptor)),
+                indexType);
     }
 
     void registerIndices(final Descriptors.FieldDescriptor fieldDescriptor) {
 
-        if (fieldDescriptor.getOptions().getExtension(CorfuOptions.schema).getSecondaryKey()) {
+        final CorfuOptions.SchemaOptions schemaOptions =
+                fieldDescriptor.getOptions().getExtension(CorfuOptions.schema);
+        if (schemaOptions.getSecondaryKey()) {
             final String indexName = fieldDescriptor.getName();
             if (fieldDescriptor.getType() == FieldDescriptor.Type.GROUP) {
                 throw new IllegalArgumentException("group is a deprecated, unsupported type");
             }
-            indices.put(indexName, getIndex(indexName, fieldDescriptor));
+            indices.put(indexName, getIndex(indexName, fieldDescriptor,
+                    schemaOptions.getOrderedIndex() ? Index.Type.ORDERED : Index.Type.HASH));
         }
     }
 
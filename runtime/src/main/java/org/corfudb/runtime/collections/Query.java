@@ -2,6 +2,7 @@ package org.corfudb.runtime.collections;
 
 import static org.corfudb.runtime.collections.QueryOptions.DEFAULT_OPTIONS;
 
+import com.google.common.collect.Range;
 import com.google.protobuf.Message;
 
 import java.util.ArrayList;
@@ -211,6 +212,30 @@ public class Query {
         return new QueryResult<>(((Table<K, V, M>) getTable(tableName)).getByIndexAsQueryResult(indexName, indexKey));
     }
 
+    /**
+     * Query a range of an ordered secondary index.
+     *
+     * @param tableName  Table name.
+     * @param indexName  Index name. In case of protobuf-defined secondary index it is the field name.
+     * @param range      Range of index keys to query.
+     * @param descending If true, entries are returned in descending order of index key.
+     * @param limit      Maximum number of entries to return.
+     * @param <K>        Type of Key.
+     * @param <V>        Type of Value.
+     * @param <I>        Type of index/secondary key.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message, I extends Comparable<I>>
+    QueryResult<CorfuStoreEntry<K, V, M>> getByIndexRange(@Nonnull final String tableName,
+                                                          @Nonnull final String indexName,
+                                                          @Nonnull final Range<I> range,
+                                                          final boolean descending,
+                                                          final int limit) {
+        return new QueryResult<>(((Table<K, V, M>) getTable(tableName))
+                .getByIndexRange(indexName, range, descending, limit));
+    }
+
     private static <K extends Message, V extends Message, M extends Message, R>
     Collection<R> initializeResultCollection(QueryOptions<K, V, M, R> queryOptions) {
         if (!queryOptions.isDistinct()) {
@@ -1,22 +1,29 @@
 package org.corfudb.runtime.collections;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.protobuf.Message;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
@@ -30,11 +37,19 @@ import org.corfudb.runtime.view.ObjectsView;
 import org.corfudb.runtime.view.StreamOptions;
 import org.corfudb.runtime.view.TableRegistry;
 import org.corfudb.runtime.view.stream.IStreamView;
+import org.corfudb.util.CorfuComponent;
 
 /**
- * A simple thread based subscription engine where each subscriber or listener gets
- * a thread which will listen on the tables of interest to it and moves at a rate
- * which is the same as the consumption.
+ * A push based subscription engine. A single reader per runtime tails the transaction
+ * stream and fans out each update to the subscribers (or listeners) interested in it,
+ * through a bounded queue per subscriber. Each subscriber is then notified on a thread
+ * of its own, so it moves at a rate which is the same as its consumption.
+ * <p>
+ * When the queue of a subscriber is full, the subscriber is parked: the reader moves on
+ * without it, and the subscriber catches up on a private view of the transaction stream
+ * before it rejoins the reader. The same goes for a subscriber starting behind the reader,
+ * or the subscribers of a reader which failed. This bounds the memory held on behalf of slow
+ * subscribers, without holding back the other ones.
  * <p>
  * Created by hisundar on 04/28/2020.
  */
@@ -43,20 +58,23 @@ public class StreamManager {
 
     private static final int DEFAULT_NUM_SUBSCRIBERS = 6; // Max number of threads.
     private static final int MAX_SUBSCRIBERS = 32; // Arbitrary sanity check value.
-    private static final int DEFAULT_SLEEP_MILLIS = 50; // Default time to sleep
+    private static final int MIN_POLL_MILLIS = 1; // Time to wait when the reader is busy.
+    private static final int MAX_POLL_MILLIS = 50; // Time to wait when the reader is idle.
+    private static final int MAX_READS_PER_RUN = 256; // Yield the reader thread every so often.
+    private static final int DEFAULT_SUBSCRIBER_QUEUE_SIZE = 256; // Updates buffered per subscriber.
     public static final int DEFAULT_LONG_RUNNING_TIME_SECS = 1; // When to log long running onNext()
     /**
-     * The actual executor thread pool where the subscribers will run.
+     * The actual executor thread pool where the reader and the subscribers will run.
      */
     private final ScheduledExecutorService scheduledExecutorService;
 
     /**
-     * Map of StreamingSubscriptionThreads.
+     * Map of subscriber tasks.
      * <p>
      * This is the map of all streaming subscriptions.
      */
     @Getter
-    private final Map<StreamListener, StreamSubscriber> subscriptions;
+    private final Map<StreamListener, SubscriberTask> subscriptions;
 
     /**
      * Corfu Runtime.
@@ -64,17 +82,32 @@ public class StreamManager {
     @Getter
     private final CorfuRuntime runtime;
 
-    @AllArgsConstructor
-    @Getter
-    private class StreamSubscriber {
-        private final SubscriberTask subscriberTask;
-        private final ScheduledFuture<?> scheduledFuture;
+    /**
+     * Maximum number of updates buffered for each subscriber.
+     */
+    private final int subscriberQueueSize;
+
+    /**
+     * The shared reader of the transaction stream, null if there are no subscribers.
+     */
+    private volatile TransactionStreamReader reader;
+
+    private final MetricRegistry metrics = CorfuRuntime.getDefaultMetrics();
+
+    private final String metricsPrefix;
+
+    public StreamManager(@Nonnull CorfuRuntime runtime, int maxSubscribers, int subscriberQueueSize) {
+        this.runtime = runtime;
+        this.subscriptions = new ConcurrentHashMap<>();
+        // One extra thread for the shared reader.
+        this.scheduledExecutorService = Executors.newScheduledThreadPool(maxSubscribers + 1);
+        this.subscriberQueueSize = subscriberQueueSize;
+        this.metricsPrefix = String.format("%s0x%x.", CorfuComponent.STREAM_MANAGER.toString(),
+                this.hashCode());
     }
 
     public StreamManager(@Nonnull CorfuRuntime runtime, int maxSubscribers) {
-        this.runtime = runtime;
-        this.subscriptions = new HashMap<>();
-        this.scheduledExecutorService = Executors.newScheduledThreadPool(maxSubscribers);
+        this(runtime, maxSubscribers, DEFAULT_SUBSCRIBER_QUEUE_SIZE);
     }
 
     public StreamManager(@Nonnull CorfuRuntime runtime) {
@@ -122,9 +155,47 @@ public class StreamManager {
                 streamListener, startAddress, namespace, tablesOfInterest.toString());
         SubscriberTask task = new SubscriberTask(this,
                 streamListener, namespace, tablesOfInterest, startAddress);
-        final ScheduledFuture<?> scheduledFuture = scheduledExecutorService.scheduleWithFixedDelay(
-                task, 0, DEFAULT_SLEEP_MILLIS, TimeUnit.MILLISECONDS);
-        subscriptions.put(streamListener, new StreamSubscriber(task, scheduledFuture));
+        subscriptions.put(streamListener, task);
+
+        final String pfx = metricsPrefix + streamListener.toString() + ".";
+        // Listeners are only required to be distinct by equals(), so their names may clash.
+        metrics.remove(pfx + "queue-size");
+        metrics.remove(pfx + "lag");
+        metrics.register(pfx + "queue-size", (Gauge<Integer>) task.queue::size);
+        metrics.register(pfx + "lag", (Gauge<Long>) () -> {
+            TransactionStreamReader currentReader = reader;
+            return currentReader == null ? 0L
+                    : Math.max(0L, currentReader.lastReadAddress - task.lastDeliveredAddress.get());
+        });
+
+        join(task);
+    }
+
+    /**
+     * Have the shared reader feed a subscriber, starting the reader if there is none.
+     *
+     * @param task the subscriber, which is parked by the reader if it is behind it.
+     */
+    private synchronized void join(SubscriberTask task) {
+        if (reader == null) {
+            reader = new TransactionStreamReader(task.lastQueuedAddress);
+            scheduledExecutorService.execute(reader);
+        }
+        reader.joining.add(task);
+    }
+
+    /**
+     * Open a view of the transaction stream, so that the next update read is the one after startAddress.
+     */
+    private IStreamView openTransactionStream(long startAddress) {
+        StreamOptions options = StreamOptions.builder()
+                .cacheEntries(false)
+                .build();
+
+        IStreamView txnStream = runtime.getStreamsView()
+                .get(ObjectsView.TRANSACTION_STREAM_ID, options);
+        txnStream.seek(startAddress + 1);
+        return txnStream;
     }
 
     /**
@@ -162,31 +233,168 @@ public class StreamManager {
      * @param streamListener Client listener.
      */
     void unsubscribe(@Nonnull StreamListener streamListener) {
-        StreamSubscriber streamSubscriber = unsubscribeInternal(streamListener);
-        if (streamSubscriber != null) {
-            streamSubscriber.getScheduledFuture().cancel(false);
-        }
+        unsubscribeInternal(streamListener);
     }
 
     /**
      * Internal method that can be safely invoked from the same thread executing the task.
      *
      * @param streamListener client's listener object.
-     * @return - returns the stream subscriber context for lifecycle management.
+     * @return - returns the subscriber task for lifecycle management.
      */
-    private synchronized StreamSubscriber unsubscribeInternal(@Nonnull StreamListener streamListener) {
-        StreamSubscriber subscriber = subscriptions.remove(streamListener);
+    private synchronized SubscriberTask unsubscribeInternal(@Nonnull StreamListener streamListener) {
+        SubscriberTask subscriber = subscriptions.remove(streamListener);
         if (subscriber == null) {
             log.warn("StreamManager::unsubscribe has no context for {}", streamListener.toString());
             return null;
         }
-        // Since we are not force interrupting the thread, set a flag for it to shutdown
-        subscriber.getSubscriberTask().isShutdown.set(true);
+        // Since we are not force interrupting the thread, set a flag for it to shutdown.
+        // The reader drops shutdown subscribers on its next run.
+        subscriber.isShutdown.set(true);
+        subscriber.queue.clear();
+        metrics.removeMatching((name, metric) ->
+                name.startsWith(metricsPrefix + streamListener.toString() + "."));
         log.info("Unsubscribed StreamListener {}", streamListener.toString());
-        runtime.getStreamsView().removeStream(subscriber.getSubscriberTask().txnStream);
         return subscriber;
     }
 
+    /**
+     * The single reader of the transaction stream, which dispatches each update to the queues
+     * of the subscribers interested in it.
+     * <p>
+     * The reader re-schedules itself: immediately while there are updates to read, and after a
+     * short delay (doubling up to {@link #MAX_POLL_MILLIS}) while it is caught up. It never waits
+     * for a subscriber, nor rewinds for one: subscribers which are full or behind are parked.
+     */
+    private class TransactionStreamReader implements Runnable {
+
+        /**
+         * Subscribers that registered (or caught up) since the last run. Guarded by the StreamManager.
+         */
+        private final List<SubscriberTask> joining = new ArrayList<>();
+
+        /**
+         * Subscribers being fed by this reader. Only accessed by the reader itself.
+         */
+        private final List<SubscriberTask> active = new ArrayList<>();
+
+        private final IStreamView txnStream;
+
+        private final Meter parkedSubscribers = metrics.meter(metricsPrefix + "parked-subscribers");
+
+        /**
+         * Address of the last update read from the transaction stream.
+         */
+        private volatile long lastReadAddress;
+
+        private long pollMillis = MIN_POLL_MILLIS;
+
+        TransactionStreamReader(long startAddress) {
+            txnStream = openTransactionStream(startAddress);
+            lastReadAddress = startAddress;
+        }
+
+        @Override
+        public void run() {
+            if (!admitSubscribers()) {
+                return;
+            }
+
+            long delay;
+            try {
+                delay = readAndDispatch();
+            } catch (Throwable throwable) {
+                log.warn("StreamManager::reader failed at {}: {}", lastReadAddress, throwable.toString());
+                stop();
+                return;
+            }
+
+            if (!scheduledExecutorService.isShutdown()) {
+                scheduledExecutorService.schedule(this, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * Add the subscribers which joined since the last run (parking the ones which are behind
+         * the reader), and drop the ones that unsubscribed.
+         *
+         * @return false if there is no subscriber left, in which case the reader stops.
+         */
+        private boolean admitSubscribers() {
+            synchronized (StreamManager.this) {
+                active.removeIf(task -> task.isShutdown.get());
+                joining.removeIf(task -> task.isShutdown.get());
+                if (active.isEmpty() && joining.isEmpty()) {
+                    log.info("StreamManager::reader stopping at {}, no subscribers left", lastReadAddress);
+                    reader = null;
+                    runtime.getStreamsView().removeStream(txnStream);
+                    return false;
+                }
+
+                for (SubscriberTask task : joining) {
+                    if (task.lastQueuedAddress < lastReadAddress) {
+                        // Subscribers which are behind catch up on their own, rather than rewinding the reader.
+                        task.park();
+                    } else {
+                        // Subscribers that are ahead skip the updates they have already seen.
+                        active.add(task);
+                    }
+                }
+                joining.clear();
+                return true;
+            }
+        }
+
+        /**
+         * Read updates until the stream is caught up, or {@link #MAX_READS_PER_RUN} updates
+         * have been dispatched.
+         *
+         * @return the delay until the next run.
+         */
+        private long readAndDispatch() {
+            for (int i = 0; i < MAX_READS_PER_RUN; i++) {
+                ILogData logData = txnStream.nextUpTo(Address.MAX);
+                if (logData == null) {
+                    // Stream is all caught up, back off for a bit.
+                    long delay = pollMillis;
+                    pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+                    return delay;
+                }
+                lastReadAddress = logData.getGlobalAddress();
+
+                Iterator<SubscriberTask> iterator = active.iterator();
+                while (iterator.hasNext()) {
+                    SubscriberTask task = iterator.next();
+                    if (!task.offer(logData)) {
+                        iterator.remove();
+                        parkedSubscribers.mark();
+                        task.park();
+                    }
+                }
+                pollMillis = MIN_POLL_MILLIS;
+            }
+            return 0;
+        }
+
+        /**
+         * Stop the reader after an error, and park its subscribers: each of them catches up on its
+         * own, so that the error only reaches the subscribers which can not read past it.
+         */
+        private void stop() {
+            List<SubscriberTask> parked;
+            synchronized (StreamManager.this) {
+                parked = new ArrayList<>(active);
+                parked.addAll(joining);
+                joining.clear();
+                active.clear();
+                reader = null;
+                runtime.getStreamsView().removeStream(txnStream);
+            }
+
+            parked.forEach(SubscriberTask::park);
+        }
+    }
+
     class SubscriberTask implements Runnable {
         /**
          * The callback context
@@ -218,10 +426,36 @@ public class StreamManager {
                 TableSchema<? extends Message, ? extends Message, ? extends Message>> tablesOfInterest;
 
         /**
-         * A reference to the underlying stream
+         * Updates dispatched by the reader, waiting to be delivered to the listener.
          */
-        @Getter
-        private final IStreamView txnStream;
+        private final BlockingQueue<ILogData> queue;
+
+        /**
+         * Whether this task is scheduled (or running) on the executor.
+         */
+        private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+
+        /**
+         * Address of the last update accepted (queued or filtered out) from the reader, or read
+         * while catching up. Only accessed by the reader while the subscriber is active, and by
+         * the subscriber while it is parked.
+         */
+        private volatile long lastQueuedAddress;
+
+        /**
+         * Whether the subscriber is catching up on its own, rather than being fed by the reader.
+         */
+        private volatile boolean parked = false;
+
+        /**
+         * The private view of the transaction stream of a parked subscriber.
+         */
+        private IStreamView catchUpStream = null;
+
+        /**
+         * Address of the last update delivered to (or filtered out for) the listener.
+         */
+        private final AtomicLong lastDeliveredAddress;
 
         public <K extends Message, V extends Message, M extends Message>
         SubscriberTask(@Nonnull StreamManager streamManager,
@@ -239,62 +473,173 @@ public class StreamManager {
                                     tableSchema.getTableName())
                     ), tableSchema
             ));
+            this.queue = new ArrayBlockingQueue<>(streamManager.subscriberQueueSize);
+            this.lastQueuedAddress = startAddress;
+            this.lastDeliveredAddress = new AtomicLong(startAddress);
+        }
+
+        /**
+         * Offer an update read by the reader to this subscriber.
+         *
+         * @param logData the update read from the transaction stream.
+         * @return false if the update is of interest but the queue is full, true otherwise.
+         */
+        boolean offer(ILogData logData) {
+            final long address = logData.getGlobalAddress();
+            if (address <= lastQueuedAddress || isShutdown.get()) {
+                return true;
+            }
+
+            if (logData.getStreams().stream().noneMatch(tablesOfInterest::containsKey)) {
+                lastQueuedAddress = address;
+                if (queue.isEmpty()) {
+                    lastDeliveredAddress.accumulateAndGet(address, Math::max);
+                }
+                return true;
+            }
 
-            StreamOptions options = StreamOptions.builder()
-                    .cacheEntries(false)
-                    .build();
+            if (!queue.offer(logData)) {
+                return false;
+            }
+            lastQueuedAddress = address;
+            if (isScheduled.compareAndSet(false, true)) {
+                scheduledExecutorService.execute(this);
+            }
+            return true;
+        }
 
-            this.txnStream = runtime.getStreamsView()
-                    .get(ObjectsView.TRANSACTION_STREAM_ID, options);
-            this.txnStream.seek(startAddress + 1);
+        /**
+         * Stop being fed by the reader, and catch up on a private view of the transaction stream.
+         * Called by the reader, once the subscriber is no longer active.
+         */
+        void park() {
+            if (isShutdown.get()) {
+                return;
+            }
+            log.debug("{}::park at {}", listener.toString(), lastQueuedAddress);
+            parked = true;
+            if (isScheduled.compareAndSet(false, true)) {
+                scheduledExecutorService.execute(this);
+            }
         }
 
+        /**
+         * Deliver the queued updates to the listener, followed by the updates read on its own
+         * while it is parked.
+         */
         public void run() {
-            while (!isShutdown.get()) {
-                try {
-                    Thread.currentThread().setName(namespace + listener.toString());
-                    ILogData logData = txnStream.nextUpTo(Address.MAX);
-                    if (logData == null) {
-                        break; // Stream is all caught up, sleep for a bit.
+            Thread.currentThread().setName(namespace + listener.toString());
+            try {
+                for (int i = 0; i < MAX_READS_PER_RUN; i++) {
+                    if (isShutdown.get()) {
+                        closeCatchUpStream();
+                        return;
+                    }
+
+                    ILogData logData = queue.poll();
+                    if (logData == null && parked) {
+                        logData = readBehind();
+                        if (logData == null) {
+                            rejoin();
+                            continue;
+                        }
                     }
-                    MultiObjectSMREntry multiObjSMREntry = (MultiObjectSMREntry) logData.getPayload(runtime);
-                    long epoch = logData.getEpoch();
-                    Map<TableSchema, List<CorfuStreamEntry>> entries = new HashMap<>();
-                    // first only filter by the stream IDs of interest that are present in this logData
-                    logData.getStreams().stream().filter(tablesOfInterest::containsKey)
-                            .forEach(streamId -> entries.put(tablesOfInterest.get(streamId),
-                                    // Only extract the list of updates per stream as a list
-                                    multiObjSMREntry.getSMRUpdates(streamId).stream().map(smrEntry ->
-                                            CorfuStreamEntry.fromSMREntry(smrEntry,
-                                                    epoch,
-                                                    tablesOfInterest.get(streamId).getKeyClass(),
-                                                    tablesOfInterest.get(streamId).getPayloadClass(),
-                                                    tablesOfInterest.get(streamId).getMetadataClass())
-                                    ).collect(Collectors.toList())));
-
-                    if (!entries.isEmpty()) {
-                        CorfuStreamEntries callbackResult = new CorfuStreamEntries(entries);
-                        log.trace("{}::onNext with {} updates", listener.toString(), entries.size());
-                        long onNextStart = System.nanoTime();
-                        listener.onNext(callbackResult);
-                        long onNextEnd = System.nanoTime();
-                        if (TimeUnit.NANOSECONDS.toSeconds(onNextEnd - onNextStart) >=
-                                StreamManager.DEFAULT_LONG_RUNNING_TIME_SECS) {
-                            log.info("{}::onNext took {}s", listener.toString(),
-                                    TimeUnit.NANOSECONDS.toSeconds(onNextEnd - onNextStart));
+
+                    if (logData == null) {
+                        isScheduled.set(false);
+                        // The reader may have queued an update (or parked this subscriber)
+                        // before the flag was cleared.
+                        if ((queue.isEmpty() && !parked) || !isScheduled.compareAndSet(false, true)) {
+                            return;
                         }
+                        continue;
                     }
-                } catch (Throwable throwable) {
-                    log.warn("{}::onError: {}", listener.toString(), throwable.toString());
-                    // Since we want to allow a caller to re-subscribe onError() we must not cancel
-                    // the thread right away. Instead remove the subscription context to allow resubscribe.
-                    StreamSubscriber self = streamManager.unsubscribeInternal(listener);
-                    listener.onError(throwable);
-                    // Finally just cancel this Runnable task.
-                    self.getScheduledFuture().cancel(false);
-                    break;
+
+                    deliver(logData);
+                    lastDeliveredAddress.accumulateAndGet(logData.getGlobalAddress(), Math::max);
+                }
+                // Yield the thread to the other subscribers.
+                scheduledExecutorService.execute(this);
+            } catch (Throwable throwable) {
+                log.warn("{}::onError: {}", listener.toString(), throwable.toString());
+                closeCatchUpStream();
+                // Since we want to allow a caller to re-subscribe onError() we must remove
+                // the subscription context before notifying the listener.
+                streamManager.unsubscribeInternal(listener);
+                listener.onError(throwable);
+            }
+        }
+
+        /**
+         * Read the next update on the private view of the transaction stream.
+         *
+         * @return the update, or null once the subscriber caught up with the reader (or the stream tail).
+         */
+        private ILogData readBehind() {
+            TransactionStreamReader currentReader = reader;
+            if (currentReader != null && lastQueuedAddress >= currentReader.lastReadAddress) {
+                return null;
+            }
+
+            if (catchUpStream == null) {
+                catchUpStream = openTransactionStream(lastQueuedAddress);
+            }
+            ILogData logData = catchUpStream.nextUpTo(Address.MAX);
+            if (logData != null) {
+                lastQueuedAddress = logData.getGlobalAddress();
+            }
+            return logData;
+        }
+
+        /**
+         * Have the reader feed this subscriber again, once it caught up.
+         */
+        private void rejoin() {
+            synchronized (streamManager) {
+                closeCatchUpStream();
+                parked = false;
+                if (!isShutdown.get()) {
+                    log.debug("{}::rejoin at {}", listener.toString(), lastQueuedAddress);
+                    join(this);
+                }
+            }
+        }
+
+        private void closeCatchUpStream() {
+            if (catchUpStream != null) {
+                runtime.getStreamsView().removeStream(catchUpStream);
+                catchUpStream = null;
+            }
+        }
+
+        private void deliver(ILogData logData) {
+            MultiObjectSMREntry multiObjSMREntry = (MultiObjectSMREntry) logData.getPayload(runtime);
+            long epoch = logData.getEpoch();
+            Map<TableSchema, List<CorfuStreamEntry>> entries = new HashMap<>();
+            // first only filter by the stream IDs of interest that are present in this logData
+            logData.getStreams().stream().filter(tablesOfInterest::containsKey)
+                    .forEach(streamId -> entries.put(tablesOfInterest.get(streamId),
+                            // Only extract the list of updates per stream as a list
+                            multiObjSMREntry.getSMRUpdates(streamId).stream().map(smrEntry ->
+                                    CorfuStreamEntry.fromSMREntry(smrEntry,
+                                            epoch,
+                                            tablesOfInterest.get(streamId).getKeyClass(),
+                                            tablesOfInterest.get(streamId).getPayloadClass(),
+                                            tablesOfInterest.get(streamId).getMetadataClass())
+                            ).collect(Collectors.toList())));
+
+            if (!entries.isEmpty()) {
+                CorfuStreamEntries callbackResult = new CorfuStreamEntries(entries);
+                log.trace("{}::onNext with {} updates", listener.toString(), entries.size());
+                long onNextStart = System.nanoTime();
+                listener.onNext(callbackResult);
+                long onNextEnd = System.nanoTime();
+                if (TimeUnit.NANOSECONDS.toSeconds(onNextEnd - onNextStart) >=
+                        StreamManager.DEFAULT_LONG_RUNNING_TIME_SECS) {
+                    log.info("{}::onNext took {}s", listener.toString(),
+                            TimeUnit.NANOSECONDS.toSeconds(onNextEnd - onNextStart));
                 }
-            } // repeat until shutdown
+            }
         }
     }
 }
@@ -1,5 +1,6 @@
 package org.corfudb.runtime.collections;
 
+import com.google.common.collect.Range;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.Message;
 
@@ -381,6 +382,29 @@ public class Table<K extends Message, V extends Message, M extends Message> {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get by a range of an ordered secondary index.
+     *
+     * @param <I>        Type of index key.
+     * @param indexName  Index name.
+     * @param range      Range of index keys.
+     * @param descending Return entries in descending order of index key.
+     * @param limit      Maximum number of entries to return.
+     * @return Entries within the range, ordered by index key.
+     */
+    @Nonnull
+    <I extends Comparable<I>>
+    List<CorfuStoreEntry<K, V, M>> getByIndexRange(@Nonnull final String indexName,
+                                                   @Nonnull final Range<I> range,
+                                                   final boolean descending,
+                                                   final int limit) {
+        return corfuTable.getByIndexRange(() -> indexName, range, descending, limit).stream()
+                .map(entry -> new CorfuStoreEntry<K, V, M>(entry.getKey(),
+                        entry.getValue().getPayload(),
+                        entry.getValue().getMetadata()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Get by secondary index.
      *
@@ -18,7 +18,18 @@ public class TableOptions<K, V> {
      */
     private final Path persistentDataPath;
 
+    /**
+     * If set along with {@link #persistentDataPath}, the on-disk data is kept across
+     * restarts and the table resumes syncing from the last address it had applied,
+     * instead of being rebuilt from the log.
+     */
+    private final boolean durable;
+
     public Optional<Path> getPersistentDataPath() {
         return Optional.ofNullable(persistentDataPath);
     }
+
+    public boolean isDurable() {
+        return durable;
+    }
 }
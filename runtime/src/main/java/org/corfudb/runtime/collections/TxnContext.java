@@ -1,5 +1,6 @@
 package org.corfudb.runtime.collections;
 
+import com.google.common.collect.Range;
 import com.google.protobuf.Message;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -409,6 +410,76 @@ public class TxnContext implements AutoCloseable {
         return this.getByIndex(this.getTable(tableName), indexName, indexKey);
     }
 
+    /**
+     * Query a range of an ordered secondary index (see {@link Index.Type#ORDERED}).
+     * Entries are returned sorted by their index key, which makes time-window,
+     * prefix (see {@link Index#prefixRange(String)}) and top-N queries proportional
+     * to the size of the result rather than the size of the table.
+     *
+     * @param table      Table object.
+     * @param indexName  Index name. In case of protobuf-defined secondary index it is the field name.
+     * @param range      Range of index keys to query.
+     * @param descending If true, entries are returned in descending order of index key.
+     * @param limit      Maximum number of entries to return.
+     * @param <K>        Type of Key.
+     * @param <V>        Type of Value.
+     * @param <I>        Type of index/secondary key.
+     * @return Result of the query.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message, I extends Comparable<I>>
+    List<CorfuStoreEntry<K, V, M>> getByIndexRange(@Nonnull Table<K, V, M> table,
+                                                   @Nonnull final String indexName,
+                                                   @Nonnull final Range<I> range,
+                                                   final boolean descending,
+                                                   final int limit) {
+        applyWritesForReadOnTable(table);
+        table.getMetrics().incNumGetByIndexes();
+        return table.getByIndexRange(indexName, range, descending, limit);
+    }
+
+    /**
+     * Query all the entries within a range of an ordered secondary index, in ascending order.
+     *
+     * @param table     Table object.
+     * @param indexName Index name. In case of protobuf-defined secondary index it is the field name.
+     * @param range     Range of index keys to query.
+     * @param <K>       Type of Key.
+     * @param <V>       Type of Value.
+     * @param <I>       Type of index/secondary key.
+     * @return Result of the query.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message, I extends Comparable<I>>
+    List<CorfuStoreEntry<K, V, M>> getByIndexRange(@Nonnull Table<K, V, M> table,
+                                                   @Nonnull final String indexName,
+                                                   @Nonnull final Range<I> range) {
+        return this.getByIndexRange(table, indexName, range, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Query a range of an ordered secondary index given just the full tableName.
+     *
+     * @param tableName  fullyQualified name of the table.
+     * @param indexName  Index name. In case of protobuf-defined secondary index it is the field name.
+     * @param range      Range of index keys to query.
+     * @param descending If true, entries are returned in descending order of index key.
+     * @param limit      Maximum number of entries to return.
+     * @param <K>        Type of Key.
+     * @param <V>        Type of Value.
+     * @param <I>        Type of index/secondary key.
+     * @return Result of the query.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message, I extends Comparable<I>>
+    List<CorfuStoreEntry<K, V, M>> getByIndexRange(@Nonnull String tableName,
+                                                   @Nonnull final String indexName,
+                                                   @Nonnull final Range<I> range,
+                                                   final boolean descending,
+                                                   final int limit) {
+        return this.getByIndexRange(this.getTable(tableName), indexName, range, descending, limit);
+    }
+
     /**
      * Gets the count of records in the table at a particular timestamp.
      *
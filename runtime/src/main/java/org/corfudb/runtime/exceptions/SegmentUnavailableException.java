@@ -0,0 +1,30 @@
+package org.corfudb.runtime.exceptions;
+
+import lombok.Getter;
+import org.corfudb.runtime.view.Address;
+
+/**
+ * An exception that is thrown by the logunit when a segment file can not be transferred,
+ * either because the segment is not complete, or because the log does not store segment files.
+ */
+public class SegmentUnavailableException extends LogUnitException {
+
+    /**
+     * The segment that can not be transferred, NON_ADDRESS if no segment can be transferred.
+     */
+    @Getter
+    private final long segment;
+
+    public SegmentUnavailableException(long segment) {
+        super(segment == Address.NON_ADDRESS ? "Segment transfer is not supported"
+                : "Segment " + segment + " is not available for transfer");
+        this.segment = segment;
+    }
+
+    /**
+     * Tell if the log unit transfers segment files at all.
+     */
+    public boolean isTransferSupported() {
+        return segment != Address.NON_ADDRESS;
+    }
+}
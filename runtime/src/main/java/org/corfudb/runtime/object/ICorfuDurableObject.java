@@ -0,0 +1,57 @@
+package org.corfudb.runtime.object;
+
+import org.corfudb.runtime.view.Address;
+
+import java.util.UUID;
+
+/**
+ * An object whose materialized state can outlive the runtime that built it
+ * (for example, because it is stored on local disk).
+ *
+ * <p>Such objects record the last global address they have applied, so that a
+ * restarted runtime can resume syncing the object from that address instead of
+ * replaying the whole stream (and its checkpoint) from the log.
+ *
+ * <p>All methods are invoked by the {@link VersionLockedObject} under its write lock.
+ */
+public interface ICorfuDurableObject {
+
+    /**
+     * Whether this instance actually keeps its state across restarts.
+     *
+     * @return True, if the state is durable. False otherwise.
+     */
+    default boolean isDurable() {
+        return false;
+    }
+
+    /**
+     * Get the address of the last update (of the given stream) that is reflected
+     * in the durable state of this object.
+     *
+     * @param streamId The stream backing this object.
+     * @return The last applied address, or {@link Address#NON_ADDRESS} if there is
+     *         no durable state that can be resumed for this stream.
+     */
+    default long getDurableVersion(UUID streamId) {
+        return Address.NON_ADDRESS;
+    }
+
+    /**
+     * Durably record that all updates up to and including the given address have
+     * been applied to this object. Once this method returns, a subsequent restart
+     * is guaranteed to observe (at least) all of these updates.
+     *
+     * @param streamId The stream backing this object.
+     * @param version  The last applied address.
+     */
+    default void setDurableVersion(UUID streamId, long version) {
+    }
+
+    /**
+     * Invalidate the durable state, as it can no longer be resumed from
+     * (i.e. the object is about to be rebuilt from scratch).
+     */
+    default void discardDurableState() {
+    }
+}
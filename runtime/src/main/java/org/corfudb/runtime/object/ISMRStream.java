@@ -36,6 +36,16 @@ public interface ISMRStream {
 
     void seek(long globalAddress);
 
+    /**
+     * Seek to the given address, assuming all updates prior to it have
+     * already been applied by the consumer.
+     *
+     * @param globalAddress The address to resume from (inclusive).
+     */
+    default void resume(long globalAddress) {
+        seek(globalAddress);
+    }
+
     void gc(long trimMark);
 
     Stream<SMREntry> stream();
@@ -10,12 +10,22 @@ import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.stream.IStreamView;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * StreamViewSMRAdapter wraps a stream and implements the ISMRStream API over
@@ -27,11 +37,26 @@ import java.util.stream.Stream;
  * ISMRConsumable (otherwise, again return null).  Since the underlying log supports multi-stream
  * entries, it collects and returns the SMREntries related to the current stream.
  *
+ * <p>When streaming updates (i.e. syncing an object), entries are read a few at a time
+ * ahead of the consumer, and their payloads are deserialized in parallel on a shared
+ * fork-join pool, while the consumer applies the earlier ones in order.
+ *
  * <p>Created by mwei on 3/10/17.
  */
 @SuppressWarnings("checkstyle:abbreviation")
 public class StreamViewSMRAdapter implements ISMRStream {
 
+    /**
+     * Pool on which stream entries are deserialized ahead of being applied.
+     */
+    private static final ForkJoinPool decodePool = new ForkJoinPool(
+            Math.max(Runtime.getRuntime().availableProcessors() - 1, 1),
+            pool -> {
+                final ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                worker.setName("StreamDecode-Forkjoin-pool-" + worker.getPoolIndex());
+                return worker;
+            }, null, true);
+
     /**
      * The stream view backing this adapter.
      */
@@ -48,6 +73,21 @@ public class StreamViewSMRAdapter implements ISMRStream {
         this.streamView = streamView;
     }
 
+    /**
+     * Deserialize the SMR updates of this stream contained in the given entry.
+     *
+     * @param logData entry read from the stream.
+     * @return the updates of this stream, if any.
+     */
+    private List<SMREntry> decode(ILogData logData) {
+        if (logData.getType() != DataType.DATA
+                || !(logData.getPayload(runtime) instanceof ISMRConsumable
+                || logData.hasCheckpointMetadata())) {
+            return Collections.emptyList();
+        }
+        return dataAndCheckpointMapper(logData);
+    }
+
     private List<SMREntry> dataAndCheckpointMapper(ILogData logData) {
         if (logData.hasCheckpointMetadata()) {
             // This is a CHECKPOINT record.  Extract the SMREntries, if any.
@@ -140,6 +180,11 @@ public class StreamViewSMRAdapter implements ISMRStream {
         streamView.seek(globalAddress);
     }
 
+    @Override
+    public void resume(long globalAddress) {
+        streamView.resume(globalAddress);
+    }
+
     @Override
     public Stream<SMREntry> stream() {
         return streamUpTo(Address.MAX);
@@ -147,14 +192,100 @@ public class StreamViewSMRAdapter implements ISMRStream {
 
     @Override
     public Stream<SMREntry> streamUpTo(long maxGlobal) {
-        return streamView.streamUpTo(maxGlobal)
-                .filter(m -> m.getType() == DataType.DATA)
-                .filter(m -> m.getPayload(runtime) instanceof ISMRConsumable
-                        || m.hasCheckpointMetadata())
-                .map(this::dataAndCheckpointMapper)
+        final int decodeAhead = runtime.getParameters().getStreamDecodeAhead();
+        if (decodeAhead <= 1) {
+            return streamView.streamUpTo(maxGlobal)
+                    .map(this::decode)
+                    .flatMap(List::stream);
+        }
+
+        return StreamSupport.stream(new DecodeAheadSpliterator(maxGlobal, decodeAhead), false)
                 .flatMap(List::stream);
     }
 
+    /**
+     * A spliterator which reads up to decodeAhead entries from the stream view ahead of
+     * the consumer, and deserializes them on the {@link #decodePool} while the consumer
+     * processes the earlier ones. Entries are always returned in stream order.
+     *
+     * <p>Note that entries read ahead are consumed from the stream view even if the
+     * consumer stops early, so this is only suitable for consumers which process the
+     * whole stream (or reset it on failure), like an object sync.
+     */
+    private class DecodeAheadSpliterator extends Spliterators.AbstractSpliterator<List<SMREntry>> {
+
+        private final long maxGlobal;
+
+        private final int decodeAhead;
+
+        /**
+         * Entries read from the stream view, in order, which have not been consumed yet.
+         */
+        private final Deque<ForkJoinTask<List<SMREntry>>> window = new ArrayDeque<>();
+
+        /**
+         * Number of tasks at the tail of the window which have not been submitted to the pool.
+         */
+        private int unsubmitted = 0;
+
+        private boolean exhausted = false;
+
+        DecodeAheadSpliterator(long maxGlobal, int decodeAhead) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.maxGlobal = maxGlobal;
+            this.decodeAhead = decodeAhead;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<SMREntry>> action) {
+            fill();
+
+            if (window.isEmpty()) {
+                return false;
+            }
+
+            final boolean submitted = unsubmitted < window.size();
+            final ForkJoinTask<List<SMREntry>> next = window.pollFirst();
+            if (submitted) {
+                action.accept(next.join());
+            } else {
+                // Nothing to overlap with, decode on this thread.
+                unsubmitted--;
+                action.accept(next.invoke());
+            }
+            return true;
+        }
+
+        /**
+         * Read entries until the window is full (or the stream is exhausted), and submit
+         * them for decoding once there is more than one entry to work on.
+         */
+        private void fill() {
+            while (!exhausted && window.size() < decodeAhead) {
+                final ILogData logData = streamView.nextUpTo(maxGlobal);
+                if (logData == null) {
+                    exhausted = true;
+                    break;
+                }
+                window.addLast(ForkJoinTask.adapt(() -> decode(logData)));
+                unsubmitted++;
+            }
+
+            if (window.size() > 1 && unsubmitted > 0) {
+                // Submit in stream order, so that the pool (which runs tasks in FIFO order)
+                // decodes the entry the consumer waits for first.
+                Iterator<ForkJoinTask<List<SMREntry>>> tasks = window.iterator();
+                for (int i = 0; i < window.size(); i++) {
+                    final ForkJoinTask<List<SMREntry>> task = tasks.next();
+                    if (i >= window.size() - unsubmitted) {
+                        decodePool.execute(task);
+                    }
+                }
+                unsubmitted = 0;
+            }
+        }
+    }
+
     /**
      * Append a SMREntry to the stream, returning the global address
      * it was written at.
@@ -152,6 +152,40 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
         this.syncStreamTimer = CorfuComponent.OBJECT.toString() + "vlo.sync.timer." + getID();
         this.syncStreamCount = CorfuComponent.OBJECT.toString() + "vlo.sync.count." + getID();
         lock = new StampedLock();
+
+        resumeFromDurableStateUnsafe();
+    }
+
+    /**
+     * If the underlying object kept its state across a restart, position the stream
+     * right after the last address reflected in that state, so that only the
+     * remaining updates are synced from the log. If the stream has been trimmed past
+     * that address, the next sync fails with a TrimmedException and the object is
+     * reset (discarding the durable state) and rebuilt from the checkpoint.
+     */
+    private void resumeFromDurableStateUnsafe() {
+        if (!(object instanceof ICorfuDurableObject) || !((ICorfuDurableObject) object).isDurable()) {
+            return;
+        }
+
+        final long durableVersion = ((ICorfuDurableObject) object).getDurableVersion(getID());
+        if (Address.isAddress(durableVersion)) {
+            log.info("Resume[{}] from durable version {}", this, durableVersion);
+            smrStream.resume(durableVersion + 1);
+        } else {
+            // Whatever is stored does not belong to this stream (or was never
+            // committed), so start from an empty object.
+            resetUnsafe();
+        }
+    }
+
+    /**
+     * Record the current version of the object in its durable state (if any).
+     */
+    private void persistVersionUnsafe() {
+        if (object instanceof ICorfuDurableObject && Address.isAddress(smrStream.pos())) {
+            ((ICorfuDurableObject) object).setDurableVersion(getID(), smrStream.pos());
+        }
     }
 
     /**
@@ -469,6 +503,9 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
      */
     public void resetUnsafe() {
         log.debug("Reset[{}]", this);
+        if (object instanceof ICorfuDurableObject) {
+            ((ICorfuDurableObject) object).discardDurableState();
+        }
         object.close();
         object = newObjectFn.get();
         smrStream.reset();
@@ -706,6 +743,12 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
         if (timestamp != Address.OPTIMISTIC) {
             histogram.update(counter.count);
         }
+
+        // The sync has consumed any checkpoint and every update up to the current
+        // position, so the state can be resumed from here.
+        if (stream == smrStream && counter.count > 0) {
+            persistVersionUnsafe();
+        }
     }
 
     /**
@@ -2,16 +2,15 @@ package org.corfudb.runtime.view;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
-import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.netty.handler.timeout.TimeoutException;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -22,8 +21,14 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -46,6 +51,7 @@ import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.WriteSizeException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
+import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
 import org.corfudb.util.CFUtils;
 import org.corfudb.util.CorfuComponent;
 import org.corfudb.util.MetricsUtils;
@@ -61,13 +67,52 @@ import org.corfudb.util.Utils;
 @Slf4j
 public class AddressSpaceView extends AbstractView {
 
-    private final static long CACHE_KEY_SIZE = MetricsUtils.sizeOf.deepSizeOf(0L);
+    /**
+     * In-memory size of a cache entry, besides its payload and backpointers.
+     * Measured once, so that weighing an entry does not walk its object graph.
+     */
+    private final static long CACHE_ENTRY_OVERHEAD = MetricsUtils.sizeOf.deepSizeOf(0L)
+            + MetricsUtils.sizeOf.deepSizeOf(new LogData(DataType.EMPTY));
+    private final static long CACHE_BACKPOINTER_SIZE = MetricsUtils.sizeOf.deepSizeOf(UUID.randomUUID())
+            + MetricsUtils.sizeOf.deepSizeOf(0L);
     private final static long DEFAULT_MAX_CACHE_ENTRIES = 5000;
 
     /**
-     * A cache for read results.
+     * A cache for read results, bounded either by the weight of its entries (maxCacheWeight)
+     * or by their number (maxCacheEntries, by default {@link #DEFAULT_MAX_CACHE_ENTRIES}).
+     * Setting both bounds is rejected with an {@link IllegalStateException}. Its W-TinyLFU
+     * policy only admits an entry in place of another if it is accessed more frequently,
+     * so one-off scans do not evict hot entries.
      */
     private final Cache<Long, ILogData> readCache;
+
+    /**
+     * An optional second-tier cache of serialized entries in direct memory,
+     * consulted on a read cache miss before reading from the log units.
+     */
+    @Nullable
+    private final OffHeapLogDataCache offHeapCache;
+
+    /**
+     * Whether the off-heap cache is shared with other runtimes, in which
+     * case it is not invalidated along with the cache of this runtime.
+     */
+    private final boolean offHeapCacheShared;
+
+    /**
+     * Cache hits and misses of single address reads.
+     */
+    private final CacheRegionStats addressCacheStats = new CacheRegionStats();
+
+    /**
+     * Cache hits and misses of stream reads, which read ahead in batches.
+     */
+    private final CacheRegionStats streamCacheStats = new CacheRegionStats();
+
+    /**
+     * Cache hits and misses of batched (multi address) reads.
+     */
+    private final CacheRegionStats batchCacheStats = new CacheRegionStats();
     private final ReadOptions defaultReadOptions = ReadOptions.builder()
             .ignoreTrim(false)
             .waitForHole(true)
@@ -75,22 +120,42 @@ public class AddressSpaceView extends AbstractView {
             .serverCacheable(true)
             .build();
 
+    /**
+     * The highest committed tail learned from the log units. Every replica holds
+     * the committed value of the addresses up to this tail.
+     */
+    private final AtomicLong committedTailHint = new AtomicLong(Address.NON_ADDRESS);
+
+    /**
+     * Time (in nanoseconds) at which the committed tail hint was last refreshed.
+     */
+    private volatile long committedTailRefreshTime;
+
+    private final AtomicBoolean committedTailRefreshing = new AtomicBoolean(false);
+
+    /**
+     * Bytes available to asynchronous writes, bounding the amount of data in flight.
+     */
+    private final Semaphore writeBytesInFlight;
+
     /**
      * Constructor for the Address Space View.
      */
     public AddressSpaceView(@Nonnull final CorfuRuntime runtime) {
         super(runtime);
+        committedTailRefreshTime = System.nanoTime()
+                - runtime.getParameters().getCommittedTailRefreshPeriod().toNanos() - 1;
+        writeBytesInFlight = new Semaphore(runtime.getParameters().getMaxWriteBytesInFlight());
 
-        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        Caffeine<Object, Object> cacheBuilder = Caffeine.newBuilder();
 
         final boolean cacheDisabled = runtime.getParameters().isCacheDisabled();
         final long maxCacheEntries = runtime.getParameters().getMaxCacheEntries();
         final long maxCacheWeight = runtime.getParameters().getMaxCacheWeight();
-        final int concurrencyLevel = runtime.getParameters().getCacheConcurrencyLevel();
 
         if (maxCacheWeight != 0) {
             cacheBuilder.maximumWeight(maxCacheWeight);
-            cacheBuilder.weigher((k, v) -> (int) (CACHE_KEY_SIZE + MetricsUtils.sizeOf.deepSizeOf(v)));
+            cacheBuilder.weigher((Long k, ILogData v) -> getCacheWeight(v));
         }
 
         if (cacheDisabled) {
@@ -102,12 +167,10 @@ public class AddressSpaceView extends AbstractView {
             cacheBuilder.maximumSize(DEFAULT_MAX_CACHE_ENTRIES);
         }
 
-        if (concurrencyLevel != 0) {
-            cacheBuilder.concurrencyLevel(concurrencyLevel);
-        }
-
         readCache = cacheBuilder.expireAfterAccess(runtime.getParameters().getCacheExpiryTime(), TimeUnit.SECONDS)
                 .expireAfterWrite(runtime.getParameters().getCacheExpiryTime(), TimeUnit.SECONDS)
+                // Evict on the calling thread, so that the cache never exceeds its bound.
+                .executor(Runnable::run)
                 .removalListener(this::handleEviction)
                 .recordStats()
                 .build();
@@ -115,16 +178,69 @@ public class AddressSpaceView extends AbstractView {
         MetricRegistry metrics = CorfuRuntime.getDefaultMetrics();
         final String pfx = String.format("%s0x%x.cache.", CorfuComponent.ADDRESS_SPACE_VIEW.toString(),
                 this.hashCode());
-        metrics.register(pfx + "cache-size", (Gauge<Long>) readCache::size);
+        metrics.register(pfx + "cache-size", (Gauge<Long>) readCache::estimatedSize);
         metrics.register(pfx + "evictions", (Gauge<Long>) () -> readCache.stats().evictionCount());
         metrics.register(pfx + "hit-rate", (Gauge<Double>) () -> readCache.stats().hitRate());
         metrics.register(pfx + "hits", (Gauge<Long>) () -> readCache.stats().hitCount());
         metrics.register(pfx + "misses", (Gauge<Long>) () -> readCache.stats().missCount());
+        metrics.register(pfx + "address.hit-rate", (Gauge<Double>) addressCacheStats::hitRate);
+        metrics.register(pfx + "stream.hit-rate", (Gauge<Double>) streamCacheStats::hitRate);
+        metrics.register(pfx + "batch.hit-rate", (Gauge<Double>) batchCacheStats::hitRate);
+
+        // A runtime with its cache disabled does not read from nor populate a shared cache either
+        final OffHeapLogDataCache sharedReadCache = runtime.getParameters().getSharedReadCache();
+        final long offHeapCacheSize = runtime.getParameters().getOffHeapCacheSize();
+        offHeapCacheShared = !cacheDisabled && sharedReadCache != null;
+        if (offHeapCacheShared) {
+            offHeapCache = sharedReadCache;
+        } else if (!cacheDisabled && offHeapCacheSize > 0) {
+            offHeapCache = new OffHeapLogDataCache(offHeapCacheSize);
+        } else {
+            offHeapCache = null;
+        }
+
+        if (offHeapCache != null) {
+            metrics.register(pfx + "off-heap.cache-size", (Gauge<Long>) offHeapCache::size);
+            metrics.register(pfx + "off-heap.hit-rate", (Gauge<Double>) offHeapCache::hitRate);
+        }
+    }
+
+    /**
+     * Weigh a cache entry by its serialized size, which is known once it was read or written.
+     */
+    private static int getCacheWeight(ILogData ld) {
+        final long weight = CACHE_ENTRY_OVERHEAD + ld.getSizeEstimate()
+                + CACHE_BACKPOINTER_SIZE * ld.getBackpointerMap().size();
+        return (int) Math.min(weight, Integer.MAX_VALUE);
     }
 
-    private void handleEviction(RemovalNotification<Long, ILogData> notification) {
+    private void handleEviction(Long address, ILogData entry, RemovalCause cause) {
         if (log.isTraceEnabled()) {
-            log.trace("handleEviction: evicting {} cause {}", notification.getKey(), notification.getCause());
+            log.trace("handleEviction: evicting {} cause {}", address, cause);
+        }
+        // A zero-copy payload pins the whole inbound frame, so release it along with
+        // the entry rather than leaving it to the GC (and the leak detector).
+        if (entry != null) {
+            entry.releasePayloadBuffer();
+        }
+    }
+
+    /**
+     * Hits and misses of the reads of a region (i.e. read path) of the cache.
+     */
+    private static class CacheRegionStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        void record(long hitCount, long missCount) {
+            hits.add(hitCount);
+            misses.add(missCount);
+        }
+
+        double hitRate() {
+            final long hitCount = hits.sum();
+            final long requestCount = hitCount + misses.sum();
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
         }
     }
 
@@ -133,13 +249,16 @@ public class AddressSpaceView extends AbstractView {
      */
     public void gc(long trimMark) {
         readCache.asMap().entrySet().removeIf(e -> e.getKey() < trimMark);
+        if (offHeapCache != null) {
+            offHeapCache.gc(trimMark);
+        }
     }
 
     /**
      * Reset all in-memory caches.
      */
     public void resetCaches() {
-        readCache.invalidateAll();
+        invalidateClientCache();
     }
 
     /**
@@ -249,6 +368,129 @@ public class AddressSpaceView extends AbstractView {
         write(token, data, CacheOption.WRITE_THROUGH);
     }
 
+    /**
+     * Asynchronously write the given log data using a token. Unlike the blocking
+     * {@link AddressSpaceView#write(IToken, Object, CacheOption)}, the write is not
+     * waited on while it travels through the replication protocol, so that many
+     * addresses can be written concurrently. The caller only blocks while the
+     * writes in flight exceed maxWriteBytesInFlight.
+     *
+     * <p>The returned future completes exceptionally with an OverwriteException if
+     * the address has adopted another value, or a StaleTokenException if the token
+     * epoch is invalid, as the blocking write would throw. Failures which the
+     * blocking write retries (e.g. timeouts or epoch changes) are retried through it.
+     *
+     * @param token       The token to use for the write.
+     * @param data        The data to write.
+     * @param cacheOption The caching behaviour for this write
+     * @return A future which completes once the write has been completed.
+     */
+    public CompletableFuture<Void> writeAsync(@Nonnull IToken token, @Nonnull Object data,
+                                              @Nonnull CacheOption cacheOption) {
+        final ILogData ld;
+        if (data instanceof ILogData) {
+            ld = (ILogData) data;
+        } else {
+            ld = new LogData(DataType.DATA, data, runtime.getParameters().getCodecType());
+        }
+
+        ld.useToken(token);
+        ld.setId(runtime.getParameters().getClientId());
+
+        // Serialize up front to learn the size of the write. An entry larger than
+        // the whole budget is admitted alone.
+        final ILogData.SerializationHandle sh = ld.getSerializedForm(true);
+        final int writeBytes = Math.max(1, Math.min(ld.getSizeEstimate(),
+                runtime.getParameters().getMaxWriteBytesInFlight()));
+        try {
+            writeBytesInFlight.acquire(writeBytes);
+        } catch (InterruptedException ie) {
+            sh.close();
+            throw new UnrecoverableCorfuInterruptedError("Interrupted while waiting to write", ie);
+        }
+
+        final CompletableFuture<Void> writeFuture = new CompletableFuture<>();
+        writeFuture.whenComplete((result, ex) -> {
+            sh.close();
+            writeBytesInFlight.release(writeBytes);
+        });
+
+        CompletableFuture<Void> protocolFuture;
+        try {
+            protocolFuture = layoutHelper(e -> {
+                Layout l = e.getLayout();
+                // Check if the token issued is in the same
+                // epoch as the layout we are about to write
+                // to.
+                if (token.getEpoch() != l.getEpoch()) {
+                    throw new StaleTokenException(l.getEpoch());
+                }
+
+                return l.getReplicationMode(token.getSequence())
+                        .getReplicationProtocol(runtime)
+                        .writeAsync(e, ld);
+            }, true);
+        } catch (RuntimeException re) {
+            protocolFuture = new CompletableFuture<>();
+            protocolFuture.completeExceptionally(re);
+        }
+
+        protocolFuture.whenComplete((result, ex) -> {
+            if (ex == null) {
+                // Cache the successful write
+                if (cacheOption == CacheOption.WRITE_THROUGH) {
+                    readCache.put(token.getSequence(), ld);
+                }
+                writeFuture.complete(null);
+                return;
+            }
+
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            if (cause instanceof OverwriteException
+                    && ((OverwriteException) cause).getOverWriteCause() == OverwriteCause.SAME_DATA) {
+                // The server suspects our data has already been written, validate the write.
+                completeAsync(writeFuture, () -> {
+                    validateStateOfWrittenEntry(token.getSequence(), ld);
+                    if (cacheOption == CacheOption.WRITE_THROUGH) {
+                        readCache.put(token.getSequence(), ld);
+                    }
+                });
+            } else if (cause instanceof OverwriteException || cause instanceof StaleTokenException
+                    || cause instanceof WriteSizeException || cause instanceof QuotaExceededException) {
+                writeFuture.completeExceptionally(cause);
+            } else {
+                log.warn("writeAsync: retrying write with token {} through the blocking path", token, cause);
+                completeAsync(writeFuture, () -> write(token, ld, cacheOption));
+            }
+        });
+
+        return writeFuture;
+    }
+
+    /**
+     * Asynchronously write the given log data and then add it to the address
+     * space cache (i.e. WRITE_THROUGH option)
+     *
+     * @see AddressSpaceView#writeAsync(IToken, Object, CacheOption)
+     */
+    public CompletableFuture<Void> writeAsync(IToken token, Object data) {
+        return writeAsync(token, data, CacheOption.WRITE_THROUGH);
+    }
+
+    /**
+     * Run a blocking action off the calling (possibly I/O) thread, and complete
+     * the given future with its outcome.
+     */
+    private static void completeAsync(CompletableFuture<Void> future, Runnable action) {
+        CompletableFuture.runAsync(action).whenComplete((result, ex) -> {
+            if (ex == null) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(ex instanceof CompletionException ? ex.getCause() : ex);
+            }
+        });
+    }
+
     /**
      * Directly read from the log, returning any
      * committed value, or NULL, if no value has
@@ -300,13 +542,14 @@ public class AddressSpaceView extends AbstractView {
         //    the cached value from step 4 (i.e. loss of undo records computed
         //    by thread A)
         ILogData data = readCache.getIfPresent(address);
+        addressCacheStats.record(data == null ? 0 : 1, data == null ? 1 : 0);
         if (data == null) {
             // Loading a value without the cache loader can result in
             // redundant loading calls (i.e. multiple threads try to
             // load the same value), but currently a redundant RPC
             // is much cheaper than the cost of a NoRollBackException, therefore
             // this trade-off is reasonable
-            final ILogData loadedVal = fetch(address);
+            final ILogData loadedVal = fetchCached(address, options);
             return cacheLoadAndGet(readCache, address, loadedVal, options);
         }
         return data;
@@ -329,6 +572,7 @@ public class AddressSpaceView extends AbstractView {
                   @NonNull ReadOptions options) {
         if (options.isClientCacheable()) {
             ILogData data = readCache.getIfPresent(nextRead);
+            streamCacheStats.record(data == null ? 0 : 1, data == null ? 1 : 0);
             if (data == null) {
                 List<Long> batch = getBatch(nextRead, addresses);
                 log.trace("read: request address {}, read batch {}", nextRead, batch);
@@ -339,7 +583,7 @@ public class AddressSpaceView extends AbstractView {
             return data;
         }
 
-        return fetch(nextRead);
+        return fetchCached(nextRead, options);
     }
 
     /**
@@ -389,19 +633,8 @@ public class AddressSpaceView extends AbstractView {
             return loadedValue;
         }
 
-        try {
-            return cache.get(address, () -> loadedValue);
-        } catch (ExecutionException | UncheckedExecutionException e) {
-            // Guava wraps the exceptions thrown from the lower layers, therefore
-            // we need to unwrap them before throwing them to the upper layers that
-            // don't understand the guava exceptions
-            Throwable cause = e.getCause();
-            if (cause instanceof RuntimeException) {
-                throw (RuntimeException) cause;
-            } else {
-                throw new RuntimeException(cause);
-            }
-        }
+        // Keep the cached value if there is one, rather than replacing it
+        return cache.get(address, k -> loadedValue);
     }
 
     /**
@@ -414,8 +647,9 @@ public class AddressSpaceView extends AbstractView {
         final Map<Long, ILogData> cachedData = readCache.getAllPresent(addresses);
         final Set<Long> addressesToFetch = Sets.difference(
                 Sets.newHashSet(addresses), cachedData.keySet());
+        batchCacheStats.record(cachedData.size(), addressesToFetch.size());
 
-        final Map<Long, ILogData> uncachedData = fetchAll(addressesToFetch, options);
+        final Map<Long, ILogData> uncachedData = fetchAllCached(addressesToFetch, options);
         final List<Long> trimmedAddresses = filterTrimmedAddresses(uncachedData);
         trimmedAddresses.forEach(uncachedData::remove);
 
@@ -506,7 +740,40 @@ public class AddressSpaceView extends AbstractView {
      * @return the maximum committed log tail
      */
     public long getCommittedTail() {
-        return layoutHelper(Utils::getCommittedTail, true);
+        final long committedTail = layoutHelper(Utils::getCommittedTail, true);
+        committedTailHint.accumulateAndGet(committedTail, Math::max);
+        committedTailRefreshTime = System.nanoTime();
+        return committedTail;
+    }
+
+    /**
+     * Get the last known committed log tail, without querying the log units. Addresses up to
+     * this tail can be read from any replica. If replica reads are enabled and the hint is older
+     * than the refresh period, it is refreshed in the background.
+     *
+     * @return the last known committed log tail, or {@link Address#NON_ADDRESS} if unknown
+     *         or replica reads are disabled.
+     */
+    public long getCommittedTailHint() {
+        if (!runtime.getParameters().isReplicaReadsEnabled()) {
+            return Address.NON_ADDRESS;
+        }
+
+        final long refreshPeriod = runtime.getParameters().getCommittedTailRefreshPeriod().toNanos();
+        if (System.nanoTime() - committedTailRefreshTime > refreshPeriod
+                && committedTailRefreshing.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    getCommittedTail();
+                } catch (RuntimeException re) {
+                    log.debug("getCommittedTailHint: failed to refresh committed tail", re);
+                } finally {
+                    committedTailRefreshing.set(false);
+                }
+            });
+        }
+
+        return committedTailHint.get();
     }
 
     /**
@@ -537,6 +804,7 @@ public class AddressSpaceView extends AbstractView {
             Utils.updateCommittedTail(e, end);
             return null;
         }, true);
+        committedTailHint.accumulateAndGet(end, Math::max);
     }
 
     /**
@@ -647,6 +915,70 @@ public class AddressSpaceView extends AbstractView {
      */
     public void invalidateClientCache() {
         readCache.invalidateAll();
+        if (offHeapCache != null && !offHeapCacheShared) {
+            offHeapCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Fetch an address for insertion into the cache, from the off-heap cache
+     * if it holds the address. Otherwise, the fetched entry is also cached off-heap,
+     * in its scan segment if the read is not cacheable in the read cache.
+     *
+     * @param address an address to read from.
+     * @param options options for this read request.
+     * @return the log data read at address
+     */
+    @Nonnull
+    private ILogData fetchCached(final long address, @Nonnull ReadOptions options) {
+        if (!isOffHeapCacheable(options)) {
+            return fetch(address);
+        }
+
+        ILogData data = offHeapCache.get(address);
+        if (data == null) {
+            data = fetch(address);
+            putOffHeap(address, data, options);
+        }
+        return data;
+    }
+
+    /**
+     * Fetch a collection of addresses for insertion into the cache, reading the
+     * addresses held by the off-heap cache from it, rather than from the log units.
+     *
+     * @param addresses collection of addresses to read from.
+     * @param options   options for this read request.
+     * @return a map of read addresses.
+     */
+    @Nonnull
+    private Map<Long, ILogData> fetchAllCached(Set<Long> addresses, @Nonnull ReadOptions options) {
+        if (!isOffHeapCacheable(options)) {
+            return fetchAll(addresses, options);
+        }
+
+        final Map<Long, ILogData> data = offHeapCache.getAll(addresses);
+        final Map<Long, ILogData> fetchedData = fetchAll(
+                Sets.difference(addresses, data.keySet()), options);
+        fetchedData.forEach((address, ld) -> {
+            if (isLogDataValid(address, ld, false)) {
+                putOffHeap(address, ld, options);
+            }
+        });
+        data.putAll(fetchedData);
+        return data;
+    }
+
+    private boolean isOffHeapCacheable(@Nonnull ReadOptions options) {
+        return offHeapCache != null && (options.isClientCacheable() || options.isScanCacheable());
+    }
+
+    private void putOffHeap(long address, @Nonnull ILogData ld, @Nonnull ReadOptions options) {
+        if (options.isClientCacheable()) {
+            offHeapCache.put(address, ld);
+        } else {
+            offHeapCache.putScan(address, ld);
+        }
     }
 
     /**
@@ -748,4 +1080,9 @@ public class AddressSpaceView extends AbstractView {
     Cache<Long, ILogData> getReadCache() {
         return readCache;
     }
+
+    @VisibleForTesting
+    OffHeapLogDataCache getOffHeapCache() {
+        return offHeapCache;
+    }
 }
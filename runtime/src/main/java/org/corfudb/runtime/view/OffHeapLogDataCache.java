@@ -0,0 +1,250 @@
+package org.corfudb.runtime.view;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.annotations.VisibleForTesting;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A second-tier cache of log entries, behind the {@link AddressSpaceView} read cache.
+ *
+ * <p>Entries are kept in their serialized form, with their payload compressed by the
+ * runtime codec, in direct memory: a large cache does not inflate the heap, and entries
+ * are only deserialized when they are promoted back to the read cache.
+ *
+ * <p>Entries read by scans (reads which are not cached in the read cache, e.g. a stream
+ * sweep by a replication reader or a subscriber) are admitted to a separate scan segment,
+ * and only promoted to the main segment once they are read again. A scan warms the cache
+ * for the other readers of the same range, without evicting the entries read repeatedly.
+ *
+ * <p>The cache only depends on the addresses of the entries, so a single cache can be shared
+ * by the runtimes of a node connected to the same cluster.
+ */
+public class OffHeapLogDataCache {
+
+    /**
+     * Share of the cache size for the scan segment.
+     */
+    private static final double SCAN_SEGMENT_RATIO = 0.25;
+
+    /**
+     * Serialized log entries, weighed by their size in direct memory.
+     * A buffer is released once its entry is removed.
+     */
+    private final Cache<Long, ByteBuf> entries;
+
+    /**
+     * Serialized log entries read by scans, not read again yet.
+     */
+    private final Cache<Long, ByteBuf> scanEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create an off-heap cache.
+     *
+     * @param maxSize The maximum size of the cached entries, in bytes.
+     */
+    public OffHeapLogDataCache(long maxSize) {
+        final long maxScanSize = (long) (maxSize * SCAN_SEGMENT_RATIO);
+        entries = buildSegment(maxSize - maxScanSize);
+        scanEntries = buildSegment(maxScanSize);
+    }
+
+    private Cache<Long, ByteBuf> buildSegment(long maxSize) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((Long address, ByteBuf buf) -> buf.capacity())
+                .executor(Runnable::run)
+                .removalListener(this::handleRemoval)
+                .build();
+    }
+
+    private void handleRemoval(Long address, ByteBuf buf, RemovalCause cause) {
+        // Entries are never replaced, only re-computed in place when they are read.
+        if (buf != null && cause != RemovalCause.REPLACED) {
+            buf.release();
+        }
+    }
+
+    /**
+     * Cache a log entry read from the log units, unless an entry is already cached at
+     * its address. Only data and holes are cached.
+     *
+     * @param address The address of the entry.
+     * @param ld      The entry, which is serialized into direct memory.
+     */
+    public void put(long address, @Nonnull ILogData ld) {
+        put(entries, address, ld);
+    }
+
+    /**
+     * Cache a log entry read by a scan in the scan segment, unless an entry is already
+     * cached at its address. Only data and holes are cached.
+     *
+     * @param address The address of the entry.
+     * @param ld      The entry, which is serialized into direct memory.
+     */
+    public void putScan(long address, @Nonnull ILogData ld) {
+        put(scanEntries, address, ld);
+    }
+
+    private void put(Cache<Long, ByteBuf> segment, long address, @Nonnull ILogData ld) {
+        if (!(ld instanceof LogData) || entries.asMap().containsKey(address)
+                || scanEntries.asMap().containsKey(address)) {
+            return;
+        }
+
+        if (ld.getType() != DataType.DATA && ld.getType() != DataType.HOLE) {
+            return;
+        }
+
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer(ld.getSizeEstimate());
+        try {
+            ((LogData) ld).doSerialize(buf);
+            // Trim the buffer to its content, so that it is weighed by its actual size
+            ByteBuf trimmed = PooledByteBufAllocator.DEFAULT.directBuffer(buf.readableBytes());
+            trimmed.writeBytes(buf);
+            if (segment.asMap().putIfAbsent(address, trimmed) != null) {
+                trimmed.release();
+            }
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * Get the entry cached at the given address. An entry of the scan
+     * segment is promoted to the main segment, as it is read again.
+     *
+     * @param address The address of the entry.
+     * @return A newly deserialized entry, or null if there is none.
+     */
+    @Nullable
+    public ILogData get(long address) {
+        // Retain the buffer atomically with the lookup, so that it
+        // can not be released by a concurrent eviction while it is read.
+        ByteBuf buf = entries.asMap().computeIfPresent(address, (k, v) -> v.retain());
+        if (buf == null) {
+            buf = promote(address);
+        }
+
+        if (buf == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        try {
+            return new LogData(buf.duplicate());
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * Move an entry from the scan segment to the main segment.
+     *
+     * @param address The address of the entry.
+     * @return The buffer of the entry, retained for the caller, or null if there is none.
+     */
+    @Nullable
+    private ByteBuf promote(long address) {
+        // One reference for the main segment, and one for the caller
+        final ByteBuf buf = scanEntries.asMap().computeIfPresent(address, (k, v) -> v.retain(2));
+        if (buf == null) {
+            // Promoted by a concurrent read, which adds the entry to the main segment
+            // before removing it from the scan segment
+            return entries.asMap().computeIfPresent(address, (k, v) -> v.retain());
+        }
+
+        if (entries.asMap().putIfAbsent(address, buf) != null) {
+            // Promoted by a concurrent read
+            buf.release();
+        }
+        // Releases the reference of the scan segment
+        scanEntries.invalidate(address);
+        return buf;
+    }
+
+    /**
+     * Get the buffer cached at the given address, in either segment, without retaining it.
+     *
+     * @param address The address of the entry.
+     * @return The buffer of the entry, or null if there is none.
+     */
+    @VisibleForTesting
+    @Nullable
+    ByteBuf peek(long address) {
+        ByteBuf buf = entries.getIfPresent(address);
+        return buf != null ? buf : scanEntries.getIfPresent(address);
+    }
+
+    /**
+     * Get the entries cached at the given addresses.
+     *
+     * @param addresses The addresses of the entries.
+     * @return A map of the newly deserialized entries that were cached.
+     */
+    @Nonnull
+    public Map<Long, ILogData> getAll(@Nonnull Iterable<Long> addresses) {
+        final Map<Long, ILogData> result = new HashMap<>();
+        for (Long address : addresses) {
+            ILogData ld = get(address);
+            if (ld != null) {
+                result.put(address, ld);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove all the entries below the trim mark.
+     *
+     * @param trimMark The trim mark.
+     */
+    public void gc(long trimMark) {
+        entries.asMap().keySet().removeIf(address -> address < trimMark);
+        scanEntries.asMap().keySet().removeIf(address -> address < trimMark);
+    }
+
+    /**
+     * Remove all the entries, releasing their memory.
+     */
+    public void invalidateAll() {
+        entries.invalidateAll();
+        scanEntries.invalidateAll();
+    }
+
+    /**
+     * Get the number of cached entries.
+     *
+     * @return The (estimated) number of cached entries.
+     */
+    public long size() {
+        return entries.estimatedSize() + scanEntries.estimatedSize();
+    }
+
+    /**
+     * Get the ratio of lookups which found an entry.
+     *
+     * @return The hit rate of the cache.
+     */
+    public double hitRate() {
+        final long hitCount = hits.sum();
+        final long requestCount = hitCount + misses.sum();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+}
@@ -36,6 +36,15 @@ public class ReadOptions {
     @Builder.Default
     private final boolean clientCacheable = true;
 
+    /**
+     * Whether to admit a read which is not cached on the client side to the scan
+     * segment of the off-heap cache, so that a sweep by one reader warms the cache
+     * for the other readers of the same range
+     */
+    @Getter
+    @Builder.Default
+    private final boolean scanCacheable = false;
+
     /**
      * Cache hint for the server to determine whether to cache the read request or not
      */
@@ -343,7 +343,7 @@ public class TableRegistry {
             mapSupplier = () -> new PersistedStreamingMap<>(
                     tableOptions.getPersistentDataPath().get(),
                     PersistedStreamingMap.getPersistedStreamingMapOptions(),
-                    protobufSerializer, this.runtime);
+                    protobufSerializer, this.runtime, tableOptions.isDurable());
         }
 
         // Open and return table instance.
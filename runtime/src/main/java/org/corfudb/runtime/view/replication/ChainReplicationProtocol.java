@@ -7,9 +7,9 @@ import org.corfudb.protocols.wireprotocol.InspectAddressesResponse;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.ReadResponse;
 import org.corfudb.protocols.wireprotocol.Token;
-import org.corfudb.runtime.clients.LogUnitClient;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.RecoveryException;
+import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.Layout;
 import org.corfudb.runtime.view.RuntimeLayout;
 import org.corfudb.util.CFUtils;
@@ -22,6 +22,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -63,22 +65,144 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The write is sent to the chain head and then propagated down the chain
+     * without blocking the caller, so that many addresses can travel down the
+     * chain concurrently. If the head was overwritten, the recovery protocol is
+     * run before the future fails.
+     */
+    @Override
+    public CompletableFuture<Void> writeAsync(RuntimeLayout runtimeLayout, ILogData data) {
+        final long globalAddress = data.getGlobalAddress();
+        int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+
+        // The serialized form is kept until the write has gone down the whole chain.
+        final ILogData.SerializationHandle sh = data.getSerializedForm(true);
+        log.trace("WriteAsync[{}]: chain head {}/{}", globalAddress, 1, numUnits);
+
+        CompletableFuture<Void> chainFuture;
+        try {
+            chainFuture = runtimeLayout.getLogUnitClient(globalAddress, 0)
+                    .write(sh.getSerialized())
+                    .thenCompose(written -> propagateAsync(runtimeLayout, globalAddress,
+                            sh.getSerialized(), 1));
+        } catch (RuntimeException re) {
+            sh.close();
+            throw re;
+        }
+
+        CompletableFuture<Void> writeFuture = new CompletableFuture<>();
+        chainFuture.whenComplete((result, ex) -> {
+            sh.close();
+            if (ex == null) {
+                writeFuture.complete(null);
+                return;
+            }
+
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            if (!(cause instanceof OverwriteException)) {
+                writeFuture.completeExceptionally(cause);
+                return;
+            }
+
+            // Some other wrote here (usually due to hole fill). The recovery
+            // protocol blocks, so it must not run on the client's I/O thread.
+            CompletableFuture.runAsync(() -> recover(runtimeLayout, globalAddress))
+                    .whenComplete((recovered, recoveryEx) -> writeFuture.completeExceptionally(
+                            recoveryEx == null ? cause : recoveryEx.getCause()));
+        });
+
+        return writeFuture;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public ILogData peek(RuntimeLayout runtimeLayout, long globalAddress) {
         int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
-        log.trace("Read[{}]: chain {}/{}", globalAddress, numUnits, numUnits);
-        // In chain replication, we read from the last unit, though we can optimize if we
-        // know where the committed tail is.
-        ILogData peekResult = CFUtils.getUninterruptibly(runtimeLayout
-                .getLogUnitClient(globalAddress, numUnits - 1)
-                .read(globalAddress)).getAddresses().get(globalAddress);
+        long committedTail = runtimeLayout.getRuntime().getAddressSpaceView().getCommittedTailHint();
+        int readUnit = getReadUnit(runtimeLayout, globalAddress, committedTail);
+        log.trace("Read[{}]: chain {}/{}", globalAddress, readUnit + 1, numUnits);
+        // In chain replication, we read from the last unit, unless the address is committed.
+        ILogData peekResult;
+        if (readUnit != numUnits - 1
+                && runtimeLayout.getRuntime().getParameters().isHedgedReadsEnabled()) {
+            peekResult = hedgedRead(runtimeLayout, globalAddress, readUnit);
+        } else {
+            peekResult = CFUtils.getUninterruptibly(read(runtimeLayout, globalAddress, readUnit))
+                    .getAddresses().get(globalAddress);
+        }
+
+        if (peekResult.isEmpty() && readUnit != numUnits - 1) {
+            // Only the tail is authoritative, in case the committed tail was wrong.
+            peekResult = CFUtils.getUninterruptibly(read(runtimeLayout, globalAddress, numUnits - 1))
+                    .getAddresses().get(globalAddress);
+        }
 
         return peekResult.isEmpty() ? null : peekResult;
     }
 
+    /**
+     * Read a committed address from the given unit of the chain, and from the other units
+     * in order of their latency if it does not answer in time or does not have the address.
+     *
+     * @param runtimeLayout runtime layout.
+     * @param globalAddress the address to read.
+     * @param readUnit      the unit to read from first.
+     * @return the first non-empty read result, or an empty one if no unit has the address.
+     */
+    private ILogData hedgedRead(RuntimeLayout runtimeLayout, long globalAddress, int readUnit) {
+        final ReplicaLatencyTracker tracker = runtimeLayout.getRuntime().getReplicaLatencyTracker();
+        final List<String> logServers = runtimeLayout.getLayout().getStripe(globalAddress).getLogServers();
+
+        final List<String> endpoints = new ArrayList<>(logServers.size());
+        endpoints.add(logServers.get(readUnit));
+        tracker.sortByLatency(logServers, endpoint -> endpoint).stream()
+                .filter(endpoint -> !endpoint.equals(logServers.get(readUnit)))
+                .forEach(endpoints::add);
+
+        return CFUtils.getUninterruptibly(tracker.hedgedRead(endpoints,
+                endpoint -> runtimeLayout.getLogUnitClient(endpoint).read(globalAddress),
+                response -> !response.getAddresses().get(globalAddress).isEmpty(),
+                runtimeLayout.getRuntime().getParameters().getHedgedReadMinDelay()))
+                .getAddresses().get(globalAddress);
+    }
+
+    private CompletableFuture<ReadResponse> read(RuntimeLayout runtimeLayout, long globalAddress, int unit) {
+        final String endpoint = runtimeLayout.getLayout().getStripe(globalAddress).getLogServers().get(unit);
+        return runtimeLayout.getRuntime().getReplicaLatencyTracker()
+                .track(endpoint, runtimeLayout.getLogUnitClient(endpoint).read(globalAddress));
+    }
+
+    /**
+     * Pick the unit of the chain to read an address from. The committed value of an address
+     * at or below the committed tail is present on every unit of the chain, so such reads are
+     * spread across all of them: of two units picked at random, the one with the lowest observed
+     * latency is read from, which steers reads away from slow units without piling all of them
+     * on the fastest one. Any other address is read from the chain tail, the only unit
+     * guaranteed to hold the final value.
+     *
+     * @param runtimeLayout runtime layout.
+     * @param globalAddress the address to read.
+     * @param committedTail the last known committed tail.
+     * @return the index of the unit in the chain.
+     */
+    private int getReadUnit(RuntimeLayout runtimeLayout, long globalAddress, long committedTail) {
+        int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+        if (numUnits > 1 && Address.isAddress(committedTail) && globalAddress <= committedTail) {
+            final int first = ThreadLocalRandom.current().nextInt(numUnits);
+            final int second = (first + 1 + ThreadLocalRandom.current().nextInt(numUnits - 1)) % numUnits;
+            final List<String> logServers = runtimeLayout.getLayout().getStripe(globalAddress).getLogServers();
+            final ReplicaLatencyTracker tracker = runtimeLayout.getRuntime().getReplicaLatencyTracker();
+            return tracker.getMeanLatency(logServers.get(second)) < tracker.getMeanLatency(logServers.get(first))
+                    ? second : first;
+        }
+        return numUnits - 1;
+    }
+
     /**
      * Reads a list of global addresses from the chain of log unit servers.
      * <p>
@@ -103,26 +227,45 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
                                        boolean waitForWrite,
                                        boolean cacheOnServer) {
 
-        // Group addresses by log unit client.
-        Map<LogUnitClient, List<Long>> serverAddressMap =
-                groupAddressByLogUnit(runtimeLayout, addresses);
+        // Group addresses by log unit client, spreading committed addresses across replicas.
+        long committedTail = runtimeLayout.getRuntime().getAddressSpaceView().getCommittedTailHint();
+        Map<Long, LogData> readResult = readFromLogUnits(runtimeLayout,
+                groupAddressByLogUnit(runtimeLayout, addresses, committedTail), cacheOnServer);
+
+        if (Address.isAddress(committedTail)) {
+            // Only the tail is authoritative, so re-read any address found empty on a replica.
+            List<Long> emptyAddresses = readResult.entrySet().stream()
+                    .filter(entry -> entry.getValue().isEmpty() && entry.getKey() <= committedTail)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            if (!emptyAddresses.isEmpty()) {
+                readResult.putAll(readFromLogUnits(runtimeLayout,
+                        groupAddressByLogUnit(runtimeLayout, emptyAddresses), cacheOnServer));
+            }
+        }
+
+        return waitOrHoleFill(runtimeLayout, readResult, waitForWrite);
+    }
 
+    private Map<Long, LogData> readFromLogUnits(RuntimeLayout runtimeLayout,
+                                                Map<String, List<Long>> serverAddressMap,
+                                                boolean cacheOnServer) {
         // Send read requests to log unit servers in parallel.
+        final ReplicaLatencyTracker tracker = runtimeLayout.getRuntime().getReplicaLatencyTracker();
         List<CompletableFuture<ReadResponse>> futures = serverAddressMap
                 .entrySet()
                 .stream()
-                .map(entry -> entry.getKey().read(entry.getValue(), cacheOnServer))
+                .map(entry -> tracker.track(entry.getKey(), runtimeLayout.getLogUnitClient(entry.getKey())
+                        .read(entry.getValue(), cacheOnServer)))
                 .collect(Collectors.toList());
 
         // Merge the read responses from different log unit servers.
-        Map<Long, LogData> readResult = futures.stream()
+        return futures.stream()
                 .map(future -> CFUtils.getUninterruptibly(future).getAddresses())
                 .reduce(new HashMap<>(), (map1, map2) -> {
                     map1.putAll(map2);
                     return map1;
                 });
-
-        return waitOrHoleFill(runtimeLayout, readResult, waitForWrite);
     }
 
     /**
@@ -133,15 +276,16 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
      */
     @Override
     public void commitAll(RuntimeLayout runtimeLayout, Collection<Long> addresses) {
-        // Group addresses by log unit client.
-        Map<LogUnitClient, List<Long>> serverAddressMap =
+        // Group addresses by log unit server.
+        Map<String, List<Long>> serverAddressMap =
                 groupAddressByLogUnit(runtimeLayout, addresses);
 
         // Send inspect addresses requests to log unit servers in parallel.
         List<CompletableFuture<InspectAddressesResponse>> futures = serverAddressMap
                 .entrySet()
                 .stream()
-                .map(entry -> entry.getKey().inspectAddresses(entry.getValue()))
+                .map(entry -> runtimeLayout.getLogUnitClient(entry.getKey())
+                        .inspectAddresses(entry.getValue()))
                 .collect(Collectors.toList());
 
         // Merge the inspect responses from different log unit servers.
@@ -153,15 +297,21 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         batchHoleFill(runtimeLayout, holes);
     }
 
-    private Map<LogUnitClient, List<Long>> groupAddressByLogUnit(RuntimeLayout runtimeLayout,
-                                                                 Collection<Long> addresses) {
-        // A map of log unit client to addresses it's responsible for.
-        Map<LogUnitClient, List<Long>> serverAddressMap = new HashMap<>();
+    private Map<String, List<Long>> groupAddressByLogUnit(RuntimeLayout runtimeLayout,
+                                                          Collection<Long> addresses) {
+        return groupAddressByLogUnit(runtimeLayout, addresses, Address.NON_ADDRESS);
+    }
+
+    private Map<String, List<Long>> groupAddressByLogUnit(RuntimeLayout runtimeLayout,
+                                                          Collection<Long> addresses,
+                                                          long committedTail) {
+        // A map of log unit server to addresses it's responsible for.
+        Map<String, List<Long>> serverAddressMap = new HashMap<>();
 
         for (long address : addresses) {
-            int numUnits = runtimeLayout.getLayout().getSegmentLength(address);
-            LogUnitClient client = runtimeLayout.getLogUnitClient(address, numUnits - 1);
-            List<Long> addressList = serverAddressMap.computeIfAbsent(client, s -> new ArrayList<>());
+            int readUnit = getReadUnit(runtimeLayout, address, committedTail);
+            String endpoint = runtimeLayout.getLayout().getStripe(address).getLogServers().get(readUnit);
+            List<Long> addressList = serverAddressMap.computeIfAbsent(endpoint, s -> new ArrayList<>());
             addressList.add(address);
         }
 
@@ -267,6 +417,41 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         }
     }
 
+    /**
+     * Asynchronously propagate a write down the chain, starting at the
+     * given unit and ignoring any overwrite errors. It is expected that
+     * the write has already successfully completed at the head of the chain.
+     *
+     * @param runtimeLayout the epoch stamped client containing the layout to use for propagation.
+     * @param globalAddress the global address to start writing at.
+     * @param data          the data to propagate.
+     * @param unit          the index of the next unit in the chain to write to.
+     * @return a future which completes once every remaining unit holds the address.
+     */
+    private CompletableFuture<Void> propagateAsync(RuntimeLayout runtimeLayout,
+                                                   long globalAddress,
+                                                   ILogData data,
+                                                   int unit) {
+        int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+        if (unit >= numUnits) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        log.trace("PropagateAsync[{}]: chain {}/{}", globalAddress, unit + 1, numUnits);
+        return runtimeLayout.getLogUnitClient(globalAddress, unit)
+                .write(data)
+                .handle((written, ex) -> {
+                    Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                    if (cause instanceof OverwriteException) {
+                        log.info("PropagateAsync[{}]: Completed by other writer", globalAddress);
+                    } else if (cause != null) {
+                        throw new CompletionException(cause);
+                    }
+                    return null;
+                })
+                .thenCompose(written -> propagateAsync(runtimeLayout, globalAddress, data, unit + 1));
+    }
+
     /**
      * Recover a failed write at the given global address,
      * driving it to completion by invoking the recovery
@@ -7,6 +7,7 @@ import org.corfudb.runtime.view.RuntimeLayout;
 import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -38,6 +39,32 @@ public interface IReplicationProtocol {
      */
     void write(RuntimeLayout runtimeLayout, ILogData data) throws OverwriteException;
 
+    /**
+     * Asynchronously write data to the log at the given address.
+     *
+     * <p>The returned future completes once -a- write at the global address
+     * is committed to the log, with the same semantics as {@link #write}: it
+     * completes normally if the committed write was this write, and exceptionally
+     * with an OverwriteException otherwise. Writes to different addresses may
+     * be in flight concurrently.
+     *
+     * <p>The default implementation performs a blocking write.
+     *
+     * @param runtimeLayout the RuntimeLayout stamped with layout to use for the write.
+     * @param data          the ILogData to write to the log.
+     * @return a future which completes when the write is committed.
+     */
+    default CompletableFuture<Void> writeAsync(RuntimeLayout runtimeLayout, ILogData data) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            write(runtimeLayout, data);
+            future.complete(null);
+        } catch (RuntimeException re) {
+            future.completeExceptionally(re);
+        }
+        return future;
+    }
+
     /**
      * Read data from a given address.
      *
@@ -36,13 +36,16 @@ import java.time.Duration;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Created by kspirov on 4/23/17.
@@ -77,11 +80,10 @@ public class QuorumReplicationProtocol extends AbstractReplicationProtocol {
         log.trace("Peek[{}]: quorum {}/{}", address, numUnits, numUnits);
         try {
             ReadResponse readResponse = null;
+            final AtomicBoolean quorumRead = new AtomicBoolean(false);
             try {
-                CompletableFuture<ReadResponse>[] futures = new CompletableFuture[numUnits];
-                for (int i = 0; i < numUnits; i++) {
-                    futures[i] = runtimeLayout.getLogUnitClient(address, i).read(address);
-                }
+                CompletableFuture<ReadResponse>[] futures = getReadFutures(runtimeLayout, address,
+                        quorumRead);
                 QuorumFuturesFactory.CompositeFuture<ReadResponse> future =
                         QuorumFuturesFactory.getQuorumFuture(new ReadResponseComparator(address),
                                 futures);
@@ -89,6 +91,8 @@ public class QuorumReplicationProtocol extends AbstractReplicationProtocol {
             } catch (QuorumUnreachableException e) {
                 log.debug("peek: Quorum unreachable: {}", e);
                 return null;
+            } finally {
+                quorumRead.set(true);
             }
             if (readResponse != null) {
                 LogData result = readResponse.getAddresses().get(address);
@@ -102,6 +106,80 @@ public class QuorumReplicationProtocol extends AbstractReplicationProtocol {
         }
     }
 
+    /**
+     * Send the reads of an address to the units of its segment. If hedged reads are enabled,
+     * the address is only read from the quorum of units with the lowest observed latency at
+     * first. The other units are read from if a unit of that quorum fails, or if the quorum
+     * read is not done within the hedge delay of its slowest unit (e.g. because the units
+     * disagree on the rank of the address).
+     *
+     * @param runtimeLayout the RuntimeLayout stamped with layout to use for the read
+     * @param address       the address to read
+     * @param quorumRead    set once the quorum read is done, so that it is not hedged
+     * @return the futures of the reads, indexed by unit
+     */
+    private CompletableFuture<ReadResponse>[] getReadFutures(RuntimeLayout runtimeLayout,
+                                                             long address,
+                                                             AtomicBoolean quorumRead) {
+        final int numUnits = runtimeLayout.getLayout().getSegmentLength(address);
+        final int quorum = (numUnits / 2) + 1;
+        final List<String> logServers = runtimeLayout.getLayout().getStripe(address).getLogServers();
+        final ReplicaLatencyTracker tracker = runtimeLayout.getRuntime().getReplicaLatencyTracker();
+        final IntFunction<CompletableFuture<ReadResponse>> read = unit -> tracker.track(
+                logServers.get(unit), runtimeLayout.getLogUnitClient(address, unit).read(address));
+
+        CompletableFuture<ReadResponse>[] futures = new CompletableFuture[numUnits];
+        if (!runtimeLayout.getRuntime().getParameters().isHedgedReadsEnabled() || quorum == numUnits) {
+            for (int i = 0; i < numUnits; i++) {
+                futures[i] = read.apply(i);
+            }
+            return futures;
+        }
+
+        final List<Integer> units = tracker.sortByLatency(
+                IntStream.range(0, numUnits).boxed().collect(Collectors.toList()), logServers::get);
+        final List<Integer> hedgeUnits = units.subList(quorum, numUnits);
+        hedgeUnits.forEach(unit -> futures[unit] = new CompletableFuture<>());
+
+        final AtomicBoolean hedged = new AtomicBoolean(false);
+        final Runnable hedge = () -> {
+            if (hedged.compareAndSet(false, true)) {
+                log.trace("peek[{}]: hedging read to units {}", address, hedgeUnits);
+                hedgeUnits.forEach(unit -> read.apply(unit).whenComplete((response, ex) -> {
+                    if (ex == null) {
+                        futures[unit].complete(response);
+                    } else {
+                        futures[unit].completeExceptionally(ex);
+                    }
+                }));
+            }
+        };
+
+        final Duration minDelay = runtimeLayout.getRuntime().getParameters().getHedgedReadMinDelay();
+        Duration hedgeDelay = minDelay;
+        for (int unit : units.subList(0, quorum)) {
+            futures[unit] = read.apply(unit);
+            futures[unit].whenComplete((response, ex) -> {
+                if (ex != null) {
+                    hedge.run();
+                }
+            });
+            Duration unitDelay = tracker.getHedgeDelay(logServers.get(unit), minDelay);
+            if (unitDelay.compareTo(hedgeDelay) > 0) {
+                hedgeDelay = unitDelay;
+            }
+        }
+
+        // The hedged futures must complete unless the quorum read is done,
+        // otherwise the quorum read could wait for them forever.
+        tracker.schedule(() -> {
+            if (!quorumRead.get()) {
+                hedge.run();
+            }
+        }, hedgeDelay);
+        return futures;
+    }
+
     /**
      * {@inheritDoc}
      */
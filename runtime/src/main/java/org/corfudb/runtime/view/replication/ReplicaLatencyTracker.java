@@ -0,0 +1,266 @@
+package org.corfudb.runtime.view.replication;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Tracks the read latency of each log unit server as an exponentially weighted moving
+ * average (EWMA) of its mean and variance, in order to read from the fastest replicas and
+ * to hedge reads to another replica when a replica is slower than usual (e.g. during a GC
+ * pause or a slow disk) but has not failed.
+ */
+@Slf4j
+public class ReplicaLatencyTracker {
+
+    /**
+     * Weight of a new sample in the averages, as in the TCP round-trip time estimator.
+     */
+    private static final double ALPHA = 0.125;
+
+    /**
+     * The 95th percentile of a normal distribution, in standard deviations from its mean.
+     */
+    private static final double P95_DEVIATIONS = 1.645;
+
+    /**
+     * Number of samples below which the latency of a server is not trusted for hedging.
+     */
+    private static final int MIN_SAMPLES = 8;
+
+    /**
+     * Latency recorded for a failed request by default, the default request timeout.
+     */
+    private static final Duration DEFAULT_FAILURE_PENALTY = Duration.ofSeconds(5);
+
+    private static final HashedWheelTimer HEDGE_TIMER = new HashedWheelTimer(
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("hedged-read-%d")
+                    .build(),
+            1, TimeUnit.MILLISECONDS);
+
+    /**
+     * Latency estimate of a server, in nanoseconds.
+     */
+    private static class LatencyEstimate {
+        private double mean;
+        private double variance;
+        private long samples;
+
+        synchronized void update(long latency) {
+            if (samples++ == 0) {
+                mean = latency;
+                variance = 0;
+                return;
+            }
+            final double delta = latency - mean;
+            mean += ALPHA * delta;
+            variance = (1 - ALPHA) * (variance + ALPHA * delta * delta);
+        }
+
+        synchronized double getMean() {
+            return mean;
+        }
+
+        synchronized long getP95() {
+            return samples < MIN_SAMPLES ? 0 : (long) (mean + P95_DEVIATIONS * Math.sqrt(variance));
+        }
+    }
+
+    private final Map<String, LatencyEstimate> estimates = new ConcurrentHashMap<>();
+
+    /**
+     * Latency recorded for a failed request, at least.
+     */
+    private final Supplier<Duration> failurePenalty;
+
+    public ReplicaLatencyTracker() {
+        this(() -> DEFAULT_FAILURE_PENALTY);
+    }
+
+    /**
+     * Create a latency tracker.
+     *
+     * @param failurePenalty The latency recorded for a failed request (e.g. the request
+     *                       timeout), at least.
+     */
+    public ReplicaLatencyTracker(@Nonnull Supplier<Duration> failurePenalty) {
+        this.failurePenalty = failurePenalty;
+    }
+
+    /**
+     * Record the latency of a request to a server once it completes. A request which fails
+     * is recorded as if it took (at least) the failure penalty, so that a server which fails
+     * requests quickly (e.g. refuses connections) is not taken for a fast server.
+     *
+     * @param endpoint The server the request is sent to.
+     * @param future   The future of the request.
+     * @return The future of the request.
+     */
+    public <T> CompletableFuture<T> track(@Nonnull String endpoint, @Nonnull CompletableFuture<T> future) {
+        final long start = System.nanoTime();
+        final LatencyEstimate estimate = estimates.computeIfAbsent(endpoint, e -> new LatencyEstimate());
+        future.whenComplete((result, ex) -> {
+            final long latency = System.nanoTime() - start;
+            estimate.update(ex == null ? latency : Math.max(latency, failurePenalty.get().toNanos()));
+        });
+        return future;
+    }
+
+    /**
+     * Get the average latency of a server.
+     *
+     * @param endpoint The server.
+     * @return The average latency in nanoseconds, 0 if the server was never read from.
+     */
+    public double getMeanLatency(@Nonnull String endpoint) {
+        final LatencyEstimate estimate = estimates.get(endpoint);
+        return estimate == null ? 0 : estimate.getMean();
+    }
+
+    /**
+     * Get the time to wait for a server before hedging a read to another server.
+     *
+     * @param endpoint The server.
+     * @param minDelay The minimum time to wait.
+     * @return The estimated 95th percentile latency of the server, and at least minDelay.
+     */
+    public Duration getHedgeDelay(@Nonnull String endpoint, @Nonnull Duration minDelay) {
+        final LatencyEstimate estimate = estimates.get(endpoint);
+        final long p95 = estimate == null ? 0 : estimate.getP95();
+        return p95 > minDelay.toNanos() ? Duration.ofNanos(p95) : minDelay;
+    }
+
+    /**
+     * Order items by the average latency of their servers, fastest first. Servers which
+     * were never read from come first, so that their latency gets measured.
+     *
+     * @param items    The items to order.
+     * @param endpoint A function which returns the server of an item.
+     * @return The ordered items.
+     */
+    public <T> List<T> sortByLatency(@Nonnull List<T> items, @Nonnull Function<T, String> endpoint) {
+        final List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingDouble(item -> getMeanLatency(endpoint.apply(item))));
+        return sorted;
+    }
+
+    /**
+     * Run a task after a delay, on a timer shared by all hedged reads.
+     *
+     * @param task  The task to run, which must not block.
+     * @param delay The delay.
+     * @return The handle of the scheduled task.
+     */
+    public Timeout schedule(@Nonnull Runnable task, @Nonnull Duration delay) {
+        return HEDGE_TIMER.newTimeout(timeout -> task.run(), delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Read from a list of servers in order, sending the read to the next server whenever the
+     * current server does not answer within its hedge delay, or answers without a valid result.
+     *
+     * @param endpoints The servers to read from, in order of preference.
+     * @param read      A function which sends the read to a server.
+     * @param isValid   Whether a result is a valid answer.
+     * @param minDelay  The minimum time to wait for a server before hedging.
+     * @return A future completed with the first valid result. If no result is valid, it is
+     *         completed with the last result received, or the last failure if there is none.
+     */
+    public <T> CompletableFuture<T> hedgedRead(@Nonnull List<String> endpoints,
+                                               @Nonnull Function<String, CompletableFuture<T>> read,
+                                               @Nonnull Predicate<T> isValid,
+                                               @Nonnull Duration minDelay) {
+        HedgedRead<T> hedgedRead = new HedgedRead<>(endpoints, read, isValid, minDelay);
+        hedgedRead.sendNext();
+        return hedgedRead.result;
+    }
+
+    private class HedgedRead<T> {
+        private final List<String> endpoints;
+        private final Function<String, CompletableFuture<T>> read;
+        private final Predicate<T> isValid;
+        private final Duration minDelay;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private volatile T lastResult;
+        private volatile Throwable lastFailure;
+
+        HedgedRead(List<String> endpoints, Function<String, CompletableFuture<T>> read,
+                   Predicate<T> isValid, Duration minDelay) {
+            this.endpoints = endpoints;
+            this.read = read;
+            this.isValid = isValid;
+            this.minDelay = minDelay;
+        }
+
+        void sendNext() {
+            if (result.isDone()) {
+                return;
+            }
+            final int index = next.getAndIncrement();
+            if (index >= endpoints.size()) {
+                return;
+            }
+
+            final String endpoint = endpoints.get(index);
+            CompletableFuture<T> future;
+            try {
+                future = track(endpoint, read.apply(endpoint));
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+
+            if (index + 1 < endpoints.size()) {
+                final CompletableFuture<T> pending = future;
+                schedule(() -> {
+                    if (!pending.isDone()) {
+                        log.trace("hedgedRead: no answer from {}, hedging", endpoint);
+                        sendNext();
+                    }
+                }, getHedgeDelay(endpoint, minDelay));
+            }
+
+            future.whenComplete((value, ex) -> {
+                if (ex == null && isValid.test(value)) {
+                    result.complete(value);
+                    return;
+                }
+
+                if (ex == null) {
+                    lastResult = value;
+                } else {
+                    lastFailure = ex;
+                }
+
+                if (completed.incrementAndGet() < endpoints.size()) {
+                    // This server did not answer, so there is no point in waiting to hedge.
+                    sendNext();
+                } else if (lastResult != null) {
+                    result.complete(lastResult);
+                } else {
+                    result.completeExceptionally(lastFailure);
+                }
+            });
+        }
+    }
+}
@@ -70,6 +70,9 @@ public abstract class AbstractQueuedStreamView extends
         super(runtime, streamId, QueuedStreamContext::new);
         this.readOptions = ReadOptions.builder()
                 .clientCacheable(streamOptions.isCacheEntries())
+                // A stream which is not cached is read by a sweep (e.g. a subscriber or a
+                // replication reader), which can warm the off-heap cache for other readers
+                .scanCacheable(!streamOptions.isCacheEntries())
                 .ignoreTrim(streamOptions.isIgnoreTrimmed())
                 .build();
     }
@@ -836,6 +839,20 @@ public abstract class AbstractQueuedStreamView extends
         return getCurrentContext().getGlobalPointer();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The checkpoint is marked as consulted, so the next fill of the read queue
+     * only discovers the regular address space after globalAddress. If that space
+     * is not fully available (trimmed), the read raises a TrimmedException and the
+     * consumer is expected to reset the stream.
+     */
+    @Override
+    public synchronized void resume(long globalAddress) {
+        seek(globalAddress);
+        getCurrentContext().setCheckpoint(StreamCheckpoint.INITIALIZED);
+    }
+
     @VisibleForTesting
     AbstractQueuedStreamView.QueuedStreamContext getContext() {
         return this.baseContext;
@@ -47,6 +47,17 @@ public interface IStreamView extends
      */
     void seek(long globalAddress);
 
+    /** Seek to the requested address on behalf of a consumer that has already
+     * materialized all of this stream's updates prior to the given address
+     * (e.g. from state it persisted locally). Unlike {@link #seek(long)}, this
+     * does not load the stream's checkpoint; if the stream has been trimmed
+     * past the given address, reads fail with a TrimmedException.
+     * @param globalAddress Address to resume from (inclusive)
+     */
+    default void resume(long globalAddress) {
+        seek(globalAddress);
+    }
+
     /** Append an object to the stream, returning the global address
      * it was written at.
      * <p>
@@ -60,6 +60,11 @@ public class ThreadSafeStreamView implements IStreamView {
         stream.seek(globalAddress);
     }
 
+    @Override
+    public synchronized void resume(long globalAddress) {
+        stream.resume(globalAddress);
+    }
+
     @Override
     public synchronized long append(Object object,
                 Function<TokenResponse, Boolean> acquisitionCallback,
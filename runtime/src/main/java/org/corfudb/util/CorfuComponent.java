@@ -14,6 +14,7 @@ public enum CorfuComponent {
     OBJECT("corfu.runtime.object."),
     GARBAGE_COLLECTION("corfu.runtime.gc."),
     CLIENT_SEQUENCER("corfu.runtime.sequencer."),
+    STREAM_MANAGER("corfu.runtime.stream-manager."),
 
     // Infrastructure components
     INFRA_MSG_HANDLER("corfu.infrastructure.message-handler."),
@@ -26,10 +26,12 @@ public class ManagementServerTest extends AbstractServerTest {
 
     private ManagementServer managementServer;
 
+    private ServerContext serverContext;
+
     @Override
     public ManagementServer getDefaultServer() {
         // Adding layout server for management server runtime to connect to.
-        ServerContext serverContext = new ServerContextBuilder()
+        serverContext = new ServerContextBuilder()
                 .setSingle(false)
                 .setPort(SERVERS.PORT_0)
                 .setServerRouter(getRouter())
@@ -99,4 +101,26 @@ public class ManagementServerTest extends AbstractServerTest {
         assertThat(future.join()).isEqualTo(true);
 
     }
+
+    /**
+     * Changing the state transfer bandwidth limit at runtime.
+     */
+    @Test
+    public void setStateTransferBandwidthLimit() {
+        final long limit = 1024L * 1024L;
+        Layout layout = TestLayoutBuilder.single(SERVERS.PORT_0);
+        sendMessage(CorfuMsgType.LAYOUT_BOOTSTRAP.payloadMsg(new LayoutBootstrapRequest(layout)));
+        assertThat(serverContext.getStateTransferBandwidthLimit()).isZero();
+
+        CompletableFuture<Boolean> future = sendRequestWithClusterId(
+                CorfuMsgType.MANAGEMENT_STATE_TRANSFER_BANDWIDTH_LIMIT.payloadMsg(limit), layout.getClusterId());
+        assertThat(future.join()).isTrue();
+        assertThat(serverContext.getStateTransferBandwidthLimit()).isEqualTo(limit);
+
+        // A negative limit is rejected.
+        future = sendRequestWithClusterId(
+                CorfuMsgType.MANAGEMENT_STATE_TRANSFER_BANDWIDTH_LIMIT.payloadMsg(-1L), layout.getClusterId());
+        assertThat(future.join()).isFalse();
+        assertThat(serverContext.getStateTransferBandwidthLimit()).isEqualTo(limit);
+    }
 }
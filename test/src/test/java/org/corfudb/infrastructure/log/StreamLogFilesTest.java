@@ -31,7 +31,9 @@ import org.corfudb.infrastructure.log.LogFormat.LogHeader;
 import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.LogSegmentChunk;
 import org.corfudb.runtime.exceptions.DataCorruptionException;
+import org.corfudb.runtime.exceptions.LogUnitException;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.test.LsofSpec;
@@ -142,6 +144,64 @@ public class StreamLogFilesTest extends AbstractCorfuTest {
         assertThat(writeEntries).isEqualTo(readEntries);
     }
 
+    @Test
+    public void testSegmentTransfer() throws Exception {
+        ServerContext sourceContext = new ServerContextBuilder()
+                .setLogPath(com.google.common.io.Files.createTempDir().getAbsolutePath())
+                .setMemory(false)
+                .build();
+        StreamLog source = new StreamLogFiles(sourceContext, false);
+
+        // A complete segment and a partial one
+        final int numEntries = RECORDS_PER_LOG_FILE + RECORDS_PER_LOG_FILE / 2;
+        List<LogData> writeEntries = new ArrayList<>();
+        for (int x = 0; x < numEntries; x++) {
+            writeEntries.add(getEntry(x));
+        }
+        source.append(writeEntries.subList(0, RECORDS_PER_LOG_FILE));
+        source.append(writeEntries.subList(RECORDS_PER_LOG_FILE, numEntries));
+
+        // Only complete segments can be transferred
+        final int chunkSize = 64 * 1024;
+        assertThatThrownBy(() -> source.readSegmentChunk(1, 0, chunkSize))
+                .isInstanceOf(LogUnitException.class);
+
+        StreamLog destination = new StreamLogFiles(getContext(), false);
+        // Known address queries create the segment file, which can still be replaced
+        assertThat(destination.getKnownAddressesInRange(0, RECORDS_PER_LOG_FILE - 1)).isEmpty();
+
+        List<LogSegmentChunk> chunks = new ArrayList<>();
+        long offset = 0;
+        LogSegmentChunk chunk;
+        do {
+            chunk = source.readSegmentChunk(0, offset, chunkSize);
+            chunks.add(chunk);
+            offset += chunk.getData().readableBytes();
+        } while (!chunk.isLast());
+        assertThat(chunks.size()).isGreaterThan(1);
+
+        // A corrupted chunk is rejected
+        LogSegmentChunk first = chunks.get(0);
+        LogSegmentChunk corrupted = new LogSegmentChunk(first.getSegment(), first.getOffset(),
+                first.getSegmentSize(), first.getChecksum() + 1, first.getData());
+        assertThatThrownBy(() -> destination.writeSegmentChunk(corrupted))
+                .isInstanceOf(DataCorruptionException.class);
+
+        chunks.forEach(destination::writeSegmentChunk);
+        assertThat(readRange(0, RECORDS_PER_LOG_FILE, destination))
+                .isEqualTo(writeEntries.subList(0, RECORDS_PER_LOG_FILE));
+        assertThat(destination.getLogTail()).isEqualTo(RECORDS_PER_LOG_FILE - 1);
+
+        // The segment is installed only once
+        assertThatThrownBy(() -> chunks.forEach(destination::writeSegmentChunk))
+                .isInstanceOf(OverwriteException.class);
+
+        // The installed segment survives a restart
+        StreamLog restarted = new StreamLogFiles(getContext(), false);
+        assertThat(readRange(0, RECORDS_PER_LOG_FILE, restarted))
+                .isEqualTo(writeEntries.subList(0, RECORDS_PER_LOG_FILE));
+    }
+
     @Test
     public void testRangeWriteTrim() throws Exception {
         StreamLog log = new StreamLogFiles(getContext(), false);
@@ -490,7 +490,7 @@ public class LogReplicationFSMTest extends AbstractViewTest implements Observer
                 // Default implementation used for Log Replication (stream-based)
                 LogReplicationConfig logReplicationConfig = new LogReplicationConfig(Collections.singleton(TEST_STREAM_NAME));
                 snapshotReader = new StreamsSnapshotReader(getNewRuntime(getDefaultNode()).connect(),
-                        logReplicationConfig);
+                        logReplicationConfig, TEST_LOCAL_CLUSTER_ID);
                 dataSender = new TestDataSender();
                 break;
             default:
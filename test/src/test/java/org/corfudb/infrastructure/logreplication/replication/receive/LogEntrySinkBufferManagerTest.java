@@ -0,0 +1,150 @@
+package org.corfudb.infrastructure.logreplication.replication.receive;
+
+import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
+import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test the in order processing of the log entry messages buffered by the sink.
+ */
+public class LogEntrySinkBufferManagerTest {
+
+    private static final int ACK_CYCLE_TIME = 1000;
+    private static final int ACK_CYCLE_CNT = 100;
+    private static final int BUFFER_SIZE = 10;
+    private static final int APPLY_BATCH_SIZE = 3;
+    private static final long TIMESTAMP_STEP = 10;
+
+    private final UUID syncRequestId = UUID.randomUUID();
+
+    /*
+     * The timestamps of the messages of each apply, in the order they were applied.
+     */
+    private final List<List<Long>> applies = new ArrayList<>();
+
+    private LogEntrySinkBufferManager setUp(int applyBatchSize) {
+        LogReplicationSinkManager sinkManager = mock(LogReplicationSinkManager.class);
+        doAnswer(invocation -> {
+            applies.add(timestamps(Collections.singletonList((LogReplicationEntry) invocation.getArguments()[0])));
+            return null;
+        }).when(sinkManager).processMessage(any(LogReplicationEntry.class));
+        doAnswer(invocation -> {
+            applies.add(timestamps((List<LogReplicationEntry>) invocation.getArguments()[0]));
+            return null;
+        }).when(sinkManager).processMessages(anyListOf(LogReplicationEntry.class));
+        return new LogEntrySinkBufferManager(ACK_CYCLE_TIME, ACK_CYCLE_CNT, BUFFER_SIZE, 0,
+                applyBatchSize, sinkManager);
+    }
+
+    private static List<Long> timestamps(List<LogReplicationEntry> messages) {
+        return messages.stream()
+                .map(message -> message.getMetadata().getTimestamp())
+                .collect(Collectors.toList());
+    }
+
+    private static long timestamp(int index) {
+        return (index + 1) * TIMESTAMP_STEP;
+    }
+
+    /**
+     * Generate the log entry message at the given index, which follows the message before it.
+     */
+    private LogReplicationEntry message(int index) {
+        return new LogReplicationEntry(MessageType.LOG_ENTRY_MESSAGE, 0, syncRequestId,
+                timestamp(index), timestamp(index - 1), 0, index, Collections.emptyList());
+    }
+
+    private void receive(LogEntrySinkBufferManager bufferManager, int... indexes) {
+        for (int index : indexes) {
+            bufferManager.processMsgAndBuffer(message(index));
+        }
+    }
+
+    /**
+     * Buffered messages which follow the expected message are applied with it, in batches of
+     * up to the apply batch size, whatever the order they were received in.
+     */
+    @Test
+    public void testOutOfOrderMessagesAreBatched() {
+        LogEntrySinkBufferManager bufferManager = setUp(APPLY_BATCH_SIZE);
+
+        receive(bufferManager, 3, 1, 5, 2, 4);
+        assertThat(applies).isEmpty();
+        assertThat(bufferManager.buffer).hasSize(5);
+
+        receive(bufferManager, 0);
+        assertThat(applies).containsExactly(
+                Arrays.asList(timestamp(0), timestamp(1), timestamp(2)),
+                Arrays.asList(timestamp(3), timestamp(4), timestamp(5)));
+        assertThat(bufferManager.buffer).isEmpty();
+        assertThat(bufferManager.lastProcessedSeq).isEqualTo(timestamp(5));
+    }
+
+    /**
+     * A batch ends at the first message missing from the buffer, the messages after it
+     * are applied once it is received.
+     */
+    @Test
+    public void testBatchStopsAtGap() {
+        LogEntrySinkBufferManager bufferManager = setUp(APPLY_BATCH_SIZE);
+
+        receive(bufferManager, 3, 2, 0);
+        assertThat(applies).containsExactly(Collections.singletonList(timestamp(0)));
+        assertThat(bufferManager.lastProcessedSeq).isEqualTo(timestamp(0));
+        assertThat(bufferManager.buffer).hasSize(2);
+
+        receive(bufferManager, 1);
+        assertThat(applies).containsExactly(
+                Collections.singletonList(timestamp(0)),
+                Arrays.asList(timestamp(1), timestamp(2), timestamp(3)));
+        assertThat(bufferManager.buffer).isEmpty();
+    }
+
+    /**
+     * Messages already applied are dropped from the buffer, instead of being applied again.
+     */
+    @Test
+    public void testProcessedMessagesAreDropped() {
+        LogEntrySinkBufferManager bufferManager = setUp(APPLY_BATCH_SIZE);
+
+        receive(bufferManager, 2, 1);
+        // A resent message covering the buffered ones is applied in their place
+        bufferManager.processMsgAndBuffer(new LogReplicationEntry(MessageType.LOG_ENTRY_MESSAGE, 0,
+                syncRequestId, timestamp(2), 0, 0, 0, Collections.emptyList()));
+        assertThat(applies).containsExactly(Collections.singletonList(timestamp(2)));
+        assertThat(bufferManager.buffer).isEmpty();
+
+        receive(bufferManager, 1, 3);
+        assertThat(applies).containsExactly(
+                Collections.singletonList(timestamp(2)),
+                Collections.singletonList(timestamp(3)));
+    }
+
+    /**
+     * Without batching, the buffered messages are applied one by one, in order.
+     */
+    @Test
+    public void testWithoutBatching() {
+        LogEntrySinkBufferManager bufferManager = setUp(1);
+
+        receive(bufferManager, 2, 1, 0);
+        assertThat(applies).containsExactly(
+                Collections.singletonList(timestamp(0)),
+                Collections.singletonList(timestamp(1)),
+                Collections.singletonList(timestamp(2)));
+        assertThat(bufferManager.buffer).isEmpty();
+    }
+}
@@ -0,0 +1,73 @@
+package org.corfudb.infrastructure.logreplication.replication.send;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test the adaptive send window of the log replication sender.
+ */
+public class AdaptiveSendWindowTest {
+
+    private static final int INITIAL_SIZE = 4;
+    private static final int MAX_SIZE = 32;
+    private static final long MAX_RETRANSMIT_TIMEOUT_MS = 5000;
+    private static final long RTT_MS = 200;
+
+    @Test
+    public void windowGrowsOnAcksAndShrinksOnLoss() {
+        AdaptiveSendWindow window = new AdaptiveSendWindow(INITIAL_SIZE, MAX_SIZE, MAX_RETRANSMIT_TIMEOUT_MS);
+        assertThat(window.getSize()).isEqualTo(INITIAL_SIZE);
+
+        // Slow start: the window grows by the number of messages acknowledged
+        window.onAck(INITIAL_SIZE, RTT_MS);
+        assertThat(window.getSize()).isEqualTo(2 * INITIAL_SIZE);
+
+        // The window never exceeds its max size
+        for (int i = 0; i < MAX_SIZE; i++) {
+            window.onAck(MAX_SIZE, RTT_MS);
+        }
+        assertThat(window.getSize()).isEqualTo(MAX_SIZE);
+
+        // A loss halves the window, which then grows by one message per window acknowledged
+        window.onLoss();
+        assertThat(window.getSize()).isEqualTo(MAX_SIZE / 2);
+        window.onAck(MAX_SIZE / 2 - 1, RTT_MS);
+        assertThat(window.getSize()).isEqualTo(MAX_SIZE / 2);
+        window.onAck(1, RTT_MS);
+        assertThat(window.getSize()).isEqualTo(MAX_SIZE / 2 + 1);
+
+        // The window never shrinks below a single message
+        for (int i = 0; i < MAX_SIZE; i++) {
+            window.onLoss();
+        }
+        assertThat(window.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void retransmitTimeoutFollowsRtt() {
+        AdaptiveSendWindow window = new AdaptiveSendWindow(INITIAL_SIZE, MAX_SIZE, MAX_RETRANSMIT_TIMEOUT_MS);
+        assertThat(window.getSmoothedRttMs()).isNegative();
+
+        // First sample: timeout is the rtt plus 4 times half the rtt
+        window.onAck(1, RTT_MS);
+        assertThat(window.getSmoothedRttMs()).isEqualTo(RTT_MS);
+        assertThat(window.getRetransmitTimeoutMs()).isEqualTo(3 * RTT_MS);
+
+        // Invalid samples are ignored
+        window.onAck(1, -1);
+        assertThat(window.getSmoothedRttMs()).isEqualTo(RTT_MS);
+
+        // The timeout converges towards the rtt as it gets stable, but stays above its min
+        for (int i = 0; i < MAX_SIZE; i++) {
+            window.onAck(1, 0);
+        }
+        assertThat(window.getRetransmitTimeoutMs()).isEqualTo(100L);
+
+        // and below its max
+        for (int i = 0; i < MAX_SIZE; i++) {
+            window.onAck(1, 2 * MAX_RETRANSMIT_TIMEOUT_MS);
+        }
+        assertThat(window.getRetransmitTimeoutMs()).isEqualTo(MAX_RETRANSMIT_TIMEOUT_MS);
+    }
+}
@@ -0,0 +1,134 @@
+package org.corfudb.infrastructure.logreplication.replication.send;
+
+import org.corfudb.infrastructure.logreplication.DataSender;
+import org.corfudb.infrastructure.logreplication.replication.LogReplicationAckReader;
+import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
+import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the retransmission of lost messages by the sender buffer manager with an adaptive send window.
+ */
+public class SenderBufferManagerTest {
+
+    private static final int INITIAL_WINDOW_SIZE = 4;
+    private static final int MAX_WINDOW_SIZE = 16;
+    private static final long MAX_RETRANSMIT_TIMEOUT_MS = 5000;
+    private static final int NUM_MESSAGES = 3;
+    private static final String REMOTE_CLUSTER_ID = "remote_cluster";
+
+    /*
+     * Round trip time of the first ACK, which gives a retransmission timeout of 3 times this value,
+     * and a backed off timeout of 6 times this value after a retry.
+     */
+    private static final long RTT_MS = 100;
+
+    private final UUID syncRequestId = UUID.randomUUID();
+
+    /*
+     * The future of the last send of each message, by timestamp. Messages are lost until their future is completed.
+     */
+    private final Map<Long, CompletableFuture<LogReplicationEntry>> sends = new HashMap<>();
+
+    private final DataSender dataSender = mock(DataSender.class);
+
+    private final List<LogReplicationEntry> messages = new ArrayList<>();
+
+    private AdaptiveSendWindow window;
+
+    private LogEntrySenderBufferManager setUp() {
+        when(dataSender.send(any(LogReplicationEntry.class))).thenAnswer(invocation -> {
+            LogReplicationEntry message = (LogReplicationEntry) invocation.getArguments()[0];
+            CompletableFuture<LogReplicationEntry> future = new CompletableFuture<>();
+            sends.put(message.getMetadata().getTimestamp(), future);
+            return future;
+        });
+
+        LogReplicationAckReader ackReader = mock(LogReplicationAckReader.class);
+        when(ackReader.getRemoteClusterId()).thenReturn(REMOTE_CLUSTER_ID);
+        LogEntrySenderBufferManager bufferManager = new LogEntrySenderBufferManager(dataSender, ackReader);
+        window = new AdaptiveSendWindow(INITIAL_WINDOW_SIZE, MAX_WINDOW_SIZE, MAX_RETRANSMIT_TIMEOUT_MS);
+        window.onAck(0, RTT_MS);
+        bufferManager.setWindow(window);
+
+        for (int i = 1; i <= NUM_MESSAGES; i++) {
+            LogReplicationEntry message = new LogReplicationEntry(MessageType.LOG_ENTRY_MESSAGE, 0,
+                    syncRequestId, i, i - 1, 0, i, Collections.emptyList());
+            messages.add(message);
+            bufferManager.sendWithBuffering(message);
+        }
+        return bufferManager;
+    }
+
+    private void verifySends(LogReplicationEntry message, int numSends) {
+        verify(dataSender, times(numSends)).send(same(message));
+    }
+
+    private List<Integer> retries(LogEntrySenderBufferManager bufferManager) {
+        List<Integer> retries = new ArrayList<>();
+        bufferManager.getPendingMessages().getPendingEntries().forEach(entry -> retries.add(entry.getRetry()));
+        return retries;
+    }
+
+    /**
+     * Lost messages are resent once their retransmission timeout expires, the send window shrinks
+     * on the loss and grows again once the messages are ACKed.
+     */
+    @Test
+    public void testLostMessagesAreResent() {
+        LogEntrySenderBufferManager bufferManager = setUp();
+
+        // No ACK within the retransmission timeout: all messages timed out and are resent
+        assertThat(bufferManager.resend()).isNull();
+        messages.forEach(message -> verifySends(message, 2));
+        assertThat(retries(bufferManager)).containsExactly(1, 1, 1);
+        assertThat(window.getSize()).isEqualTo(INITIAL_WINDOW_SIZE / 2);
+
+        // A cumulative ACK of the last message evicts all messages
+        LogReplicationEntry ack = new LogReplicationEntry(MessageType.LOG_ENTRY_REPLICATED, 0,
+                syncRequestId, NUM_MESSAGES, NUM_MESSAGES - 1, 0, NUM_MESSAGES, Collections.emptyList());
+        sends.get((long) NUM_MESSAGES).complete(ack);
+        assertThat(bufferManager.resend()).isSameAs(ack);
+        assertThat(bufferManager.getPendingMessages().isEmpty()).isTrue();
+        assertThat(bufferManager.maxAckTimestamp).isEqualTo(NUM_MESSAGES);
+        assertThat(window.getSize()).isGreaterThan(INITIAL_WINDOW_SIZE / 2);
+        // The ACK of a resent message is not a round trip time sample
+        assertThat(window.getSmoothedRttMs()).isEqualTo(RTT_MS);
+        messages.forEach(message -> verifySends(message, 2));
+    }
+
+    /**
+     * Once resent, a message waits twice as long before it is resent again. On a timeout, only the
+     * oldest message is forced out, the others wait for their own retransmission timeout.
+     */
+    @Test
+    public void testOnlyOldestMessageIsForcedOnTimeout() {
+        LogEntrySenderBufferManager bufferManager = setUp();
+
+        assertThat(bufferManager.resend()).isNull();
+        assertThat(retries(bufferManager)).containsExactly(1, 1, 1);
+
+        assertThat(bufferManager.resend()).isNull();
+        assertThat(retries(bufferManager)).containsExactly(2, 1, 1);
+        verifySends(messages.get(0), 3);
+        verifySends(messages.get(1), 2);
+        verifySends(messages.get(2), 2);
+        assertThat(window.getSize()).isEqualTo(INITIAL_WINDOW_SIZE / 4);
+    }
+}
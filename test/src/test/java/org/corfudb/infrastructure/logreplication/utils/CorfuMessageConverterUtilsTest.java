@@ -0,0 +1,149 @@
+package org.corfudb.infrastructure.logreplication.utils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.corfudb.common.compression.Codec;
+import org.corfudb.protocols.logprotocol.OpaqueEntry;
+import org.corfudb.protocols.logprotocol.SMREntry;
+import org.corfudb.protocols.wireprotocol.CorfuMsg;
+import org.corfudb.protocols.wireprotocol.CorfuMsgType;
+import org.corfudb.protocols.wireprotocol.CorfuPayloadMsg;
+import org.corfudb.protocols.wireprotocol.ICorfuPayload;
+import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
+import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntryMetadata;
+import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationMetadataResponse;
+import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
+import org.corfudb.runtime.Messages;
+import org.corfudb.runtime.Messages.CorfuMessage;
+import org.corfudb.util.serializer.Serializers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test the conversion of log replication messages to and from protoBuf.
+ */
+public class CorfuMessageConverterUtilsTest {
+
+    private static final int NUM_ENTRIES = 100;
+
+    private final UUID streamId = UUID.randomUUID();
+
+    private CorfuMsg getLogReplicationEntryMsg() {
+        List<SMREntry> smrEntries = new ArrayList<>();
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            smrEntries.add(new SMREntry("put", new Object[]{"key" + i, "value"}, Serializers.PRIMITIVE));
+        }
+        Map<UUID, List<SMREntry>> entries = new HashMap<>();
+        entries.put(streamId, smrEntries);
+
+        LogReplicationEntry entry = new LogReplicationEntry(MessageType.LOG_ENTRY_MESSAGE, 0L, UUID.randomUUID(),
+                1L, 0L, 0L, 0L, new OpaqueEntry(1L, entries));
+        return new CorfuPayloadMsg<>(CorfuMsgType.LOG_REPLICATION_ENTRY, entry).setClientID(UUID.randomUUID());
+    }
+
+    @Test
+    public void logReplicationEntryIsCompressed() throws Exception {
+        CorfuMessage uncompressed = CorfuMessageConverterUtils.toProtoBuf(getLogReplicationEntryMsg());
+
+        for (Codec.Type codecType : EnumSet.of(Codec.Type.LZ4, Codec.Type.ZSTD)) {
+            CorfuMessage compressed = CorfuMessageConverterUtils.toProtoBuf(getLogReplicationEntryMsg(), codecType);
+
+            Messages.LogReplicationEntry proto = compressed.getPayload().unpack(Messages.LogReplicationEntry.class);
+            assertThat(proto.getCodec()).isEqualTo(codecType.getId());
+            assertThat(proto.getData().size()).isLessThan(uncompressed.getPayload()
+                    .unpack(Messages.LogReplicationEntry.class).getData().size());
+
+            LogReplicationEntry entry = ((CorfuPayloadMsg<LogReplicationEntry>) CorfuMessageConverterUtils
+                    .fromProtoBuf(compressed)).getPayload();
+            assertThat(entry.getOpaqueEntryList()).hasSize(1);
+            OpaqueEntry opaqueEntry = entry.getOpaqueEntryList().get(0);
+            assertThat(opaqueEntry.getVersion()).isEqualTo(1L);
+            assertThat(opaqueEntry.getEntries().get(streamId)).hasSize(NUM_ENTRIES);
+        }
+    }
+
+    @Test
+    public void streamDigestsAreConverted() throws Exception {
+        LogReplicationEntry startMarker = new LogReplicationEntry(new LogReplicationEntryMetadata(
+                MessageType.SNAPSHOT_START, 0L, UUID.randomUUID(), -1L, -1L, 1L, -1L));
+        Map<UUID, String> streamDigests = new HashMap<>();
+        streamDigests.put(streamId, "digest");
+        startMarker.setStreamDigests(streamDigests);
+
+        CorfuMessage proto = CorfuMessageConverterUtils.toProtoBuf(new CorfuPayloadMsg<>(
+                CorfuMsgType.LOG_REPLICATION_ENTRY, startMarker).setClientID(UUID.randomUUID()));
+        LogReplicationEntry converted = ((CorfuPayloadMsg<LogReplicationEntry>)
+                CorfuMessageConverterUtils.fromProtoBuf(proto)).getPayload();
+        assertThat(converted.getStreamDigests()).isEqualTo(streamDigests);
+
+        // Entries without digests are converted as before
+        LogReplicationEntry entry = ((CorfuPayloadMsg<LogReplicationEntry>) CorfuMessageConverterUtils
+                .fromProtoBuf(CorfuMessageConverterUtils.toProtoBuf(getLogReplicationEntryMsg()))).getPayload();
+        assertThat(entry.getStreamDigests()).isEmpty();
+    }
+
+    @Test
+    public void supportedCodecsAreNegotiated() throws Exception {
+        LogReplicationMetadataResponse response = new LogReplicationMetadataResponse(0L, "version",
+                0L, 0L, 0L, 0L);
+        response.setSupportedCodecs(EnumSet.allOf(Codec.Type.class));
+
+        CorfuMessage proto = CorfuMessageConverterUtils.toProtoBuf(new CorfuPayloadMsg<>(
+                CorfuMsgType.LOG_REPLICATION_METADATA_RESPONSE, response).setClientID(UUID.randomUUID()));
+        LogReplicationMetadataResponse converted = ((CorfuPayloadMsg<LogReplicationMetadataResponse>)
+                CorfuMessageConverterUtils.fromProtoBuf(proto)).getPayload();
+        assertThat(converted.getSupportedCodecs()).isEqualTo(EnumSet.allOf(Codec.Type.class));
+
+        // A sink which does not advertise codecs only supports uncompressed entries
+        LogReplicationMetadataResponse legacy = LogReplicationMetadataResponse.fromProto(
+                Messages.LogReplicationMetadataResponse.newBuilder().setVersion("version").build());
+        assertThat(legacy.getSupportedCodecs()).isEqualTo(Collections.singleton(Codec.Type.NONE));
+    }
+
+    @Test
+    public void digestsComparedAckIsConverted() throws Exception {
+        LogReplicationEntry ack = new LogReplicationEntry(new LogReplicationEntryMetadata(
+                MessageType.SNAPSHOT_DIGESTS_COMPARED, 0L, UUID.randomUUID(), -1L, -1L, 1L, -1L));
+        ack.getStreamDigests().put(streamId, "digest");
+
+        CorfuMessage proto = CorfuMessageConverterUtils.toProtoBuf(new CorfuPayloadMsg<>(
+                CorfuMsgType.LOG_REPLICATION_ENTRY, ack).setClientID(UUID.randomUUID()));
+        LogReplicationEntry converted = ((CorfuPayloadMsg<LogReplicationEntry>)
+                CorfuMessageConverterUtils.fromProtoBuf(proto)).getPayload();
+        assertThat(converted.getMetadata().getMessageMetadataType()).isEqualTo(MessageType.SNAPSHOT_DIGESTS_COMPARED);
+        assertThat(converted.getStreamDigests()).isEqualTo(ack.getStreamDigests());
+    }
+
+    @Test
+    public void legacyBuffersAreDeserialized() {
+        // An entry serialized by a cluster which does not know of stream digests
+        ByteBuf entryBuf = Unpooled.buffer();
+        ICorfuPayload.serialize(entryBuf, new LogReplicationEntryMetadata(
+                MessageType.SNAPSHOT_START, 0L, UUID.randomUUID(), -1L, -1L, 1L, -1L));
+        ICorfuPayload.serialize(entryBuf, 0);
+        LogReplicationEntry entry = new LogReplicationEntry(entryBuf);
+        assertThat(entry.getOpaqueEntryList()).isEmpty();
+        assertThat(entry.getStreamDigests()).isEmpty();
+
+        // A metadata response serialized by a cluster which does not know of codecs
+        ByteBuf responseBuf = Unpooled.buffer();
+        ICorfuPayload.serialize(responseBuf, 0L);
+        ICorfuPayload.serialize(responseBuf, "version");
+        ICorfuPayload.serialize(responseBuf, 0L);
+        ICorfuPayload.serialize(responseBuf, 0L);
+        ICorfuPayload.serialize(responseBuf, 0L);
+        ICorfuPayload.serialize(responseBuf, 0L);
+        LogReplicationMetadataResponse response = new LogReplicationMetadataResponse(responseBuf);
+        assertThat(response.getVersion()).isEqualTo("version");
+        assertThat(response.getSupportedCodecs()).isEqualTo(Collections.singleton(Codec.Type.NONE));
+    }
+}
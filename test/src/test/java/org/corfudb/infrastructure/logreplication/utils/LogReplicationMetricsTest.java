@@ -0,0 +1,153 @@
+package org.corfudb.infrastructure.logreplication.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
+import org.corfudb.common.metrics.micrometer.MeterRegistryProvider.MeterRegistryInitializer;
+import org.corfudb.infrastructure.logreplication.DataSender;
+import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
+import org.corfudb.infrastructure.logreplication.proto.LogReplicationMetadata.ReplicationStatusVal.SyncType;
+import org.corfudb.infrastructure.logreplication.replication.LogReplicationAckReader;
+import org.corfudb.infrastructure.logreplication.replication.receive.LogReplicationMetadataManager;
+import org.corfudb.infrastructure.logreplication.replication.send.LogEntrySenderBufferManager;
+import org.corfudb.infrastructure.logreplication.replication.send.logreader.LogEntryReader;
+import org.corfudb.infrastructure.logreplication.replication.send.logreader.StreamsLogEntryReader.StreamIteratorMetadata;
+import org.corfudb.protocols.wireprotocol.TailsResponse;
+import org.corfudb.protocols.wireprotocol.logreplication.LogReplicationEntry;
+import org.corfudb.protocols.wireprotocol.logreplication.MessageType;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.view.AddressSpaceView;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.corfudb.runtime.view.ObjectsView.TRANSACTION_STREAM_ID;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test the log replication metrics, read back from an in-memory registry.
+ */
+public class LogReplicationMetricsTest {
+
+    private static final String REMOTE_CLUSTER_ID = "remote_cluster";
+    private static final String STREAM_NAME = "Table001";
+    private static final long TAIL = 10;
+    private static final long LAG_MS = 50;
+
+    private MeterRegistry registry;
+
+    @Before
+    public void setUp() {
+        if (!MeterRegistryProvider.getInstance().isPresent()) {
+            MeterRegistryInitializer.init(new SimpleMeterRegistry());
+        }
+        registry = MeterRegistryProvider.getInstance().get();
+        // The timers of a step registry are only updated at the end of each step
+        assumeTrue(registry instanceof SimpleMeterRegistry);
+    }
+
+    private long stageCount(String stage) {
+        Timer timer = registry.find("logreplication.stage.duration")
+                .tags("stage", stage, LogReplicationMetrics.REPLICATION_TYPE_TAG, LogReplicationMetrics.LOG_ENTRY)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private Double gauge(String name) {
+        return registry.find(name).tag(LogReplicationMetrics.CLUSTER_TAG, REMOTE_CLUSTER_ID)
+                .gauges().stream()
+                .findFirst()
+                .map(gauge -> gauge.value())
+                .orElse(null);
+    }
+
+    /**
+     * Sending a message and receiving its ACK are timed, and the buffer gauge of the remote
+     * cluster is removed once the buffer manager is shut down.
+     */
+    @Test
+    public void testSendAndAckStages() {
+        DataSender dataSender = mock(DataSender.class);
+        CompletableFuture<LogReplicationEntry> ack = new CompletableFuture<>();
+        when(dataSender.send(any(LogReplicationEntry.class))).thenReturn(ack);
+        LogReplicationAckReader ackReader = mock(LogReplicationAckReader.class);
+        when(ackReader.getRemoteClusterId()).thenReturn(REMOTE_CLUSTER_ID);
+
+        final long sendCount = stageCount("send");
+        final long ackCount = stageCount("ack");
+        LogEntrySenderBufferManager bufferManager = new LogEntrySenderBufferManager(dataSender, ackReader);
+        bufferManager.sendWithBuffering(new LogReplicationEntry(MessageType.LOG_ENTRY_MESSAGE, 0,
+                UUID.randomUUID(), TAIL, 0, 0, 0, Collections.emptyList()));
+        assertThat(stageCount("send")).isEqualTo(sendCount + 1);
+        assertThat(gauge("logreplication.sender.buffer.size")).isEqualTo(1.0);
+
+        bufferManager.updateAck(TAIL);
+        assertThat(stageCount("ack")).isEqualTo(ackCount + 1);
+        assertThat(gauge("logreplication.sender.buffer.size")).isEqualTo(0.0);
+
+        bufferManager.shutdown();
+        assertThat(gauge("logreplication.sender.buffer.size")).isNull();
+    }
+
+    /**
+     * The lag gauges report the entries remaining to be sent to the remote cluster and the time
+     * since the oldest tail not acked, and are removed once the ack reader is shut down.
+     */
+    @Test
+    public void testLagGauges() throws Exception {
+        CorfuRuntime runtime = mock(CorfuRuntime.class);
+        AddressSpaceView addressSpaceView = mock(AddressSpaceView.class);
+        Map<UUID, Long> tails = new HashMap<>();
+        tails.put(TRANSACTION_STREAM_ID, TAIL);
+        tails.put(CorfuRuntime.getStreamID(STREAM_NAME), TAIL);
+        when(runtime.getAddressSpaceView()).thenReturn(addressSpaceView);
+        when(addressSpaceView.getAllTails()).thenReturn(new TailsResponse(TAIL, tails));
+
+        // Wait for the first run of the periodic task, so that it does not race with the assertions
+        LogReplicationMetadataManager metadataManager = mock(LogReplicationMetadataManager.class);
+        CountDownLatch polled = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            polled.countDown();
+            return null;
+        }).when(metadataManager).setReplicationStatusTable(anyString(), anyLong(), any(SyncType.class));
+
+        LogEntryReader logEntryReader = mock(LogEntryReader.class);
+        when(logEntryReader.getCurrentProcessedEntryMetadata()).thenReturn(new StreamIteratorMetadata(TAIL, true));
+
+        LogReplicationAckReader ackReader = new LogReplicationAckReader(metadataManager,
+                new LogReplicationConfig(Collections.singleton(STREAM_NAME)), runtime, REMOTE_CLUSTER_ID);
+        ackReader.setSyncType(SyncType.SNAPSHOT);
+        ackReader.setBaseSnapshot(TAIL);
+        ackReader.startAckReader(logEntryReader);
+        assertThat(polled.await(1, TimeUnit.MINUTES)).isTrue();
+
+        // Nothing acked yet: the whole snapshot remains to be sent
+        ackReader.markSnapshotSyncInfoOngoing(false, UUID.randomUUID());
+        assertThat(gauge("logreplication.lag.entries")).isEqualTo((double) TAIL);
+        TimeUnit.MILLISECONDS.sleep(LAG_MS);
+        assertThat(gauge("logreplication.lag.seconds")).isGreaterThan(0.0);
+
+        // Once the tail is acked, the remote cluster is up to date
+        ackReader.setAckedTsAndSyncType(TAIL, SyncType.LOG_ENTRY);
+        assertThat(gauge("logreplication.lag.seconds")).isEqualTo(0.0);
+
+        ackReader.shutdown();
+        assertThat(gauge("logreplication.lag.entries")).isNull();
+        assertThat(gauge("logreplication.lag.seconds")).isNull();
+    }
+}
@@ -0,0 +1,77 @@
+package org.corfudb.infrastructure.logreplication.utils;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.corfudb.protocols.logprotocol.SMREntry;
+import org.corfudb.util.serializer.Serializers;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test the digests used to compare the content of streams by an incremental snapshot sync.
+ */
+public class StreamDigestsTest {
+
+    private static SMREntry put(String key, String value) {
+        return new SMREntry("put", new Object[]{key.getBytes(), value.getBytes()}, Serializers.PRIMITIVE);
+    }
+
+    private static SMREntry remove(String key) {
+        return new SMREntry("remove", new Object[]{key.getBytes()}, Serializers.PRIMITIVE);
+    }
+
+    private static String digest(SMREntry... updates) {
+        StreamDigests.Digest digest = new StreamDigests.Digest(StreamDigests.MAX_KEYS);
+        for (SMREntry update : updates) {
+            assertThat(digest.apply(update)).isTrue();
+        }
+        return digest.toString();
+    }
+
+    @Test
+    public void digestDependsOnContentOnly() {
+        String digest = digest(put("k1", "v1"), put("k2", "v2"));
+
+        // Same content written in a different order, or with overwritten and removed keys
+        assertThat(digest(put("k2", "v2"), put("k1", "v1"))).isEqualTo(digest);
+        assertThat(digest(put("k1", "v0"), put("k3", "v3"), put("k2", "v2"), put("k1", "v1"), remove("k3")))
+                .isEqualTo(digest);
+
+        // Different content
+        assertThat(digest(put("k1", "v1"), put("k2", "v1"))).isNotEqualTo(digest);
+        assertThat(digest(put("k1", "v1"))).isNotEqualTo(digest);
+    }
+
+    @Test
+    public void clearedStreamIsEmpty() {
+        assertThat(digest()).isEqualTo(StreamDigests.EMPTY_DIGEST);
+        assertThat(digest(put("k1", "v1"), new SMREntry("clear", new Object[0], Serializers.PRIMITIVE)))
+                .isEqualTo(StreamDigests.EMPTY_DIGEST);
+    }
+
+    @Test
+    public void unknownUpdatesCanNotBeCompared() {
+        SMREntry putAll = new SMREntry("putAll", new Object[]{new byte[0]}, Serializers.PRIMITIVE);
+        assertThat(new StreamDigests.Digest(StreamDigests.MAX_KEYS).apply(putAll)).isFalse();
+    }
+
+    @Test
+    public void digestIsCombinedIncrementally() {
+        // The running digest is the unordered combination of the digests of the remaining keys
+        HashCode v1 = Hashing.sha256().newHasher().putInt(2).putBytes("k1".getBytes()).putBytes("v1".getBytes()).hash();
+        HashCode v2 = Hashing.sha256().newHasher().putInt(2).putBytes("k2".getBytes()).putBytes("v2".getBytes()).hash();
+        assertThat(digest(put("k1", "v0"), put("k3", "v3"), put("k2", "v2"), put("k1", "v1"), remove("k3")))
+                .isEqualTo(Hashing.combineUnordered(Arrays.asList(v1, v2)).toString());
+    }
+
+    @Test
+    public void largeStreamsCanNotBeCompared() {
+        StreamDigests.Digest digest = new StreamDigests.Digest(1);
+        assertThat(digest.apply(put("k1", "v1"))).isTrue();
+        assertThat(digest.apply(put("k1", "v2"))).isTrue();
+        assertThat(digest.apply(put("k2", "v2"))).isFalse();
+    }
+}
@@ -6,11 +6,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.reflect.TypeToken;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Executors;
@@ -25,6 +28,7 @@ import org.corfudb.infrastructure.logreplication.replication.receive.StreamsSnap
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.SnapshotReadMessage;
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.StreamsLogEntryReader;
 import org.corfudb.infrastructure.logreplication.replication.send.logreader.StreamsSnapshotReader;
+import org.corfudb.infrastructure.logreplication.utils.StreamDigests;
 import org.corfudb.protocols.logprotocol.OpaqueEntry;
 import org.corfudb.protocols.logprotocol.SMREntry;
 import org.corfudb.protocols.wireprotocol.ILogData;
@@ -52,6 +56,9 @@ public class ReplicationReaderWriterIT extends AbstractIT {
     private static final int NUM_KEYS = 10;
     private static final int NUM_STREAMS = 2;
     public static final int NUM_TRANSACTIONS = 20;
+    // Enough transactions for a log entry reader to catch up with parallel reads
+    private static final int NUM_CATCH_UP_TRANSACTIONS = 1000;
+    private static final int LOG_ENTRY_SYNC_PARALLELISM = 2;
     public static final String PRIMARY_SITE_ID = "Cluster-Paris";
     public static final int BATCH_SIZE = 2;
 
@@ -277,9 +284,14 @@ public class ReplicationReaderWriterIT extends AbstractIT {
     }
 
     public static void readSnapLogMsgs(List<LogReplicationEntry> msgQ, Set<String> streams, CorfuRuntime rt, boolean blockOnSem)  {
+        readSnapLogMsgs(msgQ, streams, rt, blockOnSem, LogReplicationConfig.DEFAULT_SNAPSHOT_SYNC_PARALLELISM);
+    }
+
+    public static void readSnapLogMsgs(List<LogReplicationEntry> msgQ, Set<String> streams, CorfuRuntime rt,
+                                       boolean blockOnSem, int parallelism)  {
         int cnt = 0;
-        LogReplicationConfig config = new LogReplicationConfig(streams, BATCH_SIZE, MAX_MSG_SIZE);
-        StreamsSnapshotReader reader = new StreamsSnapshotReader(rt, config);
+        LogReplicationConfig config = new LogReplicationConfig(streams, BATCH_SIZE, MAX_MSG_SIZE, parallelism);
+        StreamsSnapshotReader reader = new StreamsSnapshotReader(rt, config, PRIMARY_SITE_ID);
 
         reader.reset(rt.getAddressSpaceView().getLogTail());
         while (true) {
@@ -333,7 +345,13 @@ public class ReplicationReaderWriterIT extends AbstractIT {
 
     public static void readLogEntryMsgs(List<LogReplicationEntry> msgQ, Set<String> streams, CorfuRuntime rt, boolean blockOnce) throws
             TrimmedException {
+        readLogEntryMsgs(msgQ, streams, rt, blockOnce, LogReplicationConfig.DEFAULT_LOG_ENTRY_SYNC_PARALLELISM);
+    }
+
+    public static void readLogEntryMsgs(List<LogReplicationEntry> msgQ, Set<String> streams, CorfuRuntime rt, boolean blockOnce,
+                                        int parallelism) throws TrimmedException {
         LogReplicationConfig config = new LogReplicationConfig(streams, BATCH_SIZE, MAX_MSG_SIZE);
+        config.setLogEntrySyncParallelism(parallelism);
         StreamsLogEntryReader reader = new StreamsLogEntryReader(rt, config);
         reader.setGlobalBaseSnapshot(Address.NON_ADDRESS, Address.NON_ADDRESS);
 
@@ -363,6 +381,11 @@ public class ReplicationReaderWriterIT extends AbstractIT {
     }
 
     public static void writeLogEntryMsgs(List<LogReplicationEntry> msgQ, Set<String> streams, CorfuRuntime rt) {
+        writeLogEntryMsgs(msgQ, streams, rt, false);
+    }
+
+    public static void writeLogEntryMsgs(List<LogReplicationEntry> msgQ, Set<String> streams, CorfuRuntime rt,
+                                         boolean batched) {
         LogReplicationConfig config = new LogReplicationConfig(streams);
         LogReplicationMetadataManager logReplicationMetadataManager = new LogReplicationMetadataManager(rt, 0, PRIMARY_SITE_ID);
         LogEntryWriter writer = new LogEntryWriter(rt, config, logReplicationMetadataManager);
@@ -371,6 +394,11 @@ public class ReplicationReaderWriterIT extends AbstractIT {
             log.debug("msgQ is empty");
         }
 
+        if (batched) {
+            writer.apply(msgQ);
+            return;
+        }
+
         for (LogReplicationEntry msg : msgQ) {
             writer.apply(msg);
         }
@@ -645,6 +673,149 @@ public class ReplicationReaderWriterIT extends AbstractIT {
         log.debug("test done");
     }
 
+    /**
+     * Read the snapshot with several streams read concurrently, whose messages are
+     * interleaved, and verify the dst tables have the same content as the src tables.
+     * @throws Exception
+     */
+    @Test
+    public void testParallelSnapshotTransfer() throws Exception {
+        final int parallelism = 4;
+
+        // setup environment
+        log.debug("\ntest start ok");
+        setupEnv();
+
+        openStreams(srcTables, srcDataRuntime);
+        generateData(srcTables, srcHashMap, NUM_KEYS, srcDataRuntime, START_VAL);
+        verifyData("after writing to src", srcTables, srcHashMap);
+
+        // generate dump data at dst
+        openStreams(dstTables, dstDataRuntime);
+        generateData(dstTables, dstHashMap, NUM_KEYS, dstDataRuntime, START_VAL + NUM_KEYS);
+        verifyData("after writing to dst", dstTables, dstHashMap);
+
+        // read snapshot from srcServer and put msgs into Queue
+        readSnapLogMsgs(msgQ, srcHashMap.keySet(), readerRuntime, false, parallelism);
+
+        // The interleaved messages are still numbered in sequence
+        for (int i = 0; i < msgQ.size(); i++) {
+            assertThat(msgQ.get(i).getMetadata().getSnapshotSyncSeqNum()).isEqualTo(i);
+        }
+
+        // play messages at dst server
+        writeSnapLogMsgs(msgQ, srcHashMap.keySet(), writerRuntime);
+
+        //verify data with hashtable
+        verifyTable("after snap write at dst", dstTables, srcTables);
+        log.debug("test done");
+    }
+
+
+    /**
+     * Run an incremental snapshot sync of the given streams from the src server to the dst server:
+     * the digests of the streams at the snapshot are compared with the digests at the dst tail, the
+     * streams which are equal are excluded by the reader and skipped by the writer.
+     *
+     * @return ids of the streams which were not transferred
+     */
+    private Set<UUID> incrementalSnapshotSync(Set<String> streams) {
+        final long topologyConfigId = 0;
+        LogReplicationConfig config = new LogReplicationConfig(streams, BATCH_SIZE, MAX_MSG_SIZE);
+        StreamsSnapshotReader reader = new StreamsSnapshotReader(readerRuntime, config, PRIMARY_SITE_ID);
+        long snapshot = readerRuntime.getAddressSpaceView().getLogTail();
+        reader.reset(snapshot);
+        // Streams which can not be read up to the snapshot within the time budget are not compared
+        StreamDigests.Computation expired = reader.computeStreamDigests(Duration.ZERO).join();
+        assertThat(expired.getDigests().values()).allMatch(StreamDigests.EMPTY_DIGEST::equals);
+        assertThat(expired.getExpiredStreams() + expired.getDigests().size()).isEqualTo(streams.size());
+
+        StreamDigests.Computation computation = reader.computeStreamDigests(Duration.ofMinutes(1)).join();
+        Map<UUID, String> srcDigests = computation.getDigests();
+        assertThat(srcDigests).hasSize(streams.size());
+        assertThat(computation.getExpiredStreams()).isZero();
+
+        LogReplicationMetadataManager metadataManager = new LogReplicationMetadataManager(writerRuntime,
+                topologyConfigId, PRIMARY_SITE_ID);
+        StreamsSnapshotWriter writer = new StreamsSnapshotWriter(writerRuntime, config, metadataManager);
+        metadataManager.setBaseSnapshotStart(topologyConfigId, snapshot);
+        writer.reset(topologyConfigId, snapshot);
+
+        // Compare the digests as the sink does, at the tail of the dst log
+        long dstTail = writerRuntime.getAddressSpaceView().getLogTail();
+        Set<UUID> unchangedStreams = new HashSet<>();
+        srcDigests.forEach((streamId, digest) -> StreamDigests.compute(writerRuntime, streamId, dstTail)
+                .filter(digest::equals)
+                .ifPresent(dstDigest -> unchangedStreams.add(streamId)));
+
+        // The unchanged streams of another snapshot sync are fenced off
+        assertThat(metadataManager.setUnchangedStreams(topologyConfigId, snapshot - 1, unchangedStreams)).isFalse();
+        assertThat(metadataManager.getUnchangedStreams()).isEmpty();
+        assertThat(metadataManager.setUnchangedStreams(topologyConfigId, snapshot, unchangedStreams)).isTrue();
+        assertThat(metadataManager.getUnchangedStreams()).isEqualTo(unchangedStreams);
+
+        reader.excludeStreams(unchangedStreams);
+        while (true) {
+            SnapshotReadMessage snapshotReadMessage = reader.read(snapshotSyncId);
+            for (LogReplicationEntry msg : snapshotReadMessage.getMessages()) {
+                assertThat(msg.getOpaqueEntryList()).allMatch(opaqueEntry ->
+                        Collections.disjoint(opaqueEntry.getEntries().keySet(), unchangedStreams));
+                writer.apply(msg);
+            }
+            if (snapshotReadMessage.isEndRead()) {
+                break;
+            }
+        }
+        reader.close();
+
+        writer.startSnapshotSyncApply();
+        return unchangedStreams;
+    }
+
+    /**
+     * Run incremental snapshot syncs where some streams are equal on both servers and others diverged,
+     * and verify that only the diverged streams are transferred, cleared and applied. A snapshot sync
+     * which transfers no data clears the diverged streams, which are empty on the src server.
+     */
+    @Test
+    public void testIncrementalSnapshotTransfer() throws Exception {
+        setupEnv();
+
+        openStreams(srcTables, srcDataRuntime);
+        generateData(srcTables, srcHashMap, NUM_KEYS, srcDataRuntime, START_VAL);
+
+        // test0 has the same content on dst, test1 diverged
+        openStreams(dstTables, dstDataRuntime, NUM_STREAMS + 1);
+        HashMap<String, CorfuTable<Long, Long>> equalTables = new HashMap<>();
+        equalTables.put("test0", dstTables.get("test0"));
+        generateData(equalTables, dstHashMap, NUM_KEYS, dstDataRuntime, START_VAL);
+        HashMap<String, CorfuTable<Long, Long>> divergedTables = new HashMap<>();
+        divergedTables.put("test1", dstTables.get("test1"));
+        generateData(divergedTables, dstHashMap, NUM_KEYS, dstDataRuntime, START_VAL + NUM_KEYS);
+
+        UUID equalStreamId = CorfuRuntime.getStreamID("test0");
+        long equalStreamTail = dstDataRuntime.getSequencerView().query(equalStreamId);
+
+        Set<UUID> unchangedStreams = incrementalSnapshotSync(srcHashMap.keySet());
+        assertThat(unchangedStreams).containsExactly(equalStreamId);
+        // The equal stream was neither cleared nor applied
+        assertThat(dstDataRuntime.getSequencerView().query(equalStreamId)).isEqualTo(equalStreamTail);
+        verifyTable("after incremental snap write at dst", dstTables, srcTables);
+
+        // test2 is only on dst, all other streams are now equal
+        HashMap<String, CorfuTable<Long, Long>> dstOnlyTables = new HashMap<>();
+        dstOnlyTables.put("test2", dstTables.get("test2"));
+        generateData(dstOnlyTables, dstHashMap, NUM_KEYS, dstDataRuntime, START_VAL);
+
+        Set<String> streams = new HashSet<>(srcHashMap.keySet());
+        streams.add("test2");
+        unchangedStreams = incrementalSnapshotSync(streams);
+        assertThat(unchangedStreams).containsExactlyInAnyOrder(equalStreamId, CorfuRuntime.getStreamID("test1"));
+        verifyTable("after empty incremental snap write at dst", dstTables, srcTables);
+        verifyNoData(dstOnlyTables);
+
+        cleanUp();
+    }
 
     @Test
     public void testLogEntryTransferWithNoSerializer() throws IOException {
@@ -718,6 +889,82 @@ public class ReplicationReaderWriterIT extends AbstractIT {
     }
 
 
+    /**
+     * Apply all log entry messages together, coalesced into transactions,
+     * and verify the dst tables have the same content as the src tables.
+     * @throws Exception
+     */
+    @Test
+    public void testBatchedLogEntryTransfer() throws Exception {
+        // setup environment
+        log.debug("\ntest start ok");
+        setupEnv();
+        ISerializer serializer = new TestSerializer(Byte.MAX_VALUE);
+
+        openStreams(srcTables, srcDataRuntime, NUM_STREAMS, serializer);
+        openStreams(shadowTables, dstDataRuntime, NUM_STREAMS, serializer, true);
+        generateTransactions(srcTables, srcHashMap, NUM_TRANSACTIONS, srcDataRuntime, NUM_TRANSACTIONS);
+
+        //read snapshot from srcServer and put msgs into Queue
+        readLogEntryMsgs(msgQ, srcHashMap.keySet(), readerRuntime);
+        assertThat(msgQ.size()).isGreaterThan(1);
+
+        //play all messages at dst server at once
+        writeLogEntryMsgs(msgQ, srcHashMap.keySet(), writerRuntime, true);
+
+        //verify data with hashtable
+        openStreams(dstTables, dstDataRuntime, NUM_STREAMS, serializer);
+
+        Serializers.registerSerializer(serializer);
+        verifyData("after batched log writing at dst", dstTables, srcHashMap);
+        Serializers.removeSerializer(serializer);
+
+        cleanUp();
+    }
+
+    /**
+     * Read a backlog of log entries with parallel reads, and verify the messages are
+     * the same as when read sequentially, and that the dst tables have the same content
+     * as the src tables once the messages are applied.
+     * @throws Exception
+     */
+    @Test
+    public void testParallelLogEntryCatchUp() throws Exception {
+        // setup environment
+        log.debug("\ntest start ok");
+        setupEnv();
+        ISerializer serializer = new TestSerializer(Byte.MAX_VALUE);
+
+        openStreams(srcTables, srcDataRuntime, NUM_STREAMS, serializer);
+        openStreams(shadowTables, dstDataRuntime, NUM_STREAMS, serializer, true);
+        generateTransactions(srcTables, srcHashMap, NUM_CATCH_UP_TRANSACTIONS, srcDataRuntime, NUM_CATCH_UP_TRANSACTIONS);
+
+        // read the backlog sequentially, then in parallel
+        List<LogReplicationEntry> sequentialMsgQ = new ArrayList<>();
+        readLogEntryMsgs(sequentialMsgQ, srcHashMap.keySet(), readerRuntime);
+        readLogEntryMsgs(msgQ, srcHashMap.keySet(), readerRuntime, false, LOG_ENTRY_SYNC_PARALLELISM);
+
+        assertThat(msgQ).hasSameSizeAs(sequentialMsgQ);
+        for (int i = 0; i < msgQ.size(); i++) {
+            assertThat(msgQ.get(i).getMetadata().getTimestamp())
+                    .isEqualTo(sequentialMsgQ.get(i).getMetadata().getTimestamp());
+            assertThat(msgQ.get(i).getMetadata().getPreviousTimestamp())
+                    .isEqualTo(sequentialMsgQ.get(i).getMetadata().getPreviousTimestamp());
+        }
+
+        //play messages at dst server
+        writeLogEntryMsgs(msgQ, srcHashMap.keySet(), writerRuntime);
+
+        //verify data with hashtable
+        openStreams(dstTables, dstDataRuntime, NUM_STREAMS, serializer);
+
+        Serializers.registerSerializer(serializer);
+        verifyData("after parallel log entry catch up at dst", dstTables, srcHashMap);
+        Serializers.removeSerializer(serializer);
+
+        cleanUp();
+    }
+
     /**
      * This test verifies that the Log Entry Reader sets the last processed entry
      * as NULL whenever all entries written to the TX stream are of no interest for
@@ -103,11 +103,12 @@ public class SourceForwardingDataSender implements DataSender {
         final CompletableFuture<LogReplicationEntry> cf = new CompletableFuture<>();
 
         // Emulate Channel by directly accepting from the destination, whatever is sent by the source manager
-        LogReplicationEntry ack = destinationLogReplicationManager.receive(message);
-        if (ack != null) {
-            cf.complete(ack);
-        }
-        ackMessages.setValue(ack);
+        destinationLogReplicationManager.receiveAsync(message).thenAccept(ack -> {
+            if (ack != null) {
+                cf.complete(ack);
+            }
+            ackMessages.setValue(ack);
+        });
         msgCnt++;
         return cf;
     }
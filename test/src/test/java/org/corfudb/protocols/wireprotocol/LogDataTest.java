@@ -0,0 +1,48 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.corfudb.common.compression.Codec;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LogDataTest {
+
+    private static final byte[] PAYLOAD = "zero-copy payload".getBytes(StandardCharsets.UTF_8);
+
+    private ByteBuf serialize(Codec.Type codecType) {
+        LogData ld = new LogData(DataType.DATA, PAYLOAD, codecType);
+        ByteBuf buf = Unpooled.buffer();
+        ld.doSerialize(buf);
+        return buf;
+    }
+
+    @Test
+    public void retainedPayloadIsDeserializedAndReleased() {
+        for (Codec.Type codecType : new Codec.Type[]{Codec.Type.NONE, Codec.Type.LZ4, Codec.Type.ZSTD}) {
+            ByteBuf frame = serialize(codecType);
+            LogData ld = LogData.decodeRetainingPayloads(() -> new LogData(frame));
+
+            // The entry holds a slice of the frame, instead of a copy.
+            assertThat(frame.refCnt()).isEqualTo(2);
+            assertThat(ld.getPayload(null)).isEqualTo(PAYLOAD);
+            assertThat(frame.refCnt()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void retainedPayloadCanBeReserialized() {
+        ByteBuf frame = serialize(Codec.Type.ZSTD);
+        LogData ld = LogData.decodeRetainingPayloads(() -> new LogData(frame));
+
+        ByteBuf copy = Unpooled.buffer();
+        ld.doSerialize(copy);
+        assertThat(new LogData(copy).getPayload(null)).isEqualTo(PAYLOAD);
+
+        assertThat(ld.getData()).isNotNull();
+        assertThat(frame.refCnt()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,104 @@
+package org.corfudb.protocols.wireprotocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.corfudb.runtime.proto.service.CorfuMessage.HeaderMsg;
+import org.corfudb.runtime.proto.service.CorfuMessage.PriorityLevel;
+import org.corfudb.runtime.proto.service.CorfuMessage.RequestMsg;
+import org.corfudb.runtime.proto.service.CorfuMessage.ResponseMsg;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.corfudb.protocols.service.CorfuProtocolBase.getPingRequestMsg;
+import static org.corfudb.protocols.service.CorfuProtocolBase.getPingResponseMsg;
+import static org.corfudb.protocols.service.CorfuProtocolMessage.getHeaderMsg;
+import static org.corfudb.protocols.service.CorfuProtocolMessage.getRequestMsg;
+import static org.corfudb.protocols.service.CorfuProtocolMessage.getResponseMsg;
+
+public class NettyCorfuMessageBatcherTest {
+
+    private static final int MAX_BATCH_SIZE = 4;
+    private static final int NUM_MESSAGES = 10;
+
+    private final UUID clusterId = UUID.randomUUID();
+    private final UUID clientId = UUID.randomUUID();
+
+    private HeaderMsg getHeader(long requestId, long epoch) {
+        return getHeaderMsg(requestId, PriorityLevel.NORMAL, epoch, clusterId, clientId, false, true);
+    }
+
+    private EmbeddedChannel getSender() {
+        return new EmbeddedChannel(new NettyCorfuMessageEncoder(),
+                new NettyCorfuMessageBatcher(MAX_BATCH_SIZE));
+    }
+
+    /**
+     * Write the messages to the sender and decode the frames it sends on the receiver.
+     *
+     * @return The number of frames sent.
+     */
+    private int transfer(EmbeddedChannel sender, EmbeddedChannel receiver, List<?> messages) {
+        messages.forEach(msg -> sender.write(msg, sender.voidPromise()));
+        sender.flush();
+        sender.runPendingTasks();
+
+        int frames = 0;
+        ByteBuf frame;
+        while ((frame = sender.readOutbound()) != null) {
+            receiver.writeInbound(frame);
+            frames++;
+        }
+        return frames;
+    }
+
+    @Test
+    public void requestsAreBatchedAndUnpacked() {
+        EmbeddedChannel sender = getSender();
+        EmbeddedChannel receiver = new EmbeddedChannel(new NettyCorfuMessageDecoder());
+
+        List<RequestMsg> requests = new ArrayList<>();
+        for (int i = 0; i < NUM_MESSAGES; i++) {
+            // The requests of the last epoch can not share a header with the others.
+            final long epoch = i < NUM_MESSAGES - 1 ? 0L : 1L;
+            requests.add(getRequestMsg(getHeader(i, epoch), getPingRequestMsg()));
+        }
+
+        // Batches of 4, 4 and 1 requests, then the request of another epoch.
+        assertThat(transfer(sender, receiver, requests)).isEqualTo(4);
+
+        List<RequestMsg> received = new ArrayList<>();
+        RequestMsg request;
+        while ((request = receiver.readInbound()) != null) {
+            received.add(request);
+        }
+        assertThat(received).isEqualTo(requests);
+        assertThat(receiver.attr(NettyCorfuMessageBatcher.PEER_SUPPORTS_BATCHES).get()).isTrue();
+    }
+
+    @Test
+    public void responsesAreOnlyBatchedToBatchingPeers() {
+        List<ResponseMsg> responses = new ArrayList<>();
+        for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+            responses.add(getResponseMsg(getHeader(i, 0L), getPingResponseMsg()));
+        }
+
+        EmbeddedChannel sender = getSender();
+        EmbeddedChannel receiver = new EmbeddedChannel(new NettyCorfuMessageDecoder());
+        assertThat(transfer(sender, receiver, responses)).isEqualTo(MAX_BATCH_SIZE);
+
+        sender.attr(NettyCorfuMessageBatcher.PEER_SUPPORTS_BATCHES).set(true);
+        assertThat(transfer(sender, receiver, responses)).isEqualTo(1);
+
+        List<ResponseMsg> received = new ArrayList<>();
+        ResponseMsg response;
+        while ((response = receiver.readInbound()) != null) {
+            received.add(response);
+        }
+        assertThat(received.subList(0, MAX_BATCH_SIZE)).isEqualTo(responses);
+        assertThat(received.subList(MAX_BATCH_SIZE, received.size())).isEqualTo(responses);
+    }
+}
@@ -0,0 +1,96 @@
+package org.corfudb.runtime.clients;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.corfudb.comm.ChannelImplementation;
+import org.corfudb.comm.ChannelTuningOptions;
+import org.corfudb.comm.WritabilityBackpressureHandler;
+import org.corfudb.infrastructure.ServerContext;
+import org.corfudb.infrastructure.ServerContextBuilder;
+import org.corfudb.runtime.RuntimeParameters;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the tuning of the client and server Netty channels.
+ */
+public class ChannelTuningOptionsTest {
+
+    private static final int LOW_WATERMARK = 16;
+    private static final int HIGH_WATERMARK = 32;
+    private static final int SEND_BUFFER_SIZE = 1 << 20;
+    private static final int BUSY_POLL_MICROS = 50;
+
+    @Test
+    public void testBackpressureTogglesAutoRead() {
+        EmbeddedChannel channel = new EmbeddedChannel(WritabilityBackpressureHandler.INSTANCE);
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(LOW_WATERMARK, HIGH_WATERMARK));
+        assertThat(channel.config().isAutoRead()).isTrue();
+
+        // Buffering more than the high watermark stops reading.
+        channel.write(Unpooled.wrappedBuffer(new byte[HIGH_WATERMARK * 2]));
+        assertThat(channel.isWritable()).isFalse();
+        assertThat(channel.config().isAutoRead()).isFalse();
+
+        // Draining the outbound buffer resumes reading.
+        channel.flush();
+        channel.runPendingTasks();
+        assertThat(channel.isWritable()).isTrue();
+        assertThat(channel.config().isAutoRead()).isTrue();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testChannelOptions() {
+        Map<ChannelOption, Object> defaults = ChannelTuningOptions.DEFAULT
+                .getChannelOptions(ChannelImplementation.NIO);
+        assertThat(defaults).doesNotContainKeys(ChannelOption.SO_SNDBUF, ChannelOption.SO_RCVBUF);
+        assertThat(defaults).containsEntry(ChannelOption.TCP_NODELAY, true);
+
+        Map<ChannelOption, Object> tuned = ChannelTuningOptions.builder()
+                .tcpNoDelay(false)
+                .sendBufferSize(SEND_BUFFER_SIZE)
+                .build()
+                .getChannelOptions(ChannelImplementation.NIO);
+        assertThat(tuned).containsEntry(ChannelOption.TCP_NODELAY, false);
+        assertThat(tuned).containsEntry(ChannelOption.SO_SNDBUF, SEND_BUFFER_SIZE);
+
+        // The default channel options do not override the options set by the tuning.
+        assertThat(RuntimeParameters.DEFAULT_CHANNEL_OPTIONS).doesNotContainKeys(
+                defaults.keySet().toArray(new ChannelOption[0]));
+    }
+
+    @Test
+    public void testServerOptionsAreParsed() {
+        Map<String, Object> config = new HashMap<>(new ServerContextBuilder().build().getServerConfig());
+        config.put("--netty-allocator", "unpooled_heap");
+        config.put("--so-sndbuf", Integer.toString(SEND_BUFFER_SIZE));
+        config.put("--write-buffer-low-watermark", Integer.toString(LOW_WATERMARK));
+        config.put("--write-buffer-high-watermark", Integer.toString(HIGH_WATERMARK));
+        config.put("--busy-poll", Integer.toString(BUSY_POLL_MICROS));
+        config.put("--write-backpressure", true);
+        config.put("--disable-tcp-nodelay", true);
+        ServerContext serverContext = new ServerContext(config);
+
+        ChannelTuningOptions tuning = serverContext.getChannelTuningOptions();
+        assertThat(tuning.getAllocator()).isEqualTo(ChannelTuningOptions.Allocator.UNPOOLED_HEAP);
+        assertThat(tuning.getSendBufferSize()).isEqualTo(SEND_BUFFER_SIZE);
+        assertThat(tuning.getReceiveBufferSize()).isZero();
+        assertThat(tuning.getWriteBufferLowWaterMark()).isEqualTo(LOW_WATERMARK);
+        assertThat(tuning.getWriteBufferHighWaterMark()).isEqualTo(HIGH_WATERMARK);
+        assertThat(tuning.getBusyPollMicros()).isEqualTo(BUSY_POLL_MICROS);
+        assertThat(tuning.isWriteBackpressure()).isTrue();
+        assertThat(tuning.isTcpNoDelay()).isFalse();
+        assertThat(tuning.isTcpQuickAck()).isFalse();
+
+        // The options are parsed once, rather than for every connection.
+        assertThat(serverContext.getChannelTuningOptions()).isSameAs(tuning);
+        serverContext.close();
+    }
+}
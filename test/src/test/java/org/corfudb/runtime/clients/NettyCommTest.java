@@ -24,7 +24,10 @@ import java.io.IOException;
 import java.net.ServerSocket;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -74,6 +77,35 @@ public class NettyCommTest extends AbstractCorfuTest {
         );
     }
 
+    @Test
+    public void nettyServerClientPingableOverConnectionPool() throws Exception {
+        final int numConnections = 3;
+        final int numPings = 100;
+        runWithBaseServer(
+                (port) -> new NettyServerData(ServerContextBuilder.defaultContext(port)),
+                (port) -> new NettyClientRouter(
+                        NodeLocator.builder().host("localhost").port(port).build(),
+                        CorfuRuntimeParameters.builder()
+                                .connectionsPerEndpoint(numConnections)
+                                .build()),
+                (r, d) -> {
+                    // Requests are pipelined across all the connections of the pool.
+                    List<CompletableFuture<Boolean>> pings = new ArrayList<>();
+                    for (int i = 0; i < numPings; i++) {
+                        pings.add(getBaseClient(r).ping());
+                    }
+                    for (CompletableFuture<Boolean> ping : pings) {
+                        assertThat(ping.get()).isTrue();
+                    }
+
+                    d.shutdownServer();
+                    d.bootstrapServer();
+
+                    getBaseClient(r).pingSync();
+                }
+        );
+    }
+
     @Test
     public void nettyTlsNoMutualAuth() throws Exception {
         runWithBaseServer(
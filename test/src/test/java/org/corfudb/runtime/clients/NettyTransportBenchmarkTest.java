@@ -0,0 +1,148 @@
+package org.corfudb.runtime.clients;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.epoll.Epoll;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.AbstractCorfuTest;
+import org.corfudb.comm.ChannelImplementation;
+import org.corfudb.comm.ChannelTuningOptions;
+import org.corfudb.infrastructure.BaseServer;
+import org.corfudb.infrastructure.CorfuServerNode;
+import org.corfudb.infrastructure.NettyServerRouter;
+import org.corfudb.infrastructure.ServerContext;
+import org.corfudb.infrastructure.ServerContextBuilder;
+import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.corfudb.util.NodeLocator;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the throughput and latency of pipelined requests against a local server,
+ * for several tunings of the client and server channels.
+ *
+ * <p>The benchmark only logs its results, and is ignored in regular builds. Remove the
+ * {@link Ignore} annotation to run it when changing the transport or its tuning.
+ */
+@Ignore("Benchmark, run manually")
+@Slf4j
+public class NettyTransportBenchmarkTest extends AbstractCorfuTest {
+
+    private static final int NUM_REQUESTS = 2_000;
+    private static final int MAX_IN_FLIGHT = 64;
+    private static final int SMALL_WATERMARK = 1024;
+
+    private static final double P50 = 0.50;
+    private static final double P99 = 0.99;
+
+    private Integer findRandomOpenPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private Map<String, ChannelTuningOptions> getConfigurations() {
+        Map<String, ChannelTuningOptions> configurations = new LinkedHashMap<>();
+        configurations.put("default", ChannelTuningOptions.DEFAULT);
+        configurations.put("nagle", ChannelTuningOptions.builder()
+                .tcpNoDelay(false)
+                .build());
+        configurations.put("unpooled-heap", ChannelTuningOptions.builder()
+                .allocator(ChannelTuningOptions.Allocator.UNPOOLED_HEAP)
+                .build());
+        configurations.put("backpressure", ChannelTuningOptions.builder()
+                .writeBufferLowWaterMark(SMALL_WATERMARK / 2)
+                .writeBufferHighWaterMark(SMALL_WATERMARK)
+                .writeBackpressure(true)
+                .build());
+        if (Epoll.isAvailable()) {
+            configurations.put("epoll-level-triggered", ChannelTuningOptions.builder()
+                    .epollEdgeTriggered(false)
+                    .build());
+            configurations.put("epoll-quickack", ChannelTuningOptions.builder()
+                    .tcpQuickAck(true)
+                    .build());
+        }
+        return configurations;
+    }
+
+    @Test
+    public void benchmarkChannelTunings() throws Exception {
+        for (Map.Entry<String, ChannelTuningOptions> configuration : getConfigurations().entrySet()) {
+            runBenchmark(configuration.getKey(), configuration.getValue());
+        }
+    }
+
+    private void runBenchmark(String name, ChannelTuningOptions tuning) throws Exception {
+        final int port = findRandomOpenPort();
+        final ServerContext serverContext = ServerContextBuilder.defaultContext(port);
+        final ChannelImplementation channelImplementation = serverContext.getChannelImplementation();
+
+        BaseServer baseServer = new BaseServer(serverContext);
+        NettyServerRouter serverRouter = new NettyServerRouter(ImmutableList.of(baseServer), serverContext);
+        CorfuServerNode serverNode = new CorfuServerNode(serverContext,
+                ImmutableMap.of(BaseServer.class, baseServer));
+        ChannelFuture serverFuture = serverNode.bindServer(serverContext.getBossGroup(),
+                serverContext.getWorkerGroup(),
+                bootstrap -> {
+                    serverNode.configureBootstrapOptions(bootstrap);
+                    tuning.applyToChildren(bootstrap, channelImplementation);
+                },
+                serverContext, serverRouter, "localhost", port);
+
+        NettyClientRouter router = new NettyClientRouter(
+                NodeLocator.builder().host("localhost").port(port).build(),
+                CorfuRuntimeParameters.builder()
+                        .socketType(channelImplementation)
+                        .channelTuning(tuning)
+                        .build());
+        try {
+            router.addClient(new BaseHandler());
+            BaseClient client = new BaseClient(router, 0L,
+                    UUID.fromString("00000000-0000-0000-0000-000000000000"));
+            assertThat(client.pingSync()).isTrue();
+
+            final long[] latencies = new long[NUM_REQUESTS];
+            final Deque<CompletableFuture<Boolean>> inFlight = new ArrayDeque<>();
+            final long start = System.nanoTime();
+            for (int i = 0; i < NUM_REQUESTS; i++) {
+                if (inFlight.size() >= MAX_IN_FLIGHT) {
+                    assertThat(inFlight.poll().join()).isTrue();
+                }
+                final int request = i;
+                final long sent = System.nanoTime();
+                inFlight.add(client.ping().whenComplete((r, e) ->
+                        latencies[request] = System.nanoTime() - sent));
+            }
+            for (CompletableFuture<Boolean> ping : inFlight) {
+                assertThat(ping.join()).isTrue();
+            }
+            final long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            log.info("benchmarkChannelTunings[{}]: {} requests/s, p50 {}us, p99 {}us",
+                    name,
+                    NUM_REQUESTS * TimeUnit.SECONDS.toNanos(1) / elapsed,
+                    TimeUnit.NANOSECONDS.toMicros(latencies[(int) (NUM_REQUESTS * P50)]),
+                    TimeUnit.NANOSECONDS.toMicros(latencies[(int) (NUM_REQUESTS * P99)]));
+        } finally {
+            router.stop();
+            serverFuture.channel().close().awaitUninterruptibly();
+            serverContext.close();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.corfudb.runtime.clients;
+
+import org.corfudb.runtime.exceptions.NetworkException;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests the registry of outstanding requests of a client router.
+ */
+public class OutstandingRequestsTest {
+
+    private static final long LONG_TIMEOUT_MS = 60_000L;
+    private static final long SHORT_TIMEOUT_MS = 50L;
+
+    @Test
+    public void requestsCompleteOnlyOnce() throws Exception {
+        OutstandingRequests requests = new OutstandingRequests();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        requests.add(1L, future, null, null, LONG_TIMEOUT_MS);
+        assertThat(requests.size()).isEqualTo(1);
+
+        assertThat(requests.complete(1L, "response")).isTrue();
+        assertThat(future.get()).isEqualTo("response");
+        assertThat(requests.size()).isZero();
+
+        assertThat(requests.complete(1L, "again")).isFalse();
+        assertThat(requests.completeExceptionally(1L, new IllegalStateException())).isFalse();
+    }
+
+    @Test
+    public void requestsTimeOut() {
+        OutstandingRequests requests = new OutstandingRequests();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        requests.add(1L, future, null, null, SHORT_TIMEOUT_MS);
+
+        assertThatThrownBy(future::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(requests.size()).isZero();
+        assertThat(requests.complete(1L, "late")).isFalse();
+    }
+
+    @Test
+    public void onlyRequestsOfOwnerAreFailed() throws Exception {
+        OutstandingRequests requests = new OutstandingRequests();
+        Object owner = new Object();
+        Object otherOwner = new Object();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> otherFuture = new CompletableFuture<>();
+        requests.add(1L, future, owner, null, LONG_TIMEOUT_MS);
+        requests.add(2L, otherFuture, otherOwner, null, LONG_TIMEOUT_MS);
+
+        requests.completeAllExceptionally(owner, new NetworkException("Disconnected", "test"));
+
+        assertThatThrownBy(future::get).hasCauseInstanceOf(NetworkException.class);
+        assertThat(otherFuture).isNotDone();
+        assertThat(requests.complete(2L, "response")).isTrue();
+        assertThat(otherFuture.get()).isEqualTo("response");
+    }
+}
@@ -107,6 +107,46 @@ public class CorfuQueueTest extends AbstractViewTest {
         assertThat(recAfter.size()).isEqualTo(records.size() - 1);
     }
 
+    @Test
+    public void queueCursorAndBatchConsumption() {
+        CorfuQueue corfuQueue = new CorfuQueue(getDefaultRuntime(), "test");
+
+        final int numItems = 10;
+        IntStream.range(0, numItems).forEach(itemIdx -> executeTxn(getDefaultRuntime(),
+                () -> corfuQueue.enqueue(getByteString(String.valueOf(itemIdx)))));
+
+        // Page through the queue using the last seen id as the cursor.
+        final int pageSize = 3;
+        List<CorfuQueueRecord> page = corfuQueue.peek(pageSize);
+        int consumed = 0;
+        while (!page.isEmpty()) {
+            for (CorfuQueueRecord record : page) {
+                assertThat(record.getEntry()).isEqualTo(getByteString(String.valueOf(consumed++)));
+            }
+            page = corfuQueue.entryList(page.get(page.size() - 1).getRecordId(), pageSize);
+        }
+        assertThat(consumed).isEqualTo(numItems);
+
+        // Poll removes the entries from the head of the queue.
+        List<CorfuQueueRecord> polled = corfuQueue.poll(pageSize);
+        assertThat(polled.stream().map(r -> r.getEntry().toStringUtf8()))
+                .containsExactly("0", "1", "2");
+        assertThat(corfuQueue.size()).isEqualTo(numItems - pageSize);
+        assertThat(corfuQueue.peek(1).get(0).getEntry()).isEqualTo(getByteString("3"));
+
+        // Acknowledge a batch of entries at once.
+        corfuQueue.removeEntries(corfuQueue.peek(pageSize).stream()
+                .map(CorfuQueueRecord::getRecordId)
+                .collect(Collectors.toList()));
+        assertThat(corfuQueue.size()).isEqualTo(numItems - 2 * pageSize);
+
+        // A new instance rebuilds the same order from the log.
+        CorfuRuntime rt2 = getNewRuntime(getDefaultNode()).connect();
+        CorfuQueue reader = new CorfuQueue(rt2, "test");
+        assertThat(reader.entryList().stream().map(r -> r.getEntry().toStringUtf8()))
+                .containsExactly("6", "7", "8", "9");
+    }
+
     @Test
     public void byteArraylexComparatorCheck() {
         class ByteArray implements Comparable<ByteArray>{
@@ -1,6 +1,7 @@
 package org.corfudb.runtime.collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import com.google.common.collect.Range;
 import com.google.common.reflect.TypeToken;
 
 import java.util.ArrayList;
@@ -114,6 +115,56 @@ public class CorfuTableTest extends AbstractViewTest {
         corfuTable.getByIndexAndFilter(StringIndexer.BY_FIRST_LETTER, p -> p.getValue().contains("cd"), "a");
     }
 
+    /**
+     * Verify that an ordered index answers range, prefix, limit and reverse queries,
+     * and stays consistent on updates and removals.
+     */
+    @Test
+    public void canReadRangeFromOrderedIndex() {
+        CorfuTable<String, String>
+                corfuTable = getDefaultRuntime().getObjectsView().build()
+                .setTypeToken(new TypeToken<CorfuTable<String, String>>() {})
+                .setArguments(new StringIndexer.OrderedIndex())
+                .setStreamName("test")
+                .open();
+
+        corfuTable.put("k1", "apple");
+        corfuTable.put("k2", "apricot");
+        corfuTable.put("k3", "banana");
+        corfuTable.put("k4", "cherry");
+
+        final Index.Name byValue = StringIndexer.OrderedIndex.BY_VALUE_ORDERED;
+        assertThat(project(corfuTable.getByIndexRange(byValue, Range.closed("apricot", "cherry"))))
+                .containsExactly("apricot", "banana", "cherry");
+        assertThat(project(corfuTable.getByIndexRange(byValue, Index.prefixRange("ap"))))
+                .containsExactly("apple", "apricot");
+        assertThat(project(corfuTable.getByIndexRange(byValue, Range.all(), true, 2)))
+                .containsExactly("cherry", "banana");
+        assertThat(project(corfuTable.getByIndex(byValue, "banana")))
+                .containsExactly("banana");
+
+        corfuTable.put("k3", "avocado");
+        corfuTable.remove("k1");
+        assertThat(project(corfuTable.getByIndexRange(byValue, Range.lessThan("b"))))
+                .containsExactly("apricot", "avocado");
+    }
+
+    /**
+     * Verify that a range lookup is rejected on a hash index.
+     */
+    @Test (expected = IllegalArgumentException.class)
+    public void cannotReadRangeFromHashIndex() {
+        CorfuTable<String, String>
+                corfuTable = getDefaultRuntime().getObjectsView().build()
+                .setTypeToken(new TypeToken<CorfuTable<String, String>>() {})
+                .setArguments(new StringIndexer())
+                .setStreamName("test")
+                .open();
+
+        corfuTable.put("k1", "a");
+        corfuTable.getByIndexRange(StringIndexer.BY_VALUE, Range.all());
+    }
+
     /**
      * Can create create multiple index for the same value
      */
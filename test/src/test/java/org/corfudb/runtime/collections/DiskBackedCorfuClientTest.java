@@ -19,11 +19,15 @@ import net.jqwik.api.constraints.Size;
 import net.jqwik.api.constraints.StringLength;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.RandomStringUtils;
+import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.CorfuStoreMetadata;
+import org.corfudb.runtime.MultiCheckpointWriter;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
+import org.corfudb.runtime.object.CorfuCompileProxy;
 import org.corfudb.runtime.object.ICorfuVersionPolicy;
 import org.corfudb.runtime.view.AbstractViewTest;
+import org.corfudb.runtime.view.ObjectOpenOption;
 import org.corfudb.test.SampleSchema;
 import org.corfudb.test.SampleSchema.EventInfo;
 import org.corfudb.test.SampleSchema.Uuid;
@@ -389,6 +393,105 @@ public class DiskBackedCorfuClientTest extends AbstractViewTest implements AutoC
         }
     }
 
+    private CorfuTable<String, String> openDurableTable(Path dataPath) {
+        final Supplier<StreamingMap> mapSupplier = () -> new PersistedStreamingMap<String, String>(
+                dataPath, PersistedStreamingMap.getPersistedStreamingMapOptions(),
+                new PojoSerializer(String.class), getRuntime(), true);
+        return getDefaultRuntime().getObjectsView().build()
+                .setTypeToken(new TypeToken<CorfuTable<String, String>>() {})
+                .setArguments(mapSupplier, ICorfuVersionPolicy.MONOTONIC)
+                .setStreamName("durableDiskBackedMap")
+                .option(ObjectOpenOption.NO_CACHE)
+                .open();
+    }
+
+    private long getVersion(CorfuTable<String, String> table) {
+        return ((CorfuCompileProxy) table.getCorfuSMRProxy()).getUnderlyingObject().getVersionUnsafe();
+    }
+
+    /**
+     * Ensure that a durable table resumes from its on-disk state (and the last applied
+     * address) when re-opened, and only syncs the updates it missed from the log.
+     */
+    @Property(tries = NUM_OF_TRIES)
+    void durableResume(@ForAll @Size(SAMPLE_SIZE) Set<String> intended) {
+        resetTests();
+        final Path dataPath = Paths.get("/tmp/", "durableDiskBackedMap");
+        final String missedKey = "missed";
+        long version;
+
+        try (final CorfuTable<String, String> table = openDurableTable(dataPath)) {
+            intended.forEach(value -> table.put(value, value));
+            Assertions.assertEquals(intended.size(), table.size());
+            version = getVersion(table);
+        }
+
+        // Write an update that the closed table never observed.
+        final CorfuTable<String, String> writer = getDefaultRuntime().getObjectsView().build()
+                .setTypeToken(new TypeToken<CorfuTable<String, String>>() {})
+                .setStreamName("durableDiskBackedMap")
+                .option(ObjectOpenOption.NO_CACHE)
+                .open();
+        writer.insert(missedKey, missedKey);
+
+        try (final CorfuTable<String, String> table = openDurableTable(dataPath)) {
+            // The state is resumed on open, before any sync.
+            Assertions.assertEquals(version, getVersion(table));
+            Assertions.assertEquals(intended.size() + 1, table.size());
+            Assertions.assertEquals(missedKey, table.get(missedKey));
+            intended.forEach(value -> Assertions.assertEquals(value, table.get(value)));
+        }
+    }
+
+    /**
+     * Ensure that a durable table whose last applied address was trimmed while it was
+     * closed discards its on-disk state and is rebuilt from the checkpoint when re-opened.
+     */
+    @Property(tries = NUM_OF_TRIES)
+    void durableResumePastTrim(@ForAll @Size(SAMPLE_SIZE) Set<String> intended) throws Exception {
+        resetTests();
+        final Path dataPath = Paths.get("/tmp/", "durableDiskBackedMapTrimmed");
+        FileUtils.deleteDirectory(dataPath.toFile());
+        final String missedKey = "missed";
+        final String removedKey = intended.iterator().next();
+        long version;
+
+        try (final CorfuTable<String, String> table = openDurableTable(dataPath)) {
+            intended.forEach(value -> table.put(value, value));
+            version = getVersion(table);
+        }
+
+        // Update the stream, checkpoint it and trim the log past the durable version.
+        final CorfuTable<String, String> writer = getDefaultRuntime().getObjectsView().build()
+                .setTypeToken(new TypeToken<CorfuTable<String, String>>() {})
+                .setStreamName("durableDiskBackedMap")
+                .option(ObjectOpenOption.NO_CACHE)
+                .open();
+        writer.insert(missedKey, missedKey);
+        writer.delete(removedKey);
+
+        MultiCheckpointWriter<CorfuTable<String, String>> mcw = new MultiCheckpointWriter<>();
+        mcw.addMap(writer);
+        Token trimMark = mcw.appendCheckpoints(getDefaultRuntime(), "author");
+        getDefaultRuntime().getAddressSpaceView().prefixTrim(trimMark);
+        getDefaultRuntime().getAddressSpaceView().gc();
+        getDefaultRuntime().getAddressSpaceView().invalidateServerCaches();
+        getDefaultRuntime().getAddressSpaceView().invalidateClientCache();
+        assertThat(trimMark.getSequence()).isGreaterThan(version);
+
+        try (final CorfuTable<String, String> table = openDurableTable(dataPath)) {
+            // The state is resumed on open, but can not be synced past the trim mark.
+            Assertions.assertEquals(version, getVersion(table));
+            Assertions.assertEquals(intended.size(), table.size());
+            Assertions.assertTrue(getVersion(table) > version);
+            Assertions.assertEquals(missedKey, table.get(missedKey));
+            Assertions.assertNull(table.get(removedKey));
+            intended.stream()
+                    .filter(value -> !value.equals(removedKey))
+                    .forEach(value -> Assertions.assertEquals(value, table.get(value)));
+        }
+    }
+
     /**
      * A custom generator for a set of {@link Uuid}.
      */
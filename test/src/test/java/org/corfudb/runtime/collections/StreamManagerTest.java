@@ -0,0 +1,255 @@
+package org.corfudb.runtime.collections;
+
+import org.corfudb.protocols.wireprotocol.Token;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.exceptions.TrimmedException;
+import org.corfudb.runtime.view.AbstractViewTest;
+import org.corfudb.test.SampleSchema.Uuid;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the fan-out of the transaction stream by the shared reader of the {@link StreamManager}.
+ */
+public class StreamManagerTest extends AbstractViewTest {
+
+    private static final String NAMESPACE = "test";
+    private static final String TABLE_1 = "t1";
+    private static final String TABLE_2 = "t2";
+    private static final int MAX_SUBSCRIBERS = 4;
+    private static final int NUM_UPDATES = 10;
+
+    private CorfuStore store;
+    private Table<Uuid, Uuid, Uuid> table1;
+    private Table<Uuid, Uuid, Uuid> table2;
+
+    /**
+     * A listener which records the keys it is notified of, optionally blocking on a gate first.
+     */
+    private static class RecordingListener implements StreamListener {
+
+        private final String name;
+
+        private final CountDownLatch gate;
+
+        private final List<Long> keys = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        RecordingListener(String name, CountDownLatch gate) {
+            this.name = name;
+            this.gate = gate;
+        }
+
+        RecordingListener(String name) {
+            this(name, new CountDownLatch(0));
+        }
+
+        @Override
+        public void onNext(CorfuStreamEntries results) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            results.getEntries().values().forEach(entries -> entries.forEach(entry ->
+                    keys.add(((Uuid) entry.getKey()).getMsb())));
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+        }
+
+        List<Long> getKeys() {
+            synchronized (keys) {
+                return new ArrayList<>(keys);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private StreamManager setUp(int subscriberQueueSize) {
+        CorfuRuntime runtime = getDefaultRuntime();
+        runtime.setTransactionLogging(true);
+        store = new CorfuStore(runtime);
+        table1 = store.openTable(NAMESPACE, TABLE_1, Uuid.class, Uuid.class, Uuid.class,
+                TableOptions.builder().build());
+        table2 = store.openTable(NAMESPACE, TABLE_2, Uuid.class, Uuid.class, Uuid.class,
+                TableOptions.builder().build());
+        return new StreamManager(runtime, MAX_SUBSCRIBERS, subscriberQueueSize);
+    }
+
+    private void subscribe(StreamManager streamManager, StreamListener listener,
+                           List<String> tables, long startAddress) {
+        List<TableSchema<Uuid, Uuid, Uuid>> schemas = tables.stream()
+                .map(table -> new TableSchema<>(table, Uuid.class, Uuid.class, Uuid.class))
+                .collect(Collectors.toList());
+        streamManager.subscribe(listener, NAMESPACE, schemas, startAddress);
+    }
+
+    private void put(Table<Uuid, Uuid, Uuid> table, long key) {
+        Uuid uuid = Uuid.newBuilder().setMsb(key).setLsb(key).build();
+        TxnContext tx = store.txn(NAMESPACE);
+        tx.putRecord(table, uuid, uuid, uuid);
+        tx.commit();
+    }
+
+    private long tail() {
+        return store.getTimestamp().getSequence();
+    }
+
+    private static List<Long> keys(long from, long to) {
+        return LongStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private void waitFor(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + PARAMETERS.TIMEOUT_NORMAL.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(PARAMETERS.TIMEOUT_VERY_SHORT.toMillis());
+        }
+    }
+
+    /**
+     * Each subscriber is notified of the updates of its tables only, in order.
+     */
+    @Test
+    public void testFanOut() throws Exception {
+        StreamManager streamManager = setUp(NUM_UPDATES);
+        final long start = tail();
+
+        RecordingListener listener1 = new RecordingListener("listener1");
+        RecordingListener listener2 = new RecordingListener("listener2");
+        RecordingListener listenerBoth = new RecordingListener("listenerBoth");
+        subscribe(streamManager, listener1, Collections.singletonList(TABLE_1), start);
+        subscribe(streamManager, listener2, Collections.singletonList(TABLE_2), start);
+        subscribe(streamManager, listenerBoth, Arrays.asList(TABLE_1, TABLE_2), start);
+
+        for (long key = 0; key < NUM_UPDATES; key++) {
+            put(key % 2 == 0 ? table1 : table2, key);
+        }
+
+        waitFor(() -> listenerBoth.getKeys().size() == NUM_UPDATES);
+        waitFor(() -> listener1.getKeys().size() + listener2.getKeys().size() == NUM_UPDATES);
+        assertThat(listenerBoth.getKeys()).containsExactlyElementsOf(keys(0, NUM_UPDATES));
+        assertThat(listener1.getKeys()).allMatch(key -> key % 2 == 0).isSorted();
+        assertThat(listener2.getKeys()).allMatch(key -> key % 2 == 1).isSorted();
+        streamManager.shutdown();
+    }
+
+    /**
+     * A subscriber starting behind the reader catches up on the updates it missed, and one starting
+     * ahead of it skips the updates before its start address.
+     */
+    @Test
+    public void testLateJoinAndSkip() throws Exception {
+        StreamManager streamManager = setUp(NUM_UPDATES);
+        final long start = tail();
+
+        RecordingListener first = new RecordingListener("first");
+        subscribe(streamManager, first, Collections.singletonList(TABLE_1), start);
+        for (long key = 0; key < NUM_UPDATES; key++) {
+            put(table1, key);
+        }
+        waitFor(() -> first.getKeys().size() == NUM_UPDATES);
+
+        RecordingListener behind = new RecordingListener("behind");
+        RecordingListener ahead = new RecordingListener("ahead");
+        subscribe(streamManager, behind, Collections.singletonList(TABLE_1), start);
+        subscribe(streamManager, ahead, Collections.singletonList(TABLE_1), tail());
+        put(table1, NUM_UPDATES);
+
+        waitFor(() -> behind.getKeys().size() == NUM_UPDATES + 1);
+        waitFor(() -> first.getKeys().size() == NUM_UPDATES + 1);
+        waitFor(() -> ahead.getKeys().size() == 1);
+        assertThat(first.getKeys()).containsExactlyElementsOf(keys(0, NUM_UPDATES + 1));
+        assertThat(behind.getKeys()).containsExactlyElementsOf(keys(0, NUM_UPDATES + 1));
+        assertThat(ahead.getKeys()).containsExactly((long) NUM_UPDATES);
+        streamManager.shutdown();
+    }
+
+    /**
+     * A subscriber whose queue is full does not hold back the other subscribers,
+     * and is notified of every update once it resumes.
+     */
+    @Test
+    public void testSlowSubscriberIsParked() throws Exception {
+        StreamManager streamManager = setUp(1);
+        final long start = tail();
+
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingListener slow = new RecordingListener("slow", gate);
+        RecordingListener fast = new RecordingListener("fast");
+        subscribe(streamManager, slow, Collections.singletonList(TABLE_1), start);
+        subscribe(streamManager, fast, Collections.singletonList(TABLE_1), start);
+
+        for (long key = 0; key < NUM_UPDATES; key++) {
+            put(table1, key);
+        }
+
+        waitFor(() -> fast.getKeys().size() == NUM_UPDATES);
+        assertThat(slow.getKeys()).isEmpty();
+
+        gate.countDown();
+        waitFor(() -> slow.getKeys().size() == NUM_UPDATES);
+        assertThat(slow.getKeys()).containsExactlyElementsOf(keys(0, NUM_UPDATES));
+
+        // Once caught up, the slow subscriber is fed by the reader again.
+        put(table1, NUM_UPDATES);
+        waitFor(() -> slow.getKeys().size() == NUM_UPDATES + 1);
+        waitFor(() -> fast.getKeys().size() == NUM_UPDATES + 1);
+        streamManager.shutdown();
+    }
+
+    /**
+     * An error reading the transaction stream only reaches the subscribers which can not read past it.
+     */
+    @Test
+    public void testErrorOnlyReachesAffectedSubscribers() throws Exception {
+        StreamManager streamManager = setUp(NUM_UPDATES);
+        final long start = tail();
+
+        RecordingListener healthy = new RecordingListener("healthy");
+        subscribe(streamManager, healthy, Collections.singletonList(TABLE_1), start);
+        for (long key = 0; key < NUM_UPDATES; key++) {
+            put(table1, key);
+        }
+        waitFor(() -> healthy.getKeys().size() == NUM_UPDATES);
+
+        // Trim the updates, so that a subscriber starting before them fails to read them.
+        CorfuRuntime runtime = getDefaultRuntime();
+        runtime.getAddressSpaceView().prefixTrim(
+                new Token(runtime.getLayoutView().getLayout().getEpoch(), tail()));
+        runtime.getAddressSpaceView().gc();
+        runtime.getAddressSpaceView().invalidateServerCaches();
+        runtime.getAddressSpaceView().invalidateClientCache();
+
+        RecordingListener trimmed = new RecordingListener("trimmed");
+        subscribe(streamManager, trimmed, Collections.singletonList(TABLE_1), start);
+        waitFor(() -> trimmed.error.get() != null);
+        assertThat(trimmed.error.get()).isInstanceOf(TrimmedException.class);
+        assertThat(streamManager.getSubscriptions()).doesNotContainKey(trimmed);
+
+        put(table1, NUM_UPDATES);
+        waitFor(() -> healthy.getKeys().size() == NUM_UPDATES + 1);
+        assertThat(healthy.error.get()).isNull();
+        streamManager.shutdown();
+    }
+}
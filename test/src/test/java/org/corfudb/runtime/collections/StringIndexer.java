@@ -55,4 +55,26 @@ public class StringIndexer implements Index.Registry<String, String> {
             return Stream.of(FAILING_INDEX, FAILING_INDEX).iterator();
         }
     }
+
+    public static class OrderedIndex implements Index.Registry<String, String> {
+        public static final Index.Name BY_VALUE_ORDERED = () -> "BY_VALUE_ORDERED";
+
+        private static final Index.Spec<String, String, ? extends Comparable<?>> BY_VALUE_ORDERED_INDEX =
+                new Index.Spec<>(
+                        BY_VALUE_ORDERED,
+                        (Index.Function<String, String, String>) (key, val) -> val,
+                        Index.Type.ORDERED);
+
+        @Override
+        public Iterator<Index.Spec<String, String, ? extends Comparable<?>>> iterator() {
+            return Stream.of(BY_VALUE_ORDERED_INDEX).iterator();
+        }
+
+        @Override
+        public Optional<Index.Spec<String, String, ? extends Comparable<?>>> get(Index.Name name) {
+            String indexName = (name != null) ? name.get() : null;
+            return BY_VALUE_ORDERED.get().equals(indexName)
+                    ? Optional.of(BY_VALUE_ORDERED_INDEX) : Optional.empty();
+        }
+    }
 }
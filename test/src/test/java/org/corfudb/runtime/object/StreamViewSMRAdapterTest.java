@@ -0,0 +1,122 @@
+package org.corfudb.runtime.object;
+
+import org.corfudb.protocols.logprotocol.SMREntry;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.corfudb.runtime.view.Address;
+import org.corfudb.runtime.view.stream.IStreamView;
+import org.corfudb.util.serializer.Serializers;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the decode-ahead streaming of the {@link StreamViewSMRAdapter}.
+ */
+public class StreamViewSMRAdapterTest {
+
+    private static final int DECODE_AHEAD = 4;
+    private static final int NUM_ENTRIES = 20;
+
+    private final CorfuRuntime runtime = mock(CorfuRuntime.class);
+
+    private final IStreamView streamView = mock(IStreamView.class);
+
+    private final List<SMREntry> updates = new ArrayList<>();
+
+    /**
+     * Set up a stream view of NUM_ENTRIES entries, the entry at failAt (if any) failing to decode.
+     */
+    private StreamViewSMRAdapter setUp(int decodeAhead, int failAt) {
+        when(runtime.getParameters()).thenReturn(CorfuRuntimeParameters.builder()
+                .streamDecodeAhead(decodeAhead)
+                .build());
+        when(streamView.getId()).thenReturn(UUID.randomUUID());
+
+        Deque<ILogData> entries = new ArrayDeque<>();
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            SMREntry update = new SMREntry("put", new Object[]{i}, Serializers.PRIMITIVE);
+            updates.add(update);
+
+            ILogData logData = mock(ILogData.class);
+            when(logData.getType()).thenReturn(DataType.DATA);
+            when(logData.getGlobalAddress()).thenReturn((long) i);
+            if (i == failAt) {
+                when(logData.getPayload(runtime)).thenThrow(new IllegalStateException("corrupt entry"));
+            } else {
+                when(logData.getPayload(runtime)).thenReturn(update);
+            }
+            entries.add(logData);
+        }
+        when(streamView.nextUpTo(anyLong())).thenAnswer(invocation -> entries.pollFirst());
+
+        return new StreamViewSMRAdapter(runtime, streamView);
+    }
+
+    private StreamViewSMRAdapter setUp(int decodeAhead) {
+        return setUp(decodeAhead, -1);
+    }
+
+    @Test
+    public void testEntriesAreStreamedInOrder() {
+        StreamViewSMRAdapter adapter = setUp(DECODE_AHEAD);
+        assertThat(adapter.streamUpTo(Address.MAX).collect(Collectors.toList()))
+                .containsExactlyElementsOf(updates);
+    }
+
+    @Test
+    public void testWithoutDecodeAhead() {
+        StreamViewSMRAdapter adapter = setUp(1);
+        assertThat(adapter.streamUpTo(Address.MAX).collect(Collectors.toList()))
+                .containsExactlyElementsOf(updates);
+    }
+
+    @Test
+    public void testExhaustedStream() {
+        StreamViewSMRAdapter adapter = setUp(DECODE_AHEAD);
+        assertThat(adapter.streamUpTo(Address.MAX).count()).isEqualTo(NUM_ENTRIES);
+        assertThat(adapter.streamUpTo(Address.MAX).count()).isZero();
+    }
+
+    /**
+     * A consumer stopping early gets the entries in order, and no more than the
+     * decode-ahead window is read past the entries it consumed.
+     */
+    @Test
+    public void testEarlyTermination() {
+        StreamViewSMRAdapter adapter = setUp(DECODE_AHEAD);
+        final int consumed = 3;
+        assertThat(adapter.streamUpTo(Address.MAX).limit(consumed).collect(Collectors.toList()))
+                .containsExactlyElementsOf(updates.subList(0, consumed));
+        verify(streamView, atMost(consumed + DECODE_AHEAD)).nextUpTo(anyLong());
+    }
+
+    /**
+     * A decoding failure is thrown to the consumer when it reaches the failed entry,
+     * after the entries before it were consumed.
+     */
+    @Test
+    public void testDecodeFailure() {
+        final int failAt = NUM_ENTRIES / 2;
+        StreamViewSMRAdapter adapter = setUp(DECODE_AHEAD, failAt);
+        List<SMREntry> consumed = new ArrayList<>();
+        assertThatThrownBy(() -> adapter.streamUpTo(Address.MAX).forEach(consumed::add))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(consumed).containsExactlyElementsOf(updates.subList(0, failAt));
+    }
+}
@@ -4,22 +4,31 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 
-import com.google.common.cache.Cache;
+import com.codahale.metrics.Gauge;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.Range;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ResourceLeakDetector;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import java.util.UUID;
+import org.corfudb.comm.ChannelTuningOptions;
 import org.corfudb.common.compression.Codec;
 import org.corfudb.infrastructure.LogUnitServerAssertions;
 import org.corfudb.infrastructure.TestLayoutBuilder;
+import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.util.CorfuComponent;
 import org.corfudb.util.MetricsUtils;
 import org.junit.Test;
 
@@ -97,7 +106,138 @@ public class AddressSpaceViewTest extends AbstractViewTest {
             rt.getStreamsView().get(UUID.randomUUID()).append(payload);
         }
 
-        assertThat(rt.getAddressSpaceView().getReadCache().size()).isLessThan(maxCacheSize);
+        assertThat(rt.getAddressSpaceView().getReadCache().estimatedSize()).isLessThan(maxCacheSize);
+    }
+
+    @Test
+    public void cacheIsBoundedByWeight() {
+        setupNodes();
+        final long maxCacheWeight = 100_000;
+        final int payloadSize = 1000;
+        final int numEntries = 1000;
+
+        CorfuRuntime rt = CorfuRuntime.fromParameters(CorfuRuntime.CorfuRuntimeParameters
+                .builder()
+                .maxCacheWeight(maxCacheWeight)
+                .build())
+                .parseConfigurationString(getDefaultConfigurationString())
+                .connect();
+        Cache<Long, ILogData> cache = rt.getAddressSpaceView().getReadCache();
+
+        // An entry weighs at least its payload
+        cache.put(0L, new LogData(DataType.DATA, new byte[payloadSize]));
+        assertThat(cache.policy().eviction().get().weightedSize().getAsLong())
+                .isGreaterThanOrEqualTo(payloadSize);
+
+        for (long address = 1; address < numEntries; address++) {
+            cache.put(address, new LogData(DataType.DATA, new byte[payloadSize]));
+        }
+        cache.cleanUp();
+
+        // The cache is bounded by the weight of its entries, not by their number
+        assertThat(cache.policy().eviction().get().weightedSize().getAsLong())
+                .isLessThanOrEqualTo(maxCacheWeight);
+        assertThat(cache.estimatedSize()).isLessThanOrEqualTo(maxCacheWeight / payloadSize);
+        assertThat(cache.stats().evictionCount()).isGreaterThan(0);
+        rt.shutdown();
+    }
+
+    /**
+     * Check that a one-off scan of many more entries than the cache holds does not
+     * evict a working set which is read repeatedly.
+     */
+    @Test
+    public void scansDoNotEvictHotEntries() {
+        setupNodes();
+        final int maxCacheEntries = 100;
+        final int numHotEntries = 10;
+        final int numHotReads = 20;
+        final int numScanEntries = maxCacheEntries * 5;
+
+        CorfuRuntime rt = CorfuRuntime.fromParameters(CorfuRuntime.CorfuRuntimeParameters
+                .builder()
+                .maxCacheEntries(maxCacheEntries)
+                .build())
+                .parseConfigurationString(getDefaultConfigurationString())
+                .connect();
+
+        final long epoch = rt.getLayoutView().getLayout().getEpoch();
+        final long numWrites = maxCacheEntries + numHotEntries + numScanEntries;
+        for (long address = 0; address < numWrites; address++) {
+            rt.getAddressSpaceView().write(new Token(epoch, address), "payload".getBytes(),
+                    CacheOption.WRITE_AROUND);
+        }
+
+        // Fill the cache, then read the hot entries repeatedly
+        for (long address = 0; address < maxCacheEntries; address++) {
+            rt.getAddressSpaceView().read(address);
+        }
+        for (int read = 0; read < numHotReads; read++) {
+            for (long address = maxCacheEntries; address < maxCacheEntries + numHotEntries; address++) {
+                rt.getAddressSpaceView().read(address);
+            }
+        }
+
+        // Scan the rest of the log once
+        for (long address = maxCacheEntries + numHotEntries; address < numWrites; address++) {
+            rt.getAddressSpaceView().read(address);
+        }
+
+        Cache<Long, ILogData> cache = rt.getAddressSpaceView().getReadCache();
+        cache.cleanUp();
+        assertThat(cache.estimatedSize()).isLessThanOrEqualTo(maxCacheEntries);
+        for (long address = maxCacheEntries; address < maxCacheEntries + numHotEntries; address++) {
+            assertThat(cache.getIfPresent(address)).isNotNull();
+        }
+        rt.shutdown();
+    }
+
+    private static Object getCacheGauge(CorfuRuntime rt, String name) {
+        final String pfx = String.format("%s0x%x.cache.", CorfuComponent.ADDRESS_SPACE_VIEW.toString(),
+                rt.getAddressSpaceView().hashCode());
+        Gauge<?> gauge = CorfuRuntime.getDefaultMetrics().getGauges().get(pfx + name);
+        assertThat(gauge).isNotNull();
+        return gauge.getValue();
+    }
+
+    @Test
+    public void cacheHitRatesArePerReadPath() {
+        setupNodes();
+        CorfuRuntime rt = getRuntime().connect();
+
+        final long epoch = rt.getLayoutView().getLayout().getEpoch();
+        final long numWrites = 4;
+        for (long address = 0; address < numWrites; address++) {
+            rt.getAddressSpaceView().write(new Token(epoch, address), "payload".getBytes(),
+                    CacheOption.WRITE_AROUND);
+        }
+
+        // Without any reads, nothing was missed
+        assertThat(getCacheGauge(rt, "address.hit-rate")).isEqualTo(1.0);
+        assertThat(getCacheGauge(rt, "stream.hit-rate")).isEqualTo(1.0);
+        assertThat(getCacheGauge(rt, "batch.hit-rate")).isEqualTo(1.0);
+
+        // A single address read misses, then hits
+        rt.getAddressSpaceView().read(0L);
+        rt.getAddressSpaceView().read(0L);
+        assertThat(getCacheGauge(rt, "address.hit-rate")).isEqualTo(0.5);
+
+        // A batch read hits the cached address and misses the other
+        rt.getAddressSpaceView().read(Arrays.asList(0L, 1L));
+        assertThat(getCacheGauge(rt, "batch.hit-rate")).isEqualTo(0.5);
+
+        // A stream read misses, and reads ahead with a batch read of both addresses,
+        // then hits the cached address
+        ReadOptions options = ReadOptions.builder().build();
+        rt.getAddressSpaceView().read(2L, new TreeSet<>(Collections.singleton(3L)), options);
+        rt.getAddressSpaceView().read(2L, new TreeSet<>(Collections.singleton(3L)), options);
+        assertThat(getCacheGauge(rt, "stream.hit-rate")).isEqualTo(0.5);
+        assertThat(getCacheGauge(rt, "batch.hit-rate")).isEqualTo(0.25);
+
+        // The global gauges report the statistics of the whole read cache
+        assertThat(getCacheGauge(rt, "cache-size")).isEqualTo(numWrites);
+        assertThat(getCacheGauge(rt, "hits"))
+                .isEqualTo(rt.getAddressSpaceView().getReadCache().stats().hitCount());
     }
 
     @Test
@@ -141,6 +281,99 @@ public class AddressSpaceViewTest extends AbstractViewTest {
                 .isEmptyAtAddress(0);
     }
 
+    @Test
+    public void testOffHeapCache() {
+        setupNodes();
+
+        final long oneMb = 1_000_000;
+        CorfuRuntime.CorfuRuntimeParameters params = CorfuRuntime.CorfuRuntimeParameters
+                .builder()
+                .offHeapCacheSize(oneMb)
+                .build();
+
+        CorfuRuntime rt = CorfuRuntime.fromParameters(params)
+                .parseConfigurationString(getDefaultConfigurationString())
+                .connect();
+
+        final long epoch = rt.getLayoutView().getLayout().getEpoch();
+        rt.getAddressSpaceView().write(new Token(epoch, 0), "payload".getBytes(),
+                CacheOption.WRITE_AROUND);
+
+        // The first read misses both caches, and is cached in both
+        assertThat(rt.getAddressSpaceView().read(0L).getPayload(rt))
+                .isEqualTo("payload".getBytes());
+        OffHeapLogDataCache offHeapCache = rt.getAddressSpaceView().getOffHeapCache();
+        assertThat(offHeapCache.size()).isEqualTo(1);
+
+        // Once evicted from the read cache, the entry is promoted from the off-heap cache
+        rt.getAddressSpaceView().getReadCache().invalidateAll();
+        assertThat(rt.getAddressSpaceView().read(0L).getPayload(rt))
+                .isEqualTo("payload".getBytes());
+        assertThat(offHeapCache.hitRate()).isGreaterThan(0.0);
+
+        rt.getAddressSpaceView().invalidateClientCache();
+        assertThat(offHeapCache.size()).isZero();
+        rt.shutdown();
+    }
+
+    @Test
+    public void testSharedOffHeapCache() {
+        setupNodes();
+
+        final long oneMb = 1_000_000;
+        OffHeapLogDataCache sharedCache = new OffHeapLogDataCache(oneMb);
+        CorfuRuntime.CorfuRuntimeParameters params = CorfuRuntime.CorfuRuntimeParameters
+                .builder()
+                .sharedReadCache(sharedCache)
+                .build();
+
+        CorfuRuntime scanner = CorfuRuntime.fromParameters(params)
+                .parseConfigurationString(getDefaultConfigurationString())
+                .connect();
+        CorfuRuntime reader = CorfuRuntime.fromParameters(params)
+                .parseConfigurationString(getDefaultConfigurationString())
+                .connect();
+        assertThat(scanner.getAddressSpaceView().getOffHeapCache()).isSameAs(sharedCache);
+        assertThat(reader.getAddressSpaceView().getOffHeapCache()).isSameAs(sharedCache);
+
+        // A runtime with its cache disabled does not use the shared cache
+        CorfuRuntime uncached = CorfuRuntime.fromParameters(CorfuRuntime.CorfuRuntimeParameters
+                .builder()
+                .cacheDisabled(true)
+                .sharedReadCache(sharedCache)
+                .build())
+                .parseConfigurationString(getDefaultConfigurationString())
+                .connect();
+        assertThat(uncached.getAddressSpaceView().getOffHeapCache()).isNull();
+        uncached.shutdown();
+
+        final long epoch = scanner.getLayoutView().getLayout().getEpoch();
+        scanner.getAddressSpaceView().write(new Token(epoch, 0), "payload".getBytes(),
+                CacheOption.WRITE_AROUND);
+
+        // A scan read is not cached in the read cache, but warms the shared cache
+        ReadOptions scanOptions = ReadOptions.builder()
+                .clientCacheable(false)
+                .scanCacheable(true)
+                .build();
+        assertThat(scanner.getAddressSpaceView().read(0L, scanOptions).getPayload(scanner))
+                .isEqualTo("payload".getBytes());
+        assertThat(scanner.getAddressSpaceView().getReadCache().getIfPresent(0L)).isNull();
+        assertThat(sharedCache.size()).isEqualTo(1);
+
+        // Another runtime reads the entry from the shared cache
+        assertThat(reader.getAddressSpaceView().read(0L).getPayload(reader))
+                .isEqualTo("payload".getBytes());
+        assertThat(sharedCache.hitRate()).isGreaterThan(0.0);
+
+        // The shared cache outlives the runtimes it is shared by
+        scanner.shutdown();
+        reader.shutdown();
+        assertThat(sharedCache.size()).isEqualTo(1);
+        sharedCache.invalidateAll();
+        assertThat(sharedCache.size()).isZero();
+    }
+
     @Test
     public void testUncachedWrites() {
         setupNodes();
@@ -310,4 +543,58 @@ public class AddressSpaceViewTest extends AbstractViewTest {
         readResult.forEach((addr, data) ->
                 assertThat(data.getPayload(rt)).isEqualTo((testString + addr).getBytes()));
     }
-}
\ No newline at end of file
+
+    /**
+     * Entries decoded without copying retain a slice of their inbound frame. Check that the
+     * read cache releases these slices on eviction, so that the leak detector does not
+     * report the frames of evicted entries.
+     */
+    @Test
+    public void evictedPayloadBuffersAreReleased() {
+        final ResourceLeakDetector.Level leakDetectionLevel = ResourceLeakDetector.getLevel();
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+        try {
+            setupNodes();
+            final int maxCacheEntries = 10;
+            final int numEntries = maxCacheEntries * 10;
+            final byte[] payload = "zero-copy payload".getBytes();
+
+            CorfuRuntime rt = CorfuRuntime.fromParameters(CorfuRuntime.CorfuRuntimeParameters
+                    .builder()
+                    .maxCacheEntries(maxCacheEntries)
+                    .build())
+                    .parseConfigurationString(getDefaultConfigurationString())
+                    .connect();
+            Cache<Long, ILogData> cache = rt.getAddressSpaceView().getReadCache();
+
+            List<ByteBuf> frames = new ArrayList<>();
+            List<ILogData> entries = new ArrayList<>();
+            for (long address = 0; address < numEntries; address++) {
+                ByteBuf frame = ChannelTuningOptions.Allocator.UNPOOLED_HEAP.getAllocator().buffer();
+                new LogData(DataType.DATA, payload).doSerialize(frame);
+                LogData ld = LogData.decodeRetainingPayloads(() -> new LogData(frame));
+                // Released by the decoder, the entry holds the last reference
+                frame.release();
+                frames.add(frame);
+                entries.add(ld);
+                cache.put(address, ld);
+            }
+            cache.cleanUp();
+
+            // Evicted entries released their frames, cached entries still hold them
+            assertThat(cache.estimatedSize()).isLessThanOrEqualTo(maxCacheEntries);
+            for (int address = 0; address < numEntries; address++) {
+                final boolean cached = cache.getIfPresent((long) address) != null;
+                assertThat(frames.get(address).refCnt()).isEqualTo(cached ? 1 : 0);
+            }
+
+            cache.invalidateAll();
+            assertThat(frames).allMatch(frame -> frame.refCnt() == 0);
+
+            // The payload of an evicted entry can still be deserialized
+            assertThat(entries.get(0).getPayload(rt)).isEqualTo(payload);
+        } finally {
+            ResourceLeakDetector.setLevel(leakDetectionLevel);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.corfudb.runtime.view;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test the scan segment and the buffer reference counts of the off-heap cache.
+ */
+public class OffHeapLogDataCacheTest {
+
+    private static final int NUM_ENTRIES = 10;
+    private static final int NUM_SCAN_ENTRIES = 1000;
+    private static final int NUM_READERS = 4;
+    private static final int NUM_READS = 100;
+
+    private static LogData logData(long address) {
+        LogData ld = new LogData(DataType.DATA, Unpooled.wrappedBuffer(("payload" + address).getBytes()));
+        ld.setGlobalAddress(address);
+        return ld;
+    }
+
+    /**
+     * The size of an entry in the cache, which is weighed by its serialized size.
+     */
+    private static long entrySize() {
+        ByteBuf buf = Unpooled.buffer();
+        logData(NUM_SCAN_ENTRIES).doSerialize(buf);
+        return buf.readableBytes();
+    }
+
+    private static void assertCached(OffHeapLogDataCache cache, long address) {
+        ILogData ld = cache.get(address);
+        assertThat(ld).isNotNull();
+        assertThat(ld.getGlobalAddress()).isEqualTo(address);
+        assertThat(ld.getSizeEstimate()).isEqualTo(("payload" + address).getBytes().length);
+    }
+
+    @Test
+    public void scanEntriesArePromotedOnRead() {
+        OffHeapLogDataCache cache = new OffHeapLogDataCache(NUM_ENTRIES * entrySize());
+
+        cache.putScan(0L, logData(0L));
+        assertThat(cache.size()).isEqualTo(1);
+        ByteBuf scanned = cache.peek(0L);
+        assertThat(scanned.refCnt()).isEqualTo(1);
+
+        // Promoted to the main segment by the read, with a single reference held by the cache
+        assertCached(cache, 0L);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.peek(0L)).isSameAs(scanned);
+        assertThat(scanned.refCnt()).isEqualTo(1);
+
+        // Entries are not cached twice, nor replaced
+        cache.put(0L, logData(0L));
+        cache.putScan(0L, logData(0L));
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.peek(0L)).isSameAs(scanned);
+
+        // Only data and holes are cached
+        cache.put(1L, LogData.getTrimmed(1L));
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.hitRate()).isEqualTo(0.5);
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+        assertThat(scanned.refCnt()).isZero();
+    }
+
+    @Test
+    public void scansDoNotEvictMainEntries() {
+        OffHeapLogDataCache cache = new OffHeapLogDataCache(4 * NUM_ENTRIES * entrySize());
+
+        List<ByteBuf> mainBuffers = new ArrayList<>();
+        for (long address = 0; address < NUM_ENTRIES; address++) {
+            cache.put(address, logData(address));
+            mainBuffers.add(cache.peek(address));
+        }
+
+        // A scan much larger than the cache only evicts from the scan segment
+        Map<Long, ByteBuf> scanBuffers = new HashMap<>();
+        for (long address = NUM_ENTRIES; address < NUM_ENTRIES + NUM_SCAN_ENTRIES; address++) {
+            cache.putScan(address, logData(address));
+            ByteBuf buf = cache.peek(address);
+            if (buf != null) {
+                scanBuffers.put(address, buf);
+            }
+        }
+
+        for (long address = 0; address < NUM_ENTRIES; address++) {
+            assertCached(cache, address);
+        }
+        assertThat(cache.size()).isLessThan(NUM_ENTRIES + NUM_SCAN_ENTRIES);
+        // The buffers of the evicted scan entries are released
+        scanBuffers.forEach((address, buf) ->
+                assertThat(buf.refCnt()).isEqualTo(cache.peek(address) == null ? 0 : 1));
+
+        // Entries below the trim mark are removed from both segments
+        cache.gc(NUM_ENTRIES);
+        assertThat(mainBuffers).allMatch(buf -> buf.refCnt() == 0);
+        assertThat(cache.get(0L)).isNull();
+    }
+
+    @Test
+    public void concurrentReadsKeepReferenceCounts() throws Exception {
+        OffHeapLogDataCache cache = new OffHeapLogDataCache(4 * NUM_SCAN_ENTRIES * entrySize());
+        List<ByteBuf> buffers = new ArrayList<>();
+        for (long address = 0; address < NUM_ENTRIES; address++) {
+            cache.putScan(address, logData(address));
+            buffers.add(cache.peek(address));
+        }
+
+        // Readers race to promote the same scan entries, and to read them from the main segment
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < NUM_READERS; i++) {
+            readers.add(executor.submit(() -> {
+                start.await();
+                for (int read = 0; read < NUM_READS; read++) {
+                    for (long address = 0; address < NUM_ENTRIES; address++) {
+                        assertCached(cache, address);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> reader : readers) {
+            reader.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Each entry is promoted once, and its buffer is only referenced by the cache
+        assertThat(cache.size()).isEqualTo(NUM_ENTRIES);
+        for (long address = 0; address < NUM_ENTRIES; address++) {
+            assertThat(cache.peek(address)).isSameAs(buffers.get((int) address));
+        }
+        assertThat(buffers).allMatch(buf -> buf.refCnt() == 1);
+
+        cache.invalidateAll();
+        assertThat(buffers).allMatch(buf -> buf.refCnt() == 0);
+    }
+}
@@ -94,7 +94,7 @@ public class StreamViewTest extends AbstractViewTest {
         nonCacheableStream.remaining();
 
         // After syncing to the tail verify that the cache only contains stream entries from the cached stream
-        assertThat(consumer.getAddressSpaceView().getReadCache().size()).isEqualTo(numWrites);
+        assertThat(consumer.getAddressSpaceView().getReadCache().estimatedSize()).isEqualTo(numWrites);
 
         for (ILogData ld : consumer.getAddressSpaceView().getReadCache().asMap().values()) {
             assertThat(ld.hasBackpointer(id1)).isTrue();
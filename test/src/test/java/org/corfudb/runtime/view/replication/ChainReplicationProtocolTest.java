@@ -15,7 +15,11 @@ import org.corfudb.runtime.view.Layout;
 import org.corfudb.runtime.view.RuntimeLayout;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -93,6 +97,47 @@ public class ChainReplicationProtocolTest extends AbstractReplicationProtocolTes
     }
 
 
+    /**
+     * Check that asynchronous writes of many addresses are
+     * all committed, and that an overwritten asynchronous write
+     * fails only after the other client's write was recovered.
+     */
+    @Test
+    public void asyncWritesArePipelined() throws Exception {
+        setupNodes();
+        //begin tests
+        final CorfuRuntime r = getDefaultRuntime();
+        final IReplicationProtocol rp = getProtocol();
+        final RuntimeLayout runtimeLayout = r.getLayoutView().getRuntimeLayout();
+
+        final long numWrites = 20L;
+        byte[] testPayload = "pipelined".getBytes();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (long addr = 0L; addr < numWrites; addr++) {
+            futures.add(rp.writeAsync(runtimeLayout, getLogData(addr, testPayload)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        for (long addr = 0L; addr < numWrites; addr++) {
+            ILogData tailRead = runtimeLayout.getLogUnitClient(SERVERS.ENDPOINT_2)
+                    .read(addr).get().getAddresses().get(addr);
+            assertThat((byte[]) tailRead.getPayload(r)).isEqualTo(testPayload);
+        }
+
+        // Write the incomplete write to the head of the chain
+        LogData incompleteWrite = getLogData(numWrites, "incomplete".getBytes());
+        runtimeLayout.getLogUnitClient(SERVERS.ENDPOINT_0).write(incompleteWrite).get();
+
+        assertThatThrownBy(() -> rp.writeAsync(runtimeLayout,
+                getLogData(numWrites, "failed".getBytes())).join())
+                .hasCauseInstanceOf(OverwriteException.class);
+
+        // The recovery protocol has driven the other client's write down the chain.
+        ILogData readResult = runtimeLayout.getLogUnitClient(SERVERS.ENDPOINT_2)
+                .read(numWrites).get().getAddresses().get(numWrites);
+        assertThat(readResult.getPayload(r)).isEqualTo("incomplete".getBytes());
+    }
+
     /**
      * Check to see that a read correctly
      * completes a failed write from another client.
@@ -250,4 +295,86 @@ public class ChainReplicationProtocolTest extends AbstractReplicationProtocolTes
         assertThatThrownBy(() -> rp.commitAll(runtimeLayout, Collections.singletonList(lastAddr - 1)))
                 .isInstanceOf(TrimmedException.class);
     }
+
+    /**
+     * Verify that committed addresses are read correctly when reads are spread
+     * across replicas, falling back to the chain tail if a replica misses the data.
+     */
+    @Test
+    public void canReadCommittedAddressesFromReplicas() throws Exception {
+        setupNodes();
+        final CorfuRuntime rt = getDefaultRuntime();
+        rt.getParameters().setReplicaReadsEnabled(true);
+        final RuntimeLayout runtimeLayout = rt.getLayoutView().getRuntimeLayout();
+        final IReplicationProtocol rp = getProtocol();
+
+        final long tailOnlyAddr = 5L;
+        final long lastAddr = 10L;
+        byte[] testPayload = "hello world".getBytes();
+
+        for (long addr = 0L; addr < lastAddr; addr++) {
+            LogData ld = getLogData(addr, testPayload);
+            if (addr == tailOnlyAddr) {
+                // Only the chain tail holds this address.
+                runtimeLayout.getLogUnitClient(SERVERS.ENDPOINT_2).write(ld).get();
+            } else {
+                rp.write(runtimeLayout, ld);
+            }
+        }
+
+        rt.getAddressSpaceView().commit(0L, lastAddr - 1);
+        assertThat(rt.getAddressSpaceView().getCommittedTailHint()).isEqualTo(lastAddr - 1);
+
+        for (long addr = 0L; addr < lastAddr; addr++) {
+            assertThat((byte[]) rp.peek(runtimeLayout, addr).getPayload(rt)).isEqualTo(testPayload);
+        }
+
+        Map<Long, ILogData> readResult = rp.readAll(runtimeLayout, ContiguousSet.create(
+                Range.closedOpen(0L, lastAddr), DiscreteDomain.longs()), false, false);
+        assertThat(readResult).hasSize((int) lastAddr);
+        readResult.values().forEach(ld ->
+                assertThat((byte[]) ld.getPayload(rt)).isEqualTo(testPayload));
+    }
+
+    /**
+     * Verify that hedged reads of committed addresses take the first non-empty answer,
+     * and that the read latencies of the replicas are tracked.
+     */
+    @Test
+    public void canHedgeReadsOfCommittedAddresses() throws Exception {
+        setupNodes();
+        final CorfuRuntime rt = getDefaultRuntime();
+        rt.getParameters().setReplicaReadsEnabled(true);
+        rt.getParameters().setHedgedReadsEnabled(true);
+        final RuntimeLayout runtimeLayout = rt.getLayoutView().getRuntimeLayout();
+        final IReplicationProtocol rp = getProtocol();
+
+        final long missingAddr = 5L;
+        final long lastAddr = 10L;
+        byte[] testPayload = "hello world".getBytes();
+
+        for (long addr = 0L; addr < lastAddr; addr++) {
+            LogData ld = getLogData(addr, testPayload);
+            if (addr == missingAddr) {
+                // The middle of the chain misses this address, so reads
+                // from it are empty and must be hedged.
+                runtimeLayout.getLogUnitClient(SERVERS.ENDPOINT_0).write(ld).get();
+                runtimeLayout.getLogUnitClient(SERVERS.ENDPOINT_2).write(ld).get();
+            } else {
+                rp.write(runtimeLayout, ld);
+            }
+        }
+
+        rt.getAddressSpaceView().commit(0L, missingAddr - 1);
+        rt.getAddressSpaceView().commit(missingAddr + 1, lastAddr - 1);
+
+        for (long addr = 0L; addr < lastAddr; addr++) {
+            assertThat((byte[]) rp.peek(runtimeLayout, addr).getPayload(rt)).isEqualTo(testPayload);
+        }
+
+        ReplicaLatencyTracker tracker = rt.getReplicaLatencyTracker();
+        assertThat(tracker.getMeanLatency(SERVERS.ENDPOINT_0)
+                + tracker.getMeanLatency(SERVERS.ENDPOINT_1)
+                + tracker.getMeanLatency(SERVERS.ENDPOINT_2)).isGreaterThan(0);
+    }
 }
@@ -0,0 +1,108 @@
+package org.corfudb.runtime.view.replication;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test the replica latency tracker and hedged reads.
+ */
+public class ReplicaLatencyTrackerTest {
+
+    private static final String FAST = "fast:9000";
+    private static final String SLOW = "slow:9000";
+    private static final String NEW = "new:9000";
+    private static final String FAILING = "failing:9000";
+
+    private static final int NUM_SAMPLES = 16;
+    private static final long SLOW_LATENCY_MS = 5;
+    private static final Duration MIN_DELAY = Duration.ofMillis(10);
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final Duration FAILURE_PENALTY = Duration.ofMillis(50);
+
+    private void recordSamples(ReplicaLatencyTracker tracker, String endpoint, long latencyMs)
+            throws Exception {
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            CompletableFuture<Void> future = tracker.track(endpoint, new CompletableFuture<>());
+            TimeUnit.MILLISECONDS.sleep(latencyMs);
+            future.complete(null);
+        }
+    }
+
+    @Test
+    public void serversAreSortedByLatency() throws Exception {
+        ReplicaLatencyTracker tracker = new ReplicaLatencyTracker();
+        recordSamples(tracker, SLOW, SLOW_LATENCY_MS);
+        recordSamples(tracker, FAST, 0);
+
+        assertThat(tracker.getMeanLatency(SLOW)).isGreaterThan(tracker.getMeanLatency(FAST));
+        // Servers never read from are tried first.
+        assertThat(tracker.sortByLatency(Arrays.asList(SLOW, FAST, NEW), endpoint -> endpoint))
+                .containsExactly(NEW, FAST, SLOW);
+        assertThat(tracker.getHedgeDelay(NEW, MIN_DELAY)).isEqualTo(MIN_DELAY);
+        assertThat(tracker.getHedgeDelay(SLOW, Duration.ZERO))
+                .isGreaterThanOrEqualTo(Duration.ofMillis(SLOW_LATENCY_MS));
+    }
+
+    @Test
+    public void slowReadIsHedged() throws Exception {
+        ReplicaLatencyTracker tracker = new ReplicaLatencyTracker();
+        Map<String, CompletableFuture<String>> reads = new HashMap<>();
+        reads.put(SLOW, new CompletableFuture<>());
+        reads.put(FAST, CompletableFuture.completedFuture(FAST));
+
+        CompletableFuture<String> result = tracker.hedgedRead(Arrays.asList(SLOW, FAST),
+                reads::get, value -> true, MIN_DELAY);
+        assertThat(result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isEqualTo(FAST);
+        assertThat(reads.get(SLOW)).isNotDone();
+    }
+
+    @Test
+    public void invalidReadIsHedgedImmediately() throws Exception {
+        ReplicaLatencyTracker tracker = new ReplicaLatencyTracker();
+        List<String> endpoints = Arrays.asList(FAST, SLOW);
+
+        // The first server has no valid answer, so the second one is read without delay.
+        CompletableFuture<String> result = tracker.hedgedRead(endpoints,
+                CompletableFuture::completedFuture, SLOW::equals, Duration.ofDays(1));
+        assertThat(result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isEqualTo(SLOW);
+
+        // Without any valid answer, the last answer is returned.
+        result = tracker.hedgedRead(endpoints,
+                CompletableFuture::completedFuture, value -> false, Duration.ofDays(1));
+        assertThat(result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isEqualTo(SLOW);
+    }
+
+    @Test
+    public void fastFailingServerIsNotSelected() throws Exception {
+        ReplicaLatencyTracker tracker = new ReplicaLatencyTracker(() -> FAILURE_PENALTY);
+        recordSamples(tracker, SLOW, SLOW_LATENCY_MS);
+        recordSamples(tracker, FAST, 0);
+
+        // Reads which fail immediately are recorded as taking the failure penalty.
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("connection refused"));
+            CompletableFuture<String> result = tracker.hedgedRead(Arrays.asList(FAILING, FAST),
+                    endpoint -> endpoint.equals(FAILING) ? failed : CompletableFuture.completedFuture(endpoint),
+                    value -> true, MIN_DELAY);
+            assertThat(result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isEqualTo(FAST);
+        }
+
+        // The failing server is picked neither by comparing mean latencies (replica reads)
+        // nor by ordering servers by latency (hedged and quorum reads).
+        assertThat(tracker.getMeanLatency(FAILING)).isGreaterThan(tracker.getMeanLatency(SLOW));
+        assertThat(tracker.getMeanLatency(FAILING))
+                .isGreaterThanOrEqualTo((double) FAILURE_PENALTY.toNanos() / 2);
+        assertThat(tracker.sortByLatency(Arrays.asList(FAILING, SLOW, FAST), endpoint -> endpoint))
+                .containsExactly(FAST, SLOW, FAILING);
+    }
+}